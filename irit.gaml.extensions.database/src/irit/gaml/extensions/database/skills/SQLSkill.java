@@ -19,6 +19,7 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 
 import msi.gama.database.sql.SqlConnection;
+import msi.gama.database.sql.SqlCursor;
 import msi.gama.database.sql.SqlUtils;
 import msi.gama.precompiler.GamlAnnotations.action;
 import msi.gama.precompiler.GamlAnnotations.arg;
@@ -27,6 +28,7 @@ import msi.gama.precompiler.GamlAnnotations.skill;
 import msi.gama.precompiler.IConcept;
 import msi.gama.runtime.IScope;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
+import msi.gama.util.GamaListFactory;
 import msi.gama.util.IList;
 import msi.gama.util.matrix.GamaObjectMatrix;
 import msi.gama.util.matrix.IMatrix;
@@ -59,6 +61,9 @@ import ummisco.gama.dev.utils.DEBUG;
 @doc ("This skill allows agents to be provided with actions and attributes in order to connect to SQL databases")
 public class SQLSkill extends Skill {
 
+	private static final int BATCH_SIZE = 1000;
+	private static final String CURSOR = "sql_cursor";
+
 	// Get current time of system
 	// added from MaeliaSkill
 	@action (
@@ -259,6 +264,53 @@ public class SQLSkill extends Skill {
 		// ------------------------------------------------------------------------------------------
 	}
 
+	/*
+	 * Make a connection to BDMS and insert a list of records with one prepared statement, executed by batches
+	 *
+	 * @syntax do insertAll params: params into: table_name columns: column_list values: list_of_value_lists;
+	 *
+	 * @return the number of inserted records
+	 */
+	@action (
+			name = "insertAll",
+			args = { @arg (
+					name = "params",
+					type = IType.MAP,
+					optional = false,
+					doc = @doc ("Connection parameters")),
+					@arg (
+							name = "into",
+							type = IType.STRING,
+							optional = false,
+							doc = @doc ("Table name")),
+					@arg (
+							name = "columns",
+							type = IType.LIST,
+							optional = true,
+							doc = @doc ("List of column name of table")),
+					@arg (
+							name = "values",
+							type = IType.LIST,
+							optional = false,
+							doc = @doc ("List of records, each record being the list of the values to insert into the columns")),
+					@arg (
+							name = "batchSize",
+							type = IType.INT,
+							optional = true,
+							doc = @doc ("Number of records sent to the database at once. Default is 1000")) },
+			doc = @doc (
+					value = "Inserts all the records of a list into a table, using one prepared statement sent by batches. Unless the statements of the step are grouped in a transaction (\"transaction\"::true in the parameters), all the records are inserted in one transaction.",
+					returns = "the number of inserted records"))
+	public int insertAll(final IScope scope) throws GamaRuntimeException {
+		final String table_name = (String) scope.getArg("into", IType.STRING);
+		final IList<Object> cols =
+				scope.hasArg("columns") ? (IList<Object>) scope.getArg("columns", IType.LIST) : GamaListFactory.create();
+		final IList<Object> rows = (IList<Object>) scope.getArg("values", IType.LIST);
+		final int batchSize = scope.hasArg("batchSize") ? Math.max(1, scope.getIntArg("batchSize")) : BATCH_SIZE;
+		final SqlConnection sqlConn = SqlUtils.createConnectionObject(scope);
+		return sqlConn.insertBatchDB(scope, table_name, cols, rows, batchSize);
+	}
+
 	/*
 	 * Make a connection to BDMS and execute the select statement
 	 *
@@ -331,6 +383,73 @@ public class SQLSkill extends Skill {
 
 	}
 
+	/*
+	 * Execute a select statement and keep its result open in a cursor, from which the records are read by chunks with
+	 * fetch. An agent has at most one open cursor: opening a new one closes the previous one.
+	 *
+	 * @syntax do openCursor params: params select: "select string with question marks" values: values fetchSize: 500;
+	 */
+	@action (
+			name = "openCursor",
+			args = { @arg (
+					name = "params",
+					type = IType.MAP,
+					optional = false,
+					doc = @doc ("Connection parameters")),
+					@arg (
+							name = "select",
+							type = IType.STRING,
+							optional = false,
+							doc = @doc ("select string with question marks")),
+					@arg (
+							name = "values",
+							type = IType.LIST,
+							optional = true,
+							doc = @doc ("List of values that are used to replace question marks")),
+					@arg (
+							name = "fetchSize",
+							type = IType.INT,
+							optional = true,
+							doc = @doc ("Number of records fetched from the database at once. Default is 1000")) },
+			doc = @doc ("Executes a select statement without loading its whole result: the records are then read by chunks with the fetch action"))
+	public void openCursor(final IScope scope) throws GamaRuntimeException {
+		final String selectComm = (String) scope.getArg("select", IType.STRING);
+		final IList<Object> values =
+				scope.hasArg("values") ? (IList<Object>) scope.getArg("values", IType.LIST) : GamaListFactory.create();
+		final int fetchSize = scope.hasArg("fetchSize") ? Math.max(1, scope.getIntArg("fetchSize")) : BATCH_SIZE;
+		closeCursor(scope);
+		final SqlConnection sqlConn = SqlUtils.createConnectionObject(scope);
+		scope.getAgent().setAttribute(CURSOR, sqlConn.openCursor(scope, selectComm, values, fetchSize));
+	}
+
+	@action (
+			name = "fetch",
+			args = { @arg (
+					name = "size",
+					type = IType.INT,
+					optional = true,
+					doc = @doc ("Maximal number of records to return. Default is 1000")) },
+			doc = @doc ("Returns the next records of the cursor opened by openCursor, in the same form as select ([column names, column types, records]). The list of records is empty when all the records have been read, and the cursor is then closed."))
+	public IList fetch(final IScope scope) throws GamaRuntimeException {
+		final Object cursor = scope.getAgent().getAttribute(CURSOR);
+		if (!(cursor instanceof SqlCursor)) {
+			throw GamaRuntimeException.error("SQLSkill.fetch: no cursor has been opened", scope);
+		}
+		final int size = scope.hasArg("size") ? Math.max(1, scope.getIntArg("size")) : BATCH_SIZE;
+		return ((SqlCursor) cursor).fetch(scope, size);
+	}
+
+	@action (
+			name = "closeCursor",
+			doc = @doc ("Closes the cursor opened by openCursor before all its records have been read"))
+	public void closeCursor(final IScope scope) throws GamaRuntimeException {
+		final Object cursor = scope.getAgent().getAttribute(CURSOR);
+		if (cursor instanceof SqlCursor) {
+			((SqlCursor) cursor).close();
+			scope.getAgent().setAttribute(CURSOR, null);
+		}
+	}
+
 	@action (
 			name = "list2Matrix",
 			args = { @arg (
@@ -143,6 +143,21 @@ class MSSQLConnection extends SqlConnection {
 
 	}
 
+	@Override
+	protected String getFirstRowQuery(final String table_name, final String colStr) {
+		return "SELECT TOP 1 " + colStr + " FROM " + table_name;
+	}
+
+	@Override
+	protected String getParameterMarker(final String columnType) {
+		if (columnType.equalsIgnoreCase(GEOMETRYTYPE)) { return WKT2GEO + "(?, " + SRID + ")"; }
+		if (columnType.equalsIgnoreCase(TIMESTAMP) || columnType.equalsIgnoreCase(DATETIME)
+				|| columnType.equalsIgnoreCase(DATE)) {
+			return "cast(? as " + columnType + ")";
+		}
+		return super.getParameterMarker(columnType);
+	}
+
 	@Override
 	protected String getInsertString(final IScope scope, final Connection conn, final String table_name,
 			final IList<Object> cols, final IList<Object> values) throws GamaRuntimeException {
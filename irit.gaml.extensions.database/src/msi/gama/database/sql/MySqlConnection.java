@@ -139,6 +139,30 @@ class MySqlConnection extends SqlConnection {
 
 	}
 
+	@Override
+	protected String getParameterMarker(final String columnType) {
+		if (columnType.equalsIgnoreCase(GEOMETRYTYPE)) { return WKT2GEO + "(?)"; }
+		if (columnType.equalsIgnoreCase(TIMESTAMP)) { return "TIMESTAMP(?)"; }
+		if (columnType.equalsIgnoreCase(YEAR)) { return "YEAR(?)"; }
+		if (columnType.equalsIgnoreCase(DATETIME) || columnType.equalsIgnoreCase(DATE)
+				|| columnType.equalsIgnoreCase(TIME)) {
+			return "cast(? as " + columnType + ")";
+		}
+		return super.getParameterMarker(columnType);
+	}
+
+	@Override
+	protected Object readGeometry(final ResultSet rs, final int column) throws Exception {
+		return SqlUtils.InputStream2Geometry(rs.getBinaryStream(column));
+	}
+
+	@Override
+	protected void prepareStreaming(final Connection conn, final Statement st, final int fetchSize)
+			throws SQLException {
+		// Connector/J streams the records one by one only with this fetch size
+		st.setFetchSize(Integer.MIN_VALUE);
+	}
+
 	@Override
 	protected String getInsertString(final IScope scope, final Connection conn, final String table_name,
 			final IList<Object> cols, final IList<Object> values) throws GamaRuntimeException {
@@ -139,6 +139,20 @@ class PostgresConnection extends SqlConnection {
 
 	}
 
+	@Override
+	protected String getParameterMarker(final String columnType) {
+		if (columnType.equalsIgnoreCase(GEOMETRYTYPE)) { return WKT2GEO + "(?)"; }
+		return super.getParameterMarker(columnType);
+	}
+
+	@Override
+	protected void prepareStreaming(final Connection conn, final Statement st, final int fetchSize)
+			throws SQLException {
+		// The PostgreSQL driver only uses a server-side cursor outside of auto-commit mode
+		conn.setAutoCommit(false);
+		super.prepareStreaming(conn, st, fetchSize);
+	}
+
 	@Override
 	protected String getInsertString(final IScope scope, final Connection conn, final String table_name,
 			final IList<Object> cols, final IList<Object> values) throws GamaRuntimeException {
@@ -12,6 +12,10 @@
  **********************************************************************************************/
 package msi.gama.database.sql;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -24,9 +28,12 @@ import java.util.Map;
 import org.opengis.referencing.FactoryException;
 
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
 
 import msi.gama.common.geometry.Envelope3D;
 import msi.gama.common.preferences.GamaPreferences;
+import msi.gama.metamodel.shape.IShape;
 import msi.gama.metamodel.topology.projection.IProjection;
 import msi.gama.metamodel.topology.projection.Projection;
 import msi.gama.runtime.IScope;
@@ -143,6 +150,49 @@ public abstract class SqlConnection {
 		this.params = params;
 	}
 
+	/*
+	 * Key of the pool of connections shared by all the connection objects with the same configuration. The password
+	 * only appears in it as a digest
+	 */
+	String getPoolKey() {
+		return vender + "|" + url + "|" + port + "|" + dbName + "|" + userName + "|" + digest(password) + "|"
+				+ extension;
+	}
+
+	private static String digest(final String s) {
+		if (s == null) { return ""; }
+		try {
+			final byte[] bytes = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+			return new BigInteger(1, bytes).toString(16);
+		} catch (final NoSuchAlgorithmException e) {
+			// Every Java platform implements SHA-256
+			return Integer.toHexString(s.hashCode());
+		}
+	}
+
+	/*
+	 * Whether the statements executed by a simulation during a step are grouped in one transaction, committed at the
+	 * end of the step ("transaction" key of the parameters)
+	 */
+	boolean isTransactional() {
+		return params != null && Boolean.TRUE.equals(params.get("transaction"));
+	}
+
+	/*
+	 * Borrow a connection from the pool of this configuration (or the connection of the transaction of the current
+	 * step). It must be given back with giveBackConnection()
+	 */
+	protected Connection borrowConnection(final IScope scope)
+			throws ClassNotFoundException, InstantiationException, SQLException, IllegalAccessException {
+		return SqlConnectionPool.of(scope, this).borrow(scope, this);
+	}
+
+	protected void giveBackConnection(final IScope scope, final Connection conn) {
+		if (conn != null) {
+			SqlConnectionPool.of(scope, this).giveBack(scope, conn);
+		}
+	}
+
 	SqlConnection(final String dbName) {
 		this.dbName = dbName;
 	}
@@ -234,16 +284,51 @@ public abstract class SqlConnection {
 	protected abstract String getInsertString(IScope scope, Connection conn, String table_name, IList<Object> values)
 			throws GamaRuntimeException;
 
+	/*
+	 * Query returning (at most) the first record of a table, used to get the names and types of its columns
+	 */
+	protected String getFirstRowQuery(final String table_name, final String colStr) {
+		return "SELECT " + colStr + " FROM " + table_name + " LIMIT 1";
+	}
+
+	/*
+	 * Parameter marker of a column in a prepared insert statement. Geometries are passed as WKT and converted by the
+	 * vendor-specific function
+	 */
+	protected String getParameterMarker(final String columnType) {
+		return "?";
+	}
+
+	/*
+	 * Read the geometry stored in a column of the current record
+	 */
+	protected Object readGeometry(final ResultSet rs, final int column) throws Exception {
+		return SqlUtils.read(rs.getBytes(column));
+	}
+
+	/*
+	 * Prepare a statement so that the records of its result are fetched by groups of fetchSize records instead of all
+	 * at once
+	 */
+	protected void prepareStreaming(final Connection conn, final Statement st, final int fetchSize)
+			throws SQLException {
+		st.setFetchSize(fetchSize);
+	}
+
 	/*
 	 * Make a connection to BDMS and execute the select statement
 	 *
 	 * @return IList<IList<Object>>
 	 */
 	public IList<? super IList<? super IList>> selectDB(final IScope scope, final String selectComm) {
-		try (Connection conn = connectDB();) {
+		Connection conn = null;
+		try {
+			conn = borrowConnection(scope);
 			return selectDB(scope, conn, selectComm);
 		} catch (final Exception e) {
 			throw GamaRuntimeException.error("SQLConnection.selectDB: " + e.toString(), scope);
+		} finally {
+			giveBackConnection(scope, conn);
 		}
 
 	}
@@ -335,13 +420,17 @@ public abstract class SqlConnection {
 	public int executeUpdateDB(final IScope scope, final String updateComm) throws GamaRuntimeException {
 
 		int n = 0;
-		try (Connection conn = connectDB(); final Statement st = conn.createStatement();) {
+		Connection conn = null;
+		try {
+			conn = borrowConnection(scope);
+			try (final Statement st = conn.createStatement();) {
 
 			// if ( DEBUG ) {
 			// DEBUG.OUT("Update Command:" + updateComm);
 			// }
 
-			n = st.executeUpdate(updateComm);
+				n = st.executeUpdate(updateComm);
+			}
 			// if ( DEBUG ) {
 			// DEBUG.OUT("Updated records :" + n);
 			// }
@@ -351,6 +440,8 @@ public abstract class SqlConnection {
 
 		} catch (final Exception e) {
 			throw GamaRuntimeException.error("SQLConnection.executeUpdateDB: " + e.toString(), scope);
+		} finally {
+			giveBackConnection(scope, conn);
 		}
 
 		// if ( DEBUG ) {
@@ -517,10 +608,14 @@ public abstract class SqlConnection {
 	public int insertDB(final IScope scope, final String table_name, final IList<Object> cols,
 			final IList<Object> values) throws GamaRuntimeException {
 		int rec_no = -1;
-		try (Connection conn = connectDB();) {
+		Connection conn = null;
+		try {
+			conn = borrowConnection(scope);
 			rec_no = insertDB(scope, conn, table_name, cols, values);
 		} catch (final Exception e) {
 			throw GamaRuntimeException.error("SQLConnection.insertBD " + e.toString(), scope);
+		} finally {
+			giveBackConnection(scope, conn);
 		}
 		return rec_no;
 	}
@@ -554,14 +649,199 @@ public abstract class SqlConnection {
 	public int insertDB(final IScope scope, final String table_name, final IList<Object> values)
 			throws GamaRuntimeException {
 		int rec_no = -1;
-		try (Connection conn = connectDB();) {
+		Connection conn = null;
+		try {
+			conn = borrowConnection(scope);
 			rec_no = insertDB(scope, conn, table_name, values);
 		} catch (final Exception e) {
 			throw GamaRuntimeException.error("SQLConnection.insertBD " + e.toString(), scope);
+		} finally {
+			giveBackConnection(scope, conn);
 		}
 		return rec_no;
 	}
 
+	/*
+	 * @Method: insertBatchDB(Connection conn, String table_name, IList<Object> cols, IList<Object> rows, int batchSize)
+	 *
+	 * @Description: Insert a list of records into a table with one prepared statement, sent to the database by
+	 * batches of batchSize records. If the connection is in auto-commit mode, all the records are inserted in one
+	 * transaction.
+	 *
+	 * @param cols: the columns to fill (all the columns of the table if empty)
+	 *
+	 * @param rows: list of records, each record being the list of its values in the order of the columns
+	 *
+	 * @return the number of inserted records
+	 */
+	public int insertBatchDB(final IScope scope, final Connection conn, final String table_name,
+			final IList<Object> cols, final IList<Object> rows, final int batchSize) throws GamaRuntimeException {
+		if (rows.isEmpty()) { return 0; }
+		final StringBuilder colStr = new StringBuilder();
+		for (final Object col : cols) {
+			colStr.append(colStr.length() == 0 ? "" : ",").append(col);
+		}
+		final int col_no;
+		final String[] colTypes;
+		final int[] sqlTypes;
+		final String selectStr = getFirstRowQuery(table_name, cols.isEmpty() ? "*" : colStr.toString());
+		final StringBuilder insertStr = new StringBuilder("INSERT INTO ").append(table_name).append("(");
+		try (final Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(selectStr);) {
+			// get column types
+			final ResultSetMetaData rsmd = rs.getMetaData();
+			final IList<Object> col_Types = getColumnTypeName(rsmd);
+			col_no = col_Types.size();
+			colTypes = new String[col_no];
+			sqlTypes = new int[col_no];
+			final StringBuilder valueStr = new StringBuilder();
+			for (int i = 0; i < col_no; i++) {
+				colTypes[i] = (String) col_Types.get(i);
+				sqlTypes[i] = rsmd.getColumnType(i + 1);
+				insertStr.append(i == 0 ? "" : ",").append(cols.isEmpty() ? rsmd.getColumnName(i + 1) : cols.get(i));
+				valueStr.append(i == 0 ? "" : ",").append(getParameterMarker(colTypes[i]));
+			}
+			insertStr.append(") VALUES(").append(valueStr).append(")");
+		} catch (final SQLException e) {
+			throw GamaRuntimeException.error("SQLConnection.insertBatchDB: " + e.toString(), scope);
+		}
+		if (DEBUG.IS_ON()) {
+			DEBUG.OUT("SQLConnection.insertBatchDB.STR:" + insertStr);
+		}
+		IProjection saveProj = null;
+		if (transformed) {
+			for (final String type : colTypes) {
+				if (GEOMETRYTYPE.equalsIgnoreCase(type)) {
+					saveProj = getSavingGisProjection(scope);
+					break;
+				}
+			}
+		}
+		int rec_no = 0;
+		boolean autoCommit = false;
+		try (final PreparedStatement pstmt = conn.prepareStatement(insertStr.toString());) {
+			autoCommit = conn.getAutoCommit();
+			if (autoCommit) {
+				conn.setAutoCommit(false);
+			}
+			int pending = 0;
+			for (final Object row : rows) {
+				final IList<Object> values = Cast.asList(scope, row);
+				if (values.size() != col_no) {
+					throw new IndexOutOfBoundsException("Size of columns list and values list are not equal");
+				}
+				for (int i = 0; i < col_no; i++) {
+					setParameter(pstmt, i + 1, sqlTypes[i], colTypes[i], values.get(i), saveProj);
+				}
+				pstmt.addBatch();
+				if (++pending >= batchSize) {
+					rec_no += countUpdates(pstmt.executeBatch());
+					pending = 0;
+				}
+			}
+			if (pending > 0) {
+				rec_no += countUpdates(pstmt.executeBatch());
+			}
+			if (autoCommit) {
+				conn.commit();
+			}
+		} catch (final SQLException | ParseException e) {
+			if (autoCommit) {
+				try {
+					conn.rollback();
+				} catch (final SQLException e1) {}
+			}
+			throw GamaRuntimeException.error("SQLConnection.insertBatchDB: " + e.toString(), scope);
+		} finally {
+			if (autoCommit) {
+				try {
+					conn.setAutoCommit(true);
+				} catch (final SQLException e) {}
+			}
+		}
+		if (DEBUG.IS_ON()) {
+			DEBUG.OUT("SQLConnection.insertBatchDB.rec_no:" + rec_no);
+		}
+		return rec_no;
+	}
+
+	/*
+	 * Insert a list of records into a table by batches
+	 */
+	public int insertBatchDB(final IScope scope, final String table_name, final IList<Object> cols,
+			final IList<Object> rows, final int batchSize) throws GamaRuntimeException {
+		Connection conn = null;
+		try {
+			conn = borrowConnection(scope);
+			return insertBatchDB(scope, conn, table_name, cols, rows, batchSize);
+		} catch (final GamaRuntimeException e) {
+			throw e;
+		} catch (final Exception e) {
+			throw GamaRuntimeException.error("SQLConnection.insertBatchDB: " + e.toString(), scope);
+		} finally {
+			giveBackConnection(scope, conn);
+		}
+	}
+
+	private void setParameter(final PreparedStatement pstmt, final int index, final int sqlType,
+			final String colType, final Object value, final IProjection saveProj) throws SQLException, ParseException {
+		if (value == null) {
+			pstmt.setNull(index, sqlType);
+		} else if (GEOMETRYTYPE.equalsIgnoreCase(colType)) {
+			Geometry geo = value instanceof IShape ? ((IShape) value).getInnerGeometry()
+					: value instanceof Geometry ? (Geometry) value : new WKTReader().read(value.toString());
+			if (saveProj != null) {
+				geo = saveProj.inverseTransform(geo);
+			}
+			pstmt.setString(index, geo.toText());
+		} else if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+			pstmt.setObject(index, value);
+		} else {
+			pstmt.setString(index, value.toString());
+		}
+	}
+
+	private static int countUpdates(final int[] counts) {
+		int result = 0;
+		for (final int count : counts) {
+			// Some drivers do not report the number of rows of each statement of a batch
+			result += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+		}
+		return result;
+	}
+
+	/*
+	 * @Method: openCursor(String queryStr, IList<Object> condition_values, int fetchSize)
+	 *
+	 * @Description: Executes the SQL query on a dedicated connection and returns a cursor on its result, from which
+	 * the records can be read by chunks instead of being loaded all at once. The cursor must be closed.
+	 *
+	 * @param fetchSize: number of records fetched from the database at once
+	 */
+	public SqlCursor openCursor(final IScope scope, final String queryStr, final IList<Object> condition_values,
+			final int fetchSize) throws GamaRuntimeException {
+		try {
+			return new SqlCursor(SqlConnectionPool.of(scope, this), this, queryStr, condition_values, fetchSize);
+		} catch (final Exception e) {
+			throw GamaRuntimeException.error("SQLConnection.openCursor: " + e.toString(), scope);
+		}
+	}
+
+	/*
+	 * Transform the geometries of a result ([column names, column types, records]) from the GIS coordinates to the
+	 * coordinates of the simulation, if needed
+	 */
+	IList transformResult(final IScope scope, final IList result) {
+		if (((IList) result.get(1)).contains(GEOMETRYTYPE) && transformed) {
+			gis = scope.getSimulation().getProjectionFactory().getWorld();
+			if (gis != null) {
+				final Envelope3D env = scope.getSimulation().getEnvelope();
+				gis = scope.getSimulation().getProjectionFactory().fromParams(scope, params, env);
+				return SqlUtils.transform(scope, gis, result, false);
+			}
+		}
+		return result;
+	}
+
 	/*
 	 * @Method: executeQueryDB(Connection conn,String queryStr, IList<Object> condition_value)
 	 *
@@ -639,11 +919,15 @@ public abstract class SqlConnection {
 	public IList<Object> executeQueryDB(final IScope scope, final String queryStr, final IList<Object> condition_values)
 			throws GamaRuntimeException {
 		IList<Object> result;
-		try (Connection conn = connectDB();) {
+		Connection conn = null;
+		try {
+			conn = borrowConnection(scope);
 			result = executeQueryDB(scope, conn, queryStr, condition_values);
 			// set value for each condition
 		} catch (final Exception e) {
 			throw GamaRuntimeException.error("SQLConnection.executeQuery: " + e.toString(), scope);
+		} finally {
+			giveBackConnection(scope, conn);
 		}
 		return result;
 
@@ -708,7 +992,9 @@ public abstract class SqlConnection {
 	public int executeUpdateDB(final IScope scope, final String queryStr, final IList<Object> condition_values)
 			throws GamaRuntimeException {
 		int row_count = -1;
-		try (Connection conn = connectDB();) {
+		Connection conn = null;
+		try {
+			conn = borrowConnection(scope);
 			row_count = executeUpdateDB(scope, conn, queryStr, condition_values);
 
 			// set value for each condition
@@ -716,6 +1002,8 @@ public abstract class SqlConnection {
 
 		final Exception e) {
 			throw GamaRuntimeException.error("SQLConnection.executeUpdateDB: " + e.toString(), scope);
+		} finally {
+			giveBackConnection(scope, conn);
 		}
 		return row_count;
 	}
@@ -0,0 +1,289 @@
+/*********************************************************************************************
+ *
+ *
+ * 'SqlConnectionPool.java', in plugin 'irit.gaml.extensions.database', is part of the source code of the GAMA modeling
+ * and simulation platform. (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/UPMC & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and developers contact.
+ *
+ *
+ **********************************************************************************************/
+package msi.gama.database.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import msi.gama.kernel.simulation.SimulationAgent;
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+import ummisco.gama.dev.utils.DEBUG;
+
+/**
+ * The JDBC connections opened for a given database configuration (vendor, host, port, database, user and password).
+ * Instead of opening a new connection for each statement, the SQL skill borrows a connection from the pool of its
+ * configuration and gives it back when the statement is done. At most {@link #MAX_IDLE} idle connections are kept;
+ * they are checked before being reused. They outlive the simulations, so that the successive simulations of a batch
+ * or headless experiment reuse them, but those that have not been used for {@link #IDLE_TIMEOUT} milliseconds are
+ * closed (by a background thread once no simulation uses the pool anymore).
+ *
+ * A pool also manages the transactions grouping the statements of a simulation step: when the "transaction" key of the
+ * connection parameters is true, all the statements executed by a simulation during a step share one connection, with
+ * auto-commit disabled, which is committed at the end of the step (and when the simulation is disposed). As agents can
+ * execute statements in parallel, the transaction connection is only used by one thread at a time.
+ *
+ * The cursors opened on the pool (see {@link SqlCursor}) use their own connection. Those that are still open when the
+ * pool is disposed are closed.
+ */
+public class SqlConnectionPool {
+
+	public static final int MAX_IDLE = 4;
+	public static final long IDLE_TIMEOUT = 60000;
+
+	private static final Map<String, SqlConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+	private static final ScheduledExecutorService CLEANER = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread t = new Thread(r, "GAMA SQL connections cleaner");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * Marks the simulations that use the pool without an open transaction
+	 */
+	private static final Transaction NO_TRANSACTION = new Transaction(null);
+
+	private final Deque<Idle> idle = new ArrayDeque<>();
+	private final Map<SimulationAgent, Transaction> transactions = new ConcurrentHashMap<>();
+	private final Set<SqlCursor> cursors = ConcurrentHashMap.newKeySet();
+	private int users;
+
+	/**
+	 * An idle connection and the moment it has been given back
+	 */
+	private static class Idle {
+		final Connection connection;
+		final long since = System.currentTimeMillis();
+
+		Idle(final Connection connection) {
+			this.connection = connection;
+		}
+	}
+
+	/**
+	 * The connection shared by the statements of a simulation during a step
+	 */
+	private static class Transaction {
+		final Connection connection;
+		final ReentrantLock lock = new ReentrantLock();
+
+		Transaction(final Connection connection) {
+			this.connection = connection;
+		}
+	}
+
+	/**
+	 * Returns the pool of the configuration of this connection object, creating it if necessary. The simulation of the
+	 * scope is registered as a user of the pool.
+	 */
+	static SqlConnectionPool of(final IScope scope, final SqlConnection sqlConn) {
+		final String key = sqlConn.getPoolKey();
+		final SqlConnectionPool pool = POOLS.computeIfAbsent(key, k -> new SqlConnectionPool());
+		final SimulationAgent simulation = scope == null ? null : scope.getSimulation();
+		if (simulation != null && pool.transactions.putIfAbsent(simulation, NO_TRANSACTION) == null) {
+			synchronized (pool) {
+				pool.users++;
+			}
+			simulation.postEndAction(scope1 -> {
+				pool.commit(scope1, scope1.getSimulation());
+				return null;
+			});
+			simulation.postDisposeAction(scope1 -> {
+				pool.dispose(scope1, scope1.getSimulation());
+				return null;
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * Returns an open connection, reusing an idle one if possible
+	 */
+	Connection acquire(final SqlConnection sqlConn)
+			throws ClassNotFoundException, InstantiationException, SQLException, IllegalAccessException {
+		closeExpired();
+		while (true) {
+			final Idle entry;
+			synchronized (this) {
+				entry = idle.pollFirst();
+			}
+			if (entry == null) {
+				break;
+			}
+			if (isUsable(entry.connection)) { return entry.connection; }
+			close(entry.connection);
+		}
+		return sqlConn.connectDB();
+	}
+
+	/**
+	 * Gives back a connection obtained with {@link #acquire(SqlConnection)}. Any transaction left open on it is rolled
+	 * back.
+	 */
+	void release(final Connection conn) {
+		if (conn == null) { return; }
+		try {
+			if (conn.isClosed()) { return; }
+			if (!conn.getAutoCommit()) {
+				conn.rollback();
+				conn.setAutoCommit(true);
+			}
+		} catch (final SQLException e) {
+			close(conn);
+			return;
+		}
+		synchronized (this) {
+			if (idle.size() < MAX_IDLE) {
+				idle.addFirst(new Idle(conn));
+				return;
+			}
+		}
+		close(conn);
+	}
+
+	/**
+	 * Returns the connection to use for a statement of the simulation of the scope: the connection of its current
+	 * transaction if the statements are grouped per step, a connection of the pool otherwise. The connection must be
+	 * given back with {@link #giveBack(IScope, Connection)}.
+	 */
+	Connection borrow(final IScope scope, final SqlConnection sqlConn)
+			throws ClassNotFoundException, InstantiationException, SQLException, IllegalAccessException {
+		final SimulationAgent simulation = scope == null ? null : scope.getSimulation();
+		if (simulation == null || !sqlConn.isTransactional()) { return acquire(sqlConn); }
+		Transaction transaction = transactions.get(simulation);
+		if (transaction == null || transaction == NO_TRANSACTION) {
+			synchronized (this) {
+				transaction = transactions.get(simulation);
+				if (transaction == null || transaction == NO_TRANSACTION) {
+					final Connection conn = acquire(sqlConn);
+					conn.setAutoCommit(false);
+					transaction = new Transaction(conn);
+					transactions.put(simulation, transaction);
+				}
+			}
+		}
+		transaction.lock.lock();
+		return transaction.connection;
+	}
+
+	void giveBack(final IScope scope, final Connection conn) {
+		final SimulationAgent simulation = scope == null ? null : scope.getSimulation();
+		final Transaction transaction = simulation == null ? null : transactions.get(simulation);
+		if (transaction != null && transaction.connection == conn) {
+			transaction.lock.unlock();
+		} else {
+			release(conn);
+		}
+	}
+
+	void opened(final SqlCursor cursor) {
+		cursors.add(cursor);
+	}
+
+	void closed(final SqlCursor cursor) {
+		cursors.remove(cursor);
+	}
+
+	/**
+	 * Commits the statements executed by the simulation during the step, if any
+	 */
+	private void commit(final IScope scope, final SimulationAgent simulation) {
+		final Transaction transaction = transactions.get(simulation);
+		if (transaction == null || transaction == NO_TRANSACTION) { return; }
+		transaction.lock.lock();
+		try {
+			transaction.connection.commit();
+		} catch (final SQLException e) {
+			try {
+				transaction.connection.rollback();
+			} catch (final SQLException e1) {}
+			throw GamaRuntimeException.error("SqlConnectionPool.commit: " + e.toString(), scope);
+		} finally {
+			transaction.lock.unlock();
+		}
+	}
+
+	private void dispose(final IScope scope, final SimulationAgent simulation) {
+		try {
+			commit(scope, simulation);
+		} finally {
+			final Transaction transaction = transactions.remove(simulation);
+			if (transaction != null && transaction != NO_TRANSACTION) {
+				release(transaction.connection);
+			}
+			synchronized (this) {
+				users--;
+				if (users <= 0) {
+					for (final SqlCursor cursor : cursors) {
+						cursor.close();
+					}
+					CLEANER.schedule(this::closeExpired, IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes the connections that have been idle for more than IDLE_TIMEOUT milliseconds. As the most recently given
+	 * back connections are at the head of the queue, they are at its tail.
+	 */
+	private void closeExpired() {
+		final long limit = System.currentTimeMillis() - IDLE_TIMEOUT;
+		while (true) {
+			final Idle entry;
+			synchronized (this) {
+				entry = idle.peekLast();
+				if (entry == null || entry.since > limit) { return; }
+				idle.pollLast();
+			}
+			close(entry.connection);
+		}
+	}
+
+	private static boolean isUsable(final Connection conn) {
+		try {
+			if (conn.isClosed()) { return false; }
+		} catch (final SQLException e) {
+			return false;
+		}
+		try {
+			return conn.isValid(1);
+		} catch (final SQLException e) {
+			return false;
+		} catch (final AbstractMethodError e) {
+			// Old drivers (e.g. jTDS) do not implement isValid()
+			return true;
+		}
+	}
+
+	private static void close(final Connection conn) {
+		try {
+			conn.close();
+		} catch (final SQLException e) {
+			if (DEBUG.IS_ON()) {
+				DEBUG.OUT("SqlConnectionPool.close: " + e.toString());
+			}
+		}
+	}
+
+}
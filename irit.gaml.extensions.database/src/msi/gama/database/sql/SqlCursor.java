@@ -0,0 +1,129 @@
+/*********************************************************************************************
+ *
+ *
+ * 'SqlCursor.java', in plugin 'irit.gaml.extensions.database', is part of the source code of the GAMA modeling and
+ * simulation platform. (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/UPMC & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and developers contact.
+ *
+ *
+ **********************************************************************************************/
+package msi.gama.database.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+import msi.gama.util.GamaListFactory;
+import msi.gama.util.IList;
+
+/**
+ * An open query whose records are read by chunks. The query is executed on a connection of the pool dedicated to the
+ * cursor, with a fetch size telling the driver to get the records from the database by groups instead of loading the
+ * whole result in memory. Each call to {@link #fetch(IScope, int)} returns the next records in the same form as a
+ * select ([column names, column types, records]). The cursor is closed, and its connection given back to the pool,
+ * when all the records have been read, when {@link #close()} is called or when the simulation is disposed.
+ */
+@SuppressWarnings ({ "unchecked", "rawtypes" })
+public class SqlCursor {
+
+	private final SqlConnectionPool pool;
+	private final SqlConnection sqlConn;
+	private Connection conn;
+	private PreparedStatement pstmt;
+	private ResultSet rs;
+	private final IList<Object> columnNames;
+	private final IList<Object> columnTypes;
+	private final List<Integer> geoColumns;
+	private final int nbCol;
+
+	SqlCursor(final SqlConnectionPool pool, final SqlConnection sqlConn, final String queryStr,
+			final IList<Object> condition_values, final int fetchSize)
+			throws ClassNotFoundException, InstantiationException, SQLException, IllegalAccessException {
+		this.pool = pool;
+		this.sqlConn = sqlConn;
+		conn = pool.acquire(sqlConn);
+		try {
+			pstmt = conn.prepareStatement(queryStr, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			sqlConn.prepareStreaming(conn, pstmt, fetchSize);
+			for (int i = 0; i < condition_values.size(); i++) {
+				pstmt.setObject(i + 1, condition_values.get(i));
+			}
+			rs = pstmt.executeQuery();
+			final ResultSetMetaData rsmd = rs.getMetaData();
+			columnNames = sqlConn.getColumnName(rsmd);
+			columnTypes = sqlConn.getColumnTypeName(rsmd);
+			geoColumns = sqlConn.getGeometryColumns(rsmd);
+			nbCol = rsmd.getColumnCount();
+		} catch (final SQLException e) {
+			close();
+			throw e;
+		}
+		pool.opened(this);
+	}
+
+	public boolean isClosed() {
+		return rs == null;
+	}
+
+	/**
+	 * Returns the next records (at most max), as [column names, column types, records]. The list of records is empty
+	 * once all the records have been read.
+	 */
+	public IList fetch(final IScope scope, final int max) throws GamaRuntimeException {
+		final IList<IList<Object>> records = GamaListFactory.create(msi.gaml.types.Types.LIST);
+		if (rs != null) {
+			try {
+				while (records.size() < max) {
+					if (!rs.next()) {
+						close();
+						break;
+					}
+					final IList<Object> rowList = GamaListFactory.create();
+					for (int j = 1; j <= nbCol; j++) {
+						if (geoColumns.contains(j)) {
+							rowList.add(sqlConn.readGeometry(rs, j));
+						} else {
+							rowList.add(rs.getObject(j));
+						}
+					}
+					records.add(rowList);
+				}
+			} catch (final Exception e) {
+				close();
+				throw GamaRuntimeException.error("SqlCursor.fetch: " + e.toString(), scope);
+			}
+		}
+		final IList result = GamaListFactory.create(msi.gaml.types.Types.LIST);
+		result.add(columnNames);
+		result.add(columnTypes);
+		result.add(records);
+		return sqlConn.transformResult(scope, result);
+	}
+
+	public synchronized void close() {
+		if (conn == null) { return; }
+		try {
+			if (rs != null) {
+				rs.close();
+			}
+			if (pstmt != null) {
+				pstmt.close();
+			}
+		} catch (final SQLException e) {} finally {
+			rs = null;
+			pstmt = null;
+			pool.release(conn);
+			pool.closed(this);
+			conn = null;
+		}
+	}
+
+}
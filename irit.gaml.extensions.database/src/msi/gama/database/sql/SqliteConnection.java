@@ -151,6 +151,12 @@ class SqliteConnection extends SqlConnection {
 
 	}
 
+	@Override
+	protected String getParameterMarker(final String columnType) {
+		if (columnType.equalsIgnoreCase(GEOMETRYTYPE)) { return WKT2GEO + "(?)"; }
+		return super.getParameterMarker(columnType);
+	}
+
 	@Override
 	protected String getInsertString(final IScope scope, final Connection conn, final String table_name,
 			final IList<Object> cols, final IList<Object> values) throws GamaRuntimeException {
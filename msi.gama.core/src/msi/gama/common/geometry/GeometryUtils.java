@@ -1021,14 +1021,14 @@ public class GeometryUtils {
 			p.y += dy;
 			p.z += dz;
 		});
-		geometry.geometryChanged();
+		GamaShape.geometryChanged(geometry);
 	}
 
 	public static void rotate(final Geometry geometry, final GamaPoint center, final AxisAngle rotation) {
 		if (rotation == null) { return; }
 		final Rotation3D r = new Rotation3D.CenteredOn(rotation, center);
 		geometry.apply(r);
-		geometry.geometryChanged();
+		GamaShape.geometryChanged(geometry);
 	}
 
 	public static ICoordinates getYNegatedCoordinates(final Geometry geom) {
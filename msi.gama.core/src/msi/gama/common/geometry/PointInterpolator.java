@@ -0,0 +1,241 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.common.geometry.PointInterpolator.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.common.geometry;
+
+import java.util.stream.IntStream;
+
+import msi.gama.runtime.concurrent.GamaExecutorService;
+
+/**
+ * Spatial interpolation (inverse distance weighting and ordinary kriging) of a set of sample values, located at points,
+ * onto arbitrary target locations. The samples are indexed once in a {@link PointKdTree}, so that each estimation only
+ * considers the k nearest samples (optionally limited to a search radius). Estimations over many targets are split in
+ * chunks executed in parallel on the agent executor, each chunk owning its own query buffers.
+ */
+public class PointInterpolator {
+
+	/**
+	 * Theoretical variogram models usable for kriging. The range is the "practical" range (i.e. the distance at which
+	 * the model reaches 95% of its sill for the exponential and gaussian models).
+	 */
+	public enum Variogram {
+		SPHERICAL, EXPONENTIAL, GAUSSIAN;
+
+		public static Variogram named(final String name) {
+			if (name == null) { return SPHERICAL; }
+			for (final Variogram v : values()) {
+				if (v.name().equalsIgnoreCase(name)) { return v; }
+			}
+			return null;
+		}
+
+		/**
+		 * Semivariance at distance h for the given nugget, sill and range
+		 */
+		public double gamma(final double h, final double nugget, final double sill, final double range) {
+			if (h <= 0) { return 0; }
+			final double r = h / range;
+			final double f;
+			switch (this) {
+				case EXPONENTIAL:
+					f = 1 - Math.exp(-3 * r);
+					break;
+				case GAUSSIAN:
+					f = 1 - Math.exp(-3 * r * r);
+					break;
+				default:
+					f = r >= 1 ? 1 : 1.5 * r - 0.5 * r * r * r;
+			}
+			return nugget + (sill - nugget) * f;
+		}
+	}
+
+	private static final int CHUNK_SIZE = 1024;
+
+	final PointKdTree tree;
+	final double[] values;
+
+	@FunctionalInterface
+	private interface Estimator {
+		double estimate(double x, double y, int[] indices, double[] distances, double[] system);
+	}
+
+	public PointInterpolator(final double[] xs, final double[] ys, final double[] values) {
+		this.tree = new PointKdTree(xs, ys);
+		this.values = values;
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * Fills result[i] with the IDW estimation at (xs[i], ys[i]). Targets that have no sample within the radius are
+	 * left untouched.
+	 *
+	 * @param power
+	 *            the power parameter of the weighting (weights are 1 / distance^power)
+	 * @param k
+	 *            the maximum number of samples to consider for each target
+	 * @param radius
+	 *            the search radius (Double.POSITIVE_INFINITY for no limit)
+	 */
+	public void idw(final double[] xs, final double[] ys, final double[] result, final double power, final int k,
+			final double radius) {
+		final int n = Math.min(k, size());
+		final double halfPower = power / 2;
+		run(xs, ys, result, n, 0, (x, y, indices, distances, system) -> {
+			final int found = tree.nearest(x, y, n, radius, indices, distances);
+			if (found == 0) { return Double.NaN; }
+			double sum = 0, weight = 0;
+			for (int i = 0; i < found; i++) {
+				final double d = distances[i];
+				if (d == 0) { return exactValue(indices, distances, found); }
+				final double w = 1 / Math.pow(d, halfPower);
+				weight += w;
+				sum += w * values[indices[i]];
+			}
+			return sum / weight;
+		});
+	}
+
+	/**
+	 * Fills result[i] with the ordinary kriging estimation at (xs[i], ys[i]), computed from the k nearest samples and
+	 * the variogram described by model, nugget, sill and range. If the kriging system cannot be solved (e.g. because of
+	 * duplicate samples), the IDW estimation (power 2) on the same samples is used instead. As for {@link #idw}, targets
+	 * for which no sample is found are left untouched.
+	 */
+	public void kriging(final double[] xs, final double[] ys, final double[] result, final Variogram model,
+			final double nugget, final double sill, final double range, final int k) {
+		final int n = Math.min(k, size());
+		run(xs, ys, result, n, (n + 1) * (n + 2), (x, y, indices, distances, system) -> {
+			final int found = tree.nearest(x, y, n, Double.POSITIVE_INFINITY, indices, distances);
+			if (found == 0) { return Double.NaN; }
+			double sum = 0, weight = 0;
+			for (int i = 0; i < found; i++) {
+				final double d = distances[i];
+				if (d == 0) { return exactValue(indices, distances, found); }
+				weight += 1 / d;
+				sum += values[indices[i]] / d;
+			}
+			final double idw = sum / weight;
+			if (found == 1) { return idw; }
+			// Augmented system (found + 1) x (found + 2), the last column being the right-hand side
+			final int m = found + 1, w = m + 1;
+			for (int i = 0; i < found; i++) {
+				final int a = indices[i];
+				for (int j = 0; j < i; j++) {
+					final int b = indices[j];
+					final double dx = tree.getX(a) - tree.getX(b), dy = tree.getY(a) - tree.getY(b);
+					final double g = model.gamma(Math.sqrt(dx * dx + dy * dy), nugget, sill, range);
+					system[i * w + j] = g;
+					system[j * w + i] = g;
+				}
+				system[i * w + i] = 0;
+				system[i * w + found] = 1;
+				system[found * w + i] = 1;
+				system[i * w + m] = model.gamma(Math.sqrt(distances[i]), nugget, sill, range);
+			}
+			system[found * w + found] = 0;
+			system[found * w + m] = 1;
+			if (!solve(system, m)) { return idw; }
+			double estimate = 0;
+			for (int i = 0; i < found; i++) {
+				estimate += system[i * w + m] * values[indices[i]];
+			}
+			return estimate;
+		});
+	}
+
+	private double exactValue(final int[] indices, final double[] distances, final int found) {
+		double sum = 0;
+		int nb = 0;
+		for (int i = 0; i < found; i++) {
+			if (distances[i] == 0) {
+				sum += values[indices[i]];
+				nb++;
+			}
+		}
+		return sum / nb;
+	}
+
+	/**
+	 * Gaussian elimination with partial pivoting on the augmented m x (m + 1) matrix stored row-wise in system. The
+	 * solution replaces the last column. Returns false if the matrix is singular.
+	 */
+	private static boolean solve(final double[] system, final int m) {
+		final int w = m + 1;
+		for (int col = 0; col < m; col++) {
+			int pivot = col;
+			double max = Math.abs(system[col * w + col]);
+			for (int row = col + 1; row < m; row++) {
+				final double v = Math.abs(system[row * w + col]);
+				if (v > max) {
+					max = v;
+					pivot = row;
+				}
+			}
+			if (max < 1e-12) { return false; }
+			if (pivot != col) {
+				for (int j = col; j < w; j++) {
+					final double tmp = system[col * w + j];
+					system[col * w + j] = system[pivot * w + j];
+					system[pivot * w + j] = tmp;
+				}
+			}
+			final double p = system[col * w + col];
+			for (int row = col + 1; row < m; row++) {
+				final double f = system[row * w + col] / p;
+				if (f == 0) {
+					continue;
+				}
+				for (int j = col; j < w; j++) {
+					system[row * w + j] -= f * system[col * w + j];
+				}
+			}
+		}
+		for (int row = m - 1; row >= 0; row--) {
+			double v = system[row * w + m];
+			for (int j = row + 1; j < m; j++) {
+				v -= system[row * w + j] * system[j * w + m];
+			}
+			system[row * w + m] = v / system[row * w + row];
+		}
+		return true;
+	}
+
+	private void run(final double[] xs, final double[] ys, final double[] result, final int k, final int systemSize,
+			final Estimator estimator) {
+		if (k == 0) { return; }
+		final int nbChunks = (xs.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if (nbChunks <= 1) {
+			runChunk(0, xs.length, xs, ys, result, k, systemSize, estimator);
+		} else {
+			GamaExecutorService.executeThreaded(() -> IntStream.range(0, nbChunks).parallel()
+					.forEach(c -> runChunk(c * CHUNK_SIZE, Math.min(xs.length, (c + 1) * CHUNK_SIZE), xs, ys, result,
+							k, systemSize, estimator)));
+		}
+	}
+
+	private static void runChunk(final int from, final int to, final double[] xs, final double[] ys,
+			final double[] result, final int k, final int systemSize, final Estimator estimator) {
+		final int[] indices = new int[k];
+		final double[] distances = new double[k];
+		final double[] system = new double[systemSize];
+		for (int i = from; i < to; i++) {
+			final double v = estimator.estimate(xs[i], ys[i], indices, distances, system);
+			if (!Double.isNaN(v)) {
+				result[i] = v;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.common.geometry.PointKdTree.java, in plugin msi.gama.core, is part of the source code of the GAMA modeling
+ * and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.common.geometry;
+
+/**
+ * An immutable, balanced 2D kd-tree built over a set of points stored in primitive arrays. The tree is laid out
+ * implicitly in a permutation of the point indices (the median of each range being the node), so that it does not
+ * allocate any node object. Once built, it can be queried concurrently from several threads: queries only use the
+ * buffers passed by the caller.
+ */
+public class PointKdTree {
+
+	final double[] xs, ys;
+	final int[] tree;
+
+	/**
+	 * Builds a kd-tree over the points (xs[i], ys[i]). The arrays are not copied and must not be modified afterwards.
+	 */
+	public PointKdTree(final double[] xs, final double[] ys) {
+		this.xs = xs;
+		this.ys = ys;
+		tree = new int[xs.length];
+		for (int i = 0; i < tree.length; i++) {
+			tree[i] = i;
+		}
+		build(0, tree.length, true);
+	}
+
+	public int size() {
+		return tree.length;
+	}
+
+	public double getX(final int index) {
+		return xs[index];
+	}
+
+	public double getY(final int index) {
+		return ys[index];
+	}
+
+	private void build(final int from, final int to, final boolean vertical) {
+		if (to - from <= 1) { return; }
+		final int median = (from + to) >>> 1;
+		select(from, to - 1, median, vertical);
+		build(from, median, !vertical);
+		build(median + 1, to, !vertical);
+	}
+
+	/**
+	 * Quickselect: partially sorts tree[from..to] so that tree[k] holds the median along the given axis
+	 */
+	private void select(final int from, final int to, final int k, final boolean vertical) {
+		int lo = from, hi = to;
+		while (hi > lo) {
+			final double pivot = coord(tree[(lo + hi) >>> 1], vertical);
+			int i = lo, j = hi;
+			while (i <= j) {
+				while (coord(tree[i], vertical) < pivot) {
+					i++;
+				}
+				while (coord(tree[j], vertical) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					final int tmp = tree[i];
+					tree[i++] = tree[j];
+					tree[j--] = tmp;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private double coord(final int index, final boolean vertical) {
+		return vertical ? xs[index] : ys[index];
+	}
+
+	/**
+	 * Finds the k nearest points of (x, y) whose distance is less than or equal to maxDistance.
+	 *
+	 * @param k
+	 *            the maximum number of neighbours to return
+	 * @param maxDistance
+	 *            the search radius (use Double.POSITIVE_INFINITY for an unbounded search)
+	 * @param indices
+	 *            a buffer of length >= k that receives the indices of the neighbours
+	 * @param squaredDistances
+	 *            a buffer of length >= k that receives the squared distances of the neighbours
+	 * @return the number of neighbours found (<= k). The results are not sorted
+	 */
+	public int nearest(final double x, final double y, final int k, final double maxDistance, final int[] indices,
+			final double[] squaredDistances) {
+		if (k <= 0 || tree.length == 0) { return 0; }
+		final double max = maxDistance == Double.POSITIVE_INFINITY ? maxDistance : maxDistance * maxDistance;
+		return search(0, tree.length, true, x, y, k, max, indices, squaredDistances, 0);
+	}
+
+	private int search(final int from, final int to, final boolean vertical, final double x, final double y,
+			final int k, final double max, final int[] indices, final double[] dists, final int found) {
+		if (to <= from) { return found; }
+		final int median = (from + to) >>> 1;
+		final int index = tree[median];
+		int count = found;
+		final double dx = xs[index] - x, dy = ys[index] - y;
+		final double d = dx * dx + dy * dy;
+		if (d <= max) {
+			count = offer(index, d, k, indices, dists, count);
+		}
+		final double delta = vertical ? x - xs[index] : y - ys[index];
+		final boolean left = delta < 0;
+		count = left ? search(from, median, !vertical, x, y, k, max, indices, dists, count)
+				: search(median + 1, to, !vertical, x, y, k, max, indices, dists, count);
+		final double bound = count == k ? Math.min(max, dists[0]) : max;
+		if (delta * delta <= bound) {
+			count = left ? search(median + 1, to, !vertical, x, y, k, max, indices, dists, count)
+					: search(from, median, !vertical, x, y, k, max, indices, dists, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Inserts a candidate into the bounded max-heap stored in (indices, dists), whose root (index 0) is the farthest
+	 * of the retained neighbours.
+	 */
+	private static int offer(final int index, final double d, final int k, final int[] indices, final double[] dists,
+			final int count) {
+		if (count < k) {
+			int i = count;
+			while (i > 0) {
+				final int parent = (i - 1) >>> 1;
+				if (dists[parent] >= d) {
+					break;
+				}
+				dists[i] = dists[parent];
+				indices[i] = indices[parent];
+				i = parent;
+			}
+			dists[i] = d;
+			indices[i] = index;
+			return count + 1;
+		}
+		if (d >= dists[0]) { return count; }
+		int i = 0;
+		while (true) {
+			final int l = 2 * i + 1;
+			if (l >= k) {
+				break;
+			}
+			final int r = l + 1;
+			final int c = r < k && dists[r] > dists[l] ? r : l;
+			if (dists[c] <= d) {
+				break;
+			}
+			dists[i] = dists[c];
+			indices[i] = indices[c];
+			i = c;
+		}
+		dists[i] = d;
+		indices[i] = index;
+		return count;
+	}
+
+}
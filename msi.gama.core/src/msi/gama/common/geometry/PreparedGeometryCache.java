@@ -0,0 +1,181 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.common.geometry.PreparedGeometryCache.java, in plugin msi.gama.core, is part of the source code of the
+ * GAMA modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.common.geometry;
+
+import static msi.gama.common.geometry.GeometryUtils.PREPARED_GEOMETRY_FACTORY;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+
+import msi.gama.common.preferences.GamaPreferences;
+import msi.gama.metamodel.shape.GamaShape;
+import msi.gama.metamodel.shape.IShape;
+
+/**
+ * The prepared versions (see {@link PreparedGeometry}) of the geometries of the shapes used in spatial predicates
+ * (intersects, covers, overlapping, inside...). Preparing a geometry indexes its segments, which makes repeated
+ * predicates against it much faster, but has a cost that is only worth paying if the geometry has a certain number of
+ * vertices and is tested several times: a geometry of at least MIN_POINTS vertices is only prepared when it is tested
+ * for the MIN_USES-th time.
+ *
+ * The state of a geometry (the number of times it has been tested, then its prepared version) is kept in an
+ * {@link Entry} stored in the data of its shape (see {@link GamaShape#getPreparedGeometry()}), i.e. in the user data
+ * of the geometry itself, so that it disappears with the geometry and no global map retains it. Shapes change
+ * geometry either by replacing it (in which case their entry is dropped, see {@link GamaShape#setInnerGeometry}) or
+ * by modifying its coordinates in place (translation, rotation, moves of vertices...), after which
+ * {@link GamaShape#geometryChanged(Geometry)} drops the entry of the geometry, even if its envelope has not changed.
+ * As a last resort for the code that modifies geometries without calling it, an entry also starts over whenever the
+ * geometry or its envelope differ from the ones it has been created for.
+ *
+ * Prepared geometries are thread-safe in JTS. Entries are read without locking, through a single volatile and
+ * immutable {@link State}, so that agents running in parallel do not wait for each other: at worst, two agents
+ * prepare the same geometry at the same time and one of the results is discarded.
+ *
+ * Statistics are maintained; they are written in the console at the end of each simulation if the preference
+ * pref_optimize_statistics is set (see {@link #reportStatistics()}).
+ */
+public class PreparedGeometryCache {
+
+	/**
+	 * The minimal number of vertices for a geometry to be prepared. Smaller geometries are tested directly
+	 */
+	public static final int MIN_POINTS = 16;
+
+	/**
+	 * The number of times a geometry must be tested before being prepared
+	 */
+	public static final int MIN_USES = 2;
+
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder UNPREPARED = new LongAdder();
+	private static final LongAdder PREPARED = new LongAdder();
+	private static final LongAdder INVALIDATIONS = new LongAdder();
+
+	/**
+	 * A geometry, the envelope it had and its prepared version, if any
+	 */
+	private static final class State {
+		final Geometry geometry;
+		final Envelope envelope;
+		final PreparedGeometry prepared;
+
+		State(final Geometry geometry, final Envelope envelope, final PreparedGeometry prepared) {
+			this.geometry = geometry;
+			this.envelope = envelope;
+			this.prepared = prepared;
+		}
+
+		boolean isValidFor(final Geometry g, final Envelope e) {
+			return geometry == g && envelope.equals(e);
+		}
+	}
+
+	/**
+	 * The state of the preparation of a geometry, stored with it
+	 */
+	public static final class Entry {
+		private volatile State state;
+		private final AtomicInteger uses = new AtomicInteger();
+
+		PreparedGeometry get(final Geometry g) {
+			final Envelope e = g.getEnvelopeInternal();
+			final State s = state;
+			if (s == null || !s.isValidFor(g, e)) {
+				if (s != null && s.prepared != null) {
+					INVALIDATIONS.increment();
+				}
+				state = new State(g, e, null);
+				uses.set(0);
+			} else if (s.prepared != null) {
+				HITS.increment();
+				return s.prepared;
+			}
+			if (uses.incrementAndGet() < MIN_USES) {
+				UNPREPARED.increment();
+				return null;
+			}
+			PREPARED.increment();
+			final PreparedGeometry result = PREPARED_GEOMETRY_FACTORY.create(g);
+			state = new State(g, e, result);
+			return result;
+		}
+	}
+
+	/**
+	 * Whether the geometry is complex enough to be prepared (and the optimization enabled in the preferences)
+	 */
+	public static boolean isEligible(final Geometry g) {
+		return g != null && GamaPreferences.External.PREPARED_GEOMETRY_OPTIMIZATION.getValue()
+				&& g.getNumPoints() >= MIN_POINTS;
+	}
+
+	/**
+	 * Returns the prepared version of the geometry, given the entry stored with it, or null if it is not worth
+	 * preparing (yet)
+	 */
+	public static PreparedGeometry prepared(final Geometry g, final Entry entry) {
+		return entry.get(g);
+	}
+
+	/**
+	 * Returns the prepared version of the geometry of the shape (or agent), or null if it is not worth preparing (yet)
+	 */
+	public static PreparedGeometry cached(final IShape shape) {
+		final IShape s = shape == null ? null : shape.getGeometry();
+		return s instanceof GamaShape ? ((GamaShape) s).getPreparedGeometry() : null;
+	}
+
+	/**
+	 * Returns a prepared version of the geometry of the shape: the cached one if there is one, a new one otherwise
+	 * (for instance when the prepared geometry is used against many others during a single operation).
+	 */
+	public static PreparedGeometry of(final IShape shape) {
+		final PreparedGeometry result = cached(shape);
+		return result == null ? PREPARED_GEOMETRY_FACTORY.create(shape.getInnerGeometry()) : result;
+	}
+
+	public static long getHits() {
+		return HITS.sum();
+	}
+
+	public static long getPrepared() {
+		return PREPARED.sum();
+	}
+
+	public static long getInvalidations() {
+		return INVALIDATIONS.sum();
+	}
+
+	public static String getStatistics() {
+		final long hits = getHits();
+		final long total = hits + getPrepared() + UNPREPARED.sum();
+		return "Prepared geometries: " + getPrepared() + " prepared, " + hits + " hits / " + total + " requests ("
+				+ (total == 0 ? 0 : 100 * hits / total) + "%), " + getInvalidations() + " invalidations";
+	}
+
+	/**
+	 * Returns the statistics gathered since the previous report, and resets them, or null if there are none
+	 */
+	public static String reportStatistics() {
+		if (HITS.sum() + PREPARED.sum() + UNPREPARED.sum() == 0) { return null; }
+		final String result = getStatistics();
+		HITS.reset();
+		UNPREPARED.reset();
+		PREPARED.reset();
+		INVALIDATIONS.reset();
+		return result;
+	}
+
+}
@@ -66,7 +66,7 @@ import one.util.streamex.StreamEx;
 public class GamaPreferences {
 
 	public static final List<String> GENERATOR_NAMES =
-			Arrays.asList(IKeyword.CELLULAR, IKeyword.JAVA, IKeyword.MERSENNE);
+			Arrays.asList(IKeyword.CELLULAR, IKeyword.JAVA, IKeyword.MERSENNE, IKeyword.SPLITMIX);
 
 	public static final ValueProvider<GamaColor>[] BASIC_COLORS = new ValueProvider[] {
 			() -> new GamaColor(74, 97, 144), () -> new GamaColor(66, 119, 42), () -> new GamaColor(83, 95, 107),
@@ -360,6 +360,12 @@ public class GamaPreferences {
 				"Keep values in memory (to save them as CSV)", true, IType.BOOL, true).in(NAME, CHARTS);
 		public static final Pref<Boolean> CHART_GRIDLINES =
 				create("pref_chart_display_gridlines", "Display grid lines", true, IType.BOOL, true).in(NAME, CHARTS);
+		public static final Pref<Integer> CHART_HISTORY_LENGTH = create("pref_chart_history_length",
+				"Max. number of values kept by each series (-1 = unlimited, the oldest are forgotten)", -1, IType.INT,
+				true).in(NAME, CHARTS);
+		public static final Pref<Integer> CHART_MAX_POINTS = create("pref_chart_max_points",
+				"Max. number of points drawn by each series of a 'series' chart (-1 = unlimited, the others are skipped)",
+				2000, IType.INT, true).in(NAME, CHARTS);
 		/**
 		 * Drawing methods and defaults
 		 */
@@ -491,12 +497,33 @@ public class GamaPreferences {
 		public static final Pref<Boolean> QUADTREE_SYNCHRONIZATION = create("pref_synchronize_quadtree",
 				"Forces the spatial index to synchronize its operations. Useful for interactive models where the user may interfere.",
 				true, IType.BOOL, true).in(NAME, OPTIMIZATIONS);
+		public static final Pref<Boolean> PREPARED_GEOMETRY_OPTIMIZATION = create("pref_optimize_prepared_geometries",
+				"Optimize spatial predicates (intersects, covers, overlapping, inside...) by caching prepared versions of complex geometries",
+				true, IType.BOOL, true).in(NAME, OPTIMIZATIONS);
 		public static final Pref<Boolean> USE_POOLING =
 				create("pref_use_pooling", "Use object pooling to reduce memory usage (still experimental)", false,
 						IType.BOOL, true).in(NAME, OPTIMIZATIONS);
 		public static final Pref<Double> TOLERANCE_POINTS =
 				create("pref_point_tolerance", "Tolerance for the comparison of points", 0.0, IType.FLOAT, true)
 						.in(NAME, OPTIMIZATIONS);
+		public static final Pref<Boolean> SAVE_BUFFERING = create("pref_optimize_save_buffering",
+				"Keep the text and csv files written by 'save' open and write them in the background (they are complete at the end of each cycle)",
+				false, IType.BOOL, true).in(NAME, OPTIMIZATIONS);
+		public static final Pref<Boolean> PARALLEL_COMPILATION = create("pref_optimize_parallel_compilation",
+				"Validate and compile the species and experiments of models in parallel (experimental)", false, IType.BOOL, true)
+						.in(NAME, OPTIMIZATIONS);
+		public static final Pref<Boolean> MODEL_DESCRIPTION_CACHE = create("pref_optimize_model_cache",
+				"Reuse the validated description of a model when it is compiled again and its files have not changed",
+				true, IType.BOOL, true).in(NAME, OPTIMIZATIONS);
+		public static final Pref<Boolean> ITERATOR_FUSION = create("pref_optimize_iterator_fusion",
+				"Evaluate chains of iterator operators (e.g. where followed by collect and sum) without intermediate lists",
+				true, IType.BOOL, true).in(NAME, OPTIMIZATIONS);
+		public static final Pref<Boolean> BDI_RULE_MATCHING = create("pref_optimize_bdi_rules",
+				"Skip the BDI rules whose conditions can not have changed since they were last found unsatisfied",
+				true, IType.BOOL, true).in(NAME, OPTIMIZATIONS);
+		public static final Pref<Boolean> OPTIMIZATION_STATISTICS = create("pref_optimize_statistics",
+				"Report in the console the statistics of the optimizations (durations of the compilation, prepared geometries at the end of simulations)",
+				false, IType.BOOL, true).in(NAME, OPTIMIZATIONS);
 
 		/**
 		 * Paths to libraries
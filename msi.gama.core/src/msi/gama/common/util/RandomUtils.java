@@ -14,6 +14,7 @@ import java.math.BigDecimal;
 import java.security.SecureRandom;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
 
 import msi.gama.common.interfaces.IKeyword;
@@ -22,6 +23,7 @@ import msi.gama.util.random.CellularAutomatonRNG;
 import msi.gama.util.random.GamaRNG;
 import msi.gama.util.random.JavaRNG;
 import msi.gama.util.random.MersenneTwisterRNG;
+import msi.gama.util.random.SplitMixRNG;
 import msi.gaml.operators.Maths;
 import ummisco.gama.dev.utils.DEBUG;
 
@@ -35,18 +37,28 @@ public class RandomUtils {
 	private String generatorName;
 	/** The generator. */
 	private GamaRNG generator;
+	/** The generator from which this one has been split, if any */
+	private GamaRNG origin;
+	/** The number of times streams have been derived from this generator (see {@link #derive(int)}) */
+	private long derivations;
 
 	public static class State {
 
 		public State(final Double seed, final String generatorName, final int usage) {
+			this(seed, generatorName, usage, 0);
+		}
+
+		public State(final Double seed, final String generatorName, final int usage, final long derivations) {
 			this.seed = seed;
 			this.generatorName = generatorName;
 			this.usage = usage;
+			this.derivations = derivations;
 		}
 
 		Double seed;
 		String generatorName;
 		int usage;
+		long derivations;
 
 	}
 
@@ -68,24 +80,90 @@ public class RandomUtils {
 		this(GamaPreferences.External.CORE_RNG.getValue());
 	}
 
+	/**
+	 * Creates a stream split from a splittable generator (see {@link #split(long)})
+	 */
+	private RandomUtils(final RandomUtils origin, final GamaRNG generator) {
+		this.seed = origin.seed;
+		this.generatorName = origin.generatorName;
+		this.generator = generator;
+		this.origin = origin.generator;
+	}
+
+	/**
+	 * Whether independent streams can be split from this generator
+	 */
+	public boolean isSplittable() {
+		return generator instanceof SplitMixRNG;
+	}
+
+	/**
+	 * Returns a new stream of random numbers, which only depends on the seed of this generator and on the key (and not
+	 * on the numbers already drawn). Only possible if the generator is splittable; otherwise, returns this generator.
+	 */
+	public RandomUtils split(final long key) {
+		if (!isSplittable()) { return this; }
+		return new RandomUtils(this, ((SplitMixRNG) generator).split(key));
+	}
+
+	/**
+	 * Returns n independent streams derived from this generator, for the tasks of a computation executed in parallel,
+	 * without drawing numbers from it. The streams depend on the seed of this generator, on the numbers already drawn
+	 * from it and on the number of times streams have been derived from it before, so that they are the same in all the
+	 * runs with the same seed, whatever the scheduling of the tasks.
+	 */
+	public synchronized RandomUtils[] derive(final int n) {
+		final long key = SplitMixRNG.combine(SplitMixRNG.combine(Double.doubleToLongBits(seed), getUsage()),
+				derivations++);
+		final RandomUtils[] result = new RandomUtils[n];
+		for (int i = 0; i < n; i++) {
+			final long k = SplitMixRNG.combine(key, i);
+			result[i] = isSplittable() ? split(k) : new RandomUtils((double) k, generatorName);
+		}
+		return result;
+	}
+
+	/**
+	 * Whether this stream has been split from the current generator of the other one (i.e. neither its seed nor its
+	 * generator have changed since)
+	 */
+	public boolean isSplitFrom(final RandomUtils other) {
+		return origin != null && origin == other.generator;
+	}
+
 	public State getState() {
-		return new State(seed, generatorName, generator.getUsage());
+		return new State(seed, generatorName, generator.getUsage(), derivations);
 	}
 
 	public void setState(final State state) {
 		setSeed(state.seed, false);
 		setGenerator(state.generatorName, true);
 		generator.setUsage(state.usage);
+		derivations = state.derivations;
+	}
+
+	/**
+	 * Makes this stream continue from the state of another one, split with the same key from a generator with the same
+	 * seed (e.g. the stream of an agent saved with it), by drawing again the numbers it had drawn. Does nothing if the
+	 * state comes from a different seed or generator.
+	 */
+	public void resume(final State state) {
+		if (!Objects.equals(state.seed, seed) || !Objects.equals(state.generatorName, generatorName)) { return; }
+		generator.setUsage(state.usage);
+		derivations = state.derivations;
 	}
 
 	/**
 	 * Inits the generator.
 	 */
 	private void initGenerator() {
+		derivations = 0;
 		if (generatorName.equals(IKeyword.CELLULAR)) {
 			generator = new CellularAutomatonRNG(this);
 		} else if (generatorName.equals(IKeyword.JAVA)) {
 			generator = new JavaRNG(this);
+		} else if (generatorName.equals(IKeyword.SPLITMIX)) {
+			generator = new SplitMixRNG(this);
 		} else {
 			/* By default */
 			generator = new MersenneTwisterRNG(this);
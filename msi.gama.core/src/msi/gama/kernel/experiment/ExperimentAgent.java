@@ -106,12 +106,13 @@ import ummisco.gama.dev.utils.DEBUG;
 		@variable (
 				name = IKeyword.RNG,
 				type = IType.STRING,
-				doc = @doc ("The random number generator to use for this simulation. Three different ones are at the disposal of the modeler: "
+				doc = @doc ("The random number generator to use for this simulation. Four different ones are at the disposal of the modeler: "
 						+ IKeyword.MERSENNE
 						+ " represents the default generator, based on the Mersenne-Twister algorithm. Very reliable; "
 						+ IKeyword.CELLULAR
-						+ " is a cellular automaton based generator that should be a bit faster, but less reliable; and "
-						+ IKeyword.JAVA + " invokes the standard Java generator")),
+						+ " is a cellular automaton based generator that should be a bit faster, but less reliable; "
+						+ IKeyword.JAVA + " invokes the standard Java generator; and " + IKeyword.SPLITMIX
+						+ " is a splittable generator that gives each agent its own stream of random numbers, derived from the seed, so that agents executed in parallel draw the same numbers whatever the number of threads")),
 		@variable (
 				name = SimulationAgent.USAGE,
 				type = IType.INT,
@@ -20,6 +20,7 @@ import java.util.Map.Entry;
 import com.vividsolutions.jts.geom.Geometry;
 
 import msi.gama.common.geometry.Envelope3D;
+import msi.gama.common.geometry.PreparedGeometryCache;
 import msi.gama.common.interfaces.IKeyword;
 import msi.gama.common.preferences.GamaPreferences;
 import msi.gama.common.util.RandomUtils;
@@ -95,12 +96,13 @@ import msi.gaml.types.IType;
 		@variable (
 				name = IKeyword.RNG,
 				type = IType.STRING,
-				doc = @doc ("The random number generator to use for this simulation. Three different ones are at the disposal of the modeler: "
+				doc = @doc ("The random number generator to use for this simulation. Four different ones are at the disposal of the modeler: "
 						+ IKeyword.MERSENNE
 						+ " represents the default generator, based on the Mersenne-Twister algorithm. Very reliable; "
 						+ IKeyword.CELLULAR
-						+ " is a cellular automaton based generator that should be a bit faster, but less reliable; and "
-						+ IKeyword.JAVA + " invokes the standard Java generator")),
+						+ " is a cellular automaton based generator that should be a bit faster, but less reliable; "
+						+ IKeyword.JAVA + " invokes the standard Java generator; and " + IKeyword.SPLITMIX
+						+ " is a splittable generator that gives each agent its own stream of random numbers, derived from the seed, so that agents executed in parallel draw the same numbers whatever the number of threads")),
 		@variable (
 				name = IKeyword.EXPERIMENT,
 				type = ITypeProvider.EXPERIMENT_TYPE,
@@ -128,7 +130,7 @@ import msi.gaml.types.IType;
 		@variable (
 				name = SimulationAgent.USAGE,
 				type = IType.INT,
-				doc = @doc ("Returns the number of times the random number generator of the simulation has been drawn")),
+				doc = @doc ("Returns the number of times the random number generator of the simulation has been drawn. When the generator is 'splitmix', the agents draw from their own streams, which are not counted here: their states are saved and restored with the agents")),
 		@variable (
 				name = SimulationAgent.PAUSED,
 				type = IType.BOOL,
@@ -339,6 +341,12 @@ public class SimulationAgent extends GamlAgent implements ITopLevelAgent {
 	public void dispose() {
 		if (dead) { return; }
 		executer.executeDisposeActions();
+		if (GamaPreferences.External.OPTIMIZATION_STATISTICS.getValue()) {
+			final String statistics = PreparedGeometryCache.reportStatistics();
+			if (statistics != null) {
+				getScope().getGui().getConsole().informConsole(statistics, this, null);
+			}
+		}
 		// hqnghi if simulation come from popultion extern, dispose pop first
 		// and then their outputs
 
@@ -17,8 +17,10 @@ import java.util.List;
 import java.util.Map;
 
 import msi.gama.common.interfaces.IKeyword;
+import msi.gama.common.util.RandomUtils;
 import msi.gama.metamodel.population.IPopulation;
 import msi.gama.metamodel.shape.GamaShape;
+import msi.gama.runtime.ExecutionScope;
 import msi.gama.runtime.IScope;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
 import msi.gama.util.GamaMap;
@@ -130,6 +132,11 @@ public class SavedAgent extends GamaMap<String, Object> {
 					if (UNSAVABLE_VARIABLES.contains(attrName)) { return true; }
 					if (species.getVarNames().contains(attrName)) { return true; }
 					if (val instanceof IPopulation) { return true; }
+					if (val instanceof RandomUtils && ExecutionScope.RANDOM_STREAM.equals(attrName)) {
+						// Only the state of the random stream of the agent is saved, from which it resumes
+						shape.setAttribute(attrName, ((RandomUtils) val).getState());
+						return true;
+					}
 					shape.setAttribute(attrName, val);
 					return true;
 				});
@@ -31,6 +31,7 @@ import static msi.gaml.descriptions.VariableDescription.INIT_DEPENDENCIES_FACETS
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -72,6 +73,7 @@ import msi.gama.util.graph.AbstractGraphNodeAgent;
 import msi.gaml.compilation.IAgentConstructor;
 import msi.gaml.descriptions.ActionDescription;
 import msi.gaml.descriptions.TypeDescription;
+import msi.gaml.descriptions.VariableDescription;
 import msi.gaml.expressions.IExpression;
 import msi.gaml.operators.Cast;
 import msi.gaml.species.ISpecies;
@@ -121,6 +123,11 @@ public class GamaPopulation<T extends IAgent> extends GamaList<T> implements IPo
 	 */
 	private LinkedList<IPopulation.Listener> listeners = null;
 
+	/**
+	 * The indexes of the attributes declared with the facet 'indexed:', if any
+	 */
+	private final Map<String, PopulationIndex> indexes;
+
 	public final static IPopulation.IsLiving isLiving = new IPopulation.IsLiving();
 
 	class MirrorPopulationManagement implements IExecutable {
@@ -187,7 +194,32 @@ public class GamaPopulation<T extends IAgent> extends GamaList<T> implements IPo
 		});
 		isInitOverriden = result[0];
 		isStepOverriden = result[1];
+		Map<String, PopulationIndex> indexed = null;
+		for (final String name : ecd.getAttributeNames()) {
+			final VariableDescription vd = ecd.getAttribute(name);
+			if (vd != null && vd.hasFacet(IKeyword.INDEXED)) {
+				if (indexed == null) {
+					indexed = new HashMap<>();
+				}
+				final PopulationIndex index =
+						new PopulationIndex(name, PopulationIndex.SORTED.equals(vd.getLitteral(IKeyword.INDEXED)));
+				indexed.put(name, index);
+				addListener(index);
+			}
+		}
+		indexes = indexed;
+
+	}
+
+	/**
+	 * Returns the index maintained on the attribute, or null if it is not indexed
+	 */
+	public PopulationIndex getIndex(final String attribute) {
+		return indexes == null ? null : indexes.get(attribute);
+	}
 
+	public boolean hasIndexes() {
+		return indexes != null;
 	}
 
 	@Override
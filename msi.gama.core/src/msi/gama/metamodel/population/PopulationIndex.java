@@ -0,0 +1,218 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.metamodel.population.PopulationIndex.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.metamodel.population;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import msi.gama.metamodel.agent.IAgent;
+import msi.gama.runtime.IScope;
+import msi.gaml.expressions.BinaryOperator;
+import msi.gaml.expressions.EachExpression;
+import msi.gaml.expressions.IExpression;
+import msi.gaml.expressions.IVarExpression;
+
+/**
+ * An index of the agents of a population by the value of one of their attributes (declared with the facet 'indexed:').
+ * A 'hash' index answers equality tests, a 'sorted' one answers equality tests and comparisons. The index is updated
+ * when the attribute is assigned (see Variable), when agents are added to the population and when they die.
+ *
+ * The filters used by the iterator operators (where, count, first_with) on a species are examined by
+ * {@link #candidates(IScope, IPopulation, IExpression)}: if one of their terms (or one of the terms of their
+ * conjunction) compares an indexed attribute of each to an expression that does not depend on each, only the agents
+ * found in the index are tested. This expression is then evaluated once instead of once per agent.
+ */
+public class PopulationIndex implements IPopulation.Listener {
+
+	public static final String HASH = "hash";
+	public static final String SORTED = "sorted";
+
+	private static final Comparator<IAgent> BY_INDEX = Comparator.comparingInt(IAgent::getIndex);
+
+	final String attribute;
+	final boolean sorted;
+	// Numbers are stored as doubles so that, for instance, 3 and 3.0 are the same key
+	private final Map<Object, Set<IAgent>> agents;
+	private final Map<IAgent, Object> keys = new HashMap<>();
+	// The agents whose value is nil (that cannot be stored in a sorted map)
+	private final Set<IAgent> nils = new LinkedHashSet<>();
+
+	PopulationIndex(final String attribute, final boolean sorted) {
+		this.attribute = attribute;
+		this.sorted = sorted;
+		this.agents = sorted ? new TreeMap<>() : new HashMap<>();
+	}
+
+	private static Object keyOf(final Object value) {
+		return value instanceof Number ? (Object) ((Number) value).doubleValue() : value;
+	}
+
+	/**
+	 * Records the new value of the attribute of the agent
+	 */
+	public synchronized void update(final IAgent agent, final Object value) {
+		remove(agent);
+		if (value == null) {
+			nils.add(agent);
+			return;
+		}
+		final Object key = keyOf(value);
+		keys.put(agent, key);
+		agents.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(agent);
+	}
+
+	synchronized void remove(final IAgent agent) {
+		if (nils.remove(agent)) { return; }
+		final Object key = keys.remove(agent);
+		if (key == null) { return; }
+		final Set<IAgent> set = agents.get(key);
+		if (set != null && set.remove(agent) && set.isEmpty()) {
+			agents.remove(key);
+		}
+	}
+
+	/**
+	 * The agents whose attribute is equal to the value, sorted by index
+	 */
+	synchronized List<IAgent> equalTo(final Object value) {
+		if (value == null) { return sort(nils); }
+		final Set<IAgent> set = agents.get(keyOf(value));
+		return set == null ? new ArrayList<>() : sort(set);
+	}
+
+	/**
+	 * The agents whose attribute lies between the bounds (null if unbounded), sorted by index. Only available for sorted
+	 * indexes.
+	 */
+	@SuppressWarnings ("unchecked")
+	synchronized List<IAgent> between(final Object lower, final boolean lowerInclusive, final Object upper,
+			final boolean upperInclusive) {
+		NavigableMap<Object, Set<IAgent>> map = (NavigableMap<Object, Set<IAgent>>) agents;
+		if (lower != null) {
+			map = map.tailMap(keyOf(lower), lowerInclusive);
+		}
+		if (upper != null) {
+			map = map.headMap(keyOf(upper), upperInclusive);
+		}
+		final List<IAgent> result = new ArrayList<>();
+		for (final Set<IAgent> set : map.values()) {
+			result.addAll(set);
+		}
+		result.sort(BY_INDEX);
+		return result;
+	}
+
+	private static List<IAgent> sort(final Collection<IAgent> agents) {
+		final List<IAgent> result = new ArrayList<>(agents);
+		result.sort(BY_INDEX);
+		return result;
+	}
+
+	@Override
+	public void notifyAgentAdded(final IScope scope, final IPopulation<? extends IAgent> pop, final IAgent agent) {
+		update(agent, agent.getAttribute(attribute));
+	}
+
+	@Override
+	public void notifyAgentsAdded(final IScope scope, final IPopulation<? extends IAgent> pop,
+			final Collection<? extends IAgent> added) {
+		for (final IAgent agent : added) {
+			update(agent, agent.getAttribute(attribute));
+		}
+	}
+
+	@Override
+	public void notifyAgentRemoved(final IScope scope, final IPopulation<? extends IAgent> pop, final IAgent agent) {
+		remove(agent);
+	}
+
+	@Override
+	public void notifyAgentsRemoved(final IScope scope, final IPopulation<? extends IAgent> pop,
+			final Collection<? extends IAgent> removed) {
+		for (final IAgent agent : removed) {
+			remove(agent);
+		}
+	}
+
+	@Override
+	public synchronized void notifyPopulationCleared(final IScope scope, final IPopulation<? extends IAgent> pop) {
+		agents.clear();
+		keys.clear();
+		nils.clear();
+	}
+
+	/**
+	 * Returns the agents of the population, sorted by index, that may satisfy the filter according to the indexes of
+	 * the population, or null if the filter cannot use them (in which case all the agents must be tested). The filter
+	 * must still be tested on the agents returned.
+	 */
+	public static List<IAgent> candidates(final IScope scope, final IPopulation<? extends IAgent> pop,
+			final IExpression filter) {
+		if (!(pop instanceof GamaPopulation) || !((GamaPopulation<?>) pop).hasIndexes()
+				|| !(filter instanceof BinaryOperator)) {
+			return null;
+		}
+		final BinaryOperator op = (BinaryOperator) filter;
+		final String name = op.getName();
+		if ("and".equals(name)) {
+			final List<IAgent> result = candidates(scope, pop, op.arg(0));
+			return result != null ? result : candidates(scope, pop, op.arg(1));
+		}
+		if (!"=".equals(name) && !"<".equals(name) && !"<=".equals(name) && !">".equals(name)
+				&& !">=".equals(name)) {
+			return null;
+		}
+		// The comparison is read as: attribute <op> value
+		String attribute = attributeOfEach(op.arg(0));
+		IExpression value = op.arg(1);
+		String comparison = name;
+		if (attribute == null) {
+			attribute = attributeOfEach(op.arg(1));
+			value = op.arg(0);
+			comparison = name.replace('<', '#').replace('>', '<').replace('#', '>');
+		}
+		if (attribute == null || value.findAny(e -> e instanceof EachExpression)) { return null; }
+		final PopulationIndex index = ((GamaPopulation<?>) pop).getIndex(attribute);
+		if (index == null) { return null; }
+		final Object v = value.value(scope);
+		if ("=".equals(comparison)) { return index.equalTo(v); }
+		if (!index.sorted || v == null) { return null; }
+		switch (comparison) {
+			case "<":
+				return index.between(null, false, v, false);
+			case "<=":
+				return index.between(null, false, v, true);
+			case ">":
+				return index.between(v, false, null, false);
+			default:
+				return index.between(v, true, null, false);
+		}
+	}
+
+	/**
+	 * The name of the attribute if the expression is each.attribute, null otherwise
+	 */
+	private static String attributeOfEach(final IExpression e) {
+		if (!(e instanceof BinaryOperator.BinaryVarOperator)) { return null; }
+		final BinaryOperator.BinaryVarOperator access = (BinaryOperator.BinaryVarOperator) e;
+		if (!(access.getOwner() instanceof EachExpression)) { return null; }
+		return ((IVarExpression) access.arg(1)).getName();
+	}
+
+}
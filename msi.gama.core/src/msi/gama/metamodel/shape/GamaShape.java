@@ -26,12 +26,14 @@ import com.vividsolutions.jts.geom.MultiLineString;
 import com.vividsolutions.jts.geom.MultiPolygon;
 import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.TopologyException;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 import com.vividsolutions.jts.util.AssertionFailedException;
 
 import msi.gama.common.geometry.AxisAngle;
 import msi.gama.common.geometry.Envelope3D;
 import msi.gama.common.geometry.GeometryUtils;
 import msi.gama.common.geometry.ICoordinates;
+import msi.gama.common.geometry.PreparedGeometryCache;
 import msi.gama.common.geometry.Scaling3D;
 import msi.gama.common.interfaces.BiConsumerWithPruning;
 import msi.gama.common.interfaces.IAttributed;
@@ -57,6 +59,7 @@ public class GamaShape implements IShape {
 	class ShapeData {
 		private Double depth;
 		private Type type;
+		private volatile PreparedGeometryCache.Entry prepared;
 	}
 
 	protected Geometry geometry;
@@ -430,6 +433,25 @@ public class GamaShape implements IShape {
 		return (ShapeData) o;
 	}
 
+	/**
+	 * Returns the prepared version of the geometry of the shape, or null if it is not worth preparing (yet). See
+	 * PreparedGeometryCache
+	 */
+	public PreparedGeometry getPreparedGeometry() {
+		final Geometry g = geometry;
+		if (!PreparedGeometryCache.isEligible(g) || !(g.getUserData() == null || g.getUserData() instanceof ShapeData)) {
+			return null;
+		}
+		final ShapeData data = getData(true);
+		// Agents running in parallel may both create an entry; one of them is simply lost
+		PreparedGeometryCache.Entry entry = data.prepared;
+		if (entry == null) {
+			entry = new PreparedGeometryCache.Entry();
+			data.prepared = entry;
+		}
+		return PreparedGeometryCache.prepared(g, entry);
+	}
+
 	@Override
 	public Double getWidth() {
 		return getEnvelope().getWidth();
@@ -496,6 +518,23 @@ public class GamaShape implements IShape {
 		} else {
 			geometry = geom;
 		}
+		// The prepared version of a previous geometry (or of the geometry this one has been cloned from, as clones
+		// share their user data) is dropped
+		if (geometry.getUserData() instanceof ShapeData) {
+			((ShapeData) geometry.getUserData()).prepared = null;
+		}
+	}
+
+	/**
+	 * To call after the coordinates of a geometry have been modified in place (instead of
+	 * {@link Geometry#geometryChanged()}): discards the envelope cached by the geometry and its prepared version, if
+	 * any. See PreparedGeometryCache
+	 */
+	public static void geometryChanged(final Geometry g) {
+		g.geometryChanged();
+		if (g.getUserData() instanceof ShapeData) {
+			((ShapeData) g.getUserData()).prepared = null;
+		}
 	}
 
 	@Override
@@ -565,8 +604,13 @@ public class GamaShape implements IShape {
 	@Override
 	public boolean covers(final IShape g) {
 		// WARNING Only 2D now
-		if (g.isPoint()) { return pl.intersects((Coordinate) g.getLocation(), geometry); }
+		final PreparedGeometry pg = getPreparedGeometry();
+		if (g.isPoint()) {
+			if (pg != null) { return pg.covers(GEOMETRY_FACTORY.createPoint((Coordinate) g.getLocation())); }
+			return pl.intersects((Coordinate) g.getLocation(), geometry);
+		}
 		try {
+			if (pg != null) { return pg.covers(g.getInnerGeometry()); }
 			return geometry.covers(g.getInnerGeometry());
 		} catch (final TopologyException e) {
 			try {
@@ -608,8 +652,13 @@ public class GamaShape implements IShape {
 	@Override
 	public boolean intersects(final IShape g) {
 		// WARNING Only 2D now
-		if (g.isPoint()) { return pl.intersects((Coordinate) g.getLocation(), getInnerGeometry()); }
+		final PreparedGeometry pg = getPreparedGeometry();
+		if (g.isPoint()) {
+			if (pg != null) { return pg.intersects(GEOMETRY_FACTORY.createPoint((Coordinate) g.getLocation())); }
+			return pl.intersects((Coordinate) g.getLocation(), getInnerGeometry());
+		}
 		try {
+			if (pg != null) { return pg.intersects(g.getInnerGeometry()); }
 			return getInnerGeometry().intersects(g.getInnerGeometry());
 		} catch (final TopologyException e) {
 			try {
@@ -632,6 +681,8 @@ public class GamaShape implements IShape {
 		// WARNING Only 2D now
 		if (g.isPoint()) { return pl.intersects((Coordinate) g.getLocation(), getInnerGeometry()); }
 		try {
+			final PreparedGeometry pg = getPreparedGeometry();
+			if (pg != null) { return pg.crosses(g.getInnerGeometry()); }
 			return geometry.crosses(g.getInnerGeometry());
 		} catch (final TopologyException e) {
 			try {
@@ -21,11 +21,11 @@ import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
-import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 import com.vividsolutions.jts.geom.util.AffineTransformation;
 
 import msi.gama.common.geometry.Envelope3D;
 import msi.gama.common.geometry.GeometryUtils;
+import msi.gama.common.geometry.PreparedGeometryCache;
 import msi.gama.common.preferences.GamaPreferences;
 import msi.gama.metamodel.agent.IAgent;
 import msi.gama.metamodel.population.IPopulation;
@@ -231,6 +231,21 @@ public abstract class AbstractTopology implements ITopology {
 		getSpatialIndex().insert(agent);
 	}
 
+	@Override
+	public void updateAgents(final Map<IAgent, Envelope3D> previous) {
+		final boolean all = !GamaPreferences.External.QUADTREE_OPTIMIZATION.getValue();
+		final ISpatialIndex index = getSpatialIndex();
+		previous.forEach((agent, envelope) -> {
+			if (all || speciesInserted.contains(agent.getSpecies())) {
+				if (envelope == null || envelope.isNull()) {
+					index.insert(agent);
+				} else {
+					index.update(envelope, agent);
+				}
+			}
+		});
+	}
+
 	@Override
 	public IShape getEnvironment() {
 		return environment;
@@ -519,8 +534,6 @@ public abstract class AbstractTopology implements ITopology {
 		// scope = null;
 	}
 
-	private final PreparedGeometryFactory pgFact = new PreparedGeometryFactory();
-
 	@Override
 	public Collection<IAgent> getAgentsIn(final IScope scope, final IShape source, final IAgentFilter f,
 			final boolean covered) {
@@ -530,7 +543,7 @@ public abstract class AbstractTopology implements ITopology {
 			final Envelope3D envelope = source.getEnvelope().intersection(environment.getEnvelope());
 			try {
 				final Collection<IAgent> shapes = getSpatialIndex().allInEnvelope(scope, source, envelope, f, covered);
-				final PreparedGeometry pg = pgFact.create(source.getInnerGeometry());
+				final PreparedGeometry pg = PreparedGeometryCache.of(source);
 				shapes.removeIf(each -> {
 					if (each.dead()) { return true; }
 					final Geometry geom = each.getInnerGeometry();
@@ -545,7 +558,7 @@ public abstract class AbstractTopology implements ITopology {
 
 			for (final IShape sourceSub : source.getGeometries()) {
 				final Geometry sourceTo = returnToroidalGeom(sourceSub);
-				final PreparedGeometry pg = pgFact.create(sourceTo);
+				final PreparedGeometry pg = GeometryUtils.PREPARED_GEOMETRY_FACTORY.create(sourceTo);
 				final Map<Geometry, IAgent> agentsMap = getTororoidalAgents(source, scope, f);
 				for (final Geometry sh : agentsMap.keySet()) {
 					final IAgent ag = agentsMap.get(sh);
@@ -80,6 +80,16 @@ public class CompoundSpatialIndex extends Object implements ISpatialIndex.Compou
 		}
 	}
 
+	@Override
+	public void update(final Envelope3D previous, final IAgent agent) {
+		if (disposed) { return; }
+		if (agent == null) { return; }
+		final ISpatialIndex si = findSpatialIndex(agent.getPopulation());
+		if (si != null) {
+			si.update(previous, agent);
+		}
+	}
+
 	private Collection<IAgent> firstAtDistance(final IScope scope, final IShape source, final IAgentFilter filter,
 			final ISpatialIndex index, final int number, final Collection<IAgent> alreadyChosen) {
 		try (final ICollector<IAgent> closestEnt = Collector.getList()) {
@@ -104,6 +104,21 @@ public class GamaQuadTree implements ISpatialIndex {
 		current.dispose();
 	}
 
+	/**
+	 * {@inheritDoc} Point agents that stay in the same leaf are only updated in this leaf
+	 */
+	@Override
+	public void update(final Envelope3D previous, final IAgent agent) {
+		if (agent == null) { return; }
+		if (previous != null && isPoint(previous) && agent.isPoint()
+				&& root.move(previous.centre(), (Coordinate) agent.getLocation(), agent)) {
+			previous.dispose();
+			return;
+		}
+		remove(previous, agent);
+		insert(agent);
+	}
+
 	protected Collection<IAgent> findIntersects(final IScope scope, final IShape source, final Envelope r,
 			final IAgentFilter filter) {
 		// Adresses Issue 722 by explicitly shuffling the results with GAMA
@@ -272,6 +287,23 @@ public class GamaQuadTree implements ISpatialIndex {
 			}
 		}
 
+		/**
+		 * Moves the point agent from one location to the other if both are in the same leaf, which is the one where
+		 * add(to, a) would put it. Returns false, without changing anything, otherwise.
+		 */
+		public boolean move(final Coordinate from, final Coordinate to, final IAgent a) {
+			if (nodes != null) {
+				final int quadrant = quadrant(from);
+				return quadrant == quadrant(to) && nodes[quadrant].move(from, to, a);
+			}
+			if (objects == null || !objects.containsKey(a)) { return false; }
+			final Envelope3D env = objects.put(a, Envelope3D.of(to));
+			if (env != null) {
+				env.dispose();
+			}
+			return true;
+		}
+
 		public boolean shouldSplit() {
 			return canSplit && nodes == null && objects != null && objects.size() >= maxCapacity;
 		}
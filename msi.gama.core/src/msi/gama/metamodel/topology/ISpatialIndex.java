@@ -33,6 +33,11 @@ public interface ISpatialIndex {
 
 	void remove(final Envelope3D previous, final IAgent agent);
 
+	/**
+	 * Moves an agent already in the index from its previous envelope to its current one
+	 */
+	void update(final Envelope3D previous, final IAgent agent);
+
 	IAgent firstAtDistance(IScope scope, final IShape source, final double dist, final IAgentFilter f);
 
 	Collection<IAgent> firstAtDistance(IScope scope, final IShape source, final double dist, final IAgentFilter f,
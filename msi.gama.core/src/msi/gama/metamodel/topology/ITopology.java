@@ -12,6 +12,7 @@ package msi.gama.metamodel.topology;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.vividsolutions.jts.geom.Geometry;
 
@@ -64,6 +65,13 @@ public interface ITopology extends IValue {
 
 	void updateAgent(Envelope3D previous, IAgent agent);
 
+	/**
+	 * Updates the topology after the agents have been moved all together, each one being associated with its envelope
+	 * before the move. Equivalent to, but faster than, calling {@link #updateAgent(Envelope3D, IAgent)} for each of
+	 * them.
+	 */
+	void updateAgents(Map<IAgent, Envelope3D> previous);
+
 	void removeAgent(final IAgent agent);
 
 	List<Geometry> listToroidalGeometries(final Geometry geom);
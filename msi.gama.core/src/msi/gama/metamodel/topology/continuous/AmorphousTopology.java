@@ -13,6 +13,7 @@ package msi.gama.metamodel.topology.continuous;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.vividsolutions.jts.geom.Envelope;
@@ -117,6 +118,11 @@ public class AmorphousTopology implements ITopology {
 		expandableEnvironment.setGeometry(new GamaShape(ng.getInnerGeometry().getEnvelope()));
 	}
 
+	@Override
+	public void updateAgents(final Map<IAgent, Envelope3D> previous) {
+		previous.forEach((agent, envelope) -> updateAgent(envelope, agent));
+	}
+
 	/**
 	 * @see msi.gama.environment.ITopology#removeAgent(msi.gama.interfaces.IAgent)
 	 */
@@ -342,6 +348,9 @@ public class AmorphousTopology implements ITopology {
 			@Override
 			public void remove(final Envelope3D previous, final IAgent agent) {}
 
+			@Override
+			public void update(final Envelope3D previous, final IAgent agent) {}
+
 			@Override
 			public IAgent firstAtDistance(final IScope scope, final IShape source, final double dist,
 					final IAgentFilter f) {
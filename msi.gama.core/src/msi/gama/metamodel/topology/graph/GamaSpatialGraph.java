@@ -10,18 +10,27 @@
  ********************************************************************************************************/
 package msi.gama.metamodel.topology.graph;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import org.jgrapht.Graphs;
 
 import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.index.strtree.STRtree;
 
+import msi.gama.common.geometry.Envelope3D;
 import msi.gama.common.geometry.GeometryUtils;
 import msi.gama.common.util.StringUtils;
+import msi.gama.kernel.simulation.SimulationAgent;
 import msi.gama.metamodel.agent.IAgent;
 import msi.gama.metamodel.population.IPopulation;
 import msi.gama.metamodel.shape.GamaPoint;
@@ -29,6 +38,7 @@ import msi.gama.metamodel.shape.ILocation;
 import msi.gama.metamodel.shape.IShape;
 import msi.gama.metamodel.topology.ITopology;
 import msi.gama.runtime.IScope;
+import msi.gama.runtime.concurrent.GamaExecutorService;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
 import msi.gama.util.GamaListFactory;
 import msi.gama.util.GamaMapFactory;
@@ -53,6 +63,26 @@ public class GamaSpatialGraph extends GamaGraph<IShape, IShape> implements ISpat
 	 * Own topology of the graph. Lazily instantiated, and invalidated at each modification of the graph.
 	 */
 	private ITopology topology;
+	/*
+	 * Compact snapshot of the edges used to move agents along routes. Lazily instantiated, and rebuilt after each
+	 * modification of the graph.
+	 */
+	private volatile GraphRoutes routes;
+	/*
+	 * Envelopes of the vertices when their edges were last computed from the vertex relation. Only instantiated when
+	 * these edges are maintained at each step (see maintainEdges()).
+	 */
+	private Map<IShape, Envelope3D> vertexEnvelopes;
+	/*
+	 * The number of vertices under which the relations are not tested in parallel
+	 */
+	private static final int PARALLEL_VERTICES = 256;
+	/*
+	 * The graphs whose edges are maintained at each step, per simulation. They are updated by a single end action of
+	 * the simulation, which forgets the graphs that are no longer used.
+	 */
+	private static final Map<SimulationAgent, List<WeakReference<GamaSpatialGraph>>> MAINTAINED_GRAPHS =
+			new ConcurrentHashMap<>();
 	private double tolerance = 0;
 	private final Map<Integer, IShape> verticesBuilt; // only used for
 														// optimization
@@ -78,6 +108,15 @@ public class GamaSpatialGraph extends GamaGraph<IShape, IShape> implements ISpat
 
 		boolean equivalent(IScope scope, T p1, T p2);
 
+		/**
+		 * Returns the maximal distance between the envelopes of two related vertices, or a negative value if it is not
+		 * known. When it is known, the candidates to the relation are looked up in a spatial index of the vertices
+		 * instead of testing all the pairs of vertices.
+		 */
+		default double range(final IScope scope) {
+			return -1;
+		}
+
 		// Double distance(T p1, T p2);
 
 	}
@@ -130,6 +169,23 @@ public class GamaSpatialGraph extends GamaGraph<IShape, IShape> implements ISpat
 		for (final IShape p : list.iterable(scope)) {
 			super.addVertex(p);
 		}
+		if (vertexRelation.range(scope) >= 0) {
+			final List<IShape> vertices = new ArrayList<>();
+			for (final IShape p : list.iterable(scope)) {
+				if (p.getAgent() != null) {
+					p.getAgent().setAttribute("attached_graph", this);
+				}
+				vertices.add(p);
+			}
+			// The edges are added in the same order as when testing all the pairs of vertices
+			final int[][] related = related(scope, vertices, vertices);
+			for (int i = 0; i < related.length; i++) {
+				for (final int j : related[i]) {
+					addEdge(vertices.get(i), vertices.get(j));
+				}
+			}
+			return;
+		}
 		for (final IShape o1 : list.iterable(scope)) { // Try to create
 														// automatic edges
 			if (o1.getAgent() != null) {
@@ -169,7 +225,8 @@ public class GamaSpatialGraph extends GamaGraph<IShape, IShape> implements ISpat
 	@Override
 	public boolean addVertex(final IShape v) {
 		final boolean added = super.addVertex(v);
-		if (added && vertexRelation != null) {
+		// When the edges are maintained, those of the new vertex are computed at the end of the step
+		if (added && vertexRelation != null && vertexEnvelopes == null) {
 			for (final IShape o : vertexSet()) {
 				if (!vertexRelation.equivalent(graphScope, v, o) && vertexRelation.related(graphScope, v, o)) {
 					addEdge(v, o);
@@ -179,6 +236,148 @@ public class GamaSpatialGraph extends GamaGraph<IShape, IShape> implements ISpat
 		return added;
 	}
 
+	/**
+	 * For each of the sources, returns the indices (in increasing order) of the vertices to which it is related. If the
+	 * range of the relation is known, the candidates are looked up in a spatial index of the envelopes of the vertices,
+	 * and the relations of the sources are tested in parallel. Otherwise, all the vertices are tested.
+	 */
+	private int[][] related(final IScope scope, final List<IShape> sources, final List<IShape> vertices) {
+		final double range = vertexRelation.range(scope);
+		final STRtree index = range < 0 ? null : new STRtree();
+		if (index != null) {
+			for (int j = 0; j < vertices.size(); j++) {
+				final Envelope3D env = vertices.get(j).getEnvelope();
+				if (env != null) {
+					index.insert(env, j);
+				}
+			}
+			index.build();
+		}
+		final int[][] result = new int[sources.size()][];
+		final IntConsumer relate = i -> {
+			final IShape v = sources.get(i);
+			IntStream candidates;
+			if (index == null) {
+				candidates = IntStream.range(0, vertices.size());
+			} else {
+				final Envelope3D env = v.getEnvelope();
+				if (env == null) {
+					candidates = IntStream.empty();
+				} else {
+					env.expandBy(range);
+					final List<Integer> found = index.query(env);
+					env.dispose();
+					candidates = found.stream().mapToInt(Integer::intValue).sorted();
+				}
+			}
+			result[i] = candidates.filter(j -> {
+				final IShape o = vertices.get(j);
+				return !vertexRelation.equivalent(scope, v, o) && vertexRelation.related(scope, v, o);
+			}).toArray();
+		};
+		if (index == null || sources.size() < PARALLEL_VERTICES) {
+			for (int i = 0; i < result.length; i++) {
+				relate.accept(i);
+			}
+		} else {
+			GamaExecutorService.executeThreaded(() -> IntStream.range(0, result.length).parallel().forEach(relate));
+		}
+		return result;
+	}
+
+	/**
+	 * Makes the graph maintain the edges computed by its vertex relation at the end of each step of the simulation.
+	 * Only the vertices that have been added, or whose envelope has changed, since the previous step have their edges
+	 * recomputed. The vertices that are removed (for instance when agents die) lose their edges immediately.
+	 */
+	public void maintainEdges(final IScope scope) {
+		if (vertexEnvelopes != null || vertexRelation == null || scope.getSimulation() == null) { return; }
+		vertexEnvelopes = new HashMap<>();
+		for (final IShape v : vertexSet()) {
+			vertexEnvelopes.put(v, v.getEnvelope());
+		}
+		final List<WeakReference<GamaSpatialGraph>> graphs =
+				MAINTAINED_GRAPHS.computeIfAbsent(scope.getSimulation(), sim -> {
+					sim.postEndAction(s -> {
+						updateMaintainedGraphs(s);
+						return null;
+					});
+					sim.postDisposeAction(s -> {
+						MAINTAINED_GRAPHS.remove(s.getSimulation());
+						return null;
+					});
+					return new ArrayList<>();
+				});
+		// The graph is not retained by the simulation once it is no longer used
+		synchronized (graphs) {
+			graphs.add(new WeakReference<>(this));
+		}
+	}
+
+	private static void updateMaintainedGraphs(final IScope scope) {
+		final List<WeakReference<GamaSpatialGraph>> graphs = MAINTAINED_GRAPHS.get(scope.getSimulation());
+		if (graphs == null) { return; }
+		final List<GamaSpatialGraph> live = new ArrayList<>();
+		synchronized (graphs) {
+			graphs.removeIf(ref -> {
+				final GamaSpatialGraph g = ref.get();
+				if (g == null) { return true; }
+				live.add(g);
+				return false;
+			});
+		}
+		for (final GamaSpatialGraph g : live) {
+			g.updateEdges(scope);
+		}
+	}
+
+	public boolean isMaintainingEdges() {
+		return vertexEnvelopes != null;
+	}
+
+	private void updateEdges(final IScope scope) {
+		vertexEnvelopes.keySet().removeIf(v -> !containsVertex(v));
+		final List<IShape> vertices = new ArrayList<>(vertexSet());
+		final List<IShape> changed = new ArrayList<>();
+		for (final IShape v : vertices) {
+			final Envelope3D env = v.getEnvelope();
+			final Envelope3D previous = vertexEnvelopes.get(v);
+			if (previous == null ? env == null && vertexEnvelopes.containsKey(v) : previous.equals(env)) {
+				if (env != null) {
+					env.dispose();
+				}
+				continue;
+			}
+			vertexEnvelopes.put(v, env);
+			if (previous != null) {
+				previous.dispose();
+			}
+			changed.add(v);
+		}
+		if (changed.isEmpty()) { return; }
+		final int[][] related = related(scope, changed, vertices);
+		for (int i = 0; i < related.length; i++) {
+			final IShape v = changed.get(i);
+			final Set<IShape> neighbors = new HashSet<>();
+			for (final int j : related[i]) {
+				neighbors.add(vertices.get(j));
+			}
+			for (final Object e : new ArrayList<>(edgesOf(v))) {
+				if (!neighbors.contains(Graphs.getOppositeVertex(this, (IShape) e, v))) {
+					removeEdge(e);
+				}
+			}
+			for (final IShape o : neighbors) {
+				if (!containsEdge(v, o)) {
+					addEdge(v, o);
+				}
+				if (directed && !containsEdge(o, v)) {
+					addEdge(o, v);
+				}
+			}
+		}
+	}
+
 	@Override
 	public ITopology getTopology(final IScope scope) {
 		if (topology == null) {
@@ -187,6 +386,20 @@ public class GamaSpatialGraph extends GamaGraph<IShape, IShape> implements ISpat
 		return topology;
 	}
 
+	public GraphRoutes getRoutes() {
+		GraphRoutes result = routes;
+		if (result == null || result.version != getVersion()) {
+			synchronized (this) {
+				result = routes;
+				if (result == null || result.version != getVersion()) {
+					result = new GraphRoutes(this);
+					routes = result;
+				}
+			}
+		}
+		return result;
+	}
+
 	protected void setTopology(final ITopology topology) {
 		this.topology = topology;
 	}
@@ -0,0 +1,376 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.metamodel.topology.graph.GraphRoutes.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.metamodel.topology.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import msi.gama.common.geometry.Envelope3D;
+import msi.gama.common.interfaces.IKeyword;
+import msi.gama.metamodel.agent.IAgent;
+import msi.gama.metamodel.shape.GamaPoint;
+import msi.gama.metamodel.shape.ILocation;
+import msi.gama.metamodel.shape.IShape;
+import msi.gama.metamodel.topology.ITopology;
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.concurrent.GamaExecutorService;
+import msi.gama.util.GamaListFactory;
+import msi.gama.util.IList;
+import msi.gama.util.path.GamaSpatialPath;
+import msi.gaml.operators.Maths;
+import msi.gaml.types.Types;
+
+/**
+ * A compact, read-only snapshot of the edges of a spatial graph, used to move many agents along precomputed routes. The
+ * coordinates of each edge are stored in a flat array, together with the cumulative length of the edge at each of its
+ * points, so that the location at a given distance from the start of an edge is found by a binary search instead of a
+ * walk through its geometry.
+ *
+ * A route is a sequence of edges (each one traversed in one direction) and the current position of the agent is the
+ * index of an edge in this sequence and a distance along this edge. The routes are computed once (see
+ * {@link #routeOf(IScope, IShape, IShape)}) and all the agents following a route are advanced together by
+ * {@link #advance(IScope, IList)}: their new locations are computed in parallel, the agents are then moved in a
+ * single sequential pass, and the spatial index of their topology is updated at once.
+ *
+ * A snapshot is built for a given version of the graph (see {@link GamaSpatialGraph#getRoutes()}); the routes computed
+ * before a modification of the graph keep following the edges as they were when they were computed.
+ */
+public class GraphRoutes {
+
+	/** The variable of the moving skill giving the edges of the route that remain to be traversed */
+	public static final String CURRENT_ROUTE = "current_route";
+	/** The attribute in which the route of an agent is stored */
+	public static final String ROUTE = "%_current_route_%";
+
+	final GamaSpatialGraph graph;
+	final int version;
+	final IShape[] edges;
+	private final Map<IShape, Integer> indices;
+	// For each edge, its coordinates (x, y, z) and the cumulative length at each of its points
+	private final double[][] coordinates;
+	private final double[][] lengths;
+
+	GraphRoutes(final GamaSpatialGraph graph) {
+		this.graph = graph;
+		this.version = graph.getVersion();
+		final List<IShape> list = graph.getEdges();
+		final int nb = list.size();
+		edges = list.toArray(new IShape[nb]);
+		indices = new HashMap<>(nb * 2);
+		coordinates = new double[nb][];
+		lengths = new double[nb][];
+		for (int i = 0; i < nb; i++) {
+			indices.put(edges[i], i);
+			final Coordinate[] points = edges[i].getInnerGeometry().getCoordinates();
+			final double[] coords = new double[points.length * 3];
+			final double[] cumulated = new double[points.length];
+			for (int j = 0; j < points.length; j++) {
+				coords[3 * j] = points[j].x;
+				coords[3 * j + 1] = points[j].y;
+				coords[3 * j + 2] = Double.isNaN(points[j].z) ? 0d : points[j].z;
+				if (j > 0) {
+					cumulated[j] = cumulated[j - 1] + distance(coords, j - 1, j);
+				}
+			}
+			coordinates[i] = coords;
+			lengths[i] = cumulated;
+		}
+	}
+
+	/**
+	 * A route along the edges of a snapshot. The edges are encoded as their index in the snapshot, or as -(index + 1)
+	 * when they are traversed from their last point to their first one. Offsets are distances from the start of an
+	 * edge in the direction of the traversal.
+	 */
+	public static class Route {
+
+		final GraphRoutes network;
+		final int[] edges;
+		final double endOffset;
+		int current;
+		double offset;
+
+		Route(final GraphRoutes network, final int[] edges, final double startOffset, final double endOffset) {
+			this.network = network;
+			this.edges = edges;
+			this.offset = startOffset;
+			this.endOffset = endOffset;
+		}
+
+		public IShape getCurrentEdge() {
+			return network.edges[index(edges[current])];
+		}
+
+		public boolean isOver() {
+			return current == edges.length - 1 && offset >= endOffset;
+		}
+
+		/**
+		 * The edges that remain to be traversed, starting with the current one
+		 */
+		public IList<IShape> getRemainingEdges() {
+			final IList<IShape> result = GamaListFactory.create(Types.GEOMETRY);
+			for (int i = current; i < edges.length; i++) {
+				result.add(network.edges[index(edges[i])]);
+			}
+			return result;
+		}
+
+	}
+
+	private static int index(final int edge) {
+		return edge < 0 ? -edge - 1 : edge;
+	}
+
+	private static double distance(final double[] coords, final int i, final int j) {
+		final double dx = coords[3 * j] - coords[3 * i];
+		final double dy = coords[3 * j + 1] - coords[3 * i + 1];
+		final double dz = coords[3 * j + 2] - coords[3 * i + 2];
+		return Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+
+	double lengthOf(final int edge) {
+		final double[] cumulated = lengths[index(edge)];
+		return cumulated[cumulated.length - 1];
+	}
+
+	/**
+	 * Computes the shortest route between the two geometries, or returns null if there is none
+	 */
+	public Route routeOf(final IScope scope, final IShape source, final IShape target) {
+		final GamaSpatialPath path = (GamaSpatialPath) graph.getTopology(scope).pathBetween(scope, source, target);
+		if (path == null) { return null; }
+		final IList<IShape> pathEdges = path.getEdgeList();
+		if (pathEdges == null || pathEdges.isEmpty()) { return null; }
+		final int nb = pathEdges.size();
+		final int[] route = new int[nb];
+		for (int i = 0; i < nb; i++) {
+			final Integer index = indices.get(pathEdges.get(i));
+			if (index == null) { return null; }
+			route[i] = index;
+		}
+		final GamaPoint start = (GamaPoint) source.getLocation();
+		final GamaPoint end = (GamaPoint) target.getLocation();
+		if (nb == 1) {
+			final double from = project(route[0], start);
+			final double to = project(route[0], end);
+			if (to < from) {
+				route[0] = -route[0] - 1;
+				final double length = lengthOf(route[0]);
+				return new Route(this, route, length - from, length - to);
+			}
+			return new Route(this, route, from, to);
+		}
+		// Each edge is traversed towards the extremity it shares with the next one, and the last one from the extremity
+		// it shares with the previous one
+		for (int i = 0; i < nb - 1; i++) {
+			if (firstPointIsShared(route[i], route[i + 1])) {
+				route[i] = -route[i] - 1;
+			}
+		}
+		if (!firstPointIsShared(route[nb - 1], route[nb - 2])) {
+			route[nb - 1] = -route[nb - 1] - 1;
+		}
+		return new Route(this, route, offsetOf(route[0], start), offsetOf(route[nb - 1], end));
+	}
+
+	/**
+	 * Whether the first point of the edge is closer to the extremities of the other edge than its last point
+	 */
+	private boolean firstPointIsShared(final int edge, final int other) {
+		final double[] coords = coordinates[edge];
+		final double[] otherCoords = coordinates[index(other)];
+		final int last = coords.length / 3 - 1;
+		final int otherLast = otherCoords.length / 3 - 1;
+		final double first =
+				Math.min(squaredDistance(coords, 0, otherCoords, 0), squaredDistance(coords, 0, otherCoords, otherLast));
+		final double end = Math.min(squaredDistance(coords, last, otherCoords, 0),
+				squaredDistance(coords, last, otherCoords, otherLast));
+		return first < end;
+	}
+
+	private static double squaredDistance(final double[] c1, final int i, final double[] c2, final int j) {
+		final double dx = c2[3 * j] - c1[3 * i];
+		final double dy = c2[3 * j + 1] - c1[3 * i + 1];
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * The offset of the closest point of the (encoded) edge to the point, in the direction of its traversal
+	 */
+	private double offsetOf(final int edge, final GamaPoint p) {
+		final double offset = project(index(edge), p);
+		return edge < 0 ? lengthOf(edge) - offset : offset;
+	}
+
+	/**
+	 * The distance, from the first point of the edge, of the closest point of the edge to the point
+	 */
+	private double project(final int edge, final GamaPoint p) {
+		final double[] coords = coordinates[edge];
+		final double[] cumulated = lengths[edge];
+		double best = Double.MAX_VALUE;
+		double result = 0d;
+		for (int j = 0; j < cumulated.length - 1; j++) {
+			final double x0 = coords[3 * j], y0 = coords[3 * j + 1];
+			final double dx = coords[3 * j + 3] - x0, dy = coords[3 * j + 4] - y0;
+			final double norm = dx * dx + dy * dy;
+			final double t = norm == 0d ? 0d : Math.max(0d, Math.min(1d, ((p.x - x0) * dx + (p.y - y0) * dy) / norm));
+			final double ex = x0 + t * dx - p.x, ey = y0 + t * dy - p.y;
+			final double d = ex * ex + ey * ey;
+			if (d < best) {
+				best = d;
+				result = cumulated[j] + t * (cumulated[j + 1] - cumulated[j]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Writes in result (x, y, z, heading) the location at the given offset of the (encoded) edge, in the direction of
+	 * its traversal
+	 */
+	void locate(final int edge, final double offset, final double[] result) {
+		final int index = index(edge);
+		final double[] coords = coordinates[index];
+		final double[] cumulated = lengths[index];
+		final double length = cumulated[cumulated.length - 1];
+		final double d = Math.max(0d, Math.min(length, edge < 0 ? length - offset : offset));
+		int j = Arrays.binarySearch(cumulated, d);
+		if (j < 0) {
+			j = -j - 2;
+		}
+		j = Math.max(0, Math.min(j, cumulated.length - 2));
+		final double segment = cumulated[j + 1] - cumulated[j];
+		final double t = segment == 0d ? 0d : (d - cumulated[j]) / segment;
+		for (int k = 0; k < 3; k++) {
+			result[k] = coords[3 * j + k] + t * (coords[3 * j + 3 + k] - coords[3 * j + k]);
+		}
+		final double dx = coords[3 * j + 3] - coords[3 * j];
+		final double dy = coords[3 * j + 4] - coords[3 * j + 1];
+		result[3] = edge < 0 ? Maths.atan2(-dy, -dx) : Maths.atan2(dy, dx);
+	}
+
+	/**
+	 * Advances the route by the distance and writes the new location in result (see
+	 * {@link #locate(int, double, double[])}). Returns the distance actually travelled.
+	 */
+	static double advance(final Route route, final double distance, final double[] result) {
+		final GraphRoutes network = route.network;
+		double remaining = distance;
+		while (true) {
+			final boolean last = route.current == route.edges.length - 1;
+			final double end = last ? route.endOffset : network.lengthOf(route.edges[route.current]);
+			if (route.offset + remaining <= end || last) {
+				final double step = Math.max(0d, Math.min(remaining, end - route.offset));
+				route.offset += step;
+				remaining -= step;
+				break;
+			}
+			remaining -= end - route.offset;
+			route.current++;
+			route.offset = 0d;
+		}
+		network.locate(route.edges[route.current], route.offset, result);
+		return distance - remaining;
+	}
+
+	/**
+	 * Moves each agent along its route (see {@link #ROUTE}) by the distance allowed by its speed during one step, and
+	 * returns the agents that have reached the end of their route (whose route is then forgotten). The agents without
+	 * route do not move.
+	 */
+	public static IList<IAgent> advance(final IScope scope, final IList<? extends IAgent> agents) {
+		final IAgent[] movers = agents.toArray(new IAgent[agents.size()]);
+		final int nb = movers.length;
+		final Route[] routes = new Route[nb];
+		final double[] distances = new double[nb];
+		final double step = scope.getClock().getStepInSeconds();
+		for (int i = 0; i < nb; i++) {
+			if (movers[i] == null || movers[i].dead()) {
+				continue;
+			}
+			final Object route = movers[i].getAttribute(ROUTE);
+			if (route instanceof Route) {
+				routes[i] = (Route) route;
+				final Object speed = movers[i].getAttribute(IKeyword.SPEED);
+				distances[i] = speed instanceof Double ? (Double) speed * step : 0d;
+			}
+		}
+		// The new locations and headings are computed in parallel, as they only depend on the routes
+		final double[][] results = new double[nb][];
+		final double[] travelled = new double[nb];
+		final IntStream indices = IntStream.range(0, nb);
+		if (nb < GamaExecutorService.CONCURRENCY_THRESHOLD.getValue()) {
+			indices.forEach(i -> compute(routes, distances, results, travelled, i));
+		} else {
+			GamaExecutorService.executeThreaded(
+					() -> indices.parallel().forEach(i -> compute(routes, distances, results, travelled, i)));
+		}
+		// The agents are then moved sequentially, and the spatial index of each topology updated once at the end
+		final IList<IAgent> arrived = GamaListFactory.create(Types.AGENT);
+		final Map<ITopology, Map<IAgent, Envelope3D>> moved = new IdentityHashMap<>();
+		for (int i = 0; i < nb; i++) {
+			if (results[i] == null) {
+				continue;
+			}
+			final IAgent agent = movers[i];
+			final double[] r = results[i];
+			move(agent, new GamaPoint(r[0], r[1], r[2]), moved);
+			agent.setAttribute(IKeyword.HEADING, Maths.checkHeading(r[3]));
+			agent.setAttribute(IKeyword.REAL_SPEED, step == 0d ? 0d : travelled[i] / step);
+			if (routes[i].isOver()) {
+				agent.setAttribute(ROUTE, null);
+				agent.setAttribute("current_edge", null);
+				arrived.add(agent);
+			} else {
+				agent.setAttribute("current_edge", routes[i].getCurrentEdge());
+			}
+		}
+		moved.forEach(ITopology::updateAgents);
+		return arrived;
+	}
+
+	/**
+	 * Moves the agent without updating the spatial index, and remembers its previous envelope in moved. The agents
+	 * attached to a graph are moved by setLocation(), which also moves the edges attached to them.
+	 */
+	private static void move(final IAgent agent, final GamaPoint location,
+			final Map<ITopology, Map<IAgent, Envelope3D>> moved) {
+		final ITopology topology = agent.getTopology();
+		final IShape geometry = agent.getGeometry();
+		if (topology == null || geometry == null || geometry.getInnerGeometry() == null
+				|| agent.getAttribute("attached_graph") != null) {
+			agent.setLocation(location);
+			return;
+		}
+		final ILocation normalized = topology.normalizeLocation(location, false);
+		if (normalized == null || normalized.equals(geometry.getLocation())) { return; }
+		final Envelope3D previous = geometry.getEnvelope();
+		geometry.setLocation(normalized);
+		moved.computeIfAbsent(topology, t -> new LinkedHashMap<>()).put(agent, previous);
+	}
+
+	private static void compute(final Route[] routes, final double[] distances, final double[][] results,
+			final double[] travelled, final int i) {
+		if (routes[i] == null) { return; }
+		results[i] = new double[4];
+		travelled[i] = advance(routes[i], distances[i], results[i]);
+	}
+
+}
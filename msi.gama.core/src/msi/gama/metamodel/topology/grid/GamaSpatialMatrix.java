@@ -26,6 +26,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import com.google.common.collect.Ordering;
@@ -36,6 +40,7 @@ import com.vividsolutions.jts.operation.distance.DistanceOp;
 
 import msi.gama.common.geometry.Envelope3D;
 import msi.gama.common.geometry.GeometryUtils;
+import msi.gama.common.interfaces.BiConsumerWithPruning;
 import msi.gama.common.interfaces.IKeyword;
 import msi.gama.common.util.JavaUtils;
 import msi.gama.common.util.RandomUtils;
@@ -79,6 +84,7 @@ import msi.gaml.types.GamaMatrixType;
 import msi.gaml.types.IType;
 import msi.gaml.types.Types;
 import msi.gaml.variables.IVariable;
+import msi.gaml.variables.Variable;
 import one.util.streamex.StreamEx;
 
 /**
@@ -110,6 +116,8 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	protected Boolean isHorizontalOrientation = null;
 	protected GridDiffuser diffuser;
 	public INeighborhood neighborhood;
+	// The variables of the cells stored in arrays (see the 'fields' facet of grids)
+	Map<String, GridField> fields;
 
 	int actualNumberOfCells;
 	int firstCell, lastCell;
@@ -128,6 +136,7 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 		}
 		neighborhood = null;
 		gridValue = null;
+		fields = null;
 		_clear();
 		matrix = null;
 		diffuser = null;
@@ -470,12 +479,19 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	@Override
 	public INeighborhood getNeighborhood() {
 		if (neighborhood == null) {
-			if (useNeighborsCache) {
-				neighborhood = isHexagon ? isHorizontalOrientation != null && !isHorizontalOrientation
-						? new GridHexagonalNeighborhoodVertical(this) : new GridHexagonalNeighborhoodHorizontal(this)
-						: usesVN ? new GridVonNeumannNeighborhood(this) : new GridMooreNeighborhood(this);
+			if (isHexagon) {
+				if (useNeighborsCache) {
+					neighborhood = isHorizontalOrientation != null && !isHorizontalOrientation
+							? new GridHexagonalNeighborhoodVertical(this) : new GridHexagonalNeighborhoodHorizontal(this);
+				} else {
+					neighborhood = new NoCacheNeighborhood(this);
+				}
+			} else if (useNeighborsCache && matrix.length <= GridStencilNeighborhood.CACHE_LIMIT) {
+				neighborhood = usesVN ? new GridVonNeumannNeighborhood(this) : new GridMooreNeighborhood(this);
 			} else {
-				neighborhood = new NoCacheNeighborhood(this);
+				// The neighbors of the cells of large grids are not cached, but computed from stencils shared by all
+				// the cells
+				neighborhood = new GridStencilNeighborhood(this);
 			}
 		}
 		return neighborhood;
@@ -507,6 +523,69 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 		return result;
 	}
 
+	@Override
+	public double[] aggregateNeighbors(final IScope scope, final double[] values, final int radius,
+			final int aggregation) {
+		if (isHexagon) {
+			throw GamaRuntimeException.error("The neighbors of the cells of hexagonal grids cannot be aggregated",
+					scope);
+		}
+		if (radius < 1) { throw GamaRuntimeException.error("The radius of the neighborhood must be at least 1", scope); }
+		final INeighborhood n = getNeighborhood();
+		final GridStencilNeighborhood stencils =
+				n instanceof GridStencilNeighborhood ? (GridStencilNeighborhood) n : new GridStencilNeighborhood(this);
+		return stencils.aggregate(values, radius, aggregation);
+	}
+
+	@Override
+	public GridField getField(final String name) {
+		return fields == null ? null : fields.get(name);
+	}
+
+	/**
+	 * Returns the attribute of the cell. The access to the attributes is shared by GamlGridAgent and MinimalGridAgent:
+	 * the attributes stored in a field are read and written in this field, the other ones by the implementation
+	 * inherited by the cell (passed as last argument)
+	 */
+	final Object getCellAttribute(final int index, final String key, final Function<String, Object> inherited) {
+		final GridField field = getField(key);
+		if (field != null) { return field.get(index); }
+		return inherited.apply(key);
+	}
+
+	/**
+	 * Sets the attribute of the cell (see getCellAttribute())
+	 */
+	final void setCellAttribute(final int index, final String key, final Object value,
+			final BiConsumer<String, Object> inherited) {
+		final GridField field = getField(key);
+		if (field != null) {
+			field.set(index, value);
+		} else {
+			inherited.accept(key, value);
+		}
+	}
+
+	/**
+	 * Whether the cells have this attribute (see getCellAttribute())
+	 */
+	final boolean hasCellAttribute(final String key, final Predicate<String> inherited) {
+		return getField(key) != null || inherited.test(key);
+	}
+
+	/**
+	 * Visits the fields of the cell, then its other attributes (unless the visitor stops before)
+	 */
+	final void forEachCellAttribute(final int index, final BiConsumerWithPruning<String, Object> visitor,
+			final Consumer<BiConsumerWithPruning<String, Object>> inherited) {
+		if (fields != null) {
+			for (final GridField field : fields.values()) {
+				if (!visitor.process(field.getName(), field.get(index))) { return; }
+			}
+		}
+		inherited.accept(visitor);
+	}
+
 	public double getGridValue(final int col, final int row) {
 		final int index = getPlaceIndexAt(col, row);
 		if (index != -1) { return gridValue[index]; }
@@ -1376,6 +1455,9 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 	@Override
 	public void remove(final Envelope3D previous, final IAgent a) {}
 
+	@Override
+	public void update(final Envelope3D previous, final IAgent a) {}
+
 	//
 	@Override
 	public Set<IAgent> allAtDistance(final IScope scope, final IShape source, final double dist, final IAgentFilter f) {
@@ -1631,6 +1713,7 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 				}
 			}
 
+			initializeFields(scope);
 			for (final String s : orderedVarNames) {
 				final IVariable var = species.getVar(s);
 				for (int i = 0; i < actualNumberOfCells; i++) {
@@ -1651,6 +1734,34 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 
 		}
 
+		/**
+		 * Creates the arrays of the variables listed in the 'fields' facet of the species, which must be int or float
+		 * variables declared in the model
+		 */
+		private void initializeFields(final IScope scope) {
+			final IExpression exp = species.getFacet("fields");
+			if (exp == null) { return; }
+			final Map<String, GridField> result = new HashMap<>();
+			for (final Object o : Cast.asList(scope, exp.value(scope))) {
+				final String name = Cast.asString(scope, o);
+				final IVariable var = species.getVar(name);
+				if (var == null) {
+					throw GamaRuntimeException.error("The grid " + species.getName() + " has no variable named " + name,
+							scope);
+				}
+				final int type = var.getType().id();
+				if (type != IType.INT && type != IType.FLOAT || var.isFunction()
+						|| var instanceof Variable && (((Variable) var).getter != null || ((Variable) var).setter != null)) {
+					throw GamaRuntimeException.error(
+							"Only the int and float variables declared in the model can be stored as fields, which is not the case of "
+									+ name,
+							scope);
+				}
+				result.put(name, new GridField(name, type == IType.INT, matrix.length));
+			}
+			fields = result.isEmpty() ? null : result;
+		}
+
 		@Override
 		public String serialize(final boolean includingBuiltIn) {
 			return getName();
@@ -1896,6 +2007,26 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 				return GridPopulation.this;
 			}
 
+			@Override
+			public Object getAttribute(final String key) {
+				return getCellAttribute(getIndex(), key, super::getAttribute);
+			}
+
+			@Override
+			public void setAttribute(final String key, final Object value) {
+				setCellAttribute(getIndex(), key, value, super::setAttribute);
+			}
+
+			@Override
+			public boolean hasAttribute(final String key) {
+				return hasCellAttribute(key, super::hasAttribute);
+			}
+
+			@Override
+			public void forEachAttribute(final BiConsumerWithPruning<String, Object> visitor) {
+				forEachCellAttribute(getIndex(), visitor, super::forEachAttribute);
+			}
+
 			@Override
 			public IList<IAgent> getNeighbors(final IScope scope) {
 				return Cast.asList(scope, getNeighborhood().getNeighborsIn(scope, getIndex(), 1));
@@ -1967,6 +2098,26 @@ public class GamaSpatialMatrix extends GamaMatrix<IShape> implements IGrid {
 				return geometry;
 			}
 
+			@Override
+			public Object getAttribute(final String key) {
+				return getCellAttribute(getIndex(), key, super::getAttribute);
+			}
+
+			@Override
+			public void setAttribute(final String key, final Object value) {
+				setCellAttribute(getIndex(), key, value, super::setAttribute);
+			}
+
+			@Override
+			public boolean hasAttribute(final String key) {
+				return hasCellAttribute(key, super::hasAttribute);
+			}
+
+			@Override
+			public void forEachAttribute(final BiConsumerWithPruning<String, Object> visitor) {
+				forEachCellAttribute(getIndex(), visitor, super::forEachAttribute);
+			}
+
 			@Override
 			public IList<IAgent> getNeighbors(final IScope scope) {
 				return Cast.asList(scope, getNeighborhood().getNeighborsIn(scope, getIndex(), 1));
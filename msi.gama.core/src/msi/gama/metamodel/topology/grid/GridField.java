@@ -0,0 +1,194 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.metamodel.topology.grid.GridField.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.metamodel.topology.grid;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.concurrent.GamaExecutorService;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+
+/**
+ * The values of an int or float variable of a grid species, stored in an array indexed like the cells instead of in
+ * the attributes of each cell (see the 'fields' facet of grids). The cells read and write their value in this array,
+ * so that the variable behaves as usual for the agents, while the whole field can be updated at once, in parallel,
+ * by the operations of this class. The values of int variables are truncated when they are stored.
+ */
+public class GridField {
+
+	/**
+	 * The number of cells under which the operations are not run in parallel
+	 */
+	private static final int PARALLEL_CELLS = 1 << 14;
+
+	public static final String ASSIGN = "=";
+	public static final String ADD = "+";
+	public static final String SUBTRACT = "-";
+	public static final String MULTIPLY = "*";
+	public static final String DIVIDE = "/";
+	public static final String MIN = "min";
+	public static final String MAX = "max";
+
+	/**
+	 * The operations accepted by apply(), identified by the constants above
+	 */
+	private enum Operation {
+		ASSIGN(GridField.ASSIGN), ADD(GridField.ADD), SUBTRACT(GridField.SUBTRACT), MULTIPLY(GridField.MULTIPLY),
+		DIVIDE(GridField.DIVIDE), MIN(GridField.MIN), MAX(GridField.MAX);
+
+		final String symbol;
+
+		Operation(final String symbol) {
+			this.symbol = symbol;
+		}
+	}
+
+	private final String name;
+	private final boolean isInt;
+	private final double[] values;
+
+	public GridField(final String name, final boolean isInt, final int size) {
+		this.name = name;
+		this.isInt = isInt;
+		this.values = new double[size];
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isInt() {
+		return isInt;
+	}
+
+	/**
+	 * The array of the values, indexed like the cells. Modifying it modifies the values of the cells
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Returns the value of the cell, as an Integer or a Double depending on the type of the variable
+	 */
+	public Object get(final int index) {
+		if (isInt) { return (int) values[index]; }
+		return values[index];
+	}
+
+	/**
+	 * Stores the value of the cell. A null value is stored as 0
+	 */
+	public void set(final int index, final Object value) {
+		values[index] = value == null ? 0d : store(((Number) value).doubleValue());
+	}
+
+	private double store(final double value) {
+		return isInt ? (int) value : value;
+	}
+
+	/**
+	 * Applies the operation to the value of every cell (or of the cells for which the mask is not 0, if it is not
+	 * null), with either the values of the operand (if it is not null) or the scalar as right-hand side
+	 */
+	public void apply(final IScope scope, final String operation, final double scalar, final double[] operand,
+			final double[] mask) {
+		final Operation op = operationOf(scope, operation);
+		if (op == Operation.DIVIDE) {
+			if (operand == null ? scalar == 0d : containsZero(operand, mask)) {
+				throw GamaRuntimeException.error("Division by zero in the field " + name, scope);
+			}
+		}
+		forEachCell(values.length, i -> {
+			if (mask != null && mask[i] == 0d) { return; }
+			final double v = values[i];
+			final double w = operand == null ? scalar : operand[i];
+			final double result;
+			switch (op) {
+				case ASSIGN:
+					result = w;
+					break;
+				case ADD:
+					result = v + w;
+					break;
+				case SUBTRACT:
+					result = v - w;
+					break;
+				case MULTIPLY:
+					result = v * w;
+					break;
+				case DIVIDE:
+					result = v / w;
+					break;
+				case MIN:
+					result = Math.min(v, w);
+					break;
+				default:
+					result = Math.max(v, w);
+			}
+			values[i] = store(result);
+		});
+	}
+
+	/**
+	 * Constrains the value of every cell (or of the cells for which the mask is not 0, if it is not null) between min
+	 * and max
+	 */
+	public void clamp(final IScope scope, final double min, final double max, final double[] mask) {
+		if (min > max) {
+			throw GamaRuntimeException.error("The minimum (" + min + ") is greater than the maximum (" + max + ")",
+					scope);
+		}
+		forEachCell(values.length, i -> {
+			if (mask != null && mask[i] == 0d) { return; }
+			values[i] = store(Math.max(min, Math.min(max, values[i])));
+		});
+	}
+
+	private static Operation operationOf(final IScope scope, final String operation) {
+		for (final Operation op : Operation.values()) {
+			if (op.symbol.equals(operation)) { return op; }
+		}
+		throw GamaRuntimeException.error("Unknown operation on fields: " + operation + ". Use '" + ASSIGN + "', '"
+				+ ADD + "', '" + SUBTRACT + "', '" + MULTIPLY + "', '" + DIVIDE + "', '" + MIN + "' or '" + MAX + "'",
+				scope);
+	}
+
+	private static boolean containsZero(final double[] operand, final double[] mask) {
+		for (int i = 0; i < operand.length; i++) {
+			if (operand[i] == 0d && (mask == null || mask[i] != 0d)) { return true; }
+		}
+		return false;
+	}
+
+	/**
+	 * Runs the task for every index from 0 to size, in parallel (by blocks of contiguous indices) if size is large
+	 * enough. The task must only write at its own index
+	 */
+	static void forEachCell(final int size, final IntConsumer task) {
+		if (size < PARALLEL_CELLS) {
+			for (int i = 0; i < size; i++) {
+				task.accept(i);
+			}
+			return;
+		}
+		final int tasks = GamaExecutorService.CONCURRENCY_THREADS_NUMBER.getValue() * 4;
+		final int chunk = (size + tasks - 1) / tasks;
+		GamaExecutorService.executeThreaded(() -> IntStream.range(0, tasks).parallel().forEach(t -> {
+			final int end = Math.min(size, (t + 1) * chunk);
+			for (int i = t * chunk; i < end; i++) {
+				task.accept(i);
+			}
+		}));
+	}
+
+}
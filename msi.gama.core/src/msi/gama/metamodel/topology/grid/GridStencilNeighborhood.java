@@ -0,0 +1,212 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.metamodel.topology.grid.GridStencilNeighborhood.java, in plugin msi.gama.core, is part of the source code of
+ * the GAMA modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.metamodel.topology.grid;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import msi.gama.metamodel.agent.IAgent;
+import msi.gama.metamodel.shape.IShape;
+import msi.gama.runtime.IScope;
+import msi.gama.util.Collector;
+
+/**
+ * The neighborhood of square grids (Moore or von Neumann) that does not store the neighbors of each cell. The relative
+ * positions of the neighbors at each radius (the stencils) are computed once, lazily, and shared by all the cells: for
+ * the cells far enough from the borders of a grid that is not a torus, the neighbors are obtained by adding the offsets
+ * of the stencils to the index of the cell; for the others, the positions are resolved against the borders of the grid.
+ * The neighbors are produced in the same order as NoCacheNeighborhood, which this class replaces, and it is also used
+ * instead of the caches of the neighbors for the grids of more than CACHE_LIMIT cells, where these caches would
+ * take too much memory.
+ */
+public class GridStencilNeighborhood implements INeighborhood {
+
+	/**
+	 * The number of cells above which the neighbors of the cells are not cached, even if the grid asks for it
+	 */
+	public static final int CACHE_LIMIT = 1 << 20;
+
+	public static final int SUM = 0;
+	public static final int MEAN = 1;
+	public static final int MAX = 2;
+
+	private final GamaSpatialMatrix matrix;
+	private final int cols, rows;
+	private final boolean vn, torus;
+	// For each radius (from 1), the relative positions of the neighbors, as (dx, dy) pairs
+	private volatile int[][] rings = new int[0][];
+	// For each radius, the offsets of the neighbors in the matrix
+	private volatile int[][] offsets = new int[0][];
+
+	public GridStencilNeighborhood(final GamaSpatialMatrix matrix) {
+		this.matrix = matrix;
+		this.cols = matrix.numCols;
+		this.rows = matrix.numRows;
+		this.vn = matrix.usesVN;
+		this.torus = matrix.isTorus;
+	}
+
+	@Override
+	public boolean isVN() {
+		return vn;
+	}
+
+	@Override
+	public void clear() {}
+
+	/**
+	 * Makes sure that the stencils are computed up to the radius
+	 */
+	private void prepare(final int radius) {
+		if (radius <= rings.length) { return; }
+		synchronized (this) {
+			final int from = rings.length;
+			if (radius <= from) { return; }
+			final int[][] r = Arrays.copyOf(rings, radius);
+			final int[][] o = Arrays.copyOf(offsets, radius);
+			for (int i = from + 1; i <= radius; i++) {
+				r[i - 1] = vn ? vonNeumannRing(i) : mooreRing(i);
+				final int[] offs = new int[r[i - 1].length / 2];
+				for (int k = 0; k < offs.length; k++) {
+					offs[k] = r[i - 1][2 * k + 1] * cols + r[i - 1][2 * k];
+				}
+				o[i - 1] = offs;
+			}
+			offsets = o;
+			rings = r;
+		}
+	}
+
+	private static int[] mooreRing(final int radius) {
+		final int[] r = new int[16 * radius];
+		int k = 0;
+		for (int i = 1 - radius; i < radius; i++) {
+			r[k++] = i;
+			r[k++] = -radius;
+			r[k++] = -i;
+			r[k++] = radius;
+		}
+		for (int i = -radius; i < radius + 1; i++) {
+			r[k++] = -radius;
+			r[k++] = -i;
+			r[k++] = radius;
+			r[k++] = i;
+		}
+		return r;
+	}
+
+	private static int[] vonNeumannRing(final int radius) {
+		final int[] r = new int[8 * radius];
+		int k = 0;
+		for (int i = -radius; i < radius; i++) {
+			r[k++] = -i;
+			r[k++] = -Math.abs(i) + radius;
+			r[k++] = i;
+			r[k++] = Math.abs(i) - radius;
+		}
+		return r;
+	}
+
+	/**
+	 * Passes the indices of the neighbors of the cell, from radius 1 to radius, to the consumer. In a torus smaller
+	 * than the neighborhood, the same cell can be passed several times
+	 */
+	void forEachNeighbor(final int placeIndex, final int radius, final IntConsumer consumer) {
+		prepare(radius);
+		final int y = placeIndex / cols;
+		final int x = placeIndex - y * cols;
+		if (!torus && x >= radius && y >= radius && x < cols - radius && y < rows - radius) {
+			final int[][] o = offsets;
+			for (int r = 0; r < radius; r++) {
+				for (final int offset : o[r]) {
+					consumer.accept(placeIndex + offset);
+				}
+			}
+		} else {
+			final int[][] dxy = rings;
+			for (int r = 0; r < radius; r++) {
+				final int[] ring = dxy[r];
+				for (int k = 0; k < ring.length; k += 2) {
+					final int p = matrix.getPlaceIndexAt(x + ring[k], y + ring[k + 1]);
+					if (p != -1) {
+						consumer.accept(p);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public Set<IAgent> getNeighborsIn(final IScope scope, final int placeIndex, final int radius) {
+		try (final Collector.AsOrderedSet<IAgent> result = Collector.getOrderedSet()) {
+			forEachNeighbor(placeIndex, radius, p -> result.add(matrix.matrix[p].getAgent()));
+			// Addresses Issue 1071 by explicitly shuffling the result
+			result.shuffleInPlaceWith(scope.getRandom());
+			return result.items();
+		}
+	}
+
+	@Override
+	public int[] getRawNeighborsIncluding(final IScope scope, final int placeIndex, final int range) {
+		prepare(range);
+		final int[][] o = offsets;
+		int max = 0;
+		for (int r = 0; r < range; r++) {
+			max += o[r].length;
+		}
+		final int[] result = new int[max];
+		final int[] size = new int[1];
+		forEachNeighbor(placeIndex, range, p -> result[size[0]++] = p);
+		return size[0] == max ? result : Arrays.copyOf(result, size[0]);
+	}
+
+	@Override
+	public int neighborsIndexOf(final IScope scope, final int placeIndex, final int n) {
+		if (n == 1) { return 0; }
+		final int[] count = new int[1];
+		forEachNeighbor(placeIndex, n - 1, p -> count[0]++);
+		return count[0];
+	}
+
+	/**
+	 * Computes, for each cell, the sum, mean or maximum (according to the aggregation) of the values of its neighbors
+	 * at most at the radius. The cells without neighbors get 0. The cells are processed in parallel for large grids;
+	 * as the values of the neighbors of each cell are always aggregated in the same order, the results do not depend on
+	 * the parallelism.
+	 */
+	public double[] aggregate(final double[] values, final int radius, final int aggregation) {
+		final IShape[] cells = matrix.matrix;
+		final double[] result = new double[values.length];
+		prepare(radius);
+		final IntConsumer cell = i -> {
+			if (cells[i] == null) { return; }
+			final double[] acc = { aggregation == MAX ? Double.NEGATIVE_INFINITY : 0d, 0d };
+			forEachNeighbor(i, radius, p -> {
+				if (cells[p] == null) { return; }
+				final double v = values[p];
+				if (aggregation == MAX) {
+					if (v > acc[0]) {
+						acc[0] = v;
+					}
+				} else {
+					acc[0] += v;
+				}
+				acc[1]++;
+			});
+			if (acc[1] == 0) { return; }
+			result[i] = aggregation == MEAN ? acc[0] / acc[1] : acc[0];
+		};
+		GridField.forEachCell(values.length, cell);
+		return result;
+	}
+
+}
@@ -48,6 +48,9 @@ public class GridTopology extends AbstractTopology {
 	@Override
 	public void updateAgent(final Envelope3D previous, final IAgent agent) {}
 
+	@Override
+	public void updateAgents(final Map<IAgent, Envelope3D> previous) {}
+
 	@Override
 	public void initialize(final IScope scope, final IPopulation<? extends IAgent> pop) throws GamaRuntimeException {
 		getPlaces().setCellSpecies(pop);
@@ -85,6 +85,27 @@ public interface IGrid extends IMatrix<IShape>, ISpatialIndex {
 	 */
 	double[] getGridValueOf(IScope scope, IExpression expr);
 
+	/**
+	 * Computes, for each cell of the grid, the sum, mean or maximum of the values of its neighbors at most at the radius
+	 *
+	 * @param scope
+	 *            the current scope
+	 * @param values
+	 *            the values of the cells, indexed like the cells
+	 * @param radius
+	 *            the radius of the neighborhood, at least 1
+	 * @param aggregation
+	 *            one of GridStencilNeighborhood.SUM, MEAN or MAX
+	 * @return a double array the size of the grid
+	 */
+	double[] aggregateNeighbors(IScope scope, double[] values, int radius, int aggregation);
+
+	/**
+	 * Returns the array storing the values of the variable of the cells, if it is one of the 'fields' of the grid, or
+	 * null
+	 */
+	GridField getField(String name);
+
 	boolean isTorus();
 
 	INeighborhood getNeighborhood();
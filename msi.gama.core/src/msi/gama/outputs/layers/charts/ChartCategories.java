@@ -0,0 +1,81 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.outputs.layers.charts.ChartCategories.java, in plugin msi.gama.core, is part of the source code of the
+ * GAMA modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.outputs.layers.charts;
+
+import java.util.Arrays;
+
+import msi.gama.common.preferences.GamaPreferences;
+
+/**
+ * The categories of a chart series, kept in a ring buffer bounded like the values of the series (see
+ * {@link ChartValues}), so that forgetting the oldest category does not shift the others.
+ */
+public class ChartCategories extends ChartRing<String> {
+
+	private String[] values;
+
+	/**
+	 * Creates an empty buffer whose capacity is given by the preferences
+	 */
+	public ChartCategories() {
+		this(GamaPreferences.Displays.CHART_HISTORY_LENGTH.getValue());
+	}
+
+	/**
+	 * Creates an empty buffer keeping at most capacity categories (or all of them if capacity is not positive)
+	 */
+	public ChartCategories(final int capacity) {
+		super(capacity);
+		values = new String[initialLength()];
+	}
+
+	@Override
+	protected Object newArray(final int newLength) {
+		return new String[newLength];
+	}
+
+	@Override
+	protected Object array() {
+		return values;
+	}
+
+	@Override
+	protected void setArray(final Object array) {
+		values = (String[]) array;
+	}
+
+	@Override
+	public String get(final int index) {
+		return values[slot(index)];
+	}
+
+	@Override
+	public boolean add(final String value) {
+		final int slot = nextSlot();
+		values[slot] = value;
+		return true;
+	}
+
+	@Override
+	public void removeLast() {
+		if (size() > 0) {
+			values[slot(size() - 1)] = null;
+		}
+		super.removeLast();
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(values, null);
+		super.clear();
+	}
+
+}
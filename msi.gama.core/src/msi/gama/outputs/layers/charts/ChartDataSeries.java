@@ -10,8 +10,8 @@
  ********************************************************************************************************/
 package msi.gama.outputs.layers.charts;
 
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import msi.gama.common.interfaces.IKeyword;
 import msi.gama.runtime.IScope;
@@ -23,15 +23,16 @@ import msi.gaml.operators.Cast;
 @SuppressWarnings ({ "rawtypes" })
 public class ChartDataSeries {
 
-	ArrayList<String> cvalues = new ArrayList<>(); // for categories
-	ArrayList<Double> xvalues = new ArrayList<>(); // for xy charts
-	ArrayList<Double> yvalues = new ArrayList<>();
-	ArrayList<Double> svalues = new ArrayList<>(); // for marker sizes or
-													// 3d charts
-	ArrayList<Double> xerrvaluesmax = new ArrayList<>();
-	ArrayList<Double> yerrvaluesmax = new ArrayList<>();
-	ArrayList<Double> xerrvaluesmin = new ArrayList<>();
-	ArrayList<Double> yerrvaluesmin = new ArrayList<>();
+	// The values are kept in bounded ring buffers (see ChartRing)
+	ChartCategories cvalues = new ChartCategories(); // for categories
+	ChartValues xvalues = new ChartValues(); // for xy charts
+	ChartValues yvalues = new ChartValues();
+	ChartValues svalues = new ChartValues(); // for marker sizes or
+												// 3d charts
+	ChartValues xerrvaluesmax = new ChartValues();
+	ChartValues yerrvaluesmax = new ChartValues();
+	ChartValues xerrvaluesmin = new ChartValues();
+	ChartValues yerrvaluesmin = new ChartValues();
 
 	GamaColor mycolor, mymincolor, mymedcolor;
 
@@ -43,10 +44,10 @@ public class ChartDataSeries {
 
 	boolean ongoing_update = false;
 
-	ArrayList<String> oldcvalues = new ArrayList<>(); // for categories
-	ArrayList<Double> oldxvalues = new ArrayList<>(); // for xy charts
-	ArrayList<Double> oldyvalues = new ArrayList<>();
-	ArrayList<Double> oldsvalues = new ArrayList<>(); // for marker sizes
+	ChartCategories oldcvalues = new ChartCategories(); // for categories
+	ChartValues oldxvalues = new ChartValues(); // for xy charts
+	ChartValues oldyvalues = new ChartValues();
+	ChartValues oldsvalues = new ChartValues(); // for marker sizes
 
 	public boolean isOngoing_update() {
 		return ongoing_update;
@@ -138,25 +139,25 @@ public class ChartDataSeries {
 		this.getMysource().useYMinMaxValues = useYMinMaxValues;
 	}
 
-	public ArrayList<String> getCValues(final IScope scope) {
+	public ChartCategories getCValues(final IScope scope) {
 		// TODO Auto-generated method stub
 		if (isOngoing_update()) { return oldcvalues; }
 		return cvalues;
 	}
 
-	public ArrayList<Double> getXValues(final IScope scope) {
+	public ChartValues getXValues(final IScope scope) {
 		// TODO Auto-generated method stub
 		if (isOngoing_update()) { return oldxvalues; }
 		return xvalues;
 	}
 
-	public ArrayList<Double> getYValues(final IScope scope) {
+	public ChartValues getYValues(final IScope scope) {
 		// TODO Auto-generated method stub
 		if (isOngoing_update()) { return oldyvalues; }
 		return yvalues;
 	}
 
-	public ArrayList<Double> getSValues(final IScope scope) {
+	public ChartValues getSValues(final IScope scope) {
 		// TODO Auto-generated method stub
 		if (isOngoing_update()) { return oldsvalues; }
 		return svalues;
@@ -176,14 +177,14 @@ public class ChartDataSeries {
 		oldyvalues = yvalues;
 		oldsvalues = svalues;
 
-		cvalues = new ArrayList<>(); // for xy charts
-		xvalues = new ArrayList<>(); // for xy charts
-		yvalues = new ArrayList<>();
-		svalues = new ArrayList<>(); // for marker sizes or 3d charts
-		xerrvaluesmax = new ArrayList<>();
-		yerrvaluesmax = new ArrayList<>();
-		xerrvaluesmin = new ArrayList<>();
-		yerrvaluesmin = new ArrayList<>();
+		cvalues = new ChartCategories(); // for xy charts
+		xvalues = new ChartValues(); // for xy charts
+		yvalues = new ChartValues();
+		svalues = new ChartValues(); // for marker sizes or 3d charts
+		xerrvaluesmax = new ChartValues();
+		yerrvaluesmax = new ChartValues();
+		xerrvaluesmin = new ChartValues();
+		yerrvaluesmin = new ChartValues();
 
 	}
 
@@ -256,7 +257,7 @@ public class ChartDataSeries {
 			final Object o = getlistvalue(scope, barvalues, ChartDataStatement.MARKERSIZE, listvalue);
 			if (o != null) {
 				if (svalues.size() > xvalues.size()) {
-					svalues.remove(svalues.get(svalues.size() - 1));
+					svalues.removeLast();
 				}
 				svalues.add(Cast.asFloat(scope, o));
 			}
@@ -350,7 +351,7 @@ public class ChartDataSeries {
 			final Object o = getlistvalue(scope, barvalues, ChartDataStatement.MARKERSIZE, listvalue);
 			if (o != null) {
 				if (svalues.size() > xvalues.size()) {
-					svalues.remove(svalues.get(svalues.size() - 1));
+					svalues.removeLast();
 				}
 				svalues.add(Cast.asFloat(scope, o));
 			}
@@ -390,18 +391,18 @@ public class ChartDataSeries {
 		this.ongoing_update = true;
 	}
 
-	private void savelistd(final IScope scope, final ChartHistory history, final ArrayList<Double> mylist) {
+	private void savelistd(final IScope scope, final ChartHistory history, final ChartValues mylist) {
 		if (mylist.size() == 0) {
 			history.append(",");
 			return;
 		}
 		for (int i = 0; i < mylist.size(); i++) {
-			history.append(Cast.asFloat(scope, mylist.get(i)).floatValue() + ",");
+			history.append((float) mylist.getDouble(i) + ",");
 		}
 
 	}
 
-	private void savelists(final IScope scope, final ChartHistory history, final ArrayList mylist) {
+	private void savelists(final IScope scope, final ChartHistory history, final List mylist) {
 		if (mylist.size() == 0) { return; }
 		for (int i = 0; i < mylist.size(); i++) {
 			history.append(Cast.asString(scope, mylist.get(i)) + ",");
@@ -422,7 +423,7 @@ public class ChartDataSeries {
 		} else {
 			if (this.xvalues.size() > 0) {
 				if (this.getMysource().isCumulative) {
-					history.append(this.xvalues.get(this.xvalues.size() - 1) + ",");
+					history.append(this.xvalues.getLast() + ",");
 				} else {
 					savelistd(scope, history, this.xvalues);
 				}
@@ -431,7 +432,7 @@ public class ChartDataSeries {
 		}
 		if (this.yvalues.size() > 0) {
 			if (this.getMysource().isCumulative) {
-				history.append(this.yvalues.get(this.yvalues.size() - 1) + ",");
+				history.append(this.yvalues.getLast() + ",");
 			} else {
 				savelistd(scope, history, this.yvalues);
 			}
@@ -440,7 +441,7 @@ public class ChartDataSeries {
 		if (this.svalues.size() > 0) {
 			if (this.svalues.size() >= this.yvalues.size()) {
 				if (this.getMysource().isCumulative) {
-					history.append(this.svalues.get(this.svalues.size() - 1) + ",");
+					history.append(this.svalues.getLast() + ",");
 				} else {
 					savelistd(scope, history, this.svalues);
 				}
@@ -16,7 +16,6 @@ import java.text.FieldPosition;
 import java.text.NumberFormat;
 import java.text.ParsePosition;
 import java.util.ArrayList;
-import java.util.Collections;
 
 import org.apache.commons.lang.StringUtils;
 import org.jfree.chart.ChartFactory;
@@ -191,8 +190,8 @@ public class ChartJFreeChartOutputHeatmap extends ChartJFreeChartOutput {
 			newr.setSeriesPaint(0, myserie.getMycolor());
 		}
 		if (myserie.getSValues(scope).size() > 0) {
-			final double maxval = Collections.max(myserie.getSValues(scope));
-			final double minval = Collections.min(myserie.getSValues(scope));
+			final double maxval = myserie.getSValues(scope).max();
+			final double minval = myserie.getSValues(scope).min();
 			Color cdeb = new Color(0, 0, 0, 0);
 			if (myserie.getMyMincolor() != null) {
 				cdeb = myserie.getMyMincolor();
@@ -314,9 +313,9 @@ public class ChartJFreeChartOutputHeatmap extends ChartJFreeChartOutput {
 		final ChartDataSeries dataserie = chartdataset.getDataSeries(scope, serieid);
 		final MatrixSeries serie =
 				((MatrixSeriesCollection) jfreedataset.get(IdPosition.get(dataserie.getSerieId(scope)))).getSeries(0);
-		final ArrayList<Double> XValues = dataserie.getXValues(scope);
-		final ArrayList<Double> YValues = dataserie.getYValues(scope);
-		final ArrayList<Double> SValues = dataserie.getSValues(scope);
+		final ChartValues XValues = dataserie.getXValues(scope);
+		final ChartValues YValues = dataserie.getYValues(scope);
+		final ChartValues SValues = dataserie.getSValues(scope);
 		final NumberAxis domainAxis = (NumberAxis) ((XYPlot) this.chart.getPlot()).getDomainAxis();
 		if (XValues.size() == 0) {
 			if (!usexrangeinterval && !usexrangeminmax) {
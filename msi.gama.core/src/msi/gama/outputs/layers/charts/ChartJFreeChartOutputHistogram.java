@@ -11,7 +11,6 @@
 package msi.gama.outputs.layers.charts;
 
 import java.awt.Point;
-import java.util.ArrayList;
 
 import org.apache.commons.lang.StringUtils;
 import org.jfree.chart.ChartFactory;
@@ -317,9 +316,9 @@ public class ChartJFreeChartOutputHistogram extends ChartJFreeChartOutput {
 		if (serie.getRowKeys().contains(serieid)) {
 			serie.removeRow(serieid);
 		}
-		final ArrayList<String> CValues = dataserie.getCValues(scope);
-		final ArrayList<Double> YValues = dataserie.getYValues(scope);
-		final ArrayList<Double> SValues = dataserie.getSValues(scope);
+		final ChartCategories CValues = dataserie.getCValues(scope);
+		final ChartValues YValues = dataserie.getYValues(scope);
+		final ChartValues SValues = dataserie.getSValues(scope);
 		if (CValues.size() > 0) {
 			// TODO Hack to speed up, change!!!
 			// final CategoryAxis domainAxis = ((CategoryPlot)
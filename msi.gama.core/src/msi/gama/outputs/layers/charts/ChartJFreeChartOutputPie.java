@@ -11,7 +11,6 @@
 package msi.gama.outputs.layers.charts;
 
 import java.awt.Point;
-import java.util.ArrayList;
 
 import org.apache.commons.lang.StringUtils;
 import org.jfree.chart.ChartFactory;
@@ -183,7 +182,7 @@ public class ChartJFreeChartOutputPie extends ChartJFreeChartOutput {
 
 		final ChartDataSeries dataserie = chartdataset.getDataSeries(scope, serieid);
 		final DefaultPieDataset serie = (DefaultPieDataset) jfreedataset.get(0);
-		final ArrayList<Double> YValues = dataserie.getYValues(scope);
+		final ChartValues YValues = dataserie.getYValues(scope);
 
 		if (YValues.size() > 0) {
 			// TODO Hack to speed up, change!!!
@@ -11,7 +11,6 @@
 package msi.gama.outputs.layers.charts;
 
 import java.awt.Point;
-import java.util.ArrayList;
 
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.entity.CategoryItemEntity;
@@ -177,9 +176,9 @@ public class ChartJFreeChartOutputRadar extends ChartJFreeChartOutput {
 		if (serie.getRowKeys().contains(serieid)) {
 			serie.removeRow(serieid);
 		}
-		final ArrayList<String> CValues = dataserie.getCValues(scope);
-		final ArrayList<Double> YValues = dataserie.getYValues(scope);
-		final ArrayList<Double> SValues = dataserie.getSValues(scope);
+		final ChartCategories CValues = dataserie.getCValues(scope);
+		final ChartValues YValues = dataserie.getYValues(scope);
+		final ChartValues SValues = dataserie.getSValues(scope);
 		if (CValues.size() > 0) {
 			int deb = 0;
 			if (this.usexrangeinterval && CValues.size() > this.xrangeinterval) {
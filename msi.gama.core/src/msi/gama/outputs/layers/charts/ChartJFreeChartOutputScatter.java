@@ -332,7 +332,6 @@ public class ChartJFreeChartOutputScatter extends ChartJFreeChartOutput {
 		}
 	}
 
-	@SuppressWarnings ("unchecked")
 	@Override
 	protected void resetSerie(final IScope scope, final String serieid) {
 		// TODO Auto-generated method stub
@@ -342,9 +341,14 @@ public class ChartJFreeChartOutputScatter extends ChartJFreeChartOutput {
 				((XYIntervalSeriesCollection) jfreedataset.get(IdPosition.get(dataserie.getSerieId(scope))))
 						.getSeries(0);
 		serie.clear();
-		final ArrayList<Double> XValues = dataserie.getXValues(scope);
-		final ArrayList<Double> YValues = dataserie.getYValues(scope);
-		final ArrayList<Double> SValues = dataserie.getSValues(scope);
+		final ChartValues XValues = dataserie.getXValues(scope);
+		final ChartValues YValues = dataserie.getYValues(scope);
+		final ChartValues SValues = dataserie.getSValues(scope);
+		// The points of long time series are downsampled (see ChartValues.downsample) so that only a bounded number of
+		// them is handed to JFreeChart
+		final int[] points = getType() == SERIES_CHART
+				? ChartValues.downsample(XValues, YValues, GamaPreferences.Displays.CHART_MAX_POINTS.getValue())
+				: null;
 		boolean secondaxis = false;
 		if (dataserie.getMysource().getUseSecondYAxis(scope)) {
 			secondaxis = true;
@@ -373,7 +377,9 @@ public class ChartJFreeChartOutputScatter extends ChartJFreeChartOutput {
 			// rangeAxis.setRange(Math.min((double)(Collections.min(YValues)),0),
 			// Math.max(Collections.max(YValues),Collections.min(YValues)+1));
 			XYIntervalDataItem newval;
-			for (int i = 0; i < XValues.size(); i++) {
+			final int nbPoints = points == null ? XValues.size() : points.length;
+			for (int p = 0; p < nbPoints; p++) {
+				final int i = points == null ? p : points[p];
 				if (dataserie.isUseYErrValues()) {
 					if (dataserie.isUseXErrValues()) {
 						newval = new XYIntervalDataItem(XValues.get(i), dataserie.xerrvaluesmin.get(i),
@@ -406,7 +412,14 @@ public class ChartJFreeChartOutputScatter extends ChartJFreeChartOutput {
 		// resetAutorange(scope);
 		if (SValues.size() > 0) {
 			MarkerScale.remove(serieid);
-			final ArrayList<Double> nscale = (ArrayList<Double>) SValues.clone();
+			final ArrayList<Double> nscale = new ArrayList<>(SValues.size());
+			if (points == null) {
+				nscale.addAll(SValues);
+			} else {
+				for (final int i : points) {
+					nscale.add(i < SValues.size() ? SValues.get(i) : 1d);
+				}
+			}
 			MarkerScale.put(serieid, nscale);
 
 		}
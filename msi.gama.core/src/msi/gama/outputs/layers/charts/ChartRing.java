@@ -0,0 +1,125 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.outputs.layers.charts.ChartRing.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.outputs.layers.charts;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The circular index of the buffers holding the values of a chart series (see {@link ChartValues} for the numerical
+ * values and {@link ChartCategories} for the categories). The values are stored in an array, from the oldest one
+ * (at index first) to the most recent one, wrapping around the end of the array. The array grows until the capacity is
+ * reached; afterwards, adding a value overwrites the oldest one in constant time. The subclasses only provide the array
+ * and the access to its elements, and are seen as lists whose first element is the oldest value.
+ */
+public abstract class ChartRing<T> extends AbstractList<T> implements RandomAccess {
+
+	private static final int INITIAL_SIZE = 16;
+
+	private final int capacity;
+	// The length of the array, the index in it of the oldest value and the number of values
+	private int length, first, size;
+
+	/**
+	 * Creates an empty buffer keeping at most capacity values (or all of them if capacity is not positive)
+	 */
+	protected ChartRing(final int capacity) {
+		this.capacity = capacity <= 0 ? Integer.MAX_VALUE : capacity;
+		this.length = Math.min(INITIAL_SIZE, this.capacity);
+	}
+
+	/**
+	 * Returns the initial length of the array, to be allocated by the subclasses
+	 */
+	protected final int initialLength() {
+		return length;
+	}
+
+	/**
+	 * Returns a new array of this length
+	 */
+	protected abstract Object newArray(int newLength);
+
+	/**
+	 * Returns the array holding the values
+	 */
+	protected abstract Object array();
+
+	/**
+	 * Replaces the array holding the values
+	 */
+	protected abstract void setArray(Object array);
+
+	/**
+	 * Returns the maximal number of values kept in this buffer
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the index, in the array, of the value at this index in the list
+	 */
+	protected final int slot(final int index) {
+		if (index < 0 || index >= size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+		final int slot = first + index;
+		return slot < length ? slot : slot - length;
+	}
+
+	/**
+	 * Returns the index, in the array, where the value added at the end of the list must be written, forgetting the
+	 * oldest value if the capacity is reached
+	 */
+	protected final int nextSlot() {
+		modCount++;
+		if (size == capacity) {
+			final int slot = first;
+			first = first + 1 == length ? 0 : first + 1;
+			return slot;
+		}
+		if (size == length) {
+			grow();
+		}
+		size++;
+		return slot(size - 1);
+	}
+
+	public void removeLast() {
+		if (size == 0) { return; }
+		size--;
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		first = 0;
+		size = 0;
+		modCount++;
+	}
+
+	private void grow() {
+		final int newLength = (int) Math.min(capacity, Math.max(INITIAL_SIZE, 2L * length));
+		final Object array = array();
+		final Object newArray = newArray(newLength);
+		final int tail = Math.min(size, length - first);
+		System.arraycopy(array, first, newArray, 0, tail);
+		System.arraycopy(array, 0, newArray, tail, size - tail);
+		setArray(newArray);
+		length = newLength;
+		first = 0;
+	}
+
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.outputs.layers.charts.ChartValues.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.outputs.layers.charts;
+
+import java.util.Arrays;
+
+import msi.gama.common.preferences.GamaPreferences;
+
+/**
+ * The values of a chart series (abscissas, ordinates, sizes or error bars), stored as primitive doubles in a ring
+ * buffer (see {@link ChartRing}). When the maximal length of the history of the series is reached (see the preference
+ * "pref_chart_history_length"), adding a value forgets the oldest one, so that the memory used by a chart does not grow
+ * with the length of the simulation. The values are seen as a list of doubles, the first one being the oldest.
+ */
+public class ChartValues extends ChartRing<Double> {
+
+	private double[] values;
+
+	/**
+	 * Creates an empty buffer whose capacity is given by the preferences
+	 */
+	public ChartValues() {
+		this(GamaPreferences.Displays.CHART_HISTORY_LENGTH.getValue());
+	}
+
+	/**
+	 * Creates an empty buffer keeping at most capacity values (or all of them if capacity is not positive)
+	 */
+	public ChartValues(final int capacity) {
+		super(capacity);
+		values = new double[initialLength()];
+	}
+
+	@Override
+	protected Object newArray(final int newLength) {
+		return new double[newLength];
+	}
+
+	@Override
+	protected Object array() {
+		return values;
+	}
+
+	@Override
+	protected void setArray(final Object array) {
+		values = (double[]) array;
+	}
+
+	@Override
+	public Double get(final int index) {
+		return getDouble(index);
+	}
+
+	public double getDouble(final int index) {
+		return values[slot(index)];
+	}
+
+	public double getLast() {
+		return getDouble(size() - 1);
+	}
+
+	@Override
+	public boolean add(final Double value) {
+		add(value.doubleValue());
+		return true;
+	}
+
+	public void add(final double value) {
+		// The array may be replaced by nextSlot(), so it must be read afterwards
+		final int slot = nextSlot();
+		values[slot] = value;
+	}
+
+	public double min() {
+		double result = Double.POSITIVE_INFINITY;
+		for (int i = 0, n = size(); i < n; i++) {
+			result = Math.min(result, getDouble(i));
+		}
+		return result;
+	}
+
+	public double max() {
+		double result = Double.NEGATIVE_INFINITY;
+		for (int i = 0, n = size(); i < n; i++) {
+			result = Math.max(result, getDouble(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the indices of at most maxPoints values of a series (whose abscissas are increasing) chosen to preserve its
+	 * visual shape, using the Largest-Triangle-Three-Buckets algorithm (S. Steinarsson, "Downsampling time series for
+	 * visual representation", 2013): the first and last points are kept, the others are divided in maxPoints - 2
+	 * buckets and, in each bucket, the point forming the largest triangle with the point kept in the previous bucket and
+	 * the average point of the next bucket is kept. Returns null if the series has less than maxPoints values (or if
+	 * maxPoints is not positive), i.e. if all the points can be drawn.
+	 */
+	public static int[] downsample(final ChartValues x, final ChartValues y, final int maxPoints) {
+		final int n = Math.min(x.size(), y.size());
+		if (maxPoints <= 0 || n <= maxPoints) { return null; }
+		if (maxPoints < 3) { return maxPoints == 1 ? new int[] { n - 1 } : new int[] { 0, n - 1 }; }
+		final int[] result = new int[maxPoints];
+		final double bucketSize = (double) (n - 2) / (maxPoints - 2);
+		int kept = 0;
+		result[0] = 0;
+		for (int b = 0; b < maxPoints - 2; b++) {
+			// The average point of the next bucket (the last point for the last bucket)
+			final int nextStart = (int) ((b + 1) * bucketSize) + 1;
+			final int nextEnd = Math.min(n, (int) ((b + 2) * bucketSize) + 1);
+			double avgX = 0, avgY = 0;
+			for (int i = nextStart; i < nextEnd; i++) {
+				avgX += x.getDouble(i);
+				avgY += y.getDouble(i);
+			}
+			final int nextLength = nextEnd - nextStart;
+			if (nextLength > 0) {
+				avgX /= nextLength;
+				avgY /= nextLength;
+			} else {
+				avgX = x.getDouble(n - 1);
+				avgY = y.getDouble(n - 1);
+			}
+			// The point of the current bucket forming the largest triangle
+			final double keptX = x.getDouble(kept);
+			final double keptY = y.getDouble(kept);
+			final int start = (int) (b * bucketSize) + 1;
+			final int end = Math.min(n - 1, (int) ((b + 1) * bucketSize) + 1);
+			double maxArea = -1;
+			int chosen = start;
+			for (int i = start; i < end; i++) {
+				final double area = Math.abs(
+						(keptX - avgX) * (y.getDouble(i) - keptY) - (keptX - x.getDouble(i)) * (avgY - keptY));
+				if (area > maxArea) {
+					maxArea = area;
+					chosen = i;
+				}
+			}
+			result[b + 1] = chosen;
+			kept = chosen;
+		}
+		result[maxPoints - 1] = n - 1;
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		final double[] copy = new double[size()];
+		for (int i = 0, n = size(); i < n; i++) {
+			copy[i] = getDouble(i);
+		}
+		return Arrays.toString(copy);
+	}
+
+}
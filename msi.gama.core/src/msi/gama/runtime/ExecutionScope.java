@@ -35,6 +35,7 @@ import msi.gama.runtime.concurrent.GamaExecutorService;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
 import msi.gama.util.Collector;
 import msi.gama.util.IList;
+import msi.gama.util.random.SplitMixRNG;
 import msi.gaml.compilation.ISymbol;
 import msi.gaml.descriptions.ModelDescription;
 import msi.gaml.expressions.IExpression;
@@ -56,6 +57,7 @@ import msi.gaml.types.Types;
 public class ExecutionScope implements IScope {
 
 	private static final String ATTRIBUTES = "%_attributes_%";
+	public static final String RANDOM_STREAM = "%_random_stream_%";
 	private static int SCOPE_NUMBER = 0;
 
 	private final String scopeName;
@@ -74,10 +76,12 @@ public class ExecutionScope implements IScope {
 		IGui gui;
 		ITypesManager types;
 		GamaRuntimeException currentError;
+		RandomUtils random;
 		boolean horizontalPixelContext = false;
 
 		void clear() {
 			each = null;
+			random = null;
 			graphics = null;
 			topology = null;
 			rootAgent = null;
@@ -95,6 +99,7 @@ public class ExecutionScope implements IScope {
 			gui = specialContext.gui;
 			types = specialContext.types;
 			currentError = specialContext.currentError;
+			random = specialContext.random;
 		}
 
 	}
@@ -936,9 +941,41 @@ public class ExecutionScope implements IScope {
 	 */
 	@Override
 	public RandomUtils getRandom() {
+		if (additionalContext.random != null) { return additionalContext.random; }
 		final ITopLevelAgent root = getRoot();
 		if (root == null) { return new RandomUtils(); }
-		return root.getRandomGenerator();
+		final RandomUtils random = root.getRandomGenerator();
+		if (!random.isSplittable()) { return random; }
+		final IAgent agent = getAgent();
+		if (agent == null || agent instanceof ITopLevelAgent) { return random; }
+		return getRandomStream(agent, random);
+	}
+
+	@Override
+	public void setRandom(final RandomUtils random) {
+		additionalContext.random = random;
+	}
+
+	/**
+	 * When the generator of the simulation is splittable, each agent draws its random numbers from its own stream,
+	 * derived from the seed of the simulation and from the indices (and species) of the agent and of its hosts. The
+	 * numbers drawn by an agent do not depend on the other agents, so that agents can be executed in parallel without
+	 * sharing a generator, and with the same results whatever the number of threads. A saved agent keeps the state of
+	 * its stream (see {@link msi.gama.metamodel.agent.SavedAgent}), from which the stream of the restored agent resumes.
+	 */
+	private RandomUtils getRandomStream(final IAgent agent, final RandomUtils random) {
+		final Object stream = agent.getAttribute(RANDOM_STREAM);
+		if (stream instanceof RandomUtils && ((RandomUtils) stream).isSplitFrom(random)) { return (RandomUtils) stream; }
+		long key = 0;
+		for (IAgent a = agent; a != null && !(a instanceof ITopLevelAgent); a = a.getHost()) {
+			key = SplitMixRNG.combine(key, SplitMixRNG.combine(a.getSpecies().getName().hashCode(), a.getIndex()));
+		}
+		final RandomUtils result = random.split(key);
+		if (stream instanceof RandomUtils.State) {
+			result.resume((RandomUtils.State) stream);
+		}
+		agent.setAttribute(RANDOM_STREAM, result);
+		return result;
 	}
 
 	@Override
@@ -457,6 +457,15 @@ public interface IScope extends Closeable, IBenchmarkable {
 
 	RandomUtils getRandom();
 
+	/**
+	 * Makes this scope draw its random numbers from the stream, instead of the generator of its root or of its agent.
+	 * Used by the copies of a scope that evaluate an expression in parallel, each with its own stream.
+	 *
+	 * @param random
+	 *            the stream, or null to use the generator of the root or of the agent again
+	 */
+	void setRandom(RandomUtils random);
+
 	/**
 	 * Gets the gui.
 	 *
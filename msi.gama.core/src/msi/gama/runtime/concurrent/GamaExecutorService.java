@@ -77,6 +77,13 @@ public abstract class GamaExecutorService {
 	public static final Pref<Integer> CONCURRENCY_THRESHOLD =
 			create("pref_parallel_threshold", "Number under which agents are executed sequentially", 20, IType.INT,
 					true).between(1, null).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
+	public static final Pref<Boolean> CONCURRENCY_ITERATORS = create("pref_parallel_iterators",
+			"Make iterator operators (where, collect, count, sum_of, max_of, group_by...) evaluate their expression in parallel",
+			false, IType.BOOL, true).in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
+	public static final Pref<Integer> CONCURRENCY_ITERATORS_THRESHOLD =
+			create("pref_parallel_iterators_threshold", "Number of elements under which iterator operators are sequential",
+					10000, IType.INT, true).between(1, null)
+							.in(GamaPreferences.Runtime.NAME, GamaPreferences.Runtime.CONCURRENCY);
 	public static final Pref<Integer> CONCURRENCY_THREADS_NUMBER =
 			create("pref_parallel_threads",
 					"Max. number of threads to use (available processors: " + Runtime.getRuntime().availableProcessors()
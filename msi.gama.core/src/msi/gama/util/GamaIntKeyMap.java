@@ -0,0 +1,293 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.GamaIntKeyMap.java, in plugin msi.gama.core, is part of the source code of the GAMA modeling and
+ * simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import msi.gaml.types.IContainerType;
+import msi.gaml.types.IType;
+import msi.gaml.types.Types;
+
+/**
+ * An ordered map whose keys are int, created by GamaMapFactory for the maps of int to int, float or bool. The keys are
+ * kept in an array of int, in their order of insertion, and found through an open-addressing hash table of the
+ * positions of the keys. The values are kept at the same positions in a list created by GamaListFactory, hence in an
+ * array of primitive values. The removed positions are only marked as such, and reclaimed when they represent half of
+ * the positions. As the keys put in a map are not always cast to its key type (nil keys, code that does not cast its
+ * keys...), the map switches to a GamaMap, which keeps the keys as they are, as soon as a key that is not an Integer is
+ * put in it, so that it behaves exactly like the other maps. It goes back to arrays when it is cleared.
+ */
+@SuppressWarnings ({ "unchecked", "rawtypes" })
+public class GamaIntKeyMap<K, V> extends AbstractMap<K, V> implements IMap<K, V> {
+
+	private final IContainerType type;
+	private int[] keys;
+	private IList<V> values;
+	// The positions of the removed keys
+	private final BitSet removed = new BitSet();
+	// Open addressing table of the positions of the keys (plus 1), 0 marking a free cell
+	private int[] table;
+	private int size;
+	private int modCount;
+	// The entries, once a key that is not an Integer has been put in the map
+	private Map<Object, V> boxed;
+
+	protected GamaIntKeyMap(final int capacity, final IType contentType) {
+		type = Types.MAP.of(Types.INT, contentType);
+		final int n = Math.max(4, capacity);
+		keys = new int[n];
+		values = GamaListFactory.create(contentType, n);
+		table = new int[tableSize(n)];
+	}
+
+	private static int tableSize(final int capacity) {
+		return Integer.highestOneBit(Math.max(8, capacity * 2 - 1)) << 1;
+	}
+
+	private static int hash(final int key) {
+		final int h = key * 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	@Override
+	public IContainerType getGamlType() {
+		return type;
+	}
+
+	@Override
+	public boolean isOrdered() {
+		return true;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == this) { return true; }
+		if (!(o instanceof IMap)) { return false; }
+		return GamaMapFactory.equals(this, (IMap) o);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	@Override
+	public int size() {
+		return boxed == null ? size : boxed.size();
+	}
+
+	/**
+	 * Returns the position of the key, or -1 if it is not in the map
+	 */
+	private int positionOf(final int key) {
+		final int mask = table.length - 1;
+		for (int cell = hash(key) & mask;; cell = cell + 1 & mask) {
+			final int p = table[cell] - 1;
+			if (p < 0) { return -1; }
+			if (keys[p] == key && !removed.get(p)) { return p; }
+		}
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		if (boxed != null) { return boxed.containsKey(key); }
+		return key instanceof Integer && positionOf((Integer) key) >= 0;
+	}
+
+	@Override
+	public V get(final Object key) {
+		if (boxed != null) { return boxed.get(key); }
+		if (!(key instanceof Integer)) { return null; }
+		final int p = positionOf((Integer) key);
+		return p < 0 ? null : values.get(p);
+	}
+
+	@Override
+	public V put(final K key, final V value) {
+		// The key may not be an Integer if it has not been cast
+		if (boxed == null && !(key instanceof Integer)) {
+			box();
+		}
+		if (boxed != null) { return boxed.put(key, value); }
+		final int k = (Integer) key;
+		final int p = positionOf(k);
+		if (p >= 0) { return values.set(p, value); }
+		final int used = values.size();
+		if (used == keys.length) {
+			if (removed.cardinality() >= used / 2) {
+				compact();
+			} else {
+				keys = Arrays.copyOf(keys, used * 2);
+				table = new int[tableSize(keys.length)];
+				rehash();
+			}
+		}
+		final int position = values.size();
+		keys[position] = k;
+		values.add(value);
+		insert(k, position);
+		size++;
+		modCount++;
+		return null;
+	}
+
+	@Override
+	public V remove(final Object key) {
+		if (boxed != null) { return boxed.remove(key); }
+		if (!(key instanceof Integer)) { return null; }
+		final int p = positionOf((Integer) key);
+		if (p < 0) { return null; }
+		return removeAt(p);
+	}
+
+	private V removeAt(final int p) {
+		// The value is left in place until the position is reclaimed
+		final V old = values.get(p);
+		removed.set(p);
+		size--;
+		modCount++;
+		// The cell in the table is kept, so that the keys placed after it are still found
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		boxed = null;
+		Arrays.fill(table, 0);
+		values.clear();
+		removed.clear();
+		size = 0;
+		modCount++;
+	}
+
+	private void insert(final int key, final int position) {
+		final int mask = table.length - 1;
+		int cell = hash(key) & mask;
+		while (table[cell] != 0) {
+			cell = cell + 1 & mask;
+		}
+		table[cell] = position + 1;
+	}
+
+	private void rehash() {
+		Arrays.fill(table, 0);
+		for (int p = 0, n = values.size(); p < n; p++) {
+			if (!removed.get(p)) {
+				insert(keys[p], p);
+			}
+		}
+	}
+
+	/**
+	 * Reclaims the positions of the removed keys, preserving the order of the others
+	 */
+	private void compact() {
+		final IList<V> live = GamaListFactory.create(type.getContentType(), keys.length);
+		int q = 0;
+		for (int p = 0, n = values.size(); p < n; p++) {
+			if (!removed.get(p)) {
+				keys[q++] = keys[p];
+				live.add(values.get(p));
+			}
+		}
+		values = live;
+		removed.clear();
+		rehash();
+	}
+
+	/**
+	 * Moves the entries to a GamaMap, which then receives all the entries
+	 */
+	private void box() {
+		final Map<Object, V> entries = new GamaMap<>(Math.max(4, size), Types.INT, type.getContentType());
+		for (final Entry<K, V> entry : entrySet()) {
+			entries.put(entry.getKey(), entry.getValue());
+		}
+		keys = new int[4];
+		values = GamaListFactory.create(type.getContentType(), 4);
+		table = new int[tableSize(4)];
+		removed.clear();
+		size = 0;
+		boxed = entries;
+		modCount++;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (boxed != null) { return (Set) boxed.entrySet(); }
+		return new AbstractSet<Entry<K, V>>() {
+
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new Iterator<Entry<K, V>>() {
+
+					int next = advance(0);
+					int last = -1;
+					int expected = modCount;
+
+					private int advance(final int from) {
+						final int n = values.size();
+						int p = from;
+						while (p < n && removed.get(p)) {
+							p++;
+						}
+						return p;
+					}
+
+					@Override
+					public boolean hasNext() {
+						return next < values.size();
+					}
+
+					@Override
+					public Entry<K, V> next() {
+						if (expected != modCount) { throw new ConcurrentModificationException(); }
+						if (!hasNext()) { throw new NoSuchElementException(); }
+						last = next;
+						next = advance(next + 1);
+						final int p = last;
+						return new SimpleEntry<K, V>((K) Integer.valueOf(keys[p]), values.get(p)) {
+
+							@Override
+							public V setValue(final V value) {
+								super.setValue(value);
+								return values.set(p, value);
+							}
+						};
+					}
+
+					@Override
+					public void remove() {
+						if (last < 0) { throw new IllegalStateException(); }
+						if (expected != modCount) { throw new ConcurrentModificationException(); }
+						removeAt(last);
+						last = -1;
+						expected = modCount;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+}
@@ -296,7 +296,21 @@ public class GamaListFactory {
 		return list;
 	}
 
+	/**
+	 * Creates an empty list. The lists of int, float and bool store their elements in arrays of primitive values (see
+	 * GamaPrimitiveList)
+	 */
 	public static <T> IList<T> create(final IType contentType, final int size) {
+		if (contentType != null) {
+			switch (contentType.id()) {
+				case IType.INT:
+					return (IList<T>) new GamaPrimitiveList.Ints(size);
+				case IType.FLOAT:
+					return (IList<T>) new GamaPrimitiveList.Floats(size);
+				case IType.BOOL:
+					return (IList<T>) new GamaPrimitiveList.Bools(size);
+			}
+		}
 		return new GamaList<>(size, contentType);
 	}
 
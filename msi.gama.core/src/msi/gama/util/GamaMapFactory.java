@@ -129,12 +129,23 @@ public class GamaMapFactory {
 
 	public static IMap create(final IType key, final IType contents, final int size, final boolean ordered) {
 		if (ordered) {
+			if (isIntKeyMap(key, contents)) { return new GamaIntKeyMap<>(size, contents); }
 			return new GamaMap<>(size, key, contents);
 		} else {
 			return new GamaMapWrapper<>(new HashMap(size), key, contents, false);
 		}
 	}
 
+	/**
+	 * The ordered maps of int to int, float or bool store their keys and values in arrays of primitive values (see
+	 * GamaIntKeyMap)
+	 */
+	private static boolean isIntKeyMap(final IType key, final IType contents) {
+		if (key == null || contents == null || key.id() != IType.INT) { return false; }
+		final int id = contents.id();
+		return id == IType.INT || id == IType.FLOAT || id == IType.BOOL;
+	}
+
 	/**
 	 * @warning ***WARNING*** This operation can end up putting values of the wrong type into the map
 	 * @return
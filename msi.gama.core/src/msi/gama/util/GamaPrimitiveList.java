@@ -0,0 +1,411 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.GamaPrimitiveList.java, in plugin msi.gama.core, is part of the source code of the GAMA modeling and
+ * simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import msi.gaml.types.IContainerType;
+import msi.gaml.types.IType;
+import msi.gaml.types.Types;
+
+/**
+ * The common part of the lists of int, float and bool, which store their elements in an array of primitive values
+ * instead of boxing them. They are created by GamaListFactory when the content type of a list is one of these types.
+ * As the values added to a list are not always cast to its content type (literal lists like [1, 2.5], code that does
+ * not cast its values, nil elements...), the list switches to an array of objects, keeping the elements as they are,
+ * as soon as an element that is not exactly a value of its primitive type (an Integer for a list of int, a Double for a
+ * list of float, a Boolean for a list of bool) is stored, so that these lists behave exactly like the others. It goes
+ * back to primitive values when it is cleared.
+ */
+@SuppressWarnings ("unchecked")
+public abstract class GamaPrimitiveList<E> extends AbstractList<E> implements IList<E>, RandomAccess {
+
+	private final IContainerType type;
+	protected int size;
+	// The elements, once an element that is not a primitive value has been stored
+	private Object[] boxed;
+
+	protected GamaPrimitiveList(final IType contentType) {
+		type = Types.LIST.of(contentType);
+	}
+
+	/**
+	 * The array of primitive values backing the list
+	 */
+	protected abstract Object array();
+
+	protected abstract void setArray(Object array);
+
+	/**
+	 * Whether the value can be stored in the array of primitive values without changing it
+	 */
+	protected abstract boolean accepts(Object value);
+
+	/**
+	 * Returns the primitive value at this index
+	 */
+	protected abstract E valueAt(int index);
+
+	/**
+	 * Stores the value, which is accepted, at this index
+	 */
+	protected abstract void store(int index, Object value);
+
+	@Override
+	public IContainerType<?> getGamlType() {
+		return type;
+	}
+
+	@Override
+	public boolean equals(final Object other) {
+		if (other == this) { return true; }
+		if (!(other instanceof IList)) { return false; }
+		return GamaListFactory.equals(this, (IList) other);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	/**
+	 * Whether the elements are stored in the array of primitive values, i.e. they are all values of the primitive type
+	 * (and none is nil)
+	 */
+	public boolean isPrimitive() {
+		return boxed == null;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public E get(final int index) {
+		checkIndex(index);
+		return boxed == null ? valueAt(index) : (E) boxed[index];
+	}
+
+	@Override
+	public E set(final int index, final E element) {
+		final E old = get(index);
+		put(index, element);
+		return old;
+	}
+
+	@Override
+	public void add(final int index, final E element) {
+		if (index < 0 || index > size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+		if (boxed == null && !accepts(element)) {
+			box();
+		}
+		ensureCapacity(size + 1);
+		final Object storage = storage();
+		System.arraycopy(storage, index, storage, index + 1, size - index);
+		size++;
+		modCount++;
+		put(index, element);
+	}
+
+	@Override
+	public E remove(final int index) {
+		final E old = get(index);
+		removeRange(index, index + 1);
+		return old;
+	}
+
+	@Override
+	protected void removeRange(final int from, final int to) {
+		if (from >= to) { return; }
+		final Object storage = storage();
+		System.arraycopy(storage, to, storage, from, size - to);
+		final int newSize = size - (to - from);
+		if (boxed != null) {
+			Arrays.fill(boxed, newSize, size, null);
+		}
+		size = newSize;
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		boxed = null;
+		modCount++;
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> c) {
+		if (c.getClass() != getClass() || boxed != null || ((GamaPrimitiveList<E>) c).boxed != null) {
+			return super.addAll(c);
+		}
+		final GamaPrimitiveList<E> other = (GamaPrimitiveList<E>) c;
+		final int n = other.size;
+		if (n == 0) { return false; }
+		ensureCapacity(size + n);
+		System.arraycopy(other.array(), 0, array(), size, n);
+		size += n;
+		modCount++;
+		return true;
+	}
+
+	private void put(final int index, final E element) {
+		if (boxed == null && !accepts(element)) {
+			box();
+		}
+		if (boxed == null) {
+			store(index, element);
+		} else {
+			boxed[index] = element;
+		}
+	}
+
+	/**
+	 * Moves the elements to an array of objects, which then receives all the elements
+	 */
+	private void box() {
+		final Object[] elements = new Object[Math.max(size, Array.getLength(array()))];
+		for (int i = 0; i < size; i++) {
+			elements[i] = valueAt(i);
+		}
+		boxed = elements;
+		setArray(Array.newInstance(array().getClass().getComponentType(), 0));
+	}
+
+	private Object storage() {
+		return boxed == null ? array() : boxed;
+	}
+
+	private void ensureCapacity(final int capacity) {
+		final Object storage = storage();
+		final int length = Array.getLength(storage);
+		if (capacity <= length) { return; }
+		final Object grown = Array.newInstance(storage.getClass().getComponentType(),
+				Math.max(capacity, length + (length >> 1) + 1));
+		System.arraycopy(storage, 0, grown, 0, size);
+		if (boxed == null) {
+			setArray(grown);
+		} else {
+			boxed = (Object[]) grown;
+		}
+	}
+
+	private void checkIndex(final int index) {
+		if (index < 0 || index >= size) { throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); }
+	}
+
+	/**
+	 * The list of int, which stores its elements in an array of int
+	 */
+	public static class Ints extends GamaPrimitiveList<Integer> {
+
+		private int[] values;
+
+		public Ints(final int capacity) {
+			super(Types.INT);
+			values = new int[Math.max(0, capacity)];
+		}
+
+		@Override
+		protected Object array() {
+			return values;
+		}
+
+		@Override
+		protected void setArray(final Object array) {
+			values = (int[]) array;
+		}
+
+		@Override
+		protected Integer valueAt(final int index) {
+			return values[index];
+		}
+
+		@Override
+		protected boolean accepts(final Object value) {
+			return value instanceof Integer;
+		}
+
+		@Override
+		protected void store(final int index, final Object value) {
+			values[index] = (Integer) value;
+		}
+
+		/**
+		 * The sum of the elements, computed in the same order as when summing the boxed elements. The list must be
+		 * primitive
+		 */
+		public int sum() {
+			int sum = 0;
+			for (int i = 0; i < size; i++) {
+				sum += values[i];
+			}
+			return sum;
+		}
+
+		/**
+		 * The maximum (if max is true) or minimum of the elements. The list must be primitive and not empty
+		 */
+		public int extremum(final boolean max) {
+			int result = values[0];
+			for (int i = 1; i < size; i++) {
+				final int v = values[i];
+				if (max ? v > result : v < result) {
+					result = v;
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public int indexOf(final Object o) {
+			if (!(o instanceof Integer) || !isPrimitive()) { return super.indexOf(o); }
+			final int v = (Integer) o;
+			for (int i = 0; i < size; i++) {
+				if (values[i] == v) { return i; }
+			}
+			return -1;
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			return indexOf(o) >= 0;
+		}
+
+	}
+
+	/**
+	 * The list of float, which stores its elements in an array of double
+	 */
+	public static class Floats extends GamaPrimitiveList<Double> {
+
+		private double[] values;
+
+		public Floats(final int capacity) {
+			super(Types.FLOAT);
+			values = new double[Math.max(0, capacity)];
+		}
+
+		@Override
+		protected Object array() {
+			return values;
+		}
+
+		@Override
+		protected void setArray(final Object array) {
+			values = (double[]) array;
+		}
+
+		@Override
+		protected Double valueAt(final int index) {
+			return values[index];
+		}
+
+		@Override
+		protected boolean accepts(final Object value) {
+			return value instanceof Double;
+		}
+
+		@Override
+		protected void store(final int index, final Object value) {
+			values[index] = (Double) value;
+		}
+
+		/**
+		 * The sum of the elements, computed in the same order as when summing the boxed elements. The list must be
+		 * primitive
+		 */
+		public double sum() {
+			double sum = 0d;
+			for (int i = 0; i < size; i++) {
+				sum += values[i];
+			}
+			return sum;
+		}
+
+		/**
+		 * The maximum (if max is true) or minimum of the elements, i.e. the first element that no other is strictly
+		 * greater (resp. lower) than. The list must be primitive and not empty
+		 */
+		public double extremum(final boolean max) {
+			double result = values[0];
+			for (int i = 1; i < size; i++) {
+				final double v = values[i];
+				if (max ? v > result : v < result) {
+					result = v;
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public int indexOf(final Object o) {
+			if (!(o instanceof Double) || !isPrimitive()) { return super.indexOf(o); }
+			// Double.equals() compares the bits of the values
+			final long v = Double.doubleToLongBits((Double) o);
+			for (int i = 0; i < size; i++) {
+				if (Double.doubleToLongBits(values[i]) == v) { return i; }
+			}
+			return -1;
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			return indexOf(o) >= 0;
+		}
+
+	}
+
+	/**
+	 * The list of bool, which stores its elements in an array of boolean
+	 */
+	public static class Bools extends GamaPrimitiveList<Boolean> {
+
+		private boolean[] values;
+
+		public Bools(final int capacity) {
+			super(Types.BOOL);
+			values = new boolean[Math.max(0, capacity)];
+		}
+
+		@Override
+		protected Object array() {
+			return values;
+		}
+
+		@Override
+		protected void setArray(final Object array) {
+			values = (boolean[]) array;
+		}
+
+		@Override
+		protected Boolean valueAt(final int index) {
+			return values[index];
+		}
+
+		@Override
+		protected boolean accepts(final Object value) {
+			return value instanceof Boolean;
+		}
+
+		@Override
+		protected void store(final int index, final Object value) {
+			values[index] = (Boolean) value;
+		}
+
+	}
+
+}
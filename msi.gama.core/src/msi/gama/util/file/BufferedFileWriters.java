@@ -0,0 +1,319 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.file.BufferedFileWriters.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util.file;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import msi.gama.common.preferences.GamaPreferences;
+import msi.gama.common.util.FileUtils;
+import msi.gama.kernel.simulation.SimulationAgent;
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+
+/**
+ * The text files written by the save statement during a simulation, when the preference pref_optimize_save_buffering
+ * is set. Instead of being opened, written and closed by each save, a file is kept open, with a large buffer, while it
+ * is written. The texts saved by all the agents in the same file are appended to a buffer in memory, which is handed to
+ * a background thread when it becomes large and at the end of each step. The end of a step waits for the background
+ * thread, so that the files are complete between two steps. At most MAX_OPEN_FILES files are kept open (the least
+ * recently written ones are closed, and reopened in append mode if they are written again), and the files that have
+ * not been written during a step are closed at its end; the others are closed when the simulation is disposed. A file
+ * saved during the step is written before being read (see {@link #flushBeforeReading(IScope, String)}). The files
+ * whose name ends with ".gz" are compressed on the fly (their compressed stream is only terminated when they are
+ * closed, and reopening them appends a new gzip member).
+ *
+ * The files of a simulation are written by a thread of its own, which executes the writes in the order in which they
+ * have been submitted (each write carries its own text), so that the contents of a file do not depend on the moment
+ * at which it is written, and simulations running in parallel do not wait for each other. The thread stops when the
+ * simulation is disposed. Any error raised while writing is reported at the end of the step (or before the file is
+ * read).
+ */
+public class BufferedFileWriters {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	// Number of characters above which the pending text of a file is handed to the background thread
+	private static final int FLUSH_THRESHOLD = 1 << 16;
+	// Number of files kept open at the same time by a simulation
+	private static final int MAX_OPEN_FILES = 64;
+
+	private static final Map<SimulationAgent, BufferedFileWriters> instances = new ConcurrentHashMap<>();
+
+	private final ExecutorService writer;
+	private final Map<String, Target> targets = new ConcurrentHashMap<>();
+	// The targets whose file is open, from the least to the most recently written. Only accessed by the background
+	// thread
+	private final LinkedHashMap<Target, Boolean> openTargets = new LinkedHashMap<>(16, 0.75f, true);
+	// The first error that occurred on the background thread, reported at the end of the step
+	private volatile Throwable error;
+
+	private BufferedFileWriters(final String name) {
+		writer = Executors.newSingleThreadExecutor(r -> {
+			final Thread t = new Thread(r, "GAMA file writer of " + name);
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Returns a writer on the file, compressed if its name ends with ".gz" (reopening a compressed file in append mode
+	 * appends a new gzip member to it). Used for all the text files written by save, buffered or not.
+	 */
+	public static Writer newWriter(final File file, final boolean append) throws IOException {
+		OutputStream os = new FileOutputStream(file, append);
+		if (file.getName().endsWith(".gz")) {
+			os = new GZIPOutputStream(os, BUFFER_SIZE, true);
+		}
+		return new BufferedWriter(new OutputStreamWriter(os, Charset.defaultCharset()), BUFFER_SIZE);
+	}
+
+	/**
+	 * Returns the writers of the simulation of the scope, or null if the files are not buffered (because of the
+	 * preferences or because there is no simulation)
+	 */
+	public static BufferedFileWriters getInstance(final IScope scope) {
+		if (!GamaPreferences.External.SAVE_BUFFERING.getValue()) { return null; }
+		final SimulationAgent simulation = scope.getSimulation();
+		if (simulation == null) { return null; }
+		final BufferedFileWriters instance = instances.get(simulation);
+		if (instance != null) { return instance; }
+		return instances.computeIfAbsent(simulation, sim -> {
+			sim.postEndAction(scope1 -> {
+				final BufferedFileWriters writers = instances.get(scope1.getSimulation());
+				if (writers != null) {
+					writers.flush(scope1, false);
+				}
+				return null;
+			});
+			sim.postDisposeAction(scope1 -> {
+				final BufferedFileWriters writers = instances.remove(scope1.getSimulation());
+				if (writers != null) {
+					try {
+						writers.flush(scope1, true);
+					} finally {
+						writers.writer.shutdown();
+					}
+				}
+				return null;
+			});
+			return new BufferedFileWriters(sim.getName());
+		});
+	}
+
+	/**
+	 * Writes the pending text of the file designated by the path, if it has been saved during the step, so that it can
+	 * be read. Does nothing if the files are not buffered.
+	 */
+	public static void flushBeforeReading(final IScope scope, final String path) {
+		if (scope == null || path == null) { return; }
+		final SimulationAgent simulation = scope.getSimulation();
+		if (simulation == null) { return; }
+		final BufferedFileWriters writers = instances.get(simulation);
+		if (writers == null || writers.targets.isEmpty()) { return; }
+		final Target target =
+				writers.targets.get(new File(FileUtils.constructAbsoluteFilePath(scope, path, false)).getAbsolutePath());
+		if (target == null) { return; }
+		target.submitPending(false);
+		writers.await(scope);
+	}
+
+	/**
+	 * Prepares the file for a save and returns whether it is empty (i.e. whether it did not exist or has been rewritten)
+	 *
+	 * @param rewrite
+	 *            whether the previous contents of the file must be erased
+	 */
+	public boolean open(final File file, final boolean rewrite) {
+		final boolean[] created = new boolean[1];
+		final Target target = targets.computeIfAbsent(file.getAbsolutePath(), path -> {
+			created[0] = true;
+			return new Target(file);
+		});
+		if (created[0] && !file.exists() || rewrite) {
+			target.truncate();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Appends the text to the file, which must have been opened before
+	 */
+	public void append(final File file, final CharSequence text) {
+		final Target target = targets.computeIfAbsent(file.getAbsolutePath(), path -> new Target(file));
+		target.append(text);
+	}
+
+	/**
+	 * Hands the pending texts of all the files to the background thread and waits until they are written. If close is
+	 * true, the files are closed afterwards; otherwise, only the files that have not been written since the previous
+	 * flush are closed.
+	 */
+	private void flush(final IScope scope, final boolean close) {
+		for (final Iterator<Target> it = targets.values().iterator(); it.hasNext();) {
+			final Target target = it.next();
+			final boolean unused = target.takeUnused();
+			target.submitPending(close || unused);
+			if (unused) {
+				it.remove();
+			}
+		}
+		if (close) {
+			targets.clear();
+		}
+		await(scope);
+	}
+
+	/**
+	 * Waits until the background thread has executed the writes submitted so far, and reports its first error
+	 */
+	private void await(final IScope scope) {
+		try {
+			writer.submit(() -> {}).get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final ExecutionException e) {
+			if (error == null) {
+				error = e.getCause();
+			}
+		}
+		final Throwable e = error;
+		if (e != null) {
+			error = null;
+			throw GamaRuntimeException.create(e, scope);
+		}
+	}
+
+	private class Target {
+
+		final File file;
+		StringBuilder pending = new StringBuilder();
+		// Whether the file has been written since the previous flush
+		boolean used = true;
+		// Only accessed by the background thread
+		Writer out;
+
+		Target(final File file) {
+			this.file = file;
+		}
+
+		synchronized boolean takeUnused() {
+			final boolean result = !used;
+			used = false;
+			return result;
+		}
+
+		synchronized void append(final CharSequence text) {
+			used = true;
+			pending.append(text);
+			if (pending.length() >= FLUSH_THRESHOLD) {
+				submitPending(false);
+			}
+		}
+
+		/**
+		 * Discards the pending text and erases the contents of the file
+		 */
+		synchronized void truncate() {
+			used = true;
+			pending.setLength(0);
+			submit(() -> {
+				close();
+				open(false);
+			});
+		}
+
+		synchronized void submitPending(final boolean andClose) {
+			if (pending.length() > 0) {
+				final String text = pending.toString();
+				pending = new StringBuilder();
+				submit(() -> {
+					if (out == null) {
+						open(true);
+					}
+					openTargets.get(this);
+					out.write(text);
+					if (andClose) {
+						close();
+					} else {
+						out.flush();
+					}
+				});
+			} else if (andClose) {
+				submit(this::close);
+			} else {
+				submit(() -> {
+					if (out != null) {
+						out.flush();
+					}
+				});
+			}
+		}
+
+		/**
+		 * Opens the file, closing the least recently written one if too many files are open
+		 */
+		private void open(final boolean append) throws IOException {
+			if (openTargets.size() >= MAX_OPEN_FILES) {
+				final Iterator<Target> it = openTargets.keySet().iterator();
+				final Target eldest = it.next();
+				it.remove();
+				eldest.close();
+			}
+			out = newWriter(file, append);
+			openTargets.put(this, Boolean.TRUE);
+		}
+
+		private void close() throws IOException {
+			openTargets.remove(this);
+			if (out != null) {
+				try {
+					out.close();
+				} finally {
+					out = null;
+				}
+			}
+		}
+
+	}
+
+	@FunctionalInterface
+	private interface Write {
+		void run() throws IOException;
+	}
+
+	private void submit(final Write write) {
+		writer.execute(() -> {
+			try {
+				write.run();
+			} catch (final Exception e) {
+				if (error == null) {
+					error = e;
+				}
+			}
+		});
+	}
+
+}
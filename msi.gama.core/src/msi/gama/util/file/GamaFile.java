@@ -79,6 +79,10 @@ public abstract class GamaFile<Container extends IAddressableContainer & IModifi
 				tempPath = FileUtils.constructAbsoluteTempFilePath(scope, url);
 			}
 		} else {
+			if (forReading) {
+				// The file may have been saved during the current step, in which case its end can still be in memory
+				BufferedFileWriters.flushBeforeReading(scope, originalPath);
+			}
 			tempPath = FileUtils.constructAbsoluteFilePath(scope, originalPath, forReading);
 		}
 
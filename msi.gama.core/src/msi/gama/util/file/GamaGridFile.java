@@ -76,7 +76,8 @@ public class GamaGridFile extends GamaGisFile {
 	}
 
 	private GamaGridReader createReader(final IScope scope, final boolean fillBuffer) {
-		if (reader == null) {
+		// A reader created only to compute the envelope does not fill the buffer
+		if (reader == null || fillBuffer && !reader.filled) {
 			final File gridFile = getFile(scope);
 			gridFile.setReadable(true);
 			FileInputStream fis = null;
@@ -148,10 +149,14 @@ public class GamaGridFile extends GamaGisFile {
 		int numRows, numCols;
 		IShape geom;
 		Number noData = -9999;
+		final boolean filled;
 
 		GamaGridReader(final IScope scope, final InputStream fis, final boolean fillBuffer)
 				throws GamaRuntimeException {
-			setBuffer(GamaListFactory.<IShape> create(Types.GEOMETRY));
+			filled = fillBuffer;
+			if (fillBuffer) {
+				setBuffer(GamaListFactory.<IShape> create(Types.GEOMETRY));
+			}
 			AbstractGridCoverage2DReader store = null;
 			try {
 				if (fillBuffer) {
@@ -328,7 +333,10 @@ public class GamaGridFile extends GamaGisFile {
 
 	@Override
 	public Envelope3D computeEnvelope(final IScope scope) {
-		fillBuffer(scope);
+		// The envelope is known from the header of the file: there is no need to read its cells
+		if (gis == null) {
+			createReader(scope, false);
+		}
 		return gis.getProjectedEnvelope();
 	}
 
@@ -443,6 +451,17 @@ public class GamaGridFile extends GamaGisFile {
 		coverage = null;
 	}
 
+	/**
+	 * Reads the part of the file covered by the envelope (in the coordinates of the world) and returns its values
+	 * aggregated ('mean', 'sum', 'min' or 'max') to a grid of cols x rows cells covering this envelope, indexed like the
+	 * cells of a grid. Only this part of the file is read, and no geometry is built (see RasterWindowReader), which
+	 * allows to use files too large to be loaded.
+	 */
+	public double[] readWindow(final IScope scope, final Envelope3D envelope, final int cols, final int rows,
+			final String aggregation) {
+		return new RasterWindowReader(scope, envelope, cols, rows, aggregation).read(scope, this);
+	}
+
 	public GridCoverage2D getCoverage() {
 		return coverage;
 	}
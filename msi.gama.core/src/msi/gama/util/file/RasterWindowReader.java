@@ -0,0 +1,488 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.file.RasterWindowReader.java, in plugin msi.gama.core, is part of the source code of the GAMA modeling
+ * and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util.file;
+
+import java.awt.Rectangle;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridEnvelope2D;
+import org.geotools.coverage.grid.GridGeometry2D;
+import org.geotools.coverage.grid.io.AbstractGridFormat;
+import org.geotools.factory.Hints;
+import org.geotools.gce.geotiff.GeoTiffReader;
+import org.geotools.geometry.Envelope2D;
+import org.geotools.geometry.GeneralEnvelope;
+import org.opengis.parameter.GeneralParameterValue;
+import org.opengis.parameter.ParameterValue;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+
+import msi.gama.common.geometry.Envelope3D;
+import msi.gama.common.geometry.GeometryUtils;
+import msi.gama.metamodel.topology.projection.IProjection;
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+
+/**
+ * Reads the part of a grid file (.asc or .tif) covered by a target grid, and aggregates its values to the resolution of
+ * this grid while reading them, without loading the whole file nor building the geometries of its cells. The .asc
+ * files are memory-mapped (by regions, so that files larger than 2GB can be read) and only the rows covered by the
+ * target grid are parsed; the .tif files are read through GeoTools, which only decodes the tiles (or strips) covered by
+ * the target grid, one after the other.
+ *
+ * Each cell of the target grid gets the aggregation (mean, sum, min or max) of the values of the pixels whose center
+ * is inside it; if there is none (i.e. if the pixels are larger than the cells), it gets the value of the pixel
+ * containing its center. The pixels with no data are ignored, and the cells that get no value are given the no data
+ * value of the file. The coordinates of the file are related to those of the world by the projection of the file,
+ * applied to the corners of the target grid: this is exact when the file is in the CRS of the world, and an
+ * approximation otherwise.
+ */
+class RasterWindowReader {
+
+	static final String MEAN = "mean";
+	static final String SUM = "sum";
+	static final String MIN = "min";
+	static final String MAX = "max";
+
+	/**
+	 * The size of the regions of the .asc files mapped in memory
+	 */
+	private static final long REGION = 1L << 28;
+
+	private final int cols, rows;
+	private final double minX, minY, cellWidth, cellHeight;
+	private final int aggregation;
+	// From the coordinates of the file to those of the world: x' = ax + bx * x, y' = ay + by * y
+	private double ax, bx, ay, by;
+	private final double[] values;
+	private final int[] counts;
+	// The value of the pixel containing the center of each cell, used when no pixel center is inside the cell
+	private final double[] samples;
+	private double noData = Double.NaN;
+
+	RasterWindowReader(final IScope scope, final Envelope3D envelope, final int cols, final int rows,
+			final String aggregation) {
+		this.cols = cols;
+		this.rows = rows;
+		this.minX = envelope.getMinX();
+		this.minY = envelope.getMinY();
+		this.cellWidth = envelope.getWidth() / cols;
+		this.cellHeight = envelope.getHeight() / rows;
+		this.aggregation = aggregationOf(scope, aggregation);
+		values = new double[cols * rows];
+		counts = new int[cols * rows];
+		samples = new double[cols * rows];
+		Arrays.fill(samples, Double.NaN);
+		if (this.aggregation == 2) {
+			Arrays.fill(values, Double.POSITIVE_INFINITY);
+		} else if (this.aggregation == 3) {
+			Arrays.fill(values, Double.NEGATIVE_INFINITY);
+		}
+	}
+
+	private static int aggregationOf(final IScope scope, final String aggregation) {
+		if (aggregation == null || MEAN.equals(aggregation)) { return 0; }
+		if (SUM.equals(aggregation)) { return 1; }
+		if (MIN.equals(aggregation)) { return 2; }
+		if (MAX.equals(aggregation)) { return 3; }
+		throw GamaRuntimeException.error(
+				"Unknown aggregation: " + aggregation + ". Use 'mean', 'sum', 'min' or 'max'", scope);
+	}
+
+	/**
+	 * Computes the transformation from the coordinates of the file to those of the world, using the projection of the
+	 * file on the corners of the target grid
+	 */
+	private void computeTransformation(final IScope scope, final IProjection gis) {
+		final double maxX = minX + cellWidth * cols;
+		final double maxY = minY + cellHeight * rows;
+		final Coordinate a = toFile(gis, minX, minY);
+		final Coordinate b = toFile(gis, maxX, maxY);
+		if (a.x == b.x || a.y == b.y) {
+			throw GamaRuntimeException.error("The envelope of the grid cannot be located in the file", scope);
+		}
+		bx = (maxX - minX) / (b.x - a.x);
+		ax = minX - bx * a.x;
+		by = (maxY - minY) / (b.y - a.y);
+		ay = minY - by * a.y;
+	}
+
+	private static Coordinate toFile(final IProjection gis, final double x, final double y) {
+		if (gis == null) { return new Coordinate(x, y); }
+		final Geometry g = gis.inverseTransform(GeometryUtils.GEOMETRY_FACTORY.createPoint(new Coordinate(x, y)));
+		return g.getCoordinate();
+	}
+
+	/**
+	 * The window of the file (in the coordinates of the file) covered by the target grid: {minX, minY, maxX, maxY}
+	 */
+	private double[] window() {
+		final double x0 = (minX - ax) / bx;
+		final double x1 = (minX + cellWidth * cols - ax) / bx;
+		final double y0 = (minY - ay) / by;
+		final double y1 = (minY + cellHeight * rows - ay) / by;
+		return new double[] { Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1) };
+	}
+
+	/**
+	 * Accumulates the value of the pixel centered on (x, y), of size (width, height), in the coordinates of the file
+	 */
+	private void accept(final double x, final double y, final double width, final double height,
+			final double value) {
+		if (Double.isNaN(value) || value == noData) { return; }
+		final double wx = ax + bx * x;
+		final double wy = ay + by * y;
+		final double fx = (wx - minX) / cellWidth;
+		final double fy = (wy - minY) / cellHeight;
+		final int c = (int) Math.floor(fx);
+		final int r = (int) Math.floor(fy);
+		if (c >= 0 && r >= 0 && c < cols && r < rows) {
+			final int i = r * cols + c;
+			switch (aggregation) {
+				case 2:
+					values[i] = Math.min(values[i], value);
+					break;
+				case 3:
+					values[i] = Math.max(values[i], value);
+					break;
+				default:
+					values[i] += value;
+			}
+			counts[i]++;
+		}
+		// Pixels larger than the cells give their value to the cells whose center they contain
+		final double hx = Math.abs(bx) * width / 2 / cellWidth;
+		final double hy = Math.abs(by) * height / 2 / cellHeight;
+		if (hx <= 0.5 && hy <= 0.5) { return; }
+		final int c0 = Math.max(0, (int) Math.ceil(fx - hx - 0.5));
+		final int c1 = Math.min(cols - 1, (int) Math.floor(fx + hx - 0.5));
+		final int r0 = Math.max(0, (int) Math.ceil(fy - hy - 0.5));
+		final int r1 = Math.min(rows - 1, (int) Math.floor(fy + hy - 0.5));
+		for (int rr = r0; rr <= r1; rr++) {
+			for (int cc = c0; cc <= c1; cc++) {
+				samples[rr * cols + cc] = value;
+			}
+		}
+	}
+
+	private double[] result() {
+		for (int i = 0; i < values.length; i++) {
+			if (counts[i] == 0) {
+				values[i] = Double.isNaN(samples[i]) ? Double.isNaN(noData) ? 0d : noData : samples[i];
+			} else if (aggregation == 0) {
+				values[i] /= counts[i];
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the file and returns the aggregated values of the cells of the target grid, indexed like the cells
+	 */
+	double[] read(final IScope scope, final GamaGridFile file) {
+		file.computeEnvelopeWithoutBuffer(scope);
+		computeTransformation(scope, file.getGis(scope));
+		try {
+			if (file.isTiff(scope)) {
+				readTiff(scope, file);
+			} else {
+				readAscii(file.getFile(scope));
+			}
+		} catch (final IOException | RuntimeException e) {
+			if (e instanceof GamaRuntimeException) { throw (GamaRuntimeException) e; }
+			final GamaRuntimeException ex = GamaRuntimeException.error(
+					"The format of " + file.getName(scope) + " is not correct. Error: " + e.getMessage(), scope);
+			ex.addContext("for file " + file.getPath(scope));
+			throw ex;
+		}
+		return result();
+	}
+
+	private void readTiff(final IScope scope, final GamaGridFile file) throws IOException {
+		final CoordinateReferenceSystem crs = file.getExistingCRS(scope);
+		final GeoTiffReader store = crs == null ? new GeoTiffReader(file.getFile(scope))
+				: new GeoTiffReader(file.getFile(scope), new Hints(Hints.DEFAULT_COORDINATE_REFERENCE_SYSTEM, crs));
+		GridCoverage2D coverage = null;
+		try {
+			noData = store.getMetadata().getNoData();
+			final GeneralEnvelope full = store.getOriginalEnvelope();
+			final int fileCols = store.getOriginalGridRange().getHigh(0) + 1;
+			final int fileRows = store.getOriginalGridRange().getHigh(1) + 1;
+			final double pw = full.getSpan(0) / fileCols;
+			final double ph = full.getSpan(1) / fileRows;
+			// The window, in pixels, extended by one pixel to sample the cells along its borders
+			final double[] w = window();
+			final int c0 = Math.max(0, (int) Math.floor((w[0] - full.getMinimum(0)) / pw) - 1);
+			final int c1 = Math.min(fileCols, (int) Math.ceil((w[2] - full.getMinimum(0)) / pw) + 1);
+			final int r0 = Math.max(0, (int) Math.floor((full.getMaximum(1) - w[3]) / ph) - 1);
+			final int r1 = Math.min(fileRows, (int) Math.ceil((full.getMaximum(1) - w[1]) / ph) + 1);
+			if (c0 >= c1 || r0 >= r1) { return; }
+			final GeneralEnvelope env =
+					new GeneralEnvelope(new double[] { full.getMinimum(0) + c0 * pw, full.getMaximum(1) - r1 * ph },
+							new double[] { full.getMinimum(0) + c1 * pw, full.getMaximum(1) - r0 * ph });
+			env.setCoordinateReferenceSystem(full.getCoordinateReferenceSystem());
+			final ParameterValue<GridGeometry2D> geometry = AbstractGridFormat.READ_GRIDGEOMETRY2D.createValue();
+			geometry.setValue(new GridGeometry2D(new GridEnvelope2D(0, 0, c1 - c0, r1 - r0), env));
+			coverage = store.read(new GeneralParameterValue[] { geometry });
+			final RenderedImage image = coverage.getRenderedImage();
+			final Envelope2D cenv = coverage.getEnvelope2D();
+			final double iw = cenv.getWidth() / image.getWidth();
+			final double ih = cenv.getHeight() / image.getHeight();
+			final boolean rgb = image.getSampleModel().getNumBands() == 3
+					&& image.getSampleModel().getDataType() == DataBuffer.TYPE_BYTE;
+			for (int ty = image.getMinTileY(), ny = ty + image.getNumYTiles(); ty < ny; ty++) {
+				for (int tx = image.getMinTileX(), nx = tx + image.getNumXTiles(); tx < nx; tx++) {
+					final Raster tile = image.getTile(tx, ty);
+					final Rectangle b = tile.getBounds().intersection(
+							new Rectangle(image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight()));
+					for (int y = b.y; y < b.y + b.height; y++) {
+						final double py = cenv.getMaxY() - (y - image.getMinY() + 0.5) * ih;
+						for (int x = b.x; x < b.x + b.width; x++) {
+							final double px = cenv.getMinX() + (x - image.getMinX() + 0.5) * iw;
+							final double v = rgb ? (tile.getSample(x, y, 0) + tile.getSample(x, y, 1)
+									+ tile.getSample(x, y, 2)) / 3.0 : tile.getSampleDouble(x, y, 0);
+							accept(px, py, iw, ih, v);
+						}
+					}
+				}
+			}
+		} finally {
+			if (coverage != null) {
+				coverage.dispose(true);
+			}
+			store.dispose();
+		}
+	}
+
+	private void readAscii(final File file) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final MappedCursor in = new MappedCursor(channel);
+			int fileCols = -1, fileRows = -1;
+			double xll = Double.NaN, yll = Double.NaN, dx = Double.NaN, dy = Double.NaN;
+			boolean xCenter = false, yCenter = false;
+			// The header: lines made of a key and a value
+			while (true) {
+				final long start = in.position();
+				final String key = in.nextToken();
+				if (key == null) { return; }
+				if (!Character.isLetter(key.charAt(0))) {
+					in.position(start);
+					break;
+				}
+				final double value = Double.parseDouble(in.nextToken());
+				switch (key.toLowerCase()) {
+					case "ncols":
+						fileCols = (int) value;
+						break;
+					case "nrows":
+						fileRows = (int) value;
+						break;
+					case "xllcenter":
+						xCenter = true;
+						xll = value;
+						break;
+					case "xllcorner":
+						xll = value;
+						break;
+					case "yllcenter":
+						yCenter = true;
+						yll = value;
+						break;
+					case "yllcorner":
+						yll = value;
+						break;
+					case "cellsize":
+						dx = dy = value;
+						break;
+					case "dx":
+						dx = value;
+						break;
+					case "dy":
+						dy = value;
+						break;
+					case "nodata_value":
+						noData = value;
+						break;
+					default:
+				}
+			}
+			if (fileCols <= 0 || fileRows <= 0 || Double.isNaN(xll) || Double.isNaN(yll) || Double.isNaN(dx)
+					|| Double.isNaN(dy)) {
+				throw new IOException("incomplete header");
+			}
+			if (xCenter) {
+				xll -= dx / 2;
+			}
+			if (yCenter) {
+				yll -= dy / 2;
+			}
+			final double top = yll + fileRows * dy;
+			final double[] w = window();
+			final int c0 = Math.max(0, (int) Math.floor((w[0] - xll) / dx) - 1);
+			final int c1 = Math.min(fileCols, (int) Math.ceil((w[2] - xll) / dx) + 1);
+			final int r0 = Math.max(0, (int) Math.floor((top - w[3]) / dy) - 1);
+			final int r1 = Math.min(fileRows, (int) Math.ceil((top - w[1]) / dy) + 1);
+			if (c0 >= c1 || r0 >= r1) { return; }
+			// The rows before the window are skipped without being parsed, and the ones after it are not read
+			for (long i = 0, n = (long) r0 * fileCols; i < n; i++) {
+				in.skipToken();
+			}
+			for (int r = r0; r < r1; r++) {
+				final double y = top - (r + 0.5) * dy;
+				for (int c = 0; c < fileCols; c++) {
+					if (c < c0 || c >= c1) {
+						in.skipToken();
+					} else {
+						accept(xll + (c + 0.5) * dx, y, dx, dy, in.nextDouble());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A cursor on the bytes of a file, mapped in memory by regions
+	 */
+	private static class MappedCursor {
+
+		private final FileChannel channel;
+		private final long size;
+		private long base;
+		private MappedByteBuffer buffer;
+		private final StringBuilder token = new StringBuilder();
+
+		MappedCursor(final FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+			position(0);
+		}
+
+		long position() {
+			return base + buffer.position();
+		}
+
+		void position(final long position) throws IOException {
+			if (buffer != null && position >= base && position < base + buffer.limit()) {
+				buffer.position((int) (position - base));
+			} else {
+				map(position);
+			}
+		}
+
+		private void map(final long position) throws IOException {
+			base = position;
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(REGION, size - base));
+		}
+
+		/**
+		 * Returns the next byte, or -1 at the end of the file
+		 */
+		int next() throws IOException {
+			if (!buffer.hasRemaining()) {
+				if (position() >= size) { return -1; }
+				map(position());
+			}
+			return buffer.get();
+		}
+
+		private int skipSpaces() throws IOException {
+			int b = next();
+			while (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',') {
+				b = next();
+			}
+			return b;
+		}
+
+		private static boolean isSeparator(final int b) {
+			return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',' || b == -1;
+		}
+
+		void skipToken() throws IOException {
+			int b = skipSpaces();
+			if (b == -1) { throw new IOException("unexpected end of file"); }
+			while (!isSeparator(b)) {
+				b = next();
+			}
+		}
+
+		String nextToken() throws IOException {
+			int b = skipSpaces();
+			if (b == -1) { return null; }
+			token.setLength(0);
+			while (!isSeparator(b)) {
+				token.append((char) b);
+				b = next();
+			}
+			return token.toString();
+		}
+
+		/**
+		 * Parses the next number. The decimal numbers with at most 15 significant digits and no exponent (the usual
+		 * case) are parsed directly and exactly; the others by Double.parseDouble()
+		 */
+		double nextDouble() throws IOException {
+			int b = skipSpaces();
+			if (b == -1) { throw new IOException("unexpected end of file"); }
+			token.setLength(0);
+			final boolean negative = b == '-';
+			if (b == '-' || b == '+') {
+				token.append((char) b);
+				b = next();
+			}
+			long mantissa = 0;
+			int digits = 0, decimals = 0;
+			boolean point = false, simple = true;
+			while (!isSeparator(b)) {
+				token.append((char) b);
+				if (b >= '0' && b <= '9') {
+					mantissa = mantissa * 10 + b - '0';
+					if (mantissa != 0 && ++digits > 15) {
+						simple = false;
+					}
+					if (point) {
+						decimals++;
+					}
+				} else if (b == '.' && !point) {
+					point = true;
+				} else {
+					simple = false;
+				}
+				b = next();
+			}
+			if (!simple || decimals > 22) { return Double.parseDouble(token.toString()); }
+			// Both the mantissa and the power of ten are exact doubles, hence the division is correctly rounded
+			final double v = decimals == 0 ? mantissa : mantissa / POWERS[decimals];
+			return negative ? -v : v;
+		}
+
+		private static final double[] POWERS = new double[23];
+
+		static {
+			POWERS[0] = 1d;
+			for (int i = 1; i < POWERS.length; i++) {
+				POWERS[i] = POWERS[i - 1] * 10;
+			}
+		}
+
+	}
+
+}
@@ -14,6 +14,7 @@ import java.util.Collection;
 
 import msi.gama.metamodel.agent.IAgent;
 import msi.gama.metamodel.population.IPopulation;
+import msi.gama.metamodel.topology.graph.GamaSpatialGraph;
 import msi.gama.runtime.IScope;
 import msi.gama.util.IContainer;
 
@@ -22,6 +23,8 @@ import msi.gama.util.IContainer;
  * <ul>
  * <li>When a node agent dies, the corresponding node is removed from the network.</li>
  * <li>When an edge agent dies, the corresponding edge is removed from the network.</li>
+ * <li>When a node agent is created, it is added to the network if the latter is a spatial graph that maintains the
+ * edges computed by its vertex relation (see {@link GamaSpatialGraph#maintainEdges(IScope)}).</li>
  * </ul>
  *
  * @author Benoit Gaudou, from Samuel Thiriot (GraphAndPopulationSynchronize.java)
@@ -88,11 +91,26 @@ public class GraphFromAgentContainerSynchronizer implements IPopulation.Listener
 		}
 	}
 
+	private boolean addsVertices(final IPopulation pop) {
+		return pop == popVertices && graph instanceof GamaSpatialGraph
+				&& ((GamaSpatialGraph) graph).isMaintainingEdges();
+	}
+
 	@Override
-	public void notifyAgentAdded(final IScope scope, final IPopulation pop, final IAgent agent) {}
+	public void notifyAgentAdded(final IScope scope, final IPopulation pop, final IAgent agent) {
+		if (addsVertices(pop)) {
+			graph.addVertex(agent);
+		}
+	}
 
 	@Override
-	public void notifyAgentsAdded(final IScope scope, final IPopulation pop, final Collection agents) {}
+	public void notifyAgentsAdded(final IScope scope, final IPopulation pop, final Collection agents) {
+		if (addsVertices(pop)) {
+			for (final Object o : agents) {
+				graph.addVertex(o);
+			}
+		}
+	}
 
 	@Override
 	public void notifyAgentsRemoved(final IScope scope, final IPopulation pop, final Collection agents) {
@@ -0,0 +1,482 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.graph.GraphSnapshot.java, in plugin msi.gama.core, is part of the source code of the GAMA modeling and
+ * simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import msi.gama.runtime.concurrent.GamaExecutorService;
+
+/**
+ * A frozen copy of the structure of a graph, used by the analytics operators (betweenness, closeness, page rank,
+ * connected components, k-cores). The vertices and edges are numbered in the order of the graph, and the arcs leaving
+ * each vertex (both directions of each edge if the graph is undirected) are stored in compressed sparse rows: the arcs
+ * leaving vertex v are numbered from start[v] (included) to start[v + 1] (excluded), arc a going from source[a] to
+ * target[a] through the edge edge[a] with the weight weight[a].
+ *
+ * The algorithms only work on these arrays: they neither use nor fill the cache of shortest paths of the graph, and
+ * the ones that compute paths from every vertex run these computations in parallel (each task accumulating its
+ * results in its own arrays, which are then summed in a fixed order, so that the results do not depend on the
+ * parallelism).
+ */
+public class GraphSnapshot {
+
+	/**
+	 * Under this number of vertices, the algorithms are sequential
+	 */
+	private static final int PARALLEL_VERTICES = 64;
+
+	public final Object[] vertices;
+	public final Object[] edges;
+	public final boolean directed;
+	final int[] start;
+	final int[] source;
+	final int[] target;
+	final int[] edge;
+	final double[] weight;
+
+	@SuppressWarnings ("rawtypes")
+	public GraphSnapshot(final IGraph graph) {
+		vertices = graph.vertexSet().toArray();
+		edges = graph.edgeSet().toArray();
+		directed = graph.isDirected();
+		final int n = vertices.length;
+		final Map<Object, Integer> index = new HashMap<>(n * 2);
+		for (int i = 0; i < n; i++) {
+			index.put(vertices[i], i);
+		}
+		final int m = edges.length;
+		final int[] es = new int[m];
+		final int[] et = new int[m];
+		int arcs = 0;
+		for (int e = 0; e < m; e++) {
+			es[e] = index.get(graph.getEdgeSource(edges[e]));
+			et[e] = index.get(graph.getEdgeTarget(edges[e]));
+			arcs += directed || es[e] == et[e] ? 1 : 2;
+		}
+		start = new int[n + 1];
+		for (int e = 0; e < m; e++) {
+			start[es[e] + 1]++;
+			if (!directed && es[e] != et[e]) {
+				start[et[e] + 1]++;
+			}
+		}
+		for (int v = 0; v < n; v++) {
+			start[v + 1] += start[v];
+		}
+		source = new int[arcs];
+		target = new int[arcs];
+		edge = new int[arcs];
+		weight = new double[arcs];
+		final int[] next = Arrays.copyOf(start, n);
+		for (int e = 0; e < m; e++) {
+			final double w = graph.getEdgeWeight(edges[e]);
+			addArc(next[es[e]]++, es[e], et[e], e, w);
+			if (!directed && es[e] != et[e]) {
+				addArc(next[et[e]]++, et[e], es[e], e, w);
+			}
+		}
+	}
+
+	private void addArc(final int a, final int from, final int to, final int e, final double w) {
+		source[a] = from;
+		target[a] = to;
+		edge[a] = e;
+		weight[a] = w;
+	}
+
+	/**
+	 * Runs the tasks numbered from 0 to tasks - 1, in parallel in the executor of GAMA if the graph is large enough
+	 */
+	private void run(final int tasks, final IntConsumer task) {
+		if (tasks <= 1 || vertices.length < PARALLEL_VERTICES) {
+			for (int t = 0; t < tasks; t++) {
+				task.accept(t);
+			}
+		} else {
+			GamaExecutorService.executeThreaded(() -> IntStream.range(0, tasks).parallel().forEach(task));
+		}
+	}
+
+	/**
+	 * The number of tasks among which the vertices are divided
+	 */
+	private int tasks() {
+		final int n = vertices.length;
+		return Math.max(1, Math.min(n, GamaExecutorService.CONCURRENCY_THREADS_NUMBER.getValue() * 4));
+	}
+
+	private int first(final int task, final int tasks) {
+		return (int) ((long) vertices.length * task / tasks);
+	}
+
+	/**
+	 * The shortest paths from one source, computed with the algorithm of Dijkstra. The distances that differ by less
+	 * than a relative tolerance are considered equal, so that the paths whose lengths only differ by rounding errors
+	 * are all counted.
+	 */
+	class ShortestPaths {
+
+		final double[] dist = new double[vertices.length];
+		final double[] sigma = new double[vertices.length];
+		final double[] delta = new double[vertices.length];
+		final boolean[] settled = new boolean[vertices.length];
+		// The vertices, in the order in which they are settled
+		final int[] order = new int[vertices.length];
+		int settledCount;
+		// The arcs by which the shortest paths reach each vertex (linked lists)
+		final int[] firstPred = new int[vertices.length];
+		final int[] nextPred = new int[source.length];
+		// A binary heap, in which the vertices can appear several times
+		int[] heap = new int[16];
+		double[] keys = new double[16];
+		int heapSize;
+
+		void compute(final int s) {
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+			Arrays.fill(sigma, 0d);
+			Arrays.fill(settled, false);
+			Arrays.fill(firstPred, -1);
+			settledCount = 0;
+			heapSize = 0;
+			dist[s] = 0d;
+			sigma[s] = 1d;
+			push(s, 0d);
+			while (heapSize > 0) {
+				final int v = pop();
+				if (settled[v]) {
+					continue;
+				}
+				settled[v] = true;
+				order[settledCount++] = v;
+				for (int a = start[v]; a < start[v + 1]; a++) {
+					final int w = target[a];
+					if (settled[w]) {
+						continue;
+					}
+					final double d = dist[v] + weight[a];
+					final double tolerance = 1e-9 * Math.max(1d, Math.abs(d));
+					if (d < dist[w] - tolerance) {
+						dist[w] = d;
+						sigma[w] = sigma[v];
+						firstPred[w] = a;
+						nextPred[a] = -1;
+						push(w, d);
+					} else if (d <= dist[w] + tolerance) {
+						sigma[w] += sigma[v];
+						nextPred[a] = firstPred[w];
+						firstPred[w] = a;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Adds the dependencies of the source on the vertices and edges (algorithm of Brandes) to vb and eb (which can
+		 * be null)
+		 */
+		void accumulate(final int s, final double[] vb, final double[] eb) {
+			Arrays.fill(delta, 0d);
+			for (int i = settledCount - 1; i >= 0; i--) {
+				final int w = order[i];
+				for (int a = firstPred[w]; a >= 0; a = nextPred[a]) {
+					final int v = source[a];
+					final double c = sigma[v] / sigma[w] * (1d + delta[w]);
+					if (eb != null) {
+						eb[edge[a]] += c;
+					}
+					delta[v] += c;
+				}
+				if (w != s && vb != null) {
+					vb[w] += delta[w];
+				}
+			}
+		}
+
+		private void push(final int v, final double key) {
+			if (heapSize == heap.length) {
+				heap = Arrays.copyOf(heap, heapSize * 2);
+				keys = Arrays.copyOf(keys, heapSize * 2);
+			}
+			int i = heapSize++;
+			while (i > 0) {
+				final int parent = (i - 1) / 2;
+				if (keys[parent] <= key) {
+					break;
+				}
+				heap[i] = heap[parent];
+				keys[i] = keys[parent];
+				i = parent;
+			}
+			heap[i] = v;
+			keys[i] = key;
+		}
+
+		private int pop() {
+			final int result = heap[0];
+			final int last = heap[--heapSize];
+			final double key = keys[heapSize];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= heapSize) {
+					break;
+				}
+				if (child + 1 < heapSize && keys[child + 1] < keys[child]) {
+					child++;
+				}
+				if (keys[child] >= key) {
+					break;
+				}
+				heap[i] = heap[child];
+				keys[i] = keys[child];
+				i = child;
+			}
+			heap[i] = last;
+			keys[i] = key;
+			return result;
+		}
+	}
+
+	/**
+	 * The betweenness centrality of the vertices (if vertices is true) or of the edges (otherwise), computed with the
+	 * algorithm of Brandes: the number of shortest paths between two other vertices that pass through each of them,
+	 * the paths between two vertices being shared if there are several. Each pair of vertices is counted once if the
+	 * graph is undirected.
+	 */
+	public double[] betweenness(final boolean ofVertices) {
+		final int tasks = tasks();
+		final int size = ofVertices ? vertices.length : edges.length;
+		final double[][] partial = new double[tasks][];
+		run(tasks, t -> {
+			final double[] result = new double[size];
+			final ShortestPaths paths = new ShortestPaths();
+			for (int s = first(t, tasks), end = first(t + 1, tasks); s < end; s++) {
+				paths.compute(s);
+				paths.accumulate(s, ofVertices ? result : null, ofVertices ? null : result);
+			}
+			partial[t] = result;
+		});
+		final double[] result = new double[size];
+		for (final double[] p : partial) {
+			for (int i = 0; i < size; i++) {
+				result[i] += p[i];
+			}
+		}
+		if (!directed) {
+			for (int i = 0; i < size; i++) {
+				result[i] /= 2d;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The closeness centrality of the vertices: the number of other vertices they can reach divided by the sum of
+	 * their distances to them (0 for the vertices that cannot reach any other vertex)
+	 */
+	public double[] closeness() {
+		final int tasks = tasks();
+		final double[] result = new double[vertices.length];
+		run(tasks, t -> {
+			final ShortestPaths paths = new ShortestPaths();
+			for (int s = first(t, tasks), end = first(t + 1, tasks); s < end; s++) {
+				paths.compute(s);
+				double sum = 0d;
+				for (int i = 1; i < paths.settledCount; i++) {
+					sum += paths.dist[paths.order[i]];
+				}
+				result[s] = sum > 0d ? (paths.settledCount - 1) / sum : 0d;
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * The page rank of the vertices, computed by power iterations until the sum of the changes is below the tolerance
+	 * (or after maxIterations iterations). The rank of the vertices without leaving arcs is distributed to all the
+	 * vertices. The ranks sum to 1.
+	 */
+	public double[] pageRank(final double damping, final double tolerance, final int maxIterations) {
+		final int n = vertices.length;
+		if (n == 0) { return new double[0]; }
+		// The arcs reaching each vertex
+		final int[] inStart = new int[n + 1];
+		for (final int t : target) {
+			inStart[t + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			inStart[v + 1] += inStart[v];
+		}
+		final int[] inSource = new int[target.length];
+		final int[] next = Arrays.copyOf(inStart, n);
+		for (int a = 0; a < target.length; a++) {
+			inSource[next[target[a]]++] = source[a];
+		}
+		double[] rank = new double[n];
+		double[] newRank = new double[n];
+		Arrays.fill(rank, 1d / n);
+		final int tasks = tasks();
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+			double dangling = 0d;
+			for (int v = 0; v < n; v++) {
+				if (start[v] == start[v + 1]) {
+					dangling += rank[v];
+				}
+			}
+			final double base = (1d - damping) / n + damping * dangling / n;
+			final double[] r = rank, nr = newRank;
+			run(tasks, t -> {
+				for (int v = first(t, tasks), end = first(t + 1, tasks); v < end; v++) {
+					double sum = 0d;
+					for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+						final int u = inSource[i];
+						sum += r[u] / (start[u + 1] - start[u]);
+					}
+					nr[v] = base + damping * sum;
+				}
+			});
+			double change = 0d;
+			for (int v = 0; v < n; v++) {
+				change += Math.abs(newRank[v] - rank[v]);
+			}
+			rank = newRank;
+			newRank = r;
+			if (change < tolerance) {
+				break;
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * The (weakly) connected component of each vertex, the components being numbered from 0 in the order of their
+	 * first vertex
+	 */
+	public int[] components() {
+		final int n = vertices.length;
+		final int[] parent = new int[n];
+		for (int v = 0; v < n; v++) {
+			parent[v] = v;
+		}
+		for (int a = 0; a < source.length; a++) {
+			final int r1 = root(parent, source[a]);
+			final int r2 = root(parent, target[a]);
+			if (r1 != r2) {
+				parent[Math.max(r1, r2)] = Math.min(r1, r2);
+			}
+		}
+		final int[] result = new int[n];
+		int count = 0;
+		for (int v = 0; v < n; v++) {
+			final int r = root(parent, v);
+			result[v] = r == v ? count++ : result[r];
+		}
+		return result;
+	}
+
+	private static int root(final int[] parent, final int v) {
+		int r = v;
+		while (parent[r] != r) {
+			parent[r] = parent[parent[r]];
+			r = parent[r];
+		}
+		return r;
+	}
+
+	/**
+	 * The core number of each vertex (algorithm of Batagelj and Zaversnik): the largest k such that the vertex belongs
+	 * to the k-core of the graph, i.e. to the largest sub-graph in which all the vertices have at least k neighbours.
+	 * The directions of the edges, the loops and the multiple edges are ignored.
+	 */
+	public int[] coreNumbers() {
+		final int n = vertices.length;
+		// The distinct neighbours of each vertex, in both directions
+		final int[][] neighbours = new int[n][];
+		final int[] count = new int[n];
+		for (int a = 0; a < source.length; a++) {
+			if (source[a] != target[a]) {
+				count[source[a]]++;
+				count[target[a]]++;
+			}
+		}
+		for (int v = 0; v < n; v++) {
+			neighbours[v] = new int[count[v]];
+			count[v] = 0;
+		}
+		for (int a = 0; a < source.length; a++) {
+			if (source[a] != target[a]) {
+				neighbours[source[a]][count[source[a]]++] = target[a];
+				neighbours[target[a]][count[target[a]]++] = source[a];
+			}
+		}
+		int maxDegree = 0;
+		final int[] degree = new int[n];
+		for (int v = 0; v < n; v++) {
+			final int[] ns = neighbours[v];
+			Arrays.sort(ns);
+			int distinct = 0;
+			for (int i = 0; i < ns.length; i++) {
+				if (i == 0 || ns[i] != ns[i - 1]) {
+					ns[distinct++] = ns[i];
+				}
+			}
+			neighbours[v] = Arrays.copyOf(ns, distinct);
+			degree[v] = distinct;
+			maxDegree = Math.max(maxDegree, distinct);
+		}
+		// Vertices sorted by degree (bin sort), with the position of each one and the start of each bin
+		final int[] bin = new int[maxDegree + 1];
+		for (int v = 0; v < n; v++) {
+			bin[degree[v]]++;
+		}
+		for (int d = 0, s = 0; d <= maxDegree; d++) {
+			final int c = bin[d];
+			bin[d] = s;
+			s += c;
+		}
+		final int[] sorted = new int[n];
+		final int[] position = new int[n];
+		for (int v = 0; v < n; v++) {
+			position[v] = bin[degree[v]]++;
+			sorted[position[v]] = v;
+		}
+		for (int d = maxDegree; d > 0; d--) {
+			bin[d] = bin[d - 1];
+		}
+		bin[0] = 0;
+		for (int i = 0; i < n; i++) {
+			final int v = sorted[i];
+			for (final int u : neighbours[v]) {
+				if (degree[u] > degree[v]) {
+					// u is moved to the start of its bin, then the bin is shrunk
+					final int du = degree[u];
+					final int pu = position[u];
+					final int pw = bin[du];
+					final int w = sorted[pw];
+					if (u != w) {
+						sorted[pu] = w;
+						position[w] = pu;
+						sorted[pw] = u;
+						position[u] = pw;
+					}
+					bin[du]++;
+					degree[u]--;
+				}
+			}
+		}
+		return degree;
+	}
+
+}
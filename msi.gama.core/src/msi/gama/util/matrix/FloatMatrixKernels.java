@@ -0,0 +1,211 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.matrix.FloatMatrixKernels.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util.matrix;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import msi.gama.runtime.concurrent.GamaExecutorService;
+
+/**
+ * The numerical kernels used by the float matrices. They work directly on the row-major arrays of doubles backing the
+ * matrices (the element at (col, row) being at index row * cols + col), and are organized in blocks of BLOCK x BLOCK
+ * elements so that the rows read stay in the caches. When the amount of work is large enough, the blocks of rows are
+ * computed in parallel in the executor of GAMA; as every element of the result is computed by only one task, and always
+ * in the same order, the results do not depend on the parallelism.
+ */
+public final class FloatMatrixKernels {
+
+	static final int BLOCK = 64;
+
+	/**
+	 * The number of multiplications above which a kernel is run in parallel
+	 */
+	static final long PARALLEL_WORK = 1L << 18;
+
+	/**
+	 * The threshold under which a pivot is considered as null when inverting a matrix (the same as Commons Math)
+	 */
+	static final double SINGULARITY_THRESHOLD = 1e-11;
+
+	private FloatMatrixKernels() {}
+
+	/**
+	 * Runs the tasks numbered from 0 to tasks - 1, in parallel if the work they represent is large enough
+	 */
+	private static void run(final int tasks, final long work, final IntConsumer task) {
+		if (tasks <= 1 || work < PARALLEL_WORK) {
+			for (int t = 0; t < tasks; t++) {
+				task.accept(t);
+			}
+		} else {
+			GamaExecutorService.executeThreaded(() -> IntStream.range(0, tasks).parallel().forEach(task));
+		}
+	}
+
+	private static int blocks(final int n) {
+		return (n + BLOCK - 1) / BLOCK;
+	}
+
+	/**
+	 * Adds the product of a (m rows x k cols) by b (k rows x n cols) to c (m rows x n cols)
+	 */
+	public static void multiply(final double[] a, final double[] b, final double[] c, final int m, final int k,
+			final int n) {
+		run(blocks(m), (long) m * k * n, ib -> {
+			final int i0 = ib * BLOCK;
+			final int i1 = Math.min(m, i0 + BLOCK);
+			for (int p0 = 0; p0 < k; p0 += BLOCK) {
+				final int p1 = Math.min(k, p0 + BLOCK);
+				for (int j0 = 0; j0 < n; j0 += BLOCK) {
+					final int j1 = Math.min(n, j0 + BLOCK);
+					for (int i = i0; i < i1; i++) {
+						final int ci = i * n;
+						final int ai = i * k;
+						for (int p = p0; p < p1; p++) {
+							final double aip = a[ai + p];
+							final int bp = p * n;
+							for (int j = j0; j < j1; j++) {
+								c[ci + j] += aip * b[bp + j];
+							}
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes the transposition of a (rows x cols) into t (cols x rows)
+	 */
+	public static void transpose(final double[] a, final double[] t, final int rows, final int cols) {
+		run(blocks(rows), (long) rows * cols, ib -> {
+			final int i0 = ib * BLOCK;
+			final int i1 = Math.min(rows, i0 + BLOCK);
+			for (int j0 = 0; j0 < cols; j0 += BLOCK) {
+				final int j1 = Math.min(cols, j0 + BLOCK);
+				for (int i = i0; i < i1; i++) {
+					for (int j = j0; j < j1; j++) {
+						t[j * rows + i] = a[i * cols + j];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes the inverse of a (n x n) into inv, using a Gauss-Jordan elimination with partial pivoting. The elimination
+	 * of the rows is done in parallel for large matrices. Returns false (and leaves inv in an undefined state) if the
+	 * matrix is singular.
+	 */
+	public static boolean invert(final double[] a, final double[] inv, final int n) {
+		final double[] w = a.clone();
+		Arrays.fill(inv, 0d);
+		for (int i = 0; i < n; i++) {
+			inv[i * n + i] = 1d;
+		}
+		for (int col = 0; col < n; col++) {
+			int pivot = col;
+			double max = Math.abs(w[col * n + col]);
+			for (int r = col + 1; r < n; r++) {
+				final double v = Math.abs(w[r * n + col]);
+				if (v > max) {
+					max = v;
+					pivot = r;
+				}
+			}
+			if (max < SINGULARITY_THRESHOLD) { return false; }
+			if (pivot != col) {
+				swapRows(w, n, pivot, col);
+				swapRows(inv, n, pivot, col);
+			}
+			final int pc = col * n;
+			final double d = w[pc + col];
+			for (int j = 0; j < n; j++) {
+				w[pc + j] /= d;
+				inv[pc + j] /= d;
+			}
+			final int c = col;
+			run(blocks(n), (long) n * n * 2, rb -> {
+				final int r1 = Math.min(n, rb * BLOCK + BLOCK);
+				for (int r = rb * BLOCK; r < r1; r++) {
+					if (r == c) {
+						continue;
+					}
+					final int rr = r * n;
+					final double f = w[rr + c];
+					if (f == 0d) {
+						continue;
+					}
+					for (int j = 0; j < n; j++) {
+						w[rr + j] -= f * w[pc + j];
+						inv[rr + j] -= f * inv[pc + j];
+					}
+				}
+			});
+		}
+		return true;
+	}
+
+	private static void swapRows(final double[] m, final int n, final int r1, final int r2) {
+		final int o1 = r1 * n;
+		final int o2 = r2 * n;
+		for (int j = 0; j < n; j++) {
+			final double tmp = m[o1 + j];
+			m[o1 + j] = m[o2 + j];
+			m[o2 + j] = tmp;
+		}
+	}
+
+	/**
+	 * Adds the product of the sparse matrix s (in CSR form, m rows) by the dense matrix b (n cols) to c (m rows x n
+	 * cols)
+	 */
+	public static void sparseTimesDense(final int[] rowStart, final int[] colIndex, final double[] values,
+			final int m, final double[] b, final int n, final double[] c) {
+		run(blocks(m), (long) rowStart[m] * n, ib -> {
+			final int i1 = Math.min(m, ib * BLOCK + BLOCK);
+			for (int i = ib * BLOCK; i < i1; i++) {
+				final int ci = i * n;
+				for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+					final double v = values[p];
+					final int bk = colIndex[p] * n;
+					for (int j = 0; j < n; j++) {
+						c[ci + j] += v * b[bk + j];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Adds the product of the dense matrix a (m rows x k cols) by the sparse matrix s (in CSR form, k rows, n cols) to
+	 * c (m rows x n cols)
+	 */
+	public static void denseTimesSparse(final double[] a, final int m, final int k, final int[] rowStart,
+			final int[] colIndex, final double[] values, final int n, final double[] c) {
+		run(blocks(m), (long) m * rowStart[k], ib -> {
+			final int i1 = Math.min(m, ib * BLOCK + BLOCK);
+			for (int i = ib * BLOCK; i < i1; i++) {
+				final int ci = i * n;
+				final int ai = i * k;
+				for (int p = 0; p < k; p++) {
+					final double aip = a[ai + p];
+					for (int q = rowStart[p]; q < rowStart[p + 1]; q++) {
+						c[ci + colIndex[q]] += aip * values[q];
+					}
+				}
+			}
+		});
+	}
+
+}
@@ -16,7 +16,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.ArrayUtils;
-import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.EigenDecomposition;
 import org.apache.commons.math3.linear.LUDecomposition;
@@ -52,6 +51,7 @@ public class GamaFloatMatrix extends GamaMatrix<Double> {
 		if (m instanceof GamaIntMatrix) {
 			return new GamaFloatMatrix(m.getCols(scope), m.getRows(scope), ((GamaIntMatrix) m).matrix);
 		}
+		if (m instanceof GamaSparseFloatMatrix) { return ((GamaSparseFloatMatrix) m).toDense(); }
 		return null;
 	}
 
@@ -61,6 +61,9 @@ public class GamaFloatMatrix extends GamaMatrix<Double> {
 			return new GamaFloatMatrix(scope, c, r, ((GamaObjectMatrix) m).getMatrix());
 		}
 		if (m instanceof GamaIntMatrix) { return new GamaFloatMatrix(c, r, ((GamaIntMatrix) m).matrix); }
+		if (m instanceof GamaSparseFloatMatrix) {
+			return new GamaFloatMatrix(c, r, ((GamaSparseFloatMatrix) m).toDense().getMatrix());
+		}
 		return null;
 	}
 
@@ -283,12 +286,7 @@ public class GamaFloatMatrix extends GamaMatrix<Double> {
 	@Override
 	public IMatrix _reverse(final IScope scope) throws GamaRuntimeException {
 		final GamaFloatMatrix result = new GamaFloatMatrix(numRows, numCols);
-		for (int i = 0; i < numCols; i++) {
-			for (int j = 0; j < numRows; j++) {
-				final double val = get(scope, i, j);
-				result.set(scope, j, i, val);
-			}
-		}
+		FloatMatrixKernels.transpose(matrix, result.matrix, numRows, numCols);
 		return result;
 	}
 
@@ -307,6 +305,7 @@ public class GamaFloatMatrix extends GamaMatrix<Double> {
 	@Override
 	public boolean equals(final Object m) {
 		if (this == m) { return true; }
+		if (m instanceof GamaSparseFloatMatrix) { return m.equals(this); }
 		if (!(m instanceof GamaFloatMatrix)) { return false; }
 		final GamaFloatMatrix mat = (GamaFloatMatrix) m;
 		return Arrays.equals(this.getMatrix(), mat.getMatrix());
@@ -547,13 +546,75 @@ public class GamaFloatMatrix extends GamaMatrix<Double> {
 
 	@Override
 	public IMatrix matrixMultiplication(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		if (other instanceof GamaSparseFloatMatrix) {
+			final GamaSparseFloatMatrix sparse = (GamaSparseFloatMatrix) other;
+			if (numCols != sparse.numRows) {
+				throw GamaRuntimeException.error("The dimensions of the matrices do not correspond", scope);
+			}
+			final GamaFloatMatrix result = new GamaFloatMatrix(sparse.numCols, numRows);
+			FloatMatrixKernels.denseTimesSparse(matrix, numRows, numCols, sparse.rowStart, sparse.colIndex,
+					sparse.values, sparse.numCols, result.matrix);
+			return result;
+		}
 		final GamaFloatMatrix matb = from(scope, other);
-		try {
-			if (matb != null) { return new GamaFloatMatrix(getRealMatrix().multiply(matb.getRealMatrix())); }
-		} catch (final DimensionMismatchException e) {
+		if (matb == null) { return null; }
+		if (numCols != matb.numRows) {
 			throw GamaRuntimeException.error("The dimensions of the matrices do not correspond", scope);
 		}
-		return null;
+		final GamaFloatMatrix result = new GamaFloatMatrix(matb.numCols, numRows);
+		FloatMatrixKernels.multiply(matrix, matb.matrix, result.matrix, numRows, numCols, matb.numCols);
+		return result;
+	}
+
+	/**
+	 * Adds the other matrix to this one, without creating a new matrix
+	 */
+	public GamaFloatMatrix addInPlace(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		final double[] b = sameDimensions(scope, other);
+		for (int i = 0; i < matrix.length; i++) {
+			matrix[i] += b[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Subtracts the other matrix from this one, without creating a new matrix
+	 */
+	public GamaFloatMatrix subtractInPlace(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		final double[] b = sameDimensions(scope, other);
+		for (int i = 0; i < matrix.length; i++) {
+			matrix[i] -= b[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies the elements of this matrix by the ones of the other matrix, without creating a new matrix
+	 */
+	public GamaFloatMatrix multiplyInPlace(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		final double[] b = sameDimensions(scope, other);
+		for (int i = 0; i < matrix.length; i++) {
+			matrix[i] *= b[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies the elements of this matrix by the factor, without creating a new matrix
+	 */
+	public GamaFloatMatrix scaleInPlace(final double factor) {
+		for (int i = 0; i < matrix.length; i++) {
+			matrix[i] *= factor;
+		}
+		return this;
+	}
+
+	private double[] sameDimensions(final IScope scope, final IMatrix other) {
+		final GamaFloatMatrix matb = from(scope, other);
+		if (matb == null || this.numCols != matb.numCols || this.numRows != matb.numRows) {
+			throw GamaRuntimeException.error(" The dimensions of the matrices do not correspond", scope);
+		}
+		return matb.matrix;
 	}
 
 	@Override
@@ -667,9 +728,12 @@ public class GamaFloatMatrix extends GamaMatrix<Double> {
 
 	@Override
 	public IMatrix<Double> inverse(final IScope scope) throws GamaRuntimeException {
-		final RealMatrix rm = toApacheMatrix(scope);
-		final LUDecomposition ld = new LUDecomposition(rm);
-		return fromApacheMatrix(scope, ld.getSolver().getInverse());
+		if (numCols != numRows) { throw GamaRuntimeException.error("Only square matrices can be inverted", scope); }
+		final GamaFloatMatrix result = new GamaFloatMatrix(numCols, numRows);
+		if (!FloatMatrixKernels.invert(matrix, result.matrix, numRows)) {
+			throw GamaRuntimeException.error("The matrix is singular and cannot be inverted", scope);
+		}
+		return result;
 	}
 
 	@Override
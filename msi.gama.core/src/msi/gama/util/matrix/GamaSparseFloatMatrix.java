@@ -0,0 +1,466 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.matrix.GamaSparseFloatMatrix.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util.matrix;
+
+import java.util.Arrays;
+
+import com.google.common.primitives.Doubles;
+
+import msi.gama.common.util.RandomUtils;
+import msi.gama.metamodel.shape.ILocation;
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+import msi.gama.util.IContainer;
+import msi.gama.util.IList;
+import msi.gaml.operators.Cast;
+import msi.gaml.types.GamaMatrixType;
+import msi.gaml.types.IContainerType;
+import msi.gaml.types.IType;
+import msi.gaml.types.Types;
+import one.util.streamex.DoubleStreamEx;
+import one.util.streamex.StreamEx;
+
+/**
+ * A matrix of floats that only stores its non-zero elements, in the compressed sparse row (CSR) form: the elements of
+ * row r are the ones between rowStart[r] (included) and rowStart[r + 1] (excluded) in colIndex (their columns, in
+ * increasing order) and values. It is meant for large matrices that are mostly made of zeros (contact matrices,
+ * adjacency matrices...), whose products with other matrices only visit the non-zero elements. Reading an element
+ * requires a binary search in its row; writing a new non-zero element requires to shift the following ones, which
+ * makes this matrix a poor choice for matrices that are modified often.
+ *
+ * The operations that cannot take advantage of the sparsity (inverse, determinant, element-wise operations with other
+ * matrices...) are made on a dense copy (see {@link #toDense()}).
+ */
+@SuppressWarnings ({ "unchecked", "rawtypes" })
+public class GamaSparseFloatMatrix extends GamaMatrix<Double> {
+
+	int[] rowStart;
+	int[] colIndex;
+	double[] values;
+
+	public GamaSparseFloatMatrix(final int cols, final int rows) {
+		super(cols, rows, Types.FLOAT);
+		rowStart = new int[rows + 1];
+		colIndex = new int[0];
+		values = new double[0];
+	}
+
+	GamaSparseFloatMatrix(final int cols, final int rows, final int[] rowStart, final int[] colIndex,
+			final double[] values) {
+		super(cols, rows, Types.FLOAT);
+		this.rowStart = rowStart;
+		this.colIndex = colIndex;
+		this.values = values;
+	}
+
+	/**
+	 * Builds the sparse form of the matrix (only its non-zero elements are kept)
+	 */
+	public static GamaSparseFloatMatrix from(final IScope scope, final IMatrix m) {
+		if (m instanceof GamaSparseFloatMatrix) { return (GamaSparseFloatMatrix) m; }
+		final GamaFloatMatrix dense = GamaFloatMatrix.from(scope, m);
+		if (dense == null) {
+			throw GamaRuntimeException.error("Only int and float matrices can be made sparse", scope);
+		}
+		final double[] d = dense.getMatrix();
+		final int cols = dense.numCols, rows = dense.numRows;
+		final int[] starts = new int[rows + 1];
+		int nnz = 0;
+		for (final double v : d) {
+			if (v != 0d) {
+				nnz++;
+			}
+		}
+		final int[] cs = new int[nnz];
+		final double[] vs = new double[nnz];
+		int p = 0;
+		for (int r = 0; r < rows; r++) {
+			starts[r] = p;
+			for (int c = 0, i = r * cols; c < cols; c++, i++) {
+				if (d[i] != 0d) {
+					cs[p] = c;
+					vs[p++] = d[i];
+				}
+			}
+		}
+		starts[rows] = p;
+		return new GamaSparseFloatMatrix(cols, rows, starts, cs, vs);
+	}
+
+	/**
+	 * The number of elements stored
+	 */
+	public int getNonZeros() {
+		return rowStart[numRows];
+	}
+
+	/**
+	 * Returns the index of the element in colIndex/values, or -(insertion point + 1) if it is not stored
+	 */
+	private int indexOf(final int col, final int row) {
+		return Arrays.binarySearch(colIndex, rowStart[row], rowStart[row + 1], col);
+	}
+
+	/**
+	 * A dense copy of this matrix
+	 */
+	public GamaFloatMatrix toDense() {
+		final GamaFloatMatrix result = new GamaFloatMatrix(numCols, numRows);
+		final double[] d = result.getMatrix();
+		for (int r = 0; r < numRows; r++) {
+			for (int p = rowStart[r]; p < rowStart[r + 1]; p++) {
+				d[r * numCols + colIndex[p]] = values[p];
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Double get(final IScope scope, final int col, final int row) {
+		if (col >= numCols || col < 0 || row >= numRows || row < 0) { return 0d; }
+		final int i = indexOf(col, row);
+		return i < 0 ? 0d : values[i];
+	}
+
+	@Override
+	public void set(final IScope scope, final int col, final int row, final Object obj) throws GamaRuntimeException {
+		if (col >= numCols || col < 0 || row >= numRows || row < 0) { return; }
+		put(col, row, Cast.asFloat(scope, obj));
+	}
+
+	private void put(final int col, final int row, final double val) {
+		final int i = indexOf(col, row);
+		if (i >= 0) {
+			values[i] = val;
+			return;
+		}
+		if (val == 0d) { return; }
+		final int at = -(i + 1);
+		final int nnz = getNonZeros();
+		final int[] cs = new int[nnz + 1];
+		final double[] vs = new double[nnz + 1];
+		System.arraycopy(colIndex, 0, cs, 0, at);
+		System.arraycopy(values, 0, vs, 0, at);
+		cs[at] = col;
+		vs[at] = val;
+		System.arraycopy(colIndex, at, cs, at + 1, nnz - at);
+		System.arraycopy(values, at, vs, at + 1, nnz - at);
+		colIndex = cs;
+		values = vs;
+		for (int r = row + 1; r <= numRows; r++) {
+			rowStart[r]++;
+		}
+	}
+
+	@Override
+	public Double remove(final IScope scope, final int col, final int row) {
+		final Double old = get(scope, col, row);
+		if (old != 0d) {
+			put(col, row, 0d);
+		}
+		return old;
+	}
+
+	@Override
+	public Double getNthElement(final Integer index) {
+		if (index == null || index < 0 || index >= numRows * numCols) { return 0d; }
+		return get(null, index % numCols, index / numCols);
+	}
+
+	@Override
+	protected void setNthElement(final IScope scope, final int index, final Object value) {
+		set(scope, index % numCols, index / numCols, value);
+	}
+
+	@Override
+	protected IList _listValue(final IScope scope, final IType contentsType, final boolean cast) {
+		return toDense()._listValue(scope, contentsType, cast);
+	}
+
+	@Override
+	protected IMatrix _matrixValue(final IScope scope, final ILocation preferredSize, final IType type,
+			final boolean copy) {
+		if (preferredSize == null && type.id() == IType.FLOAT) { return copy(scope, null, copy); }
+		return GamaMatrixType.from(scope, toDense(), type, preferredSize, copy);
+	}
+
+	@Override
+	protected void _clear() {
+		Arrays.fill(rowStart, 0);
+		colIndex = new int[0];
+		values = new double[0];
+	}
+
+	@Override
+	protected boolean _removeFirst(final IScope scope, final Double value) throws GamaRuntimeException {
+		if (value == 0d) { return false; }
+		for (int p = 0, nnz = getNonZeros(); p < nnz; p++) {
+			if (values[p] == value) {
+				values[p] = 0d;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected boolean _removeAll(final IScope scope, final IContainer<?, Double> list) throws GamaRuntimeException {
+		for (final Double o : list.iterable(scope)) {
+			for (int p = 0, nnz = getNonZeros(); p < nnz; p++) {
+				if (values[p] == o) {
+					values[p] = 0d;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	protected void _putAll(final IScope scope, final Object value) throws GamaRuntimeException {
+		final double v = Cast.asFloat(scope, value);
+		if (v == 0d) {
+			_clear();
+			return;
+		}
+		final GamaFloatMatrix dense = new GamaFloatMatrix(numCols, numRows);
+		Arrays.fill(dense.getMatrix(), v);
+		final GamaSparseFloatMatrix full = from(scope, dense);
+		rowStart = full.rowStart;
+		colIndex = full.colIndex;
+		values = full.values;
+	}
+
+	/**
+	 * The transposition of a sparse matrix is sparse too
+	 */
+	@Override
+	protected IMatrix<Double> _reverse(final IScope scope) throws GamaRuntimeException {
+		final int nnz = getNonZeros();
+		final int[] starts = new int[numCols + 1];
+		for (int p = 0; p < nnz; p++) {
+			starts[colIndex[p] + 1]++;
+		}
+		for (int c = 0; c < numCols; c++) {
+			starts[c + 1] += starts[c];
+		}
+		final int[] next = Arrays.copyOf(starts, numCols);
+		final int[] cs = new int[nnz];
+		final double[] vs = new double[nnz];
+		for (int r = 0; r < numRows; r++) {
+			for (int p = rowStart[r]; p < rowStart[r + 1]; p++) {
+				final int q = next[colIndex[p]]++;
+				cs[q] = r;
+				vs[q] = values[p];
+			}
+		}
+		return new GamaSparseFloatMatrix(numRows, numCols, starts, cs, vs);
+	}
+
+	@Override
+	protected boolean _isEmpty(final IScope scope) {
+		for (int p = 0, nnz = getNonZeros(); p < nnz; p++) {
+			if (values[p] != 0d) { return false; }
+		}
+		return true;
+	}
+
+	@Override
+	protected boolean _contains(final IScope scope, final Object o) {
+		if (!(o instanceof Double)) { return false; }
+		final double d = (Double) o;
+		if (d == 0d && getNonZeros() < numRows * numCols) { return true; }
+		for (int p = 0, nnz = getNonZeros(); p < nnz; p++) {
+			if (values[p] == d) { return true; }
+		}
+		return false;
+	}
+
+	@Override
+	protected Integer _length(final IScope scope) {
+		return numRows * numCols;
+	}
+
+	@Override
+	protected Double _last(final IScope scope) {
+		return numRows * numCols == 0 ? 0d : get(scope, numCols - 1, numRows - 1);
+	}
+
+	@Override
+	protected Double _first(final IScope scope) {
+		return get(scope, 0, 0);
+	}
+
+	@Override
+	public GamaSparseFloatMatrix copy(final IScope scope, final ILocation size, final boolean copy) {
+		if (size == null) {
+			if (!copy) { return this; }
+			return new GamaSparseFloatMatrix(numCols, numRows, rowStart.clone(), colIndex.clone(), values.clone());
+		}
+		return from(scope, toDense().copy(scope, size, true));
+	}
+
+	@Override
+	public void shuffleWith(final RandomUtils randomAgent) {
+		final GamaFloatMatrix dense = toDense();
+		dense.shuffleWith(randomAgent);
+		final GamaSparseFloatMatrix shuffled = from(null, dense);
+		rowStart = shuffled.rowStart;
+		colIndex = shuffled.colIndex;
+		values = shuffled.values;
+	}
+
+	@Override
+	public java.lang.Iterable<Double> iterable(final IScope scope) {
+		return Doubles.asList(toDense().getMatrix());
+	}
+
+	@Override
+	public StreamEx<Double> stream(final IScope scope) {
+		return DoubleStreamEx.of(toDense().getMatrix()).boxed();
+	}
+
+	@Override
+	public IMatrix matrixMultiplication(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		final GamaFloatMatrix matb = other instanceof GamaSparseFloatMatrix
+				? ((GamaSparseFloatMatrix) other).toDense() : GamaFloatMatrix.from(scope, other);
+		if (matb == null) { return null; }
+		if (numCols != matb.numRows) {
+			throw GamaRuntimeException.error("The dimensions of the matrices do not correspond", scope);
+		}
+		final GamaFloatMatrix result = new GamaFloatMatrix(matb.numCols, numRows);
+		FloatMatrixKernels.sparseTimesDense(rowStart, colIndex, values, numRows, matb.getMatrix(), matb.numCols,
+				result.getMatrix());
+		return result;
+	}
+
+	@Override
+	public IMatrix plus(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		return toDense().plus(scope, other);
+	}
+
+	@Override
+	public IMatrix minus(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		return toDense().minus(scope, other);
+	}
+
+	@Override
+	public IMatrix times(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		return toDense().times(scope, other);
+	}
+
+	@Override
+	public IMatrix divides(final IScope scope, final IMatrix other) throws GamaRuntimeException {
+		return toDense().divides(scope, other);
+	}
+
+	/**
+	 * The products and divisions by a number keep the matrix sparse
+	 */
+	private GamaSparseFloatMatrix scaled(final double factor) {
+		final double[] vs = values.clone();
+		for (int p = 0; p < vs.length; p++) {
+			vs[p] *= factor;
+		}
+		return new GamaSparseFloatMatrix(numCols, numRows, rowStart.clone(), colIndex.clone(), vs);
+	}
+
+	@Override
+	public IMatrix times(final Double val) throws GamaRuntimeException {
+		return scaled(val);
+	}
+
+	@Override
+	public IMatrix times(final Integer val) throws GamaRuntimeException {
+		return scaled(val);
+	}
+
+	@Override
+	public IMatrix divides(final Double val) throws GamaRuntimeException {
+		return scaled(1d / val);
+	}
+
+	@Override
+	public IMatrix divides(final Integer val) throws GamaRuntimeException {
+		return scaled(1d / val);
+	}
+
+	@Override
+	public IMatrix plus(final Double val) throws GamaRuntimeException {
+		return toDense().plus(val);
+	}
+
+	@Override
+	public IMatrix plus(final Integer val) throws GamaRuntimeException {
+		return toDense().plus(val);
+	}
+
+	@Override
+	public IMatrix minus(final Double val) throws GamaRuntimeException {
+		return toDense().minus(val);
+	}
+
+	@Override
+	public IMatrix minus(final Integer val) throws GamaRuntimeException {
+		return toDense().minus(val);
+	}
+
+	@Override
+	public Double getDeterminant(final IScope scope) throws GamaRuntimeException {
+		return toDense().getDeterminant(scope);
+	}
+
+	@Override
+	public Double getTrace(final IScope scope) throws GamaRuntimeException {
+		double trace = 0d;
+		for (int i = 0, n = Math.min(numRows, numCols); i < n; i++) {
+			trace += get(scope, i, i);
+		}
+		return trace;
+	}
+
+	@Override
+	public IList<Double> getEigen(final IScope scope) throws GamaRuntimeException {
+		return toDense().getEigen(scope);
+	}
+
+	@Override
+	public IMatrix<Double> inverse(final IScope scope) throws GamaRuntimeException {
+		return toDense().inverse(scope);
+	}
+
+	@Override
+	public boolean equals(final Object m) {
+		if (this == m) { return true; }
+		if (m instanceof GamaSparseFloatMatrix) { return toDense().equals(((GamaSparseFloatMatrix) m).toDense()); }
+		return toDense().equals(m);
+	}
+
+	@Override
+	public int hashCode() {
+		return toDense().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return toDense().toString();
+	}
+
+	@Override
+	public String serialize(final boolean includingBuiltIn) {
+		return "sparse(" + toDense().serialize(includingBuiltIn) + ")";
+	}
+
+	@Override
+	public IContainerType getGamlType() {
+		return Types.MATRIX.of(Types.FLOAT);
+	}
+
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************************************
+ *
+ * msi.gama.util.random.SplitMixRNG.java, in plugin msi.gama.core,
+ * is part of the source code of the GAMA modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gama.util.random;
+
+import msi.gama.common.util.RandomUtils;
+
+/**
+ * Random number generator based on the SplitMix64 algorithm (Steele, Lea and Flood, "Fast splittable pseudorandom
+ * number generators", OOPSLA 2014). Its state is a single 64-bit counter, incremented by a constant at each draw and
+ * scrambled by a mixing function, so that a generator can be split in any number of independent streams at no cost.
+ *
+ * The streams are derived from the seed of the generator and a key (see {@link #split(long)}), and not from its
+ * current state: the stream obtained for a given key is always the same, whatever the numbers already drawn from the
+ * generator or from its other streams. Giving its own stream to each agent (the key being computed from its species and
+ * index) makes the draws of agents executed in parallel independent from the number of threads and from the order in
+ * which the agents are executed, without any synchronization.
+ *
+ * @since 1.8.1
+ */
+public class SplitMixRNG extends GamaRNG {
+
+	private static final int SEED_SIZE_BYTES = 8;
+
+	// The odd constant (2^64 divided by the golden ratio) added to the state at each draw
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	private final long initialSeed;
+	private long state;
+
+	/**
+	 * Seed the RNG using the provided seed generation strategy.
+	 *
+	 * @param seedGenerator
+	 *            The seed generation strategy that will provide the seed value for this RNG.
+	 */
+	public SplitMixRNG(final RandomUtils seedGenerator) {
+		this(createLongSeed(seedGenerator.generateSeed(SEED_SIZE_BYTES)));
+	}
+
+	/**
+	 * Creates an RNG with the specified seed.
+	 */
+	public SplitMixRNG(final long seed) {
+		this.initialSeed = seed;
+		this.state = seed;
+	}
+
+	/**
+	 * Returns a new generator, whose sequence only depends on the seed of this one and on the key. Two different keys
+	 * give two statistically independent sequences.
+	 */
+	public SplitMixRNG split(final long key) {
+		return new SplitMixRNG(mix64(initialSeed + mix64(key + GOLDEN_GAMMA)));
+	}
+
+	/**
+	 * Combines two keys into one, for instance to derive a stream from a hierarchy of indices
+	 */
+	public static long combine(final long key1, final long key2) {
+		return mix64(key1 * GOLDEN_GAMMA + key2);
+	}
+
+	/**
+	 * The finalizer of the MurmurHash3 64 bits hash function, as improved by D. Stafford (variant 13)
+	 */
+	private static long mix64(final long z) {
+		long result = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+		result = (result ^ result >>> 27) * 0x94d049bb133111ebL;
+		return result ^ result >>> 31;
+	}
+
+	private long nextMixed() {
+		usage++;
+		state += GOLDEN_GAMMA;
+		return mix64(state);
+	}
+
+	@Override
+	protected int next(final int bits) {
+		return (int) (nextMixed() >>> 64 - bits);
+	}
+
+	/**
+	 * {@inheritDoc} Overridden to draw 64 bits at once instead of twice 32 bits
+	 */
+	@Override
+	public long nextLong() {
+		return nextMixed();
+	}
+
+	/**
+	 * {@inheritDoc} Overridden to draw 53 bits at once instead of 26 and 27 bits
+	 */
+	@Override
+	public double nextDouble() {
+		return (nextMixed() >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * Helper method to convert seed bytes into a long value.
+	 */
+	private static long createLongSeed(final byte[] seed) {
+		long value = 0;
+		for (final byte b : seed) {
+			value <<= 8;
+			value += b & 0xff;
+		}
+		return value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	byte[] getSeed() {
+		final byte[] result = new byte[SEED_SIZE_BYTES];
+		long l = initialSeed;
+		for (int i = SEED_SIZE_BYTES - 1; i >= 0; i--) {
+			result[i] = (byte) l;
+			l >>= 8;
+		}
+		return result;
+	}
+
+}
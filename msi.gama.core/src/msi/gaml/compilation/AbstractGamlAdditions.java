@@ -463,6 +463,13 @@ public abstract class AbstractGamlAdditions implements IGamlAdditions {
 		return FIELDS.values();
 	}
 
+	/**
+	 * Returns the descriptions of the variables and actions added to the built-in classes (species, skills, ...)
+	 */
+	public static Collection<IDescription> getAllAdditions() {
+		return ADDITIONS.values();
+	}
+
 	public static Collection<IDescription> getAllVars() {
 		final HashSet<IDescription> result = new HashSet<>();
 
@@ -16,6 +16,7 @@ import static ummisco.gama.dev.utils.DEBUG.TIMER_WITH_EXCEPTIONS;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
@@ -130,6 +131,10 @@ public class GamaBundleLoader {
 
 			// We remove the core plugin, in order to build it first (important)
 			GAMA_PLUGINS.remove(CORE_PLUGIN);
+			// If a manifest and the models to run are given, only the plugins needed by these models are built. If
+			// asked, the contributions of the plugins are recorded in a new manifest
+			final GamaBundleManifest manifest = GamaBundleManifest.readForStartup();
+			final GamaBundleManifest recorder = GamaBundleManifest.createRecorder();
 			try {
 				preBuild(CORE_PLUGIN);
 			} catch (final Exception e2) {
@@ -139,10 +144,18 @@ public class GamaBundleLoader {
 				return;
 			}
 			// We then build the other extensions to the language
-			for (final Bundle addition : GAMA_PLUGINS) {
+			final Set<Bundle> additions = manifest == null ? GAMA_PLUGINS : manifest.select(GAMA_PLUGINS);
+			if (additions.size() < GAMA_PLUGINS.size()) {
+				DEBUG.LOG("> GAMA: " + (GAMA_PLUGINS.size() - additions.size()) + " plugins not needed by the models");
+			}
+			for (final Bundle addition : additions) {
 				CURRENT_PLUGIN_NAME = addition.getSymbolicName();
 				try {
+					final Map<String, Integer> before = recorder == null ? null : GamaBundleManifest.registeredNames();
 					preBuild(addition);
+					if (recorder != null) {
+						recorder.record(addition, before);
+					}
 				} catch (final Exception e1) {
 					ERR(ERROR_MESSAGE);
 					ERR("Error in loading plugin " + CORE_PLUGIN.getSymbolicName() + ": " + e1.getMessage());
@@ -191,6 +204,9 @@ public class GamaBundleLoader {
 			for (final IConfigurationElement e : registry.getConfigurationElementsFor(MODELS_EXTENSION)) {
 				MODEL_PLUGINS.put(Platform.getBundle(e.getContributor().getName()), e.getAttribute("name"));
 			}
+			if (recorder != null) {
+				recorder.write();
+			}
 			// CRUCIAL INITIALIZATIONS
 			LOADED = true;
 			GamaMetaModel.INSTANCE.build();
@@ -0,0 +1,242 @@
+/*******************************************************************************************************
+ *
+ * msi.gaml.compilation.kernel.GamaBundleManifest.java, in plugin msi.gama.core, is part of the source code of the GAMA
+ * modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gaml.compilation.kernel;
+
+import static ummisco.gama.dev.utils.DEBUG.ERR;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+
+import com.google.common.collect.Iterables;
+
+import msi.gama.common.interfaces.IGui;
+import msi.gaml.compilation.AbstractGamlAdditions;
+import msi.gaml.descriptions.IDescription;
+import msi.gaml.descriptions.OperatorProto;
+import msi.gaml.expressions.IExpressionCompiler;
+import msi.gaml.factories.DescriptionFactory;
+import msi.gaml.operators.IUnits;
+import msi.gaml.types.GamaFileType;
+import msi.gaml.types.Types;
+
+/**
+ * The names contributed to GAML by each GAMA plugin (operators, statements, skills, types, species, constants, types of
+ * experiments, fields of types, units, and variables and actions of the built-in species and skills), used to start the
+ * platform with only the plugins needed by some models.
+ *
+ * When the system property "gama.manifest.write" names a file, the names registered by each plugin are recorded while
+ * the plugins are loaded, and written to this file (a properties file with one entry per plugin) once all of them are
+ * loaded. The name of an operator is recorded by every plugin that adds signatures to it, so that the plugins
+ * overloading an existing operator (e.g. with other types of operands) are recorded too; the same goes for the fields,
+ * variables and actions added to existing types or species. Some contributions are not visible as names in the models:
+ * the plugins that define types of files, which are chosen by the extension of the files (that can be computed or given
+ * as parameters), and the plugins that define types of displays, which can be chosen by the preferences, are recorded
+ * as always needed (ALWAYS).
+ *
+ * When the system property "gama.manifest" names such a file and the system property "gama.manifest.models" lists
+ * model files (separated by the path separator), only the plugins contributing a name that appears in these models or
+ * in the models they import are loaded, together with the plugins always needed, the GAMA plugins they require and
+ * the plugins absent from the manifest (or without any name in it); the other plugins are not loaded at all. This is
+ * meant for headless launches, which know their models before the platform starts.
+ */
+public class GamaBundleManifest {
+
+	public static final String WRITE_PROPERTY = "gama.manifest.write";
+	public static final String READ_PROPERTY = "gama.manifest";
+	public static final String MODELS_PROPERTY = "gama.manifest.models";
+
+	private static final String SEPARATOR = "~";
+	private static final String ALWAYS = "*";
+	// The prefixes of the contributions that are not visible as names in the models
+	private static final String FILE_EXTENSION = ".";
+	private static final String DISPLAY = "@";
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+	private static final Pattern IMPORT = Pattern.compile("import\\s+\"([^\"]+)\"");
+
+	private final Map<String, Set<String>> contributions = new LinkedHashMap<>();
+
+	/**
+	 * Returns a manifest in which the contributions of the plugins are to be recorded, or null if the system properties
+	 * do not ask for it
+	 */
+	static GamaBundleManifest createRecorder() {
+		return System.getProperty(WRITE_PROPERTY) == null ? null : new GamaBundleManifest();
+	}
+
+	/**
+	 * Reads the manifest named by the system properties, or returns null if there is none or if no models are given
+	 */
+	static GamaBundleManifest readForStartup() {
+		final String path = System.getProperty(READ_PROPERTY);
+		if (path == null || System.getProperty(MODELS_PROPERTY) == null) { return null; }
+		final GamaBundleManifest manifest = new GamaBundleManifest();
+		final Properties prop = new Properties();
+		try (Reader reader = new FileReader(path)) {
+			prop.load(reader);
+		} catch (final IOException e) {
+			ERR(">> Impossible to read the manifest " + path + ": all the plugins will be loaded");
+			return null;
+		}
+		for (final String plugin : prop.stringPropertyNames()) {
+			final Set<String> names = new HashSet<>();
+			for (final String name : prop.getProperty(plugin).split(SEPARATOR)) {
+				if (!name.isEmpty()) {
+					names.add(name);
+				}
+			}
+			manifest.contributions.put(plugin, names);
+		}
+		return manifest;
+	}
+
+	/**
+	 * Returns all the names registered so far by the plugins, with the number of definitions of the operators, fields,
+	 * variables and actions with this name (0 for the other names). The extensions of the types of files are prefixed
+	 * by FILE_EXTENSION and the types of displays by DISPLAY
+	 */
+	static Map<String, Integer> registeredNames() {
+		final Map<String, Integer> result = new HashMap<>();
+		final Set<String> names = new HashSet<>();
+		Iterables.addAll(names, DescriptionFactory.getProtoNames());
+		names.addAll(GamaSkillRegistry.INSTANCE.getAllSkillNames());
+		Iterables.addAll(names, Types.getTypeNames());
+		names.addAll(GamaMetaModel.INSTANCE.getRegisteredNames());
+		names.addAll(AbstractGamlAdditions.CONSTANTS);
+		names.addAll(IUnits.UNITS_EXPR.keySet());
+		for (final String name : names) {
+			result.put(name, 0);
+		}
+		IExpressionCompiler.OPERATORS.forEach((name, signatures) -> result.put(name, signatures.size()));
+		for (final OperatorProto field : AbstractGamlAdditions.getAllFields()) {
+			result.merge(field.getName(), 1, Integer::sum);
+		}
+		for (final IDescription addition : AbstractGamlAdditions.getAllAdditions()) {
+			result.merge(addition.getName(), 1, Integer::sum);
+		}
+		for (final String extension : GamaFileType.extensionsToFullType.keySet()) {
+			result.put(FILE_EXTENSION + extension, 0);
+		}
+		for (final String display : IGui.DISPLAYS.keySet()) {
+			result.put(DISPLAY + display, 0);
+		}
+		return result;
+	}
+
+	/**
+	 * Records the names registered by the plugin, i.e. the ones that were not registered before it was loaded and the
+	 * operators, fields, variables and actions to which it has added definitions. A plugin that defines types of files
+	 * or of displays is always needed
+	 */
+	void record(final Bundle bundle, final Map<String, Integer> before) {
+		final Set<String> names = new LinkedHashSet<>();
+		registeredNames().forEach((name, count) -> {
+			if (!count.equals(before.get(name))) {
+				names.add(name.startsWith(FILE_EXTENSION) || name.startsWith(DISPLAY) ? ALWAYS : name);
+			}
+		});
+		contributions.put(bundle.getSymbolicName(), names);
+	}
+
+	void write() {
+		final String path = System.getProperty(WRITE_PROPERTY);
+		final Properties prop = new Properties();
+		contributions.forEach((plugin, names) -> prop.setProperty(plugin, String.join(SEPARATOR, names)));
+		try (Writer writer = new FileWriter(path)) {
+			prop.store(writer, "Names contributed to GAML by the GAMA plugins");
+		} catch (final IOException e) {
+			ERR(">> Impossible to write the manifest " + path + " because of " + e);
+		}
+	}
+
+	/**
+	 * Returns the plugins, among the ones passed, that must be loaded to run the models named by the system properties
+	 */
+	Set<Bundle> select(final Collection<Bundle> plugins) {
+		final Set<String> identifiers = new HashSet<>();
+		for (final String path : System.getProperty(MODELS_PROPERTY).split(File.pathSeparator)) {
+			collectIdentifiers(new File(path), identifiers, new HashSet<>());
+		}
+		final Set<Bundle> result = new LinkedHashSet<>();
+		final Deque<Bundle> toVisit = new ArrayDeque<>();
+		for (final Bundle plugin : plugins) {
+			final Set<String> names = contributions.get(plugin.getSymbolicName());
+			// The plugins whose contributions are unknown, or not visible as names, are always selected
+			if (names == null || names.isEmpty() || names.contains(ALWAYS) || !Collections.disjoint(names, identifiers)) {
+				toVisit.add(plugin);
+			}
+		}
+		// The GAMA plugins required by the selected ones are selected too
+		while (!toVisit.isEmpty()) {
+			final Bundle plugin = toVisit.pop();
+			if (!result.add(plugin)) {
+				continue;
+			}
+			final BundleWiring wiring = plugin.adapt(BundleWiring.class);
+			if (wiring == null) {
+				continue;
+			}
+			for (final BundleWire wire : wiring.getRequiredWires(null)) {
+				final Bundle required = wire.getProviderWiring().getBundle();
+				if (plugins.contains(required)) {
+					toVisit.add(required);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the identifiers found in the model, and in the models it imports, to identifiers
+	 */
+	private static void collectIdentifiers(final File model, final Set<String> identifiers, final Set<File> visited) {
+		final File file = model.getAbsoluteFile();
+		if (!visited.add(file)) { return; }
+		final String text;
+		try {
+			text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		} catch (final IOException e) {
+			ERR(">> Impossible to read the model " + file + " while selecting the plugins to load");
+			return;
+		}
+		final Matcher identifier = IDENTIFIER.matcher(text);
+		while (identifier.find()) {
+			identifiers.add(identifier.group());
+		}
+		final Matcher imports = IMPORT.matcher(text);
+		while (imports.find()) {
+			collectIdentifiers(new File(file.getParentFile(), imports.group(1)), identifiers, visited);
+		}
+	}
+
+}
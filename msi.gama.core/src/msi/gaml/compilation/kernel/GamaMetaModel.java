@@ -76,6 +76,16 @@ public class GamaMetaModel {
 		experimentCreators.put(key, creator);
 	}
 
+	/**
+	 * Returns the names of the built-in species and of the types of experiments registered so far (i.e. before the
+	 * meta-model is built)
+	 */
+	public Set<String> getRegisteredNames() {
+		final Set<String> result = new HashSet<>(tempSpecies.keySet());
+		result.addAll(experimentCreators.keySet());
+		return result;
+	}
+
 	public void addSpecies(final String name, final Class clazz, final IAgentConstructor helper,
 			final String[] skills) {
 		final SpeciesProto proto = new SpeciesProto(name, clazz, helper, skills);
@@ -11,12 +11,14 @@
 package msi.gaml.descriptions;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.eclipse.emf.ecore.EObject;
 
@@ -25,9 +27,12 @@ import com.google.common.collect.Iterables;
 import msi.gama.common.interfaces.ConsumerWithPruning;
 import msi.gama.common.interfaces.IGamlIssue;
 import msi.gama.common.interfaces.IKeyword;
+import msi.gama.common.preferences.GamaPreferences;
 import msi.gama.kernel.simulation.SimulationAgent;
+import msi.gama.runtime.concurrent.GamaExecutorService;
 import msi.gama.util.GamaMapFactory;
 import msi.gama.util.IMap;
+import msi.gaml.compilation.ISymbol;
 import msi.gaml.statements.Facets;
 import msi.gaml.types.IType;
 import msi.gaml.types.ITypesManager;
@@ -195,6 +200,31 @@ public class ModelDescription extends SpeciesDescription {
 		return "description of " + modelFilePath.substring(modelFilePath.lastIndexOf(File.separator));
 	}
 
+	/**
+	 * If the compilation is parallel (see the preferences), the children of the model (its attributes, actions,
+	 * behaviors, species and experiments) are compiled in parallel, each of them with its own children. The compiled
+	 * symbols are returned in the order of the descriptions.
+	 */
+	@Override
+	protected Iterable<? extends ISymbol> compileChildren() {
+		if (!GamaPreferences.External.PARALLEL_COMPILATION.getValue()) { return super.compileChildren(); }
+		final List<IDescription> children = new ArrayList<>();
+		visitChildren(desc -> {
+			children.add(desc);
+			return true;
+		});
+		final ISymbol[] symbols = new ISymbol[children.size()];
+		GamaExecutorService.executeThreaded(
+				() -> IntStream.range(0, symbols.length).parallel().forEach(i -> symbols[i] = children.get(i).compile()));
+		final List<ISymbol> result = new ArrayList<>();
+		for (final ISymbol s : symbols) {
+			if (s != null) {
+				result.add(s);
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void dispose() {
 		if (isBuiltIn()) { return; }
@@ -407,11 +437,40 @@ public class ModelDescription extends SpeciesDescription {
 
 	public IDescription validate(final boolean document) {
 		isDocumenting(document);
+		// The documentation of the descriptions is not thread-safe, so models are only validated in parallel when they
+		// are not documented (e.g. in headless mode)
+		if (!document && GamaPreferences.External.PARALLEL_COMPILATION.getValue()) {
+			validateSpeciesInParallel();
+		}
 		super.validate();
 		// DEBUG.LOG(this.serialize(true));
 		return this;
 	}
 
+	/**
+	 * Validates the statements of the species of the model (including the global one and the micro-species, but not the
+	 * experiments) in parallel. As these statements can refer to the declarations of any species (attributes, whose
+	 * types may be inferred, actions and their arguments), these declarations are validated first, sequentially. The
+	 * descriptions validated this way are then skipped by the normal, sequential, validation of the model, which
+	 * validates the rest (facets of the species, experiments...). The errors are collected by the ValidationContext,
+	 * which is thread-safe.
+	 */
+	private void validateSpeciesInParallel() {
+		final List<SpeciesDescription> species = new ArrayList<>();
+		visitAllSpecies(s -> {
+			if (!s.isExperiment() && !s.isBuiltIn()) {
+				species.add(s);
+			}
+			return true;
+		});
+		if (species.size() < 2) { return; }
+		for (final SpeciesDescription s : species) {
+			s.validateDeclarations();
+		}
+		GamaExecutorService
+				.executeThreaded(() -> species.parallelStream().forEach(SpeciesDescription::validateStatements));
+	}
+
 	/**
 	 * @return
 	 */
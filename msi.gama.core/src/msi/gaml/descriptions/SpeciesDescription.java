@@ -725,6 +725,41 @@ public class SpeciesDescription extends TypeDescription {
 
 	}
 
+	/**
+	 * Validates the declarations of this species that the statements of the other species can refer to: its attributes
+	 * (whose types may be inferred from their facets), the return types of its actions and their arguments. Called
+	 * sequentially before the statements of all the species are validated in parallel (see ModelDescription.validate())
+	 */
+	void validateDeclarations() {
+		for (final VariableDescription v : getOwnAttributes()) {
+			v.validate();
+		}
+		for (final ActionDescription a : getOwnActions()) {
+			a.getGamlType();
+			for (final IDescription arg : a.getFormalArgs()) {
+				arg.getGamlType();
+				if (arg.hasFacet(DEFAULT)) {
+					arg.getFacet(DEFAULT).compile(a);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Validates the statements of this species (its actions, behaviors and aspects), but neither its attributes nor its
+	 * micro-species. The statements of different species are disjoint, so they can be validated in parallel once their
+	 * declarations have been validated (see ModelDescription.validate())
+	 */
+	void validateStatements() {
+		for (final ActionDescription a : getOwnActions()) {
+			if (!VALIDATING_VISITOR.process(a)) { return; }
+		}
+		if (behaviors != null && !behaviors.forEachValue(VALIDATING_VISITOR)) { return; }
+		if (aspects != null) {
+			aspects.forEachValue(VALIDATING_VISITOR);
+		}
+	}
+
 	@Override
 	protected boolean validateChildren() {
 		// We try to issue information about the state of the species: at first,
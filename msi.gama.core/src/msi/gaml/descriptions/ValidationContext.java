@@ -10,6 +10,7 @@
  ********************************************************************************************************/
 package msi.gaml.descriptions;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
@@ -42,8 +43,10 @@ public class ValidationContext extends Collector.AsList<GamlCompilationError> im
 		docDelegate = delegate == null ? IDocManager.NULL : delegate;
 	}
 
+	// The errors are added and read under the lock of the context, as the species of a model can be validated and
+	// compiled in parallel (see ModelDescription.validate() and compileChildren())
 	@Override
-	public boolean add(final GamlCompilationError error) {
+	public synchronized boolean add(final GamlCompilationError error) {
 		if (error.isWarning()) {
 			if (!GamaPreferences.Modeling.WARNINGS_ENABLED.getValue() || noWarning) { return false; }
 		} else if (error.isInfo()) {
@@ -76,32 +79,42 @@ public class ValidationContext extends Collector.AsList<GamlCompilationError> im
 		return hasSyntaxErrors || hasInternalErrors() || hasImportedErrors();
 	}
 
-	public boolean hasInternalErrors() {
+	public synchronized boolean hasInternalErrors() {
 		return !isEmpty() && StreamEx.of(items()).filter(IS_ERROR).count() > 0;
 	}
 
-	public boolean hasImportedErrors() {
+	public synchronized boolean hasImportedErrors() {
 		return !importedErrors.isEmpty();
 	}
 
-	public List<GamlCompilationError> getInternalErrors() {
+	public synchronized List<GamlCompilationError> getInternalErrors() {
 		return StreamEx.of(items()).filter(IS_ERROR).toList();
 	}
 
-	public Collection<GamlCompilationError> getImportedErrors() {
-		return importedErrors.items();
+	public synchronized Collection<GamlCompilationError> getImportedErrors() {
+		return new ArrayList<>(importedErrors.items());
 	}
 
-	public Iterable<GamlCompilationError> getWarnings() {
+	public synchronized Iterable<GamlCompilationError> getWarnings() {
 		return StreamEx.of(items()).filter(IS_WARNING).toList();
 	}
 
-	public Iterable<GamlCompilationError> getInfos() {
+	public synchronized Iterable<GamlCompilationError> getInfos() {
 		return StreamEx.of(items()).filter(IS_INFO).toList();
 	}
 
 	@Override
-	public void clear() {
+	public synchronized int size() {
+		return super.size();
+	}
+
+	@Override
+	public synchronized boolean isEmpty() {
+		return super.isEmpty();
+	}
+
+	@Override
+	public synchronized void clear() {
 		super.clear();
 		Collector.release(importedErrors);
 		hasSyntaxErrors = false;
@@ -113,11 +126,11 @@ public class ValidationContext extends Collector.AsList<GamlCompilationError> im
 	 * @see java.lang.Iterable#iterator()
 	 */
 	@Override
-	public Iterator<GamlCompilationError> iterator() {
+	public synchronized Iterator<GamlCompilationError> iterator() {
 		return StreamEx.of(items()).append(getImportedErrors()).limit(MAX_SIZE).toList().iterator();
 	}
 
-	public Map<String, URI> getImportedErrorsAsStrings() {
+	public synchronized Map<String, URI> getImportedErrorsAsStrings() {
 		return StreamEx.of(importedErrors).toMap(e -> e.toString() + " (" + URI.decode(e.getURI().lastSegment()) + ")",
 				e -> e.getURI(), (t, u) -> t);
 	}
@@ -163,7 +176,7 @@ public class ValidationContext extends Collector.AsList<GamlCompilationError> im
 		docDelegate.addCleanupTask(model);
 	}
 
-	public boolean hasErrorOn(final EObject... objects) {
+	public synchronized boolean hasErrorOn(final EObject... objects) {
 		final List<EObject> list = Arrays.asList(objects);
 		return StreamEx.of(items()).filter(IS_ERROR).findAny(p -> list.contains(p.getStatement())).isPresent();
 	}
@@ -28,7 +28,8 @@ public class BinaryOperator extends AbstractNAryOperator {
 
 	public static IExpression create(final OperatorProto proto, final IDescription context,
 			final IExpression... child) {
-		final BinaryOperator u = new BinaryOperator(proto, context, child);
+		final BinaryOperator u = PipelineOperator.accepts(proto, child) ? new PipelineOperator(proto, context, child)
+				: new BinaryOperator(proto, context, child);
 		if (u.isConst() && GamaPreferences.External.CONSTANT_OPTIMIZATION.getValue()) {
 			return GAML.getExpressionFactory().createConst(u.getConstValue(), u.getGamlType(), u.serialize(false));
 		}
@@ -0,0 +1,165 @@
+/*******************************************************************************************************
+ *
+ * msi.gaml.expressions.PipelineOperator.java, in plugin msi.gama.core, is part of the source code of the GAMA modeling
+ * and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package msi.gaml.expressions;
+
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
+import msi.gama.common.preferences.GamaPreferences;
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+import msi.gama.util.IContainer;
+import msi.gaml.descriptions.IDescription;
+import msi.gaml.descriptions.OperatorProto;
+import msi.gaml.operators.Cast;
+import msi.gaml.operators.Containers;
+import one.util.streamex.StreamEx;
+
+/**
+ * The iterator operators that can be chained without building the intermediate lists (see the preference
+ * "pref_optimize_iterator_fusion"). The stages (where, select, collect) produce a lazy stream of their results, which
+ * is consumed by the stage or the reduction (count, one_matches, none_matches, all_match, first_with, sum_of, sum,
+ * length) applied to them: an expression like sum((people where (each.age > 18)) collect each.income) only builds a
+ * stream, and no list. A stage is only turned into a list when it is not followed by another stage or by a reduction.
+ *
+ * The first stage of a chain is evaluated like the corresponding operator (in parallel if the iterators are, see
+ * GamaExecutorService.CONCURRENCY_ITERATORS), the following ones element by element.
+ */
+@SuppressWarnings ({ "rawtypes", "unchecked" })
+public class PipelineOperator extends BinaryOperator {
+
+	private static final Set<String> STAGES = ImmutableSet.of("where", "select", "collect");
+	private static final Set<String> REDUCTIONS = ImmutableSet.of("count", "one_matches", "one_verifies",
+			"none_matches", "none_verifies", "all_match", "all_verify", "first_with", "sum_of");
+	private static final Set<String> UNARY_REDUCTIONS = ImmutableSet.of("sum", "length");
+
+	/**
+	 * Whether the binary operator is a stage, or a reduction applied to a stage
+	 */
+	static boolean accepts(final OperatorProto proto, final IExpression... args) {
+		if (!GamaPreferences.External.ITERATOR_FUSION.getValue() || args.length != 2) { return false; }
+		final String name = proto.getName();
+		return STAGES.contains(name) || REDUCTIONS.contains(name) && isStage(args[0]);
+	}
+
+	/**
+	 * Whether the unary operator is a reduction applied to a stage
+	 */
+	static boolean accepts(final OperatorProto proto, final IExpression arg) {
+		return GamaPreferences.External.ITERATOR_FUSION.getValue() && UNARY_REDUCTIONS.contains(proto.getName())
+				&& isStage(arg);
+	}
+
+	private static boolean isStage(final IExpression e) {
+		return e instanceof PipelineOperator && STAGES.contains(((PipelineOperator) e).getName());
+	}
+
+	public PipelineOperator(final OperatorProto proto, final IDescription context, final IExpression... args) {
+		super(proto, context, args);
+	}
+
+	/**
+	 * The lazy stream of the results of this stage
+	 */
+	StreamEx stream(final IScope scope) {
+		final IExpression filter = exprs[1];
+		final boolean collect = "collect".equals(getName());
+		if (isStage(exprs[0])) {
+			final StreamEx source = ((PipelineOperator) exprs[0]).stream(scope);
+			return collect ? source.map(Containers.with(scope, filter))
+					: (StreamEx) source.filter(Containers.by(scope, filter));
+		}
+		final Object value = exprs[0].value(scope);
+		final IContainer c = value == null || value instanceof IContainer ? (IContainer) value : Cast.asList(scope, value);
+		return collect ? Containers.evaluate(scope, c, filter) : Containers.select(scope, c, filter);
+	}
+
+	@Override
+	public Object _value(final IScope scope) throws GamaRuntimeException {
+		// Nothing to fuse: the operator is evaluated as usual
+		if (!isStage(exprs[0])) { return super._value(scope); }
+		try {
+			if (STAGES.contains(getName())) {
+				return stream(scope).toCollection(Containers.listOf(getGamlType().getContentType()));
+			}
+			final StreamEx s = ((PipelineOperator) exprs[0]).stream(scope);
+			switch (getName()) {
+				case "count":
+					return (int) s.filter(Containers.by(scope, exprs[1])).count();
+				case "one_matches":
+				case "one_verifies":
+					return s.anyMatch(Containers.by(scope, exprs[1]));
+				case "none_matches":
+				case "none_verifies":
+					return s.noneMatch(Containers.by(scope, exprs[1]));
+				case "all_match":
+				case "all_verify":
+					return s.allMatch(Containers.by(scope, exprs[1]));
+				case "first_with":
+					return s.findFirst(Containers.by(scope, exprs[1])).orElse(null);
+				default:
+					return sum(scope, s.map(Containers.with(scope, exprs[1])), exprs[1]);
+			}
+		} catch (final GamaRuntimeException ge) {
+			throw ge;
+		} catch (final Throwable ex) {
+			final GamaRuntimeException e1 = GamaRuntimeException.create(ex, scope);
+			e1.addContext("when applying the " + literalValue() + " operator on " + exprs[0].serialize(false));
+			throw e1;
+		}
+	}
+
+	static Object sum(final IScope scope, final StreamEx values, final IExpression of) {
+		final Object result = Containers.sum(scope, values, of.getGamlType());
+		if (result == null) {
+			throw GamaRuntimeException.error("No sum can be computed for the values of " + of.serialize(false), scope);
+		}
+		return result;
+	}
+
+	@Override
+	public PipelineOperator copy() {
+		return new PipelineOperator(prototype, null, exprs);
+	}
+
+	/**
+	 * A unary reduction (sum, length) applied to a stage
+	 */
+	public static class Reduction extends UnaryOperator {
+
+		public Reduction(final OperatorProto proto, final IDescription context, final IExpression child) {
+			super(proto, context, child);
+		}
+
+		@Override
+		public Object _value(final IScope scope) throws GamaRuntimeException {
+			try {
+				final StreamEx s = ((PipelineOperator) child).stream(scope);
+				// Counted through a sum, as count() may skip the evaluation of the stages
+				if ("length".equals(prototype.getName())) { return (int) s.mapToLong(e -> 1L).sum(); }
+				final Object result = Containers.sum(scope, s, child.getGamlType().getContentType());
+				if (result == null) {
+					throw GamaRuntimeException.error("No sum can be computed for " + child.serialize(false), scope);
+				}
+				return result;
+			} catch (final GamaRuntimeException ge) {
+				throw ge;
+			} catch (final Throwable ex) {
+				final GamaRuntimeException e1 = GamaRuntimeException.create(ex, scope);
+				e1.addContext("when applying the " + literalValue() + " operator on " + child.serialize(false));
+				throw e1;
+			}
+		}
+
+	}
+
+}
@@ -47,7 +47,8 @@ public class UnaryOperator extends AbstractExpression implements IOperator {
 	final OperatorProto prototype;
 
 	public static IExpression create(final OperatorProto proto, final IDescription context, final IExpression child) {
-		final UnaryOperator u = new UnaryOperator(proto, context, child);
+		final UnaryOperator u = PipelineOperator.accepts(proto, child)
+				? new PipelineOperator.Reduction(proto, context, child) : new UnaryOperator(proto, context, child);
 		if (u.isConst() && GamaPreferences.External.CONSTANT_OPTIMIZATION.getValue()) {
 			final IExpression e =
 					GAML.getExpressionFactory().createConst(u.getConstValue(), u.getGamlType(), u.serialize(false));
@@ -34,6 +34,7 @@ import msi.gama.util.GamaPair;
 import msi.gama.util.IList;
 import msi.gama.util.IMap;
 import msi.gama.util.graph.IGraph;
+import msi.gama.util.matrix.GamaSparseFloatMatrix;
 import msi.gama.util.matrix.IMatrix;
 import msi.gaml.expressions.IExpression;
 import msi.gaml.species.ISpecies;
@@ -328,6 +329,24 @@ public class Cast {
 		return GamaMatrixType.staticCast(scope, val, size, Types.NO_TYPE, false);
 	}
 
+	@operator (
+			value = "sparse",
+			content_type = IType.FLOAT,
+			can_be_const = true,
+			category = { IOperatorCategory.CASTING, IOperatorCategory.MATRIX },
+			concept = { IConcept.CAST, IConcept.MATRIX })
+	@doc (
+			value = "returns a sparse copy of the int or float matrix operand, which only stores its non-zero elements",
+			comment = "Sparse matrices are meant for large matrices mostly made of zeros (contact matrices, adjacency matrices...): their products (operator '.') with other matrices only visit their non-zero elements, and the products and divisions by numbers keep them sparse. Reading an element is slower than in a normal matrix, and writing a new non-zero element much slower. The other operations are made on a normal copy.",
+			see = { IKeyword.MATRIX, "as_matrix" })
+	@test ("sparse(matrix([[1.0,0.0],[0.0,2.0]])) . matrix([[1.0,2.0],[3.0,4.0]]) = matrix([[1.0,0.0],[0.0,2.0]]) . matrix([[1.0,2.0],[3.0,4.0]])")
+	@test ("matrix([[1.0,2.0],[3.0,4.0]]) . sparse(matrix([[1.0,0.0],[0.0,2.0]])) = matrix([[1.0,2.0],[3.0,4.0]]) . matrix([[1.0,0.0],[0.0,2.0]])")
+	@test ("transpose(sparse(matrix([[0.0,5.0],[6.0,0.0]]))) = matrix([[0.0,6.0],[5.0,0.0]])")
+	public static IMatrix asSparseMatrix(final IScope scope, final IMatrix val) throws GamaRuntimeException {
+		if (val == null) { return null; }
+		return GamaSparseFloatMatrix.from(scope, val);
+	}
+
 	@operator (
 			value = { IKeyword.SPECIES, "species_of" },
 			content_type = ITypeProvider.TYPE_AT_INDEX + 1,
@@ -18,11 +18,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.eclipse.emf.ecore.EObject;
@@ -35,9 +37,12 @@ import com.google.common.collect.Lists;
 
 import msi.gama.common.interfaces.IGamlIssue;
 import msi.gama.common.interfaces.IKeyword;
+import msi.gama.common.util.RandomUtils;
 import msi.gama.metamodel.agent.IAgent;
+import msi.gama.metamodel.population.IPopulation;
 import msi.gama.metamodel.population.IPopulationSet;
 import msi.gama.metamodel.population.MetaPopulation;
+import msi.gama.metamodel.population.PopulationIndex;
 import msi.gama.metamodel.shape.GamaPoint;
 import msi.gama.metamodel.shape.ILocation;
 import msi.gama.metamodel.shape.IShape;
@@ -54,6 +59,7 @@ import msi.gama.precompiler.IOperatorCategory;
 import msi.gama.precompiler.ITypeProvider;
 import msi.gama.runtime.GAMA;
 import msi.gama.runtime.IScope;
+import msi.gama.runtime.concurrent.GamaExecutorService;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
 import msi.gama.util.GamaColor;
 import msi.gama.util.GamaListFactory;
@@ -61,6 +67,7 @@ import msi.gama.util.GamaListFactory.GamaListSupplier;
 import msi.gama.util.GamaMapFactory;
 import msi.gama.util.GamaMapFactory.GamaMapSupplier;
 import msi.gama.util.GamaPair;
+import msi.gama.util.GamaPrimitiveList;
 import msi.gama.util.IContainer;
 import msi.gama.util.IList;
 import msi.gama.util.IMap;
@@ -76,6 +83,7 @@ import msi.gaml.species.ISpecies;
 import msi.gaml.types.GamaType;
 import msi.gaml.types.IType;
 import msi.gaml.types.Types;
+import one.util.streamex.EntryStream;
 import one.util.streamex.IntStreamEx;
 import one.util.streamex.StreamEx;
 
@@ -148,6 +156,80 @@ public class Containers {
 		return notNull(scope, c).stream(scope);
 	}
 
+	// The number of chunks of the elements evaluated in parallel, which does not depend on the number of threads so that
+	// the random numbers drawn by the chunks do not either
+	private static final int PARALLEL_CHUNKS = 64;
+
+	/**
+	 * Returns the elements of the container and the values of the expression evaluated on each of them, computed in
+	 * parallel, or null if the iterators are sequential (see GamaExecutorService.CONCURRENCY_ITERATORS) or if the
+	 * container is too small. The elements are split in chunks, each one being evaluated in its own copy of the scope
+	 * (in which each is bound), with its own random stream derived from the generator of the scope (see
+	 * RandomUtils.derive()), and the values are stored in the order of the elements, so that the results do not depend
+	 * on the scheduling of the chunks.
+	 */
+	private static Object[][] evaluateInParallel(final IScope scope, final IContainer c, final IExpression e) {
+		if (!GamaExecutorService.CONCURRENCY_ITERATORS.getValue()) { return null; }
+		final IContainer container = notNull(scope, c);
+		if (container.length(scope) < GamaExecutorService.CONCURRENCY_ITERATORS_THRESHOLD.getValue()) { return null; }
+		final Object[] elements = container.stream(scope).toArray();
+		final int n = elements.length;
+		final Object[] values = new Object[n];
+		final int chunks = Math.max(1, Math.min(n, PARALLEL_CHUNKS));
+		final RandomUtils[] streams = scope.getRandom().derive(chunks);
+		GamaExecutorService.executeThreaded(() -> IntStream.range(0, chunks).parallel().forEach(k -> {
+			final IScope local = scope.copy(" - iterator - ");
+			local.setRandom(streams[k]);
+			try {
+				final int end = (int) ((long) n * (k + 1) / chunks);
+				for (int i = (int) ((long) n * k / chunks); i < end; i++) {
+					local.setEach(elements[i]);
+					values[i] = e.value(local);
+				}
+			} finally {
+				local.close();
+			}
+		}));
+		return new Object[][] { elements, values };
+	}
+
+	/**
+	 * Returns the agents that may satisfy the filter according to the attribute indexes of the population, if the
+	 * container is a species or a population and if one of these indexes applies to the filter, null otherwise (see
+	 * PopulationIndex)
+	 */
+	private static List<IAgent> indexed(final IScope scope, final IContainer c, final IExpression filter) {
+		final IPopulation pop = c instanceof ISpecies ? ((ISpecies) c).getPopulation(scope)
+				: c instanceof IPopulation ? (IPopulation) c : null;
+		return pop == null ? null : PopulationIndex.candidates(scope, pop, filter);
+	}
+
+	/**
+	 * The values of the expression evaluated on each of the elements of the container, in their order
+	 */
+	public static StreamEx evaluate(final IScope scope, final IContainer c, final IExpression e) {
+		final Object[][] parallel = evaluateInParallel(scope, c, e);
+		if (parallel != null) { return StreamEx.of(parallel[1]); }
+		return stream(scope, c).map(with(scope, e));
+	}
+
+	/**
+	 * The elements of the container that make the expression evaluate to true, in their order
+	 */
+	public static StreamEx select(final IScope scope, final IContainer c, final IExpression e) {
+		final List<IAgent> candidates = indexed(scope, c, e);
+		if (candidates != null) { return (StreamEx) StreamEx.of(candidates).filter(by(scope, e)); }
+		final Object[][] parallel = evaluateInParallel(scope, c, e);
+		if (parallel != null) { return selected(parallel); }
+		return (StreamEx) stream(scope, c).filter(by(scope, e));
+	}
+
+	private static StreamEx selected(final Object[][] evaluated) {
+		final Object[] elements = evaluated[0];
+		final Object[] values = evaluated[1];
+		return IntStreamEx.range(elements.length).filter(i -> (Boolean) values[i]).mapToObj(i -> elements[i]);
+	}
+
 	public static GamaListSupplier listOf(final IType t) {
 		return new GamaListSupplier(t);
 	}
@@ -1121,6 +1203,11 @@ public class Containers {
 	@test ("[1::2, 3::4, 5::6] group_by (each > 4) = [false::[2, 4], true::[6]]")
 	public static IMap group_by(final IScope scope, final IContainer c, final IExpression e) {
 		final IType ct = notNull(scope, c).getGamlType().getContentType();
+		final Object[][] parallel = evaluateInParallel(scope, c, e);
+		if (parallel != null) {
+			return (IMap) EntryStream.zip(parallel[1], parallel[0])
+					.groupingTo(asMapOf(e.getGamlType(), Types.LIST.of(ct)), listOf(ct));
+		}
 		return (IMap) stream(scope, c).groupingTo(with(scope, e), asMapOf(e.getGamlType(), Types.LIST.of(ct)),
 				listOf(ct));
 	}
@@ -1201,6 +1288,8 @@ public class Containers {
 			see = { "group_by", "last_with", "where" })
 	@test ("[1,2,3,4,5,6,7,8] first_with (each > 3) = 4")
 	public static Object first_with(final IScope scope, final IContainer c, final IExpression filter) {
+		final List<IAgent> candidates = indexed(scope, c, filter);
+		if (candidates != null) { return StreamEx.of(candidates).findFirst(by(scope, filter)).orElse(null); }
 		return stream(scope, c).findFirst(by(scope, filter)).orElse(null);
 	}
 
@@ -1237,7 +1326,7 @@ public class Containers {
 	@test ("[1,2,4,3,5,7,6,8] max_of (each * 100 ) = 800")
 	@validator (ComparableValidator.class)
 	public static Object max_of(final IScope scope, final IContainer c, final IExpression filter) {
-		return stream(scope, c).map(with(scope, filter)).maxBy(Function.identity()).orElse(null);
+		return evaluate(scope, c, filter).maxBy(Function.identity()).orElse(null);
 	}
 
 	@operator (
@@ -1316,15 +1405,33 @@ public class Containers {
 			see = { "min_of", "max_of", "product_of", "mean_of" })
 	@test ("[1,2] sum_of (each * 100 ) = 300")
 	public static Object sum_of(final IScope scope, final IContainer container, final IExpression filter) {
-		Stream s = stream(scope, container);
+		// The lists of int and float are summed without boxing their elements
+		if (filter == null && container instanceof GamaPrimitiveList
+				&& ((GamaPrimitiveList) container).isPrimitive()) {
+			if (container instanceof GamaPrimitiveList.Floats) { return ((GamaPrimitiveList.Floats) container).sum(); }
+			if (container instanceof GamaPrimitiveList.Ints) { return ((GamaPrimitiveList.Ints) container).sum(); }
+		}
+		Stream s;
 		IType t;
 		if (filter != null) {
-			s = s.map(with(scope, filter));
+			s = evaluate(scope, container, filter);
 			t = filter.getGamlType();
 		} else {
+			s = stream(scope, container);
 			t = container.getGamlType().getContentType();
 		}
-		s = s.map(each -> t.cast(scope, each, null, false));
+		final Object result = sum(scope, s, t);
+		if (result == null) {
+			throw GamaRuntimeException.error("No sum can be computed for " + container.serialize(true), scope);
+		}
+		return result;
+	}
+
+	/**
+	 * The sum of the values, cast to the type, or null if values of this type cannot be summed
+	 */
+	public static Object sum(final IScope scope, final Stream values, final IType t) {
+		final Stream s = values.map(each -> t.cast(scope, each, null, false));
 		switch (t.id()) {
 			case IType.INT:
 				return ((Stream<Integer>) s).reduce(0, Integer::sum);
@@ -1337,7 +1444,7 @@ public class Containers {
 			case IType.STRING:
 				return ((Stream<String>) s).reduce("", String::concat);
 			default:
-				return GamaRuntimeException.error("No sum can be computed for " + container.serialize(true), scope);
+				return null;
 		}
 	}
 
@@ -1471,7 +1578,7 @@ public class Containers {
 	@test ("[1,2,4,3,5,7,6,8] min_of (each * 100 ) = 100")
 	@validator (ComparableValidator.class)
 	public static Object min_of(final IScope scope, final IContainer c, final IExpression filter) {
-		return stream(scope, c).map(with(scope, filter)).minBy(Function.identity()).orElse(null);
+		return evaluate(scope, c, filter).minBy(Function.identity()).orElse(null);
 	}
 
 	@operator (
@@ -1614,7 +1721,7 @@ public class Containers {
 			see = { "first_with", "last_with" })
 	@test ("[1,2,3,4,5,6,7,8] where (each > 3) = [4, 5, 6, 7, 8] ")
 	public static IList where(final IScope scope, final IContainer c, final IExpression filter) {
-		return (IList) stream(scope, c).filter(by(scope, filter)).toCollection(listLike(c));
+		return (IList) select(scope, c, filter).toCollection(listLike(c));
 	}
 
 	@operator (
@@ -1636,6 +1743,12 @@ public class Containers {
 	 * @return
 	 */
 	public static IList where(final IScope scope, final IList c, final IExpression filter) {
+		final List<IAgent> candidates = indexed(scope, c, filter);
+		if (candidates != null) {
+			return where(scope, candidates, c.getGamlType().getContentType(), filter);
+		}
+		final Object[][] parallel = evaluateInParallel(scope, c, filter);
+		if (parallel != null) { return (IList) selected(parallel).toCollection(listLike(c)); }
 		return where(scope, c.iterable(scope), c.getGamlType().getContentType(), filter);
 	}
 
@@ -1671,6 +1784,12 @@ public class Containers {
 	 * @return
 	 */
 	public static IList where(final IScope scope, final ISpecies c, final IExpression filter) {
+		final List<IAgent> candidates = indexed(scope, c, filter);
+		if (candidates != null) {
+			return where(scope, candidates, c.getGamlType().getContentType(), filter);
+		}
+		final Object[][] parallel = evaluateInParallel(scope, c, filter);
+		if (parallel != null) { return (IList) selected(parallel).toCollection(listLike(c)); }
 		return where(scope, c.iterable(scope), c.getGamlType().getContentType(), filter);
 	}
 
@@ -1808,7 +1927,7 @@ public class Containers {
 	@test ("[1,2,4] collect (each *2) = [2,4,8]")
 	@test ("[1,2,4] collect ([2,4]) = [[2,4],[2,4],[2,4]]")
 	public static IList collect(final IScope scope, final IContainer c, final IExpression filter) {
-		return (IList) stream(scope, c).map(with(scope, filter)).toCollection(listOf(filter.getGamlType()));
+		return (IList) evaluate(scope, c, filter).toCollection(listOf(filter.getGamlType()));
 	}
 
 	@operator (
@@ -1866,7 +1985,7 @@ public class Containers {
 							equals = "1") },
 			see = { "group_by" })
 	public static Integer count(final IScope scope, final IContainer original, final IExpression filter) {
-		return (int) notNull(scope, original).stream(scope).filter(by(scope, filter)).count();
+		return (int) select(scope, original, filter).count();
 	}
 
 	@operator (
@@ -28,6 +28,7 @@ import msi.gama.precompiler.ITypeProvider;
 import msi.gama.runtime.IScope;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
 import msi.gama.util.IContainer;
+import msi.gama.util.file.BufferedFileWriters;
 import msi.gama.util.file.GamaFolderFile;
 import msi.gama.util.file.IGamaFile;
 import msi.gaml.types.IType;
@@ -112,6 +113,7 @@ public class Files {
 		if (scope == null) {
 			return false;
 		} else {
+			BufferedFileWriters.flushBeforeReading(scope, s);
 			final String path = FileUtils.constructAbsoluteFilePath(scope, s, false);
 			final File f = new File(path);
 
@@ -35,8 +35,10 @@ import msi.gama.metamodel.agent.IAgent;
 import msi.gama.metamodel.shape.GamaPoint;
 import msi.gama.metamodel.shape.ILocation;
 import msi.gama.metamodel.shape.IShape;
+import msi.gama.metamodel.topology.ITopology;
 import msi.gama.metamodel.topology.graph.GamaSpatialGraph;
 import msi.gama.metamodel.topology.graph.GamaSpatialGraph.VertexRelationship;
+import msi.gama.metamodel.topology.graph.GraphRoutes;
 import msi.gama.precompiler.GamlAnnotations.doc;
 import msi.gama.precompiler.GamlAnnotations.example;
 import msi.gama.precompiler.GamlAnnotations.no_test;
@@ -46,6 +48,7 @@ import msi.gama.precompiler.GamlAnnotations.usage;
 import msi.gama.precompiler.IConcept;
 import msi.gama.precompiler.IOperatorCategory;
 import msi.gama.precompiler.ITypeProvider;
+import msi.gama.precompiler.Reason;
 import msi.gama.runtime.IScope;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
 import msi.gama.util.Collector;
@@ -61,6 +64,7 @@ import msi.gama.util.file.GamaFile;
 import msi.gama.util.graph.GamaGraph;
 import msi.gama.util.graph.GraphAlgorithmsHandmade;
 import msi.gama.util.graph.GraphFromAgentContainerSynchronizer;
+import msi.gama.util.graph.GraphSnapshot;
 import msi.gama.util.graph.IGraph;
 import msi.gama.util.graph.layout.LayoutCircle;
 import msi.gama.util.graph.layout.LayoutForceDirected;
@@ -77,6 +81,7 @@ import msi.gaml.types.GamaGraphType;
 import msi.gaml.types.GamaPathType;
 import msi.gaml.types.IType;
 import msi.gaml.types.Types;
+import one.util.streamex.IntStreamEx;
 
 /**
  * Written by drogoul Modified on 13 avr. 2011
@@ -106,6 +111,12 @@ public class Graphs {
 		public boolean equivalent(final IScope scope, final IShape p1, final IShape p2) {
 			return p1 == null ? p2 == null : p1.getGeometry().equals(p2.getGeometry());
 		}
+
+		@Override
+		public double range(final IScope scope) {
+			// Two geometries enlarged by the tolerance intersect only if they are closer than twice the tolerance
+			return 2 * tolerance;
+		}
 	};
 
 	private static class GridNeighborsRelation implements VertexRelationship<IShape> {
@@ -185,6 +196,12 @@ public class Graphs {
 			return p1 == null ? p2 == null : p1.getGeometry().equals(p2.getGeometry());
 		}
 
+		@Override
+		public double range(final IScope scope) {
+			// Related geometries share points
+			return 0;
+		}
+
 	};
 
 	private static class DistanceRelation implements VertexRelationship<IShape> {
@@ -215,6 +232,17 @@ public class Graphs {
 			return p1 == null ? p2 == null : p1.getGeometry().equals(p2.getGeometry());
 		}
 
+		/**
+		 * The envelopes of related vertices are closer than the distance, unless the distances are computed in a torus
+		 * or in a topology that is not continuous (grids, graphs)
+		 */
+		@Override
+		public double range(final IScope scope) {
+			final ITopology topology = scope.getTopology();
+			if (topology == null || !topology.isContinuous() || topology.isTorus()) { return -1; }
+			return distance;
+		}
+
 	}
 
 	/**
@@ -855,7 +883,7 @@ public class Graphs {
 	public static int nbCycles(final IScope scope, final IGraph graph) {
 		if (graph == null) { throw GamaRuntimeException.error("The graph is nil", scope); }
 		final int S = graph.vertexSet().size();
-		final int C = connectedComponentOf(scope, graph).size();
+		final int C = numberOfComponents(graph);
 		final int L = graph.edgeSet().size();
 		return L - S + C;
 	}
@@ -940,18 +968,28 @@ public class Graphs {
 	public static double connectivityIndex(final IScope scope, final IGraph graph) {
 		if (graph == null) { throw GamaRuntimeException.error("The graph is nil", scope); }
 		final int S = graph.vertexSet().size();
-		final int C = connectedComponentOf(scope, graph).size();
+		final int C = numberOfComponents(graph);
 		return (S - C) / (S - 1.0);
 	}
 
+	/**
+	 * The number of connected components of the graph, computed on a snapshot of the graph rather than by building
+	 * the lists of vertices of the components
+	 */
+	private static int numberOfComponents(final IGraph graph) {
+		final int[] components = new GraphSnapshot(graph).components();
+		return components.length == 0 ? 0 : IntStreamEx.of(components).max().getAsInt() + 1;
+	}
+
 	@operator (
 			value = "betweenness_centrality",
 			type = IType.MAP,
-			content_type = IType.INT,
+			content_type = IType.FLOAT,
 			category = { IOperatorCategory.GRAPH },
 			concept = { IConcept.GRAPH })
 	@doc (
 			value = "returns a map containing for each vertex (key), its betweenness centrality (value): number of shortest paths passing through each vertex ",
+			comment = "when several shortest paths join two vertices, each of them counts for a fraction of the pair, so that the centralities are not necessarily integers",
 			examples = { @example (
 					value = "graph graphEpidemio <- graph([]);"),
 					@example (
@@ -960,51 +998,22 @@ public class Graphs {
 							test = false) },
 			see = {})
 	@test ("graph<geometry, geometry> g <- directed(as_edge_graph([edge({10,5}, {20,3}), edge({10,5}, {30,30}),edge({30,30}, {80,35}),edge({80,35}, {40,60}),edge({80,35}, {10,5}), node ({50,50})]));\r\n"
-			+ " betweenness_centrality(g) = [{10.0,5.0,0.0}::5,{20.0,3.0,0.0}::0,{30.0,30.0,0.0}::2,{80.0,35.0,0.0}::4,{40.0,60.0,0.0}::0,{50.0,50.0,0.0}::0] ")
+			+ " betweenness_centrality(g) = [{10.0,5.0,0.0}::5.0,{20.0,3.0,0.0}::0.0,{30.0,30.0,0.0}::2.0,{80.0,35.0,0.0}::4.0,{40.0,60.0,0.0}::0.0,{50.0,50.0,0.0}::0.0] ")
 	public static IMap betweennessCentrality(final IScope scope, final IGraph graph) {
 		if (graph == null) { throw GamaRuntimeException.error("The graph is nil", scope); }
-
-		final IMap mapResult = GamaMapFactory.create(graph.getGamlType().getKeyType(), Types.INT);
-		final IList vertices = Cast.asList(scope, graph.vertexSet());
-		for (final Object v : vertices) {
-			mapResult.put(v, 0);
-		}
-		final boolean directed = graph.isDirected();
-		for (int i = 0; i < vertices.size(); i++) {
-			for (int j = directed ? 0 : i + 1; j < vertices.size(); j++) {
-				final Object v1 = vertices.get(i);
-				final Object v2 = vertices.get(j);
-				if (v1 == v2) {
-					continue;
-				}
-				final List edges = graph.computeBestRouteBetween(scope, v1, v2);
-				if (edges == null) {
-					continue;
-				}
-				Object vc = v1;
-				for (final Object edge : edges) {
-					Object node = graph.getEdgeTarget(edge);
-					if (node == vc) {
-						node = graph.getEdgeSource(edge);
-					}
-					if (node != v2 && node != v1) {
-						mapResult.put(node, (Integer) mapResult.get(node) + 1);
-					}
-					vc = node;
-				}
-			}
-		}
-		return mapResult;
+		final GraphSnapshot snapshot = new GraphSnapshot(graph);
+		return toMap(graph, snapshot.vertices, snapshot.betweenness(true));
 	}
 
 	@operator (
 			value = "edge_betweenness",
 			type = IType.MAP,
-			content_type = IType.INT,
+			content_type = IType.FLOAT,
 			category = { IOperatorCategory.GRAPH },
 			concept = { IConcept.GRAPH })
 	@doc (
 			value = "returns a map containing for each edge (key), its betweenness centrality (value): number of shortest paths passing through each edge ",
+			comment = "when several shortest paths join two vertices, each of them counts for a fraction of the pair, so that the centralities are not necessarily integers",
 			examples = { @example (
 					value = "graph graphEpidemio <- graph([]);"),
 					@example (
@@ -1015,30 +1024,114 @@ public class Graphs {
 	@no_test
 	public static IMap edgeBetweenness(final IScope scope, final IGraph graph) {
 		if (graph == null) { throw GamaRuntimeException.error("The graph is nil", scope); }
-		// DEBUG.OUT("result.getRaw() : " + result.getRaw());
-
-		final IMap mapResult = GamaMapFactory.create(graph.getGamlType().getContentType(), Types.INT);
-		for (final Object v : graph.edgeSet()) {
-			mapResult.put(v, 0);
-		}
-		final IList vertices = Cast.asList(scope, graph.vertexSet());
-		final boolean directed = graph.isDirected();
-		for (int i = 0; i < vertices.size(); i++) {
-			for (int j = directed ? 0 : i + 1; j < vertices.size(); j++) {
-				final Object v1 = vertices.get(i);
-				final Object v2 = vertices.get(j);
-				if (v1 == v2) {
-					continue;
-				}
-				final List edges = graph.computeBestRouteBetween(scope, v1, v2);
-				if (edges == null) {
-					continue;
-				}
-				for (final Object edge : edges) {
-					mapResult.put(edge, (Integer) mapResult.get(edge) + 1);
-				}
+		final GraphSnapshot snapshot = new GraphSnapshot(graph);
+		final double[] values = snapshot.betweenness(false);
+		final IMap mapResult = GamaMapFactory.create(graph.getGamlType().getContentType(), Types.FLOAT);
+		for (int i = 0; i < values.length; i++) {
+			mapResult.put(snapshot.edges[i], values[i]);
+		}
+		return mapResult;
+	}
+
+	@operator (
+			value = "closeness_centrality",
+			type = IType.MAP,
+			content_type = IType.FLOAT,
+			category = { IOperatorCategory.GRAPH },
+			concept = { IConcept.GRAPH })
+	@doc (
+			value = "returns a map containing for each vertex (key), its closeness centrality (value): the number of vertices it can reach divided by the sum of its (weighted) distances to them, or 0 if it cannot reach any other vertex",
+			comment = "the distances from the vertices are computed in parallel, without using the cache of shortest paths of the graph",
+			examples = { @example (
+					value = "closeness_centrality(graphEpidemio)",
+					equals = "the closeness centrality index of the graph",
+					isExecutable = false) },
+			see = { "betweenness_centrality", "page_rank" })
+	@test ("graph<geometry, geometry> g <- as_edge_graph([edge({0,0}, {10,0}), edge({10,0}, {20,0})]);\r\n"
+			+ " closeness_centrality(g)[{10.0,0.0,0.0}] = 0.1 ")
+	public static IMap closenessCentrality(final IScope scope, final IGraph graph) {
+		if (graph == null) { throw GamaRuntimeException.error("The graph is nil", scope); }
+		final GraphSnapshot snapshot = new GraphSnapshot(graph);
+		return toMap(graph, snapshot.vertices, snapshot.closeness());
+	}
+
+	@operator (
+			value = "page_rank",
+			type = IType.MAP,
+			content_type = IType.FLOAT,
+			category = { IOperatorCategory.GRAPH },
+			concept = { IConcept.GRAPH })
+	@doc (
+			value = "returns a map containing for each vertex (key), its page rank (value), computed with a damping factor of 0.85. The ranks sum to 1",
+			comment = "the rank of the vertices without outgoing edges is distributed to all the vertices. In undirected graphs, the edges are followed in both directions",
+			examples = { @example (
+					value = "page_rank(graphEpidemio)",
+					equals = "the page rank of the vertices of the graph",
+					isExecutable = false) },
+			see = { "betweenness_centrality", "closeness_centrality" })
+	@test ("graph<geometry, geometry> g <- as_edge_graph([edge({0,0}, {10,0}), edge({10,0}, {20,0})]);\r\n"
+			+ " page_rank(g)[{10.0,0.0,0.0}] > page_rank(g)[{0.0,0.0,0.0}] ")
+	public static IMap pageRank(final IScope scope, final IGraph graph) {
+		return pageRank(scope, graph, 0.85);
+	}
+
+	@operator (
+			value = "page_rank",
+			type = IType.MAP,
+			content_type = IType.FLOAT,
+			category = { IOperatorCategory.GRAPH },
+			concept = { IConcept.GRAPH })
+	@doc (
+			value = "returns a map containing for each vertex (key), its page rank (value), computed with the damping factor given as right-hand operand (between 0 and 1). The ranks sum to 1",
+			examples = { @example (
+					value = "page_rank(graphEpidemio, 0.9)",
+					equals = "the page rank of the vertices of the graph",
+					isExecutable = false) },
+			see = { "betweenness_centrality", "closeness_centrality" })
+	@no_test
+	public static IMap pageRank(final IScope scope, final IGraph graph, final Double damping) {
+		if (graph == null) { throw GamaRuntimeException.error("The graph is nil", scope); }
+		if (damping < 0 || damping > 1) {
+			throw GamaRuntimeException.error("The damping factor must be between 0 and 1", scope);
+		}
+		final GraphSnapshot snapshot = new GraphSnapshot(graph);
+		return toMap(graph, snapshot.vertices, snapshot.pageRank(damping, 1e-10, 100));
+	}
+
+	@operator (
+			value = "k_core",
+			type = IType.LIST,
+			content_type = ITypeProvider.KEY_TYPE_AT_INDEX + 1,
+			category = { IOperatorCategory.GRAPH },
+			concept = { IConcept.GRAPH, IConcept.NODE })
+	@doc (
+			value = "returns the vertices of the k-core of the graph (left-hand operand), k being the right-hand operand: the largest sub-graph in which every vertex has at least k neighbours",
+			comment = "the directions of the edges, the loops and the multiple edges are ignored",
+			examples = { @example (
+					value = "graphEpidemio k_core 3",
+					equals = "the vertices of the 3-core of the graph",
+					isExecutable = false) },
+			see = { "connected_components_of", "maximal_cliques_of" })
+	@test ("graph<geometry, geometry> g <- as_edge_graph([edge({0,0}, {10,0}), edge({10,0}, {10,10}), edge({10,10}, {0,0}), edge({0,0}, {20,20})]);\r\n"
+			+ " length(g k_core 2) = 3 ")
+	public static IList kCore(final IScope scope, final IGraph graph, final Integer k) {
+		if (graph == null) { throw GamaRuntimeException.error("The graph is nil", scope); }
+		final GraphSnapshot snapshot = new GraphSnapshot(graph);
+		final int[] cores = snapshot.coreNumbers();
+		final IList result = GamaListFactory.create(graph.getGamlType().getKeyType());
+		for (int i = 0; i < cores.length; i++) {
+			if (cores[i] >= k) {
+				result.add(snapshot.vertices[i]);
 			}
 		}
+		return result;
+	}
+
+	private static IMap toMap(final IGraph graph, final Object[] vertices, final double[] values) {
+		final IMap mapResult = GamaMapFactory.create(graph.getGamlType().getKeyType(), Types.FLOAT);
+		for (int i = 0; i < values.length; i++) {
+			mapResult.put(vertices[i], values[i]);
+		}
 		return mapResult;
 	}
 
@@ -1401,16 +1494,26 @@ public class Graphs {
 			concept = {})
 	@doc (
 			value = "creates a graph from a list of vertices (left-hand operand). An edge is created between each pair of vertices close enough (less than a distance, right-hand operand).",
+			comment = "The parameters are given in a map: \"distance\" (the distance), \"species\" (the species of the edges, optional) and \"incremental\" (optional, false by default). "
+					+ "When \"incremental\" is true, the edges of the graph are maintained at the end of each step of the simulation: only the vertices that have moved, "
+					+ "or that have been created, since the previous step have their edges recomputed, and the agents that die are removed from the graph.",
+			examples = @example (
+					value = "list(ant) as_distance_graph [\"distance\"::3.0, \"incremental\"::true]",
+					isExecutable = false),
 			see = { "as_intersection_graph", "as_edge_graph" })
 	@no_test
 	public static IGraph spatialDistanceGraph(final IScope scope, final IContainer vertices, final IMap params) {
 		final Double distance = (Double) params.get("distance");
 		final ISpecies edgeSpecies = (ISpecies) params.get("species");
+		final boolean incremental = Cast.asBool(scope, params.get("incremental"));
 		final IType edgeType = edgeSpecies == null ? Types.GEOMETRY : scope.getType(edgeSpecies.getName());
-		final IGraph createdGraph = new GamaSpatialGraph(vertices, false, false, new DistanceRelation(distance),
-				edgeSpecies, scope, vertices.getGamlType().getContentType(), edgeType);
-
-		if (Types.AGENT.equals(vertices.getGamlType().getContentType())) {
+		final IType nodeType = vertices.getGamlType().getContentType();
+		final GamaSpatialGraph createdGraph = new GamaSpatialGraph(vertices, false, false,
+				new DistanceRelation(distance), edgeSpecies, scope, nodeType, edgeType);
+		if (incremental) {
+			createdGraph.maintainEdges(scope);
+		}
+		if (Types.AGENT.equals(nodeType) || incremental && nodeType.isAgentType() && !vertices.isEmpty(scope)) {
 			GraphFromAgentContainerSynchronizer.synchronize(scope, vertices, edgeSpecies, createdGraph);
 		}
 		return createdGraph;
@@ -1444,6 +1547,24 @@ public class Graphs {
 		return GamaGraphType.useChacheForShortestPath(g, useCache);
 	}
 
+	@operator (
+			value = "advance_on_routes",
+			content_type = ITypeProvider.CONTENT_TYPE_AT_INDEX + 1,
+			category = { IOperatorCategory.GRAPH, IOperatorCategory.PATH },
+			concept = { IConcept.GRAPH, IConcept.AGENT_MOVEMENT, IConcept.OPTIMIZATION })
+	@doc (
+			value = "moves all the agents of the operand along the routes computed by their action compute_route, by the distance allowed by their speed during one step, and returns the agents that have reached the end of their route.",
+			comment = "WARNING / side effect: this operator modifies the location, heading and real speed of the agents. Their new locations are computed in parallel, and they are then moved all together, which is much faster than calling goto for each agent. The agents without route do not move.",
+			examples = @example (
+					value = "list<people> arrived <- advance_on_routes(people);",
+					isExecutable = false),
+			see = { "path_between" })
+	@no_test (Reason.ALREADY_TESTED)
+	public static IList<IAgent> advanceOnRoutes(final IScope scope, final IContainer<?, ? extends IAgent> agents) {
+		if (agents == null) { return GamaListFactory.create(Types.AGENT); }
+		return GraphRoutes.advance(scope, agents.listValue(scope, Types.AGENT, false));
+	}
+
 	@operator (
 			value = "directed",
 			content_type = ITypeProvider.CONTENT_TYPE_AT_INDEX + 1,
@@ -21,6 +21,7 @@ import msi.gama.precompiler.IOperatorCategory;
 import msi.gama.precompiler.ITypeProvider;
 import msi.gama.runtime.IScope;
 import msi.gama.runtime.exceptions.GamaRuntimeException;
+import msi.gama.util.matrix.GamaFloatMatrix;
 import msi.gama.util.matrix.IMatrix;
 
 /**
@@ -1407,4 +1408,64 @@ public class Maths {
 		return 1;
 	}
 
+
+	@operator (
+			value = "add_in_place",
+			category = { IOperatorCategory.MATRIX },
+			concept = { IConcept.MATRIX })
+	@doc (
+			value = "Adds the elements of the right-hand matrix to the ones of the left-hand float matrix, which must have the same dimensions, and returns it",
+			comment = "WARNING / side effect: this operator modifies the left-hand operand and does not create a new matrix, which avoids the allocation of a matrix each time large matrices are updated (e.g. m <- m + n)",
+			see = { "subtract_in_place", "multiply_in_place", "scale_in_place" })
+	@test ("add_in_place(matrix([[1.0,2.0],[3.0,4.0]]), matrix([[1,1],[1,1]])) = matrix([[2.0,3.0],[4.0,5.0]])")
+	public static IMatrix addInPlace(final IScope scope, final IMatrix a, final IMatrix b) {
+		return dense(scope, a).addInPlace(scope, b);
+	}
+
+	@operator (
+			value = "subtract_in_place",
+			category = { IOperatorCategory.MATRIX },
+			concept = { IConcept.MATRIX })
+	@doc (
+			value = "Subtracts the elements of the right-hand matrix from the ones of the left-hand float matrix, which must have the same dimensions, and returns it",
+			comment = "WARNING / side effect: this operator modifies the left-hand operand and does not create a new matrix",
+			see = { "add_in_place", "multiply_in_place", "scale_in_place" })
+	@test ("subtract_in_place(matrix([[1.0,2.0],[3.0,4.0]]), matrix([[1,1],[1,1]])) = matrix([[0.0,1.0],[2.0,3.0]])")
+	public static IMatrix subtractInPlace(final IScope scope, final IMatrix a, final IMatrix b) {
+		return dense(scope, a).subtractInPlace(scope, b);
+	}
+
+	@operator (
+			value = "multiply_in_place",
+			category = { IOperatorCategory.MATRIX },
+			concept = { IConcept.MATRIX })
+	@doc (
+			value = "Multiplies the elements of the left-hand float matrix by the ones of the right-hand matrix, which must have the same dimensions, and returns it",
+			comment = "WARNING / side effect: this operator modifies the left-hand operand and does not create a new matrix",
+			see = { "add_in_place", "subtract_in_place", "scale_in_place" })
+	@test ("multiply_in_place(matrix([[1.0,2.0],[3.0,4.0]]), matrix([[2,2],[2,2]])) = matrix([[2.0,4.0],[6.0,8.0]])")
+	public static IMatrix multiplyInPlace(final IScope scope, final IMatrix a, final IMatrix b) {
+		return dense(scope, a).multiplyInPlace(scope, b);
+	}
+
+	@operator (
+			value = "scale_in_place",
+			category = { IOperatorCategory.MATRIX },
+			concept = { IConcept.MATRIX })
+	@doc (
+			value = "Multiplies all the elements of the left-hand float matrix by the right-hand operand and returns it",
+			comment = "WARNING / side effect: this operator modifies the left-hand operand and does not create a new matrix",
+			see = { "add_in_place", "subtract_in_place", "multiply_in_place" })
+	@test ("scale_in_place(matrix([[1.0,2.0],[3.0,4.0]]), 0.5) = matrix([[0.5,1.0],[1.5,2.0]])")
+	public static IMatrix scaleInPlace(final IScope scope, final IMatrix a, final Double factor) {
+		return dense(scope, a).scaleInPlace(factor);
+	}
+
+	private static GamaFloatMatrix dense(final IScope scope, final IMatrix m) {
+		if (!(m instanceof GamaFloatMatrix)) {
+			throw GamaRuntimeException.error("Only float matrices can be modified in place", scope);
+		}
+		return (GamaFloatMatrix) m;
+	}
+
 }
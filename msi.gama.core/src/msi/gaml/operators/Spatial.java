@@ -61,12 +61,18 @@ import com.vividsolutions.jts.util.AssertionFailedException;
 import msi.gama.common.geometry.AxisAngle;
 import msi.gama.common.geometry.Envelope3D;
 import msi.gama.common.geometry.GeometryUtils;
+import msi.gama.common.geometry.PointInterpolator;
+import msi.gama.common.geometry.PointInterpolator.Variogram;
+import msi.gama.common.geometry.PreparedGeometryCache;
 import msi.gama.common.geometry.Rotation3D;
 import msi.gama.common.geometry.Scaling3D;
 import msi.gama.common.interfaces.IGraphics;
 import msi.gama.common.interfaces.IKeyword;
 import msi.gama.common.preferences.GamaPreferences;
 import msi.gama.metamodel.agent.IAgent;
+import msi.gama.metamodel.population.GamaPopulation;
+import msi.gama.metamodel.population.IPopulation;
+import msi.gama.metamodel.population.PopulationIndex;
 import msi.gama.metamodel.shape.GamaPoint;
 import msi.gama.metamodel.shape.GamaShape;
 import msi.gama.metamodel.shape.ILocation;
@@ -76,7 +82,10 @@ import msi.gama.metamodel.topology.filter.Different;
 import msi.gama.metamodel.topology.filter.IAgentFilter;
 import msi.gama.metamodel.topology.filter.In;
 import msi.gama.metamodel.topology.grid.GamaSpatialMatrix;
+import msi.gama.metamodel.topology.grid.GridField;
+import msi.gama.metamodel.topology.grid.GridStencilNeighborhood;
 import msi.gama.metamodel.topology.grid.GridTopology;
+import msi.gama.metamodel.topology.grid.IGrid;
 import msi.gama.metamodel.topology.projection.IProjection;
 import msi.gama.precompiler.GamlAnnotations.doc;
 import msi.gama.precompiler.GamlAnnotations.example;
@@ -99,8 +108,10 @@ import msi.gama.util.IList;
 import msi.gama.util.IMap;
 import msi.gama.util.file.GamaFile;
 import msi.gama.util.file.GamaGisFile;
+import msi.gama.util.file.GamaGridFile;
 import msi.gama.util.file.GamaImageFile;
 import msi.gama.util.graph.IGraph;
+import msi.gama.util.matrix.GamaFloatMatrix;
 import msi.gama.util.matrix.GamaMatrix;
 import msi.gama.util.matrix.IMatrix;
 import msi.gama.util.path.GamaSpatialPath;
@@ -108,6 +119,7 @@ import msi.gama.util.path.IPath;
 import msi.gama.util.path.PathFactory;
 import msi.gaml.compilation.annotations.depends_on;
 import msi.gaml.expressions.IExpression;
+import msi.gaml.species.ISpecies;
 import msi.gaml.statements.draw.FieldDrawingAttributes;
 import msi.gaml.types.GamaGeometryType;
 import msi.gaml.types.GamaType;
@@ -3352,7 +3364,7 @@ public abstract class Spatial {
 			} else {
 				shape.getInnerGeometry().getCoordinates()[shape.getInnerGeometry().getCoordinates().length - 1] = pt;
 			}
-			shape.getInnerGeometry().geometryChanged();
+			GamaShape.geometryChanged(shape.getInnerGeometry());
 		}
 
 		/**
@@ -3893,6 +3905,8 @@ public abstract class Spatial {
 		@test("polygon([{10,10},{10,20},{20,20},{20,10}]) partially_overlaps polygon([{35,35},{35,45},{45,45},{45,35}]) = false")
 		public static Boolean partially_overlaps(final IShape g1, final IShape g) {
 			if (g == null) { return false; }
+			final PreparedGeometry pg = PreparedGeometryCache.cached(g1);
+			if (pg != null) { return pg.overlaps(g.getInnerGeometry()); }
 			return g1.getInnerGeometry().overlaps(g.getInnerGeometry());
 		}
 
@@ -3951,6 +3965,8 @@ public abstract class Spatial {
 		@test ("polygon([{10,10},{10,20},{20,20},{20,10}]) touches {15,15} = false")
 		public static Boolean touches(final IShape g, final IShape g2) {
 			if (g == null) { return false; }
+			final PreparedGeometry pg = PreparedGeometryCache.cached(g2);
+			if (pg != null) { return pg.touches(g.getInnerGeometry()); }
 			return g2.getInnerGeometry().touches(g.getInnerGeometry());
 		}
 
@@ -4925,6 +4941,577 @@ public abstract class Spatial {
 			return results;
 		}
 
+		@operator (
+				value = { "IDW", "inverse_distance_weighting" },
+				category = { IOperatorCategory.SPATIAL },
+				concept = { IConcept.GEOMETRY, IConcept.SPATIAL_COMPUTATION, IConcept.STATISTIC })
+		@doc (
+				value = "Inverse Distance Weighting (IDW) restricted to the k nearest known points of each geometry. The known points are indexed once in a kd-tree and the geometries are processed in parallel, which makes this operator suitable for large sets of points and geometries. Distances are computed from the location of each geometry. "
+						+ "Usage: IDW (list of geometries, map of points (key: point, value: value), power parameter, number of neighbours)",
+				examples = { @example (
+						value = "IDW([ag1, ag2, ag3, ag4, ag5],[{10,10}::25.0, {10,80}::10.0, {100,10}::15.0], 2, 2)",
+						equals = "for example, can return [ag1::12.0, ag2::23.0,ag3::12.0,ag4::14.0,ag5::17.0]",
+						isExecutable = false) },
+				see = { "IDW_grid", "IDW_matrix", "kriging" })
+		@test ("map<point, float> mapLocationPoints <- [{0,0}::10.0,{0,10}::-3.0, {100,100}::1000.0];\r\n"
+				+ "		list<point> queryPoint <- [{0,5}];\r\n"
+				+ "		float((IDW(list(geometry(queryPoint)),mapLocationPoints,1, 2)).pairs[0].value) with_precision 1 = 3.5")
+		public static IMap<IShape, Double> primIDW(final IScope scope, final IContainer<?, ? extends IShape> geometries,
+				final IMap points, final int power, final int neighbours) {
+			return primIDW(scope, geometries, points, power, neighbours, Double.POSITIVE_INFINITY);
+		}
+
+		@operator (
+				value = { "IDW", "inverse_distance_weighting" },
+				category = { IOperatorCategory.SPATIAL },
+				concept = { IConcept.GEOMETRY, IConcept.SPATIAL_COMPUTATION, IConcept.STATISTIC })
+		@doc (
+				value = "Inverse Distance Weighting (IDW) restricted to the k nearest known points of each geometry that lie within a given search radius. Geometries that have no known point within this radius are absent from the result. "
+						+ "Usage: IDW (list of geometries, map of points (key: point, value: value), power parameter, number of neighbours, search radius)",
+				examples = { @example (
+						value = "IDW([ag1, ag2, ag3, ag4, ag5],[{10,10}::25.0, {10,80}::10.0, {100,10}::15.0], 2, 2, 50.0)",
+						equals = "for example, can return [ag1::12.0, ag2::23.0,ag4::14.0]",
+						isExecutable = false) },
+				see = { "IDW_grid", "IDW_matrix", "kriging" })
+		@test ("map<point, float> mapLocationPoints <- [{0,0}::10.0,{0,10}::-3.0, {100,100}::1000.0];\r\n"
+				+ "		map<geometry, float> result <- IDW(list(geometry([{0,5}, {50,50}])),mapLocationPoints,1, 2, 20.0);\r\n"
+				+ "		length(result) = 1 and float(result.pairs[0].value) with_precision 1 = 3.5")
+		public static IMap<IShape, Double> primIDW(final IScope scope, final IContainer<?, ? extends IShape> geometries,
+				final IMap points, final int power, final int neighbours, final double radius) {
+			final IMap<IShape, Double> results = GamaMapFactory.create(Types.GEOMETRY, Types.FLOAT);
+			checkNeighbours(scope, neighbours);
+			if (points == null || points.isEmpty()) { return null; }
+			if (geometries == null || geometries.isEmpty(scope)) { return results; }
+			final PointInterpolator interpolator = buildInterpolator(scope, points);
+			final List<IShape> shapes = new ArrayList<>();
+			geometries.iterable(scope).forEach(shapes::add);
+			final int n = shapes.size();
+			final double[] xs = new double[n];
+			final double[] ys = new double[n];
+			final double[] values = new double[n];
+			for (int i = 0; i < n; i++) {
+				final ILocation loc = shapes.get(i).getLocation();
+				xs[i] = loc.getX();
+				ys[i] = loc.getY();
+			}
+			Arrays.fill(values, Double.NaN);
+			interpolator.idw(xs, ys, values, power, neighbours, radius);
+			for (int i = 0; i < n; i++) {
+				if (!Double.isNaN(values[i])) {
+					results.put(shapes.get(i), values[i]);
+				}
+			}
+			return results;
+		}
+
+		@operator (
+				value = "IDW_grid",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.SPATIAL_COMPUTATION, IConcept.STATISTIC })
+		@doc (
+				value = "Inverse Distance Weighting (IDW) of the known points directly into the grid_value of every cell of a grid species, using the k nearest known points of each cell within a search radius. Cells that have no known point within this radius keep their value. Cells are processed in parallel. Returns the grid species. "
+						+ "Usage: IDW_grid (grid species, map of points (key: point, value: value), power parameter, number of neighbours, search radius)",
+				examples = { @example (
+						value = "IDW_grid(cell, [{10,10}::25.0, {10,80}::10.0, {100,10}::15.0], 2, 8, #max_float)",
+						isExecutable = false) },
+				see = { "IDW", "IDW_matrix", "kriging_grid" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies primIDWGrid(final IScope scope, final ISpecies grid, final IMap points, final int power,
+				final int neighbours, final double radius) {
+			final IGrid matrix = gridOf(scope, grid);
+			checkNeighbours(scope, neighbours);
+			if (points == null || points.isEmpty()) { return grid; }
+			final double[] values = matrix.getGridValue();
+			final double[][] locations = locationsOf(matrix, values.length);
+			buildInterpolator(scope, points).idw(locations[0], locations[1], values, power, neighbours, radius);
+			return grid;
+		}
+
+		@operator (
+				value = "IDW_matrix",
+				content_type = IType.FLOAT,
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.MATRIX },
+				concept = { IConcept.MATRIX, IConcept.SPATIAL_COMPUTATION, IConcept.STATISTIC })
+		@doc (
+				value = "Inverse Distance Weighting (IDW) of the known points into a matrix of floats covering the world envelope (cell [0,0] being the top-left corner). The matrix is filled in place and in parallel, using the k nearest known points of each cell within a search radius; cells that have no known point within this radius keep their value. If the matrix is not a matrix of floats, a new one with the same dimensions is created and returned. "
+						+ "Usage: IDW_matrix (matrix, map of points (key: point, value: value), power parameter, number of neighbours, search radius)",
+				examples = { @example (
+						value = "IDW_matrix(matrix<float>({100,100} matrix_with 0.0), [{10,10}::25.0, {10,80}::10.0, {100,10}::15.0], 2, 8, #max_float)",
+						isExecutable = false) },
+				see = { "IDW", "IDW_grid", "kriging_matrix" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static IMatrix<Double> primIDWMatrix(final IScope scope, final IMatrix matrix, final IMap points,
+				final int power, final int neighbours, final double radius) {
+			final GamaFloatMatrix result = asFloatMatrix(scope, matrix);
+			checkNeighbours(scope, neighbours);
+			if (points == null || points.isEmpty()) { return result; }
+			final double[][] locations = locationsOf(scope, result);
+			buildInterpolator(scope, points).idw(locations[0], locations[1], result.getMatrix(), power, neighbours,
+					radius);
+			return result;
+		}
+
+		@operator (
+				value = "kriging",
+				category = { IOperatorCategory.SPATIAL },
+				concept = { IConcept.GEOMETRY, IConcept.SPATIAL_COMPUTATION, IConcept.STATISTIC })
+		@doc (
+				value = "Ordinary kriging of the known points on the locations of the given geometries. Each estimation uses the k nearest known points and a theoretical variogram described by its model ('spherical', 'exponential' or 'gaussian') and a list of parameters [nugget, sill, range]. Geometries are processed in parallel; those for which no estimation can be computed are absent from the result. "
+						+ "Usage: kriging (list of geometries, map of points (key: point, value: value), variogram model, [nugget, sill, range], number of neighbours)",
+				examples = { @example (
+						value = "kriging([ag1, ag2, ag3], [{10,10}::25.0, {10,80}::10.0, {100,10}::15.0], 'spherical', [0.0, 40.0, 80.0], 3)",
+						equals = "for example, can return [ag1::12.0, ag2::23.0,ag3::12.0]",
+						isExecutable = false) },
+				see = { "kriging_grid", "kriging_matrix", "IDW" })
+		@test ("map<point, float> mapLocationPoints <- [{0,0}::10.0, {10,0}::20.0, {5,100}::15.0];\r\n"
+				+ "		map<geometry, float> result <- kriging(list(geometry([{5,0}, {10,0}])), mapLocationPoints, 'spherical', [0.0, 1.0, 50.0], 2);\r\n"
+				+ "		(float(result.pairs[0].value) with_precision 3 = 15.0) and (float(result.pairs[1].value) with_precision 3 = 20.0)")
+		public static IMap<IShape, Double> primKriging(final IScope scope,
+				final IContainer<?, ? extends IShape> geometries, final IMap points, final String model,
+				final IList variogram, final int neighbours) {
+			final IMap<IShape, Double> results = GamaMapFactory.create(Types.GEOMETRY, Types.FLOAT);
+			checkNeighbours(scope, neighbours);
+			if (points == null || points.isEmpty()) { return null; }
+			if (geometries == null || geometries.isEmpty(scope)) { return results; }
+			final Variogram v = variogramOf(scope, model);
+			final double[] params = variogramParametersOf(scope, variogram);
+			final PointInterpolator interpolator = buildInterpolator(scope, points);
+			final List<IShape> shapes = new ArrayList<>();
+			geometries.iterable(scope).forEach(shapes::add);
+			final int n = shapes.size();
+			final double[] xs = new double[n];
+			final double[] ys = new double[n];
+			final double[] values = new double[n];
+			for (int i = 0; i < n; i++) {
+				final ILocation loc = shapes.get(i).getLocation();
+				xs[i] = loc.getX();
+				ys[i] = loc.getY();
+			}
+			Arrays.fill(values, Double.NaN);
+			interpolator.kriging(xs, ys, values, v, params[0], params[1], params[2], neighbours);
+			for (int i = 0; i < n; i++) {
+				if (!Double.isNaN(values[i])) {
+					results.put(shapes.get(i), values[i]);
+				}
+			}
+			return results;
+		}
+
+		@operator (
+				value = "kriging_grid",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.SPATIAL_COMPUTATION, IConcept.STATISTIC })
+		@doc (
+				value = "Ordinary kriging of the known points directly into the grid_value of every cell of a grid species (see kriging). Cells are processed in parallel. Returns the grid species. "
+						+ "Usage: kriging_grid (grid species, map of points (key: point, value: value), variogram model, [nugget, sill, range], number of neighbours)",
+				examples = { @example (
+						value = "kriging_grid(cell, [{10,10}::25.0, {10,80}::10.0, {100,10}::15.0], 'exponential', [0.0, 40.0, 80.0], 3)",
+						isExecutable = false) },
+				see = { "kriging", "kriging_matrix", "IDW_grid" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies primKrigingGrid(final IScope scope, final ISpecies grid, final IMap points,
+				final String model, final IList variogram, final int neighbours) {
+			final IGrid matrix = gridOf(scope, grid);
+			checkNeighbours(scope, neighbours);
+			if (points == null || points.isEmpty()) { return grid; }
+			final Variogram v = variogramOf(scope, model);
+			final double[] params = variogramParametersOf(scope, variogram);
+			final double[] values = matrix.getGridValue();
+			final double[][] locations = locationsOf(matrix, values.length);
+			buildInterpolator(scope, points).kriging(locations[0], locations[1], values, v, params[0], params[1],
+					params[2], neighbours);
+			return grid;
+		}
+
+		@operator (
+				value = "kriging_matrix",
+				content_type = IType.FLOAT,
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.MATRIX },
+				concept = { IConcept.MATRIX, IConcept.SPATIAL_COMPUTATION, IConcept.STATISTIC })
+		@doc (
+				value = "Ordinary kriging of the known points into a matrix of floats covering the world envelope (see kriging and IDW_matrix). The matrix is filled in place and in parallel. "
+						+ "Usage: kriging_matrix (matrix, map of points (key: point, value: value), variogram model, [nugget, sill, range], number of neighbours)",
+				examples = { @example (
+						value = "kriging_matrix(matrix<float>({100,100} matrix_with 0.0), [{10,10}::25.0, {10,80}::10.0, {100,10}::15.0], 'gaussian', [0.0, 40.0, 80.0], 3)",
+						isExecutable = false) },
+				see = { "kriging", "kriging_grid", "IDW_matrix" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static IMatrix<Double> primKrigingMatrix(final IScope scope, final IMatrix matrix, final IMap points,
+				final String model, final IList variogram, final int neighbours) {
+			final GamaFloatMatrix result = asFloatMatrix(scope, matrix);
+			checkNeighbours(scope, neighbours);
+			if (points == null || points.isEmpty()) { return result; }
+			final Variogram v = variogramOf(scope, model);
+			final double[] params = variogramParametersOf(scope, variogram);
+			final double[][] locations = locationsOf(scope, result);
+			buildInterpolator(scope, points).kriging(locations[0], locations[1], result.getMatrix(), v, params[0],
+					params[1], params[2], neighbours);
+			return result;
+		}
+
+		private static PointInterpolator buildInterpolator(final IScope scope, final IMap<?, ?> points) {
+			final int n = points.size();
+			final double[] xs = new double[n];
+			final double[] ys = new double[n];
+			final double[] values = new double[n];
+			int i = 0;
+			for (final Map.Entry<?, ?> entry : points.entrySet()) {
+				final ILocation pt = Cast.asPoint(scope, entry.getKey());
+				xs[i] = pt.getX();
+				ys[i] = pt.getY();
+				values[i++] = Cast.asFloat(scope, entry.getValue());
+			}
+			return new PointInterpolator(xs, ys, values);
+		}
+
+		@operator (
+				value = "neighbors_sum",
+				content_type = IType.FLOAT,
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.NEIGHBORS, IConcept.STATISTIC })
+		@doc (
+				value = "Returns a matrix of floats with the dimensions of the grid species, in which each cell holds the sum of the values of the attribute (cast to float) of its neighbors at most at the radius, using the neighborhood of the grid (Moore or von Neumann). The neighbors are computed without building any list of agents, and in parallel for large grids. Hexagonal grids are not supported. "
+						+ "Usage: neighbors_sum (grid species, name of the attribute, radius)",
+				examples = { @example (
+						value = "neighbors_sum(cell, 'food', 1)",
+						isExecutable = false) },
+				see = { "neighbors_mean", "neighbors_max", "neighbors_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static IMatrix<Double> neighborsSum(final IScope scope, final ISpecies grid, final String attribute,
+				final int radius) {
+			return aggregateNeighbors(scope, grid, attribute, radius, GridStencilNeighborhood.SUM);
+		}
+
+		@operator (
+				value = "neighbors_mean",
+				content_type = IType.FLOAT,
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.NEIGHBORS, IConcept.STATISTIC })
+		@doc (
+				value = "Returns a matrix of floats with the dimensions of the grid species, in which each cell holds the mean of the values of the attribute (cast to float) of its neighbors at most at the radius, using the neighborhood of the grid (Moore or von Neumann). The neighbors are computed without building any list of agents, and in parallel for large grids. Hexagonal grids are not supported. "
+						+ "Usage: neighbors_mean (grid species, name of the attribute, radius)",
+				examples = { @example (
+						value = "neighbors_mean(cell, 'food', 2)",
+						isExecutable = false) },
+				see = { "neighbors_sum", "neighbors_max", "neighbors_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static IMatrix<Double> neighborsMean(final IScope scope, final ISpecies grid, final String attribute,
+				final int radius) {
+			return aggregateNeighbors(scope, grid, attribute, radius, GridStencilNeighborhood.MEAN);
+		}
+
+		@operator (
+				value = "neighbors_max",
+				content_type = IType.FLOAT,
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.NEIGHBORS, IConcept.STATISTIC })
+		@doc (
+				value = "Returns a matrix of floats with the dimensions of the grid species, in which each cell holds the maximum of the values of the attribute (cast to float) of its neighbors at most at the radius, using the neighborhood of the grid (Moore or von Neumann). The neighbors are computed without building any list of agents, and in parallel for large grids. Hexagonal grids are not supported. "
+						+ "Usage: neighbors_max (grid species, name of the attribute, radius)",
+				examples = { @example (
+						value = "neighbors_max(cell, 'food', 1)",
+						isExecutable = false) },
+				see = { "neighbors_sum", "neighbors_mean", "neighbors_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static IMatrix<Double> neighborsMax(final IScope scope, final ISpecies grid, final String attribute,
+				final int radius) {
+			return aggregateNeighbors(scope, grid, attribute, radius, GridStencilNeighborhood.MAX);
+		}
+
+		private static IMatrix<Double> aggregateNeighbors(final IScope scope, final ISpecies grid,
+				final String attribute, final int radius, final int aggregation) {
+			final IGrid matrix = gridOf(scope, grid);
+			return new GamaFloatMatrix(matrix.getCols(scope), matrix.getRows(scope),
+					matrix.aggregateNeighbors(scope, valuesOf(scope, matrix, attribute), radius, aggregation));
+		}
+
+		/**
+		 * Returns the values of the attribute of the cells, indexed like the cells. The array of the field is directly
+		 * returned if the attribute is one of the fields of the grid
+		 */
+		private static double[] valuesOf(final IScope scope, final IGrid matrix, final String attribute) {
+			final GridField field = matrix.getField(attribute);
+			if (field != null) { return field.getValues(); }
+			final double[] values = new double[matrix.getCols(scope) * matrix.getRows(scope)];
+			for (final IAgent cell : matrix.getAgents()) {
+				values[cell.getIndex()] = Cast.asFloat(scope, scope.getAgentVarValue(cell, attribute));
+			}
+			return values;
+		}
+
+		@operator (
+				value = "field_of",
+				content_type = IType.FLOAT,
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.ATTRIBUTE })
+		@doc (
+				value = "Returns a matrix of floats with the dimensions of the grid species, holding the values of the attribute (cast to float) of the cells. "
+						+ "Usage: field_of (grid species, name of the attribute)",
+				examples = { @example (
+						value = "field_of(cell, 'grass')",
+						isExecutable = false) },
+				see = { "field_apply", "field_clamp", "field_neighbors" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static IMatrix<Double> fieldOf(final IScope scope, final ISpecies grid, final String attribute) {
+			final IGrid matrix = gridOf(scope, grid);
+			final double[] values = valuesOf(scope, matrix, attribute);
+			return new GamaFloatMatrix(matrix.getCols(scope), matrix.getRows(scope),
+					matrix.getField(attribute) == null ? values : values.clone());
+		}
+
+		@operator (
+				value = "field_apply",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.ATTRIBUTE })
+		@doc (
+				value = "Updates at once, and in parallel for large grids, the values of a field of the grid species (see the 'fields' facet of grids) by applying an operation ('=', '+', '-', '*', '/', 'min' or 'max') between the value of each cell and an operand, which can be a number, the name of an attribute of the cells or a matrix with the dimensions of the grid. The 'on_change' facet of the variable is not triggered. Returns the grid species. "
+						+ "Usage: field_apply (grid species, name of the field, operation, operand)",
+				examples = { @example (
+						value = "field_apply(cell, 'grass', '+', 'growth')",
+						isExecutable = false) },
+				see = { "field_clamp", "field_neighbors", "field_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies fieldApply(final IScope scope, final ISpecies grid, final String field,
+				final String operation, final Object operand) {
+			return fieldApply(scope, grid, field, operation, operand, null);
+		}
+
+		@operator (
+				value = "field_apply",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.ATTRIBUTE })
+		@doc (
+				value = "Same as 'field_apply', but only for the cells whose value of the mask (the name of an attribute of the cells) is not 0. Returns the grid species. "
+						+ "Usage: field_apply (grid species, name of the field, operation, operand, name of the mask)",
+				examples = { @example (
+						value = "field_apply(cell, 'grass', '*', 0.5, 'grazed')",
+						isExecutable = false) },
+				see = { "field_clamp", "field_neighbors", "field_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies fieldApply(final IScope scope, final ISpecies grid, final String field,
+				final String operation, final Object operand, final String mask) {
+			final IGrid matrix = gridOf(scope, grid);
+			final GridField target = gridFieldOf(scope, matrix, field);
+			final double[] values = operandOf(scope, matrix, operand);
+			target.apply(scope, operation, values == null ? Cast.asFloat(scope, operand) : 0d, values,
+					mask == null ? null : valuesOf(scope, matrix, mask));
+			updateIndex(scope, grid, matrix, target);
+			return grid;
+		}
+
+		@operator (
+				value = "field_clamp",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.ATTRIBUTE })
+		@doc (
+				value = "Constrains at once, and in parallel for large grids, the values of a field of the grid species (see the 'fields' facet of grids) between a minimum and a maximum. The 'on_change' facet of the variable is not triggered. Returns the grid species. "
+						+ "Usage: field_clamp (grid species, name of the field, minimum, maximum)",
+				examples = { @example (
+						value = "field_clamp(cell, 'grass', 0.0, max_grass)",
+						isExecutable = false) },
+				see = { "field_apply", "field_neighbors", "field_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies fieldClamp(final IScope scope, final ISpecies grid, final String field,
+				final double min, final double max) {
+			final IGrid matrix = gridOf(scope, grid);
+			final GridField target = gridFieldOf(scope, matrix, field);
+			target.clamp(scope, min, max, null);
+			updateIndex(scope, grid, matrix, target);
+			return grid;
+		}
+
+		@operator (
+				value = "field_neighbors",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.NEIGHBORS, IConcept.ATTRIBUTE })
+		@doc (
+				value = "Assigns at once, and in parallel for large grids, to a field of the grid species (see the 'fields' facet of grids) the sum, mean or maximum ('sum', 'mean' or 'max') of the values of an attribute of the neighbors of each cell at most at the radius, like 'neighbors_sum', 'neighbors_mean' and 'neighbors_max' do. The 'on_change' facet of the variable is not triggered. Returns the grid species. "
+						+ "Usage: field_neighbors (grid species, name of the field, name of the attribute, aggregation, radius)",
+				examples = { @example (
+						value = "field_neighbors(cell, 'around', 'grass', 'mean', 1)",
+						isExecutable = false) },
+				see = { "field_apply", "field_clamp", "neighbors_mean" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies fieldNeighbors(final IScope scope, final ISpecies grid, final String field,
+				final String attribute, final String aggregation, final int radius) {
+			final IGrid matrix = gridOf(scope, grid);
+			final GridField target = gridFieldOf(scope, matrix, field);
+			final int agg = "sum".equals(aggregation) ? GridStencilNeighborhood.SUM
+					: "mean".equals(aggregation) ? GridStencilNeighborhood.MEAN
+					: "max".equals(aggregation) ? GridStencilNeighborhood.MAX : -1;
+			if (agg < 0) {
+				throw GamaRuntimeException.error(
+						"Unknown aggregation: " + aggregation + ". Use 'sum', 'mean' or 'max'", scope);
+			}
+			target.apply(scope, GridField.ASSIGN, 0d,
+					matrix.aggregateNeighbors(scope, valuesOf(scope, matrix, attribute), radius, agg), null);
+			updateIndex(scope, grid, matrix, target);
+			return grid;
+		}
+
+		@operator (
+				value = "field_from",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.ASC, IConcept.TIF, IConcept.FILE })
+		@doc (
+				value = "Reads the part of a grid file (.asc or .tif) covered by the grid species, and assigns to the attribute of each cell the mean of the values of the pixels of the file inside it (or the value of the pixel containing its center if the pixels are larger than the cells). Only this part of the file is read, and no geometry is built, which allows to use files too large to be loaded as grids. The values are directly stored in the field if the attribute is one of the fields of the grid (see the 'fields' facet of grids). Returns the grid species. "
+						+ "Usage: field_from (grid species, grid file, name of the attribute)",
+				examples = { @example (
+						value = "field_from(cell, grid_file('dem.tif'), 'altitude')",
+						isExecutable = false) },
+				see = { "field_apply", "field_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies fieldFrom(final IScope scope, final ISpecies grid, final GamaGridFile file,
+				final String attribute) {
+			return fieldFrom(scope, grid, file, attribute, "mean");
+		}
+
+		@operator (
+				value = "field_from",
+				category = { IOperatorCategory.SPATIAL, IOperatorCategory.GRID },
+				concept = { IConcept.GRID, IConcept.ASC, IConcept.TIF, IConcept.FILE })
+		@doc (
+				value = "Same as 'field_from', but aggregating the values of the pixels inside each cell with the aggregation ('mean', 'sum', 'min' or 'max'). Returns the grid species. "
+						+ "Usage: field_from (grid species, grid file, name of the attribute, aggregation)",
+				examples = { @example (
+						value = "field_from(cell, grid_file('population.tif'), 'inhabitants', 'sum')",
+						isExecutable = false) },
+				see = { "field_apply", "field_of" })
+		@no_test (Reason.ALREADY_TESTED)
+		public static ISpecies fieldFrom(final IScope scope, final ISpecies grid, final GamaGridFile file,
+				final String attribute, final String aggregation) {
+			final IGrid matrix = gridOf(scope, grid);
+			if (file == null) { throw GamaRuntimeException.error("A grid file is expected", scope); }
+			if (matrix.isHexagon()) {
+				throw GamaRuntimeException.error("Hexagonal grids cannot be read from a grid file by 'field_from'",
+						scope);
+			}
+			final int cols = matrix.getCols(scope);
+			final int rows = matrix.getRows(scope);
+			final double[] values = file.readWindow(scope,
+					Envelope3D.of(matrix.getEnvironmentFrame().getEnvelope()), cols, rows, aggregation);
+			final GridField field = matrix.getField(attribute);
+			if (field != null) {
+				field.apply(scope, GridField.ASSIGN, 0d, values, null);
+				updateIndex(scope, grid, matrix, field);
+			} else if (IKeyword.GRID_VALUE.equals(attribute) && matrix.getGridValue() != null) {
+				java.lang.System.arraycopy(values, 0, matrix.getGridValue(), 0, values.length);
+			} else {
+				for (final IAgent cell : matrix.getAgents()) {
+					scope.setAgentVarValue(cell, attribute, values[cell.getIndex()]);
+				}
+			}
+			return grid;
+		}
+
+		private static GridField gridFieldOf(final IScope scope, final IGrid matrix, final String name) {
+			final GridField field = matrix.getField(name);
+			if (field == null) {
+				throw GamaRuntimeException.error(name + " is not one of the fields of the grid "
+						+ matrix.getCellSpecies().getName() + " (see the 'fields' facet of grids)", scope);
+			}
+			return field;
+		}
+
+		/**
+		 * Returns the values of the operand, indexed like the cells, or null if it is a number
+		 */
+		private static double[] operandOf(final IScope scope, final IGrid matrix, final Object operand) {
+			if (operand instanceof String) { return valuesOf(scope, matrix, (String) operand); }
+			if (operand instanceof IMatrix) {
+				final GamaFloatMatrix m = GamaFloatMatrix.from(scope, (IMatrix) operand);
+				if (m.getCols(scope) != matrix.getCols(scope) || m.getRows(scope) != matrix.getRows(scope)) {
+					throw GamaRuntimeException.error("The matrix should have the dimensions of the grid ("
+							+ matrix.getCols(scope) + "x" + matrix.getRows(scope) + ")", scope);
+				}
+				return m.getMatrix();
+			}
+			return null;
+		}
+
+		/**
+		 * Keeps the index of the attribute, if the population has one, consistent with the new values of the field
+		 */
+		private static void updateIndex(final IScope scope, final ISpecies grid, final IGrid matrix,
+				final GridField field) {
+			final IPopulation<? extends IAgent> pop = grid.getPopulation(scope);
+			if (!(pop instanceof GamaPopulation)) { return; }
+			final PopulationIndex index = ((GamaPopulation<?>) pop).getIndex(field.getName());
+			if (index == null) { return; }
+			for (final IAgent cell : matrix.getAgents()) {
+				index.update(cell, field.get(cell.getIndex()));
+			}
+		}
+
+		private static IGrid gridOf(final IScope scope, final ISpecies grid) {
+			if (grid == null || !grid.isGrid()) {
+				throw GamaRuntimeException.error("A grid species is expected", scope);
+			}
+			return (IGrid) grid.getPopulation(scope).getTopology().getPlaces();
+		}
+
+		private static double[][] locationsOf(final IGrid grid, final int size) {
+			final double[][] result = new double[2][size];
+			for (final IAgent cell : grid.getAgents()) {
+				final ILocation loc = cell.getLocation();
+				result[0][cell.getIndex()] = loc.getX();
+				result[1][cell.getIndex()] = loc.getY();
+			}
+			return result;
+		}
+
+		private static double[][] locationsOf(final IScope scope, final GamaFloatMatrix matrix) {
+			final Envelope3D env = scope.getSimulation().getEnvelope();
+			final int cols = matrix.getCols(scope);
+			final int rows = matrix.getRows(scope);
+			final double w = env.getWidth() / cols;
+			final double h = env.getHeight() / rows;
+			final double[][] result = new double[2][cols * rows];
+			for (int r = 0; r < rows; r++) {
+				for (int c = 0; c < cols; c++) {
+					result[0][r * cols + c] = env.getMinX() + (c + 0.5) * w;
+					result[1][r * cols + c] = env.getMinY() + (r + 0.5) * h;
+				}
+			}
+			return result;
+		}
+
+		private static GamaFloatMatrix asFloatMatrix(final IScope scope, final IMatrix matrix) {
+			if (matrix instanceof GamaFloatMatrix) { return (GamaFloatMatrix) matrix; }
+			if (matrix == null) { throw GamaRuntimeException.error("A matrix is expected", scope); }
+			return new GamaFloatMatrix(matrix.getCols(scope), matrix.getRows(scope));
+		}
+
+		private static void checkNeighbours(final IScope scope, final int neighbours) {
+			if (neighbours < 1) {
+				throw GamaRuntimeException.error("The number of neighbours should be strictly positive", scope);
+			}
+		}
+
+		private static Variogram variogramOf(final IScope scope, final String model) {
+			final Variogram v = Variogram.named(model);
+			if (v == null) {
+				throw GamaRuntimeException.error(
+						"Unknown variogram model: " + model + ". Use 'spherical', 'exponential' or 'gaussian'", scope);
+			}
+			return v;
+		}
+
+		private static double[] variogramParametersOf(final IScope scope, final IList variogram) {
+			if (variogram == null || variogram.size() != 3) {
+				throw GamaRuntimeException.error("The variogram should be described by a list [nugget, sill, range]",
+						scope);
+			}
+			final double[] result = new double[3];
+			for (int i = 0; i < 3; i++) {
+				result[i] = Cast.asFloat(scope, variogram.get(i));
+			}
+			if (result[2] <= 0) {
+				throw GamaRuntimeException.error("The range of the variogram should be strictly positive", scope);
+			}
+			return result;
+		}
+
 		@operator (
 				value = "moran",
 				category = { IOperatorCategory.SPATIAL, IOperatorCategory.STATISTICAL },
@@ -30,6 +30,7 @@ import msi.gama.common.interfaces.IKeyword;
 import msi.gama.common.preferences.GamaPreferences;
 import msi.gama.metamodel.shape.GamaPoint;
 import msi.gama.metamodel.shape.ILocation;
+import msi.gama.outputs.layers.charts.ChartValues;
 import msi.gama.precompiler.GamlAnnotations.doc;
 import msi.gama.precompiler.GamlAnnotations.example;
 import msi.gama.precompiler.GamlAnnotations.no_test;
@@ -45,6 +46,7 @@ import msi.gama.util.Collector;
 import msi.gama.util.GamaColor;
 import msi.gama.util.GamaListFactory;
 import msi.gama.util.GamaMapFactory;
+import msi.gama.util.GamaPrimitiveList;
 import msi.gama.util.GamaRegression;
 import msi.gama.util.IContainer;
 import msi.gama.util.IList;
@@ -524,6 +526,8 @@ public class Stats {
 							+ "transformed into float") },
 			see = { "min" })
 	public static Object max(final IScope scope, final IContainer l) {
+		final Number extremum = primitiveExtremum(l, true);
+		if (extremum != null) { return extremum; }
 		Number maxNum = null;
 		ILocation maxPoint = null;
 		for (final Object o : l.iterable(scope)) {
@@ -586,6 +590,8 @@ public class Stats {
 									+ " transformed into float") },
 			see = { "max" })
 	public static Object min(final IScope scope, final IContainer l) {
+		final Number extremum = primitiveExtremum(l, false);
+		if (extremum != null) { return extremum; }
 		Number minNum = null;
 		ILocation minPoint = null;
 		for (final Object o : l.iterable(scope)) {
@@ -606,6 +612,20 @@ public class Stats {
 		return minNum == null ? minPoint : minNum;
 	}
 
+	/**
+	 * The maximum or minimum of a list of int or float, computed without boxing its elements, or null if the container
+	 * is not such a list (or is empty or contains other values, like nil)
+	 */
+	private static Number primitiveExtremum(final IContainer l, final boolean max) {
+		if (!(l instanceof GamaPrimitiveList) || ((GamaPrimitiveList) l).isEmpty()
+				|| !((GamaPrimitiveList) l).isPrimitive()) {
+			return null;
+		}
+		if (l instanceof GamaPrimitiveList.Floats) { return ((GamaPrimitiveList.Floats) l).extremum(max); }
+		if (l instanceof GamaPrimitiveList.Ints) { return ((GamaPrimitiveList.Ints) l).extremum(max); }
+		return null;
+	}
+
 	@SuppressWarnings ("null")
 	@operator (
 			value = { "mul", "product" },
@@ -1331,4 +1351,50 @@ public class Stats {
 		return G;
 	}
 
+	@operator (
+			value = "downsample",
+			content_type = IType.POINT,
+			category = { IOperatorCategory.STATISTICAL },
+			concept = { IConcept.STATISTIC, IConcept.CHART })
+	@doc (
+			value = "Returns at most max_points of the points of a series (whose abscissas are increasing), chosen to preserve its visual shape with the Largest-Triangle-Three-Buckets algorithm, as series charts do for long series: the first and last points are always kept. Returns all the points if there are less than max_points, or if max_points is not positive",
+			examples = { @example (
+					value = "downsample([{0,0},{1,0},{2,5},{3,0},{4,0}], 3)",
+					equals = "[{0,0},{2,5},{4,0}]") },
+			see = { "last" })
+	@test ("downsample([{0,0},{1,1},{2,4}], 5) = [{0,0},{1,1},{2,4}]")
+	public static IList<GamaPoint> downsample(final IScope scope, final IList series, final int maxPoints) {
+		return downsample(scope, series, maxPoints, 0);
+	}
+
+	@operator (
+			value = "downsample",
+			content_type = IType.POINT,
+			category = { IOperatorCategory.STATISTICAL },
+			concept = { IConcept.STATISTIC, IConcept.CHART })
+	@doc (
+			value = "Same as downsample(series, max_points), but only the last history points of the series are considered (all of them if history is not positive), as in charts whose history is bounded (see the preference pref_chart_history_length)",
+			examples = { @example (
+					value = "downsample([{0,0},{1,1},{2,4},{3,9}], 10, 2)",
+					equals = "[{2,4},{3,9}]") })
+	public static IList<GamaPoint> downsample(final IScope scope, final IList series, final int maxPoints,
+			final int history) {
+		// The points go through the same bounded buffers as the values of the chart series
+		final ChartValues x = new ChartValues(history);
+		final ChartValues y = new ChartValues(history);
+		for (final Object o : series.iterable(scope)) {
+			final ILocation p = Cast.asPoint(scope, o);
+			x.add(p.getX());
+			y.add(p.getY());
+		}
+		final int[] kept = ChartValues.downsample(x, y, maxPoints);
+		final int n = kept == null ? x.size() : kept.length;
+		final IList<GamaPoint> result = GamaListFactory.create(Types.POINT, n);
+		for (int i = 0; i < n; i++) {
+			final int k = kept == null ? i : kept[i];
+			result.add(new GamaPoint(x.getDouble(k), y.getDouble(k)));
+		}
+		return result;
+	}
+
 }
@@ -34,6 +34,7 @@ import msi.gama.metamodel.topology.ITopology;
 import msi.gama.metamodel.topology.filter.IAgentFilter;
 import msi.gama.metamodel.topology.filter.In;
 import msi.gama.metamodel.topology.graph.GamaSpatialGraph;
+import msi.gama.metamodel.topology.graph.GraphRoutes;
 import msi.gama.metamodel.topology.graph.GraphTopology;
 import msi.gama.metamodel.topology.grid.GamaSpatialMatrix;
 import msi.gama.metamodel.topology.grid.GridTopology;
@@ -105,6 +106,12 @@ import msi.gaml.types.Types;
 				type = IType.GEOMETRY,
 				init = "nil",
 				doc = @doc ("Represents the agent/geometry on which the agent is located (only used with a graph)")),
+		@variable (
+				name = GraphRoutes.CURRENT_ROUTE,
+				type = IType.LIST,
+				of = IType.GEOMETRY,
+				init = "nil",
+				doc = @doc ("Represents the edges of the route computed by compute_route that remain to be traversed, starting with the current one, or nil if the agent has no route. Setting it to nil forgets the route")),
 		@variable (
 				name = IKeyword.REAL_SPEED,
 				type = IType.FLOAT,
@@ -213,6 +220,23 @@ public class MovingSkill extends Skill {
 		return (IPath) agent.getAttribute("current_path");
 	}
 
+	@getter (GraphRoutes.CURRENT_ROUTE)
+	public IList<IShape> getCurrentRoute(final IAgent agent) {
+		if (agent == null) { return null; }
+		final Object route = agent.getAttribute(GraphRoutes.ROUTE);
+		return route instanceof GraphRoutes.Route ? ((GraphRoutes.Route) route).getRemainingEdges() : null;
+	}
+
+	@setter (GraphRoutes.CURRENT_ROUTE)
+	public void setCurrentRoute(final IAgent agent, final IList<IShape> route) {
+		if (agent == null) { return; }
+		if (route != null && !route.isEmpty()) {
+			throw GamaRuntimeException.error("current_route can only be set to nil. Use compute_route to compute a route",
+					agent.getScope());
+		}
+		agent.setAttribute(GraphRoutes.ROUTE, null);
+	}
+
 	@setter ("current_edge")
 	public void setCurrentEdge(final IAgent agent, final IShape g) {
 		// READ_ONLY
@@ -652,6 +676,40 @@ public class MovingSkill extends Skill {
 		return null;
 	}
 
+	@action (
+			name = "compute_route",
+			args = { @arg (
+					name = "target",
+					type = IType.GEOMETRY,
+					optional = false,
+					doc = @doc ("the location or entity towards which to move.")),
+					@arg (
+							name = "on",
+							type = IType.GRAPH,
+							optional = false,
+							doc = @doc ("the spatial graph on which to move")) },
+			doc = @doc (
+					value = "computes once the shortest route of the agent towards the target on the graph, and stores it in a compact form (see the variable current_route). The agents that have a route are then moved all together, at each call of the operator advance_on_routes, which is much faster than calling goto for each of them when they are numerous.",
+					returns = "true if a route has been found, false otherwise",
+					examples = { @example ("do compute_route target: (one_of building).location on: road_network;") },
+					see = { "advance_on_routes", "goto" }))
+	public Boolean primComputeRoute(final IScope scope) throws GamaRuntimeException {
+		final IAgent agent = getCurrentAgent(scope);
+		final IShape target = computeTarget(scope, agent);
+		final Object graph = scope.getArg("on", IType.GRAPH);
+		if (!(graph instanceof GamaSpatialGraph)) {
+			throw GamaRuntimeException.error("compute_route can only be used on spatial graphs", scope);
+		}
+		final GraphRoutes.Route route =
+				target == null ? null : ((GamaSpatialGraph) graph).getRoutes().routeOf(scope, agent, target);
+		agent.setAttribute(GraphRoutes.ROUTE, route);
+		if (route == null) {
+			notMoving(agent);
+			return false;
+		}
+		return true;
+	}
+
 	private void notMoving(final IAgent agent) {
 		setRealSpeed(agent, 0.0);
 		agent.setAttribute("current_edge", null);
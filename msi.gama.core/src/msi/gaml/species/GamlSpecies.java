@@ -37,6 +37,7 @@ import msi.gaml.descriptions.IDescription;
 import msi.gaml.descriptions.SpeciesDescription;
 import msi.gaml.descriptions.VariableDescription;
 import msi.gaml.expressions.IExpression;
+import msi.gaml.expressions.ListExpression;
 import msi.gaml.species.GamlSpecies.SpeciesValidator;
 import msi.gaml.types.IContainerType;
 import msi.gaml.types.IType;
@@ -124,6 +125,14 @@ import one.util.streamex.StreamEx;
 						optional = true,
 						doc = { @doc (
 								value = "(grid only),(true by default). Allows to turn on or off the use of the neighbors cache used for grids. Note that if a diffusion of variable occurs, GAMA will emit a warning and automatically switch to a caching version") }),
+				@facet (
+						name = "fields",
+						type = IType.LIST,
+						of = IType.STRING,
+						optional = true,
+						doc = { @doc (
+								value = "(grid only), the names of int or float variables of the grid whose values are stored in arrays shared by all the cells instead of in each cell. The cells use these variables as usual, but the whole fields can also be updated at once, and in parallel, by the operators 'field_apply', 'field_clamp' and 'field_neighbors'",
+								see = { "field_apply", "field_clamp", "field_neighbors", "field_of" }) }),
 				@facet (
 						name = IKeyword.FILE,
 						type = IType.FILE,
@@ -323,6 +332,7 @@ public class GamlSpecies extends AbstractSpecies {
 							IGamlIssue.WRONG_CONTEXT, TORUS);
 				}
 			}
+			validateFields(sd);
 			final String name = desc.getName();
 			if (AbstractGamlAdditions.isUnaryOperator(name)) {
 				desc.error("The name '" + name + "' cannot be used for naming this " + desc.getKeyword()
@@ -331,6 +341,38 @@ public class GamlSpecies extends AbstractSpecies {
 			}
 
 		}
+
+		/**
+		 * Verifies that the 'fields' facet of grids only names int or float attributes declared in the model (the
+		 * names that are not constant can only be verified when the grid is created)
+		 */
+		private void validateFields(final SpeciesDescription sd) {
+			final IExpression fields = sd.getFacetExpr("fields");
+			if (fields == null) { return; }
+			if (!sd.getKeyword().equals(IKeyword.GRID)) {
+				sd.error("The 'fields' facet can only be defined in 'grids' definition", IGamlIssue.WRONG_CONTEXT,
+						"fields");
+				return;
+			}
+			if (!(fields instanceof ListExpression)) { return; }
+			for (final IExpression element : ((ListExpression) fields).getElements()) {
+				if (element == null || !element.isConst()) {
+					continue;
+				}
+				final String name = String.valueOf(element.getConstValue());
+				final VariableDescription vd = sd.getAttribute(name);
+				if (vd == null) {
+					sd.error("The grid " + sd.getName() + " has no attribute named " + name, IGamlIssue.UNKNOWN_VAR,
+							"fields");
+					continue;
+				}
+				final int type = vd.getGamlType().id();
+				if (type != IType.INT && type != IType.FLOAT || vd.isBuiltIn() || vd.hasFacet(FUNCTION)) {
+					sd.error("Only the int and float attributes declared in the model can be stored as fields, which is not the case of "
+							+ name, IGamlIssue.WRONG_TYPE, "fields");
+				}
+			}
+		}
 	}
 
 	private final IExpression concurrency;
@@ -20,6 +20,7 @@ import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -97,6 +98,7 @@ import msi.gama.util.GamaListFactory;
 import msi.gama.util.GamaMapFactory;
 import msi.gama.util.IList;
 import msi.gama.util.IModifiableContainer;
+import msi.gama.util.file.BufferedFileWriters;
 import msi.gama.util.file.IGamaFile;
 import msi.gama.util.graph.IGraph;
 import msi.gaml.compilation.IDescriptionValidator;
@@ -194,6 +196,10 @@ import msi.gaml.types.Types;
 						value = "To save the values of all attributes of all the agents of a species into a csv (with optional attributes):",
 						examples = { @example (
 								value = "save species_of(self) to: \"save_csvfile.csv\" type: \"csv\" header: false;") }),
+				@usage (
+						value = "The text, csv and asc files whose name ends with .gz are compressed. If this optimization is enabled in the preferences, text and csv files are kept open during the simulation and written in the background: they are complete at the end of each cycle, and before being read:",
+						examples = { @example (
+								value = "save [name, location, host] to: \"save_data.csv.gz\" type: \"csv\";") }),
 				@usage (
 						value = "To save the geometries of all the agents of a species into a shapefile (with optional attributes):",
 						examples = { @example (
@@ -370,6 +376,15 @@ public class SaveStatement extends AbstractStatementSequence implements IStateme
 				case "text":
 				case "csv":
 					final boolean rewrite = shouldOverwrite(scope);
+					final BufferedFileWriters writers = BufferedFileWriters.getInstance(scope);
+					if (writers != null) {
+						final boolean isEmpty = writers.open(fileToSave, rewrite);
+						final StringBuilder sb = new StringBuilder();
+						writeText(type, sb, isEmpty && (header == null || Cast.asBool(scope, header.value(scope))),
+								scope);
+						writers.append(fileToSave, sb);
+						break;
+					}
 					if (rewrite) {
 						if (exists) {
 							fileToSave.delete();
@@ -429,44 +444,50 @@ public class SaveStatement extends AbstractStatementSequence implements IStateme
 	}
 
 	public void saveAsc(final ISpecies species, final File f, final IScope scope) {
+		final StringBuilder sb = new StringBuilder();
+		final GridPopulation gp = (GridPopulation) species.getPopulation(scope);
+		final int nbCols = gp.getNbCols();
+		final int nbRows = gp.getNbRows();
+		sb.append("ncols         ").append(nbCols).append(Strings.LN);
+		sb.append("nrows         ").append(nbRows).append(Strings.LN);
+		final boolean nullProjection = scope.getSimulation().getProjectionFactory().getWorld() == null;
+		sb.append("xllcorner     ")
+				.append(nullProjection ? "0"
+						: scope.getSimulation().getProjectionFactory().getWorld().getProjectedEnvelope().getMinX())
+				.append(Strings.LN);
+		sb.append("yllcorner     ")
+				.append(nullProjection ? "0"
+						: scope.getSimulation().getProjectionFactory().getWorld().getProjectedEnvelope().getMinY())
+				.append(Strings.LN);
+		final double dx = scope.getSimulation().getEnvelope().getWidth() / nbCols;
+		final double dy = scope.getSimulation().getEnvelope().getHeight() / nbRows;
+		if (Comparison.equal(dx, dy)) {
+			sb.append("cellsize      ").append(dx).append(Strings.LN);
+		} else {
+			sb.append("dx            ").append(dx).append(Strings.LN);
+			sb.append("dy            ").append(dy).append(Strings.LN);
+		}
+		for (int i = 0; i < nbRows; i++) {
+			for (int j = 0; j < nbCols; j++) {
+				sb.append(gp.getGridValue(j, i)).append(' ');
+			}
+			sb.append(Strings.LN);
+		}
+		// The values are read now, but the file can be written later, in the background
+		final BufferedFileWriters writers = BufferedFileWriters.getInstance(scope);
+		if (writers != null) {
+			writers.open(f, true);
+			writers.append(f, sb);
+			return;
+		}
 		if (f.exists()) {
 			f.delete();
 		}
-		try (FileWriter fw = new FileWriter(f)) {
-			String header = "";
-			final GridPopulation gp = (GridPopulation) species.getPopulation(scope);
-			final int nbCols = gp.getNbCols();
-			final int nbRows = gp.getNbRows();
-			header += "ncols         " + nbCols + Strings.LN;
-			header += "nrows         " + nbRows + Strings.LN;
-			final boolean nullProjection = scope.getSimulation().getProjectionFactory().getWorld() == null;
-			header += "xllcorner     "
-					+ (nullProjection ? "0"
-							: scope.getSimulation().getProjectionFactory().getWorld().getProjectedEnvelope().getMinX())
-					+ Strings.LN;
-			header += "yllcorner     "
-					+ (nullProjection ? "0"
-							: scope.getSimulation().getProjectionFactory().getWorld().getProjectedEnvelope().getMinY())
-					+ Strings.LN;
-			final double dx = scope.getSimulation().getEnvelope().getWidth() / nbCols;
-			final double dy = scope.getSimulation().getEnvelope().getHeight() / nbRows;
-			if (Comparison.equal(dx, dy)) {
-				header += "cellsize      " + dx + Strings.LN;
-			} else {
-				header += "dx            " + dx + Strings.LN;
-				header += "dy            " + dy + Strings.LN;
-			}
-			fw.write(header);
-
-			for (int i = 0; i < nbRows; i++) {
-				String val = "";
-				for (int j = 0; j < nbCols; j++) {
-					val += gp.getGridValue(j, i) + " ";
-				}
-				fw.write(val + Strings.LN);
-			}
-			// fw.close();
-		} catch (final IOException e) {}
+		try (Writer fw = BufferedFileWriters.newWriter(f, false)) {
+			fw.append(sb);
+		} catch (final IOException e) {
+			throw GamaRuntimeFileException.create(e, scope);
+		}
 
 	}
 
@@ -734,9 +755,24 @@ public class SaveStatement extends AbstractStatementSequence implements IStateme
 
 	public void saveText(final String type, final File fileTxt, final boolean header, final IScope scope)
 			throws GamaRuntimeException {
-		try (FileWriter fw = new FileWriter(fileTxt, true)) {
+		try (Writer fw = BufferedFileWriters.newWriter(fileTxt, true)) {
+			writeText(type, fw, header, scope);
+		} catch (final IOException io) {
+			// Could catch the exception when multiple threads try to access the file
+			// See Issue #2796. But it'd be a bad idea.
+			// DEBUG.OUT("Ignoring IOException");
+			throw GamaRuntimeFileException.create(io, scope);
+		}
+	}
+
+	/**
+	 * Writes the text or csv representation of the data to fw (a file or a buffer)
+	 */
+	private void writeText(final String type, final Appendable fw, final boolean header, final IScope scope)
+			throws GamaRuntimeException {
+		try {
 			if (type.equals("text")) {
-				fw.write(Cast.asString(scope, item.value(scope)) + Strings.LN);
+				fw.append(Cast.asString(scope, item.value(scope)) + Strings.LN);
 			} else if (type.equals("csv")) {
 				final IType itemType = item.getGamlType();
 				final SpeciesDescription sd;
@@ -755,16 +791,16 @@ public class SaveStatement extends AbstractStatementSequence implements IStateme
 					final Collection<String> attributeNames = sd.getAttributeNames();
 					attributeNames.removeAll(NON_SAVEABLE_ATTRIBUTE_NAMES);
 					if (header) {
-						fw.write("cycle;name;location.x;location.y;location.z");
+						fw.append("cycle;name;location.x;location.y;location.z");
 						for (final String v : attributeNames) {
-							fw.write(";" + v);
+							fw.append(";" + v);
 						}
-						fw.write(Strings.LN);
+						fw.append(Strings.LN);
 					}
 					for (final Object obj : values) {
 						if (obj instanceof IAgent) {
 							final IAgent ag = Cast.asAgent(scope, obj);
-							fw.write(scope.getClock().getCycle() + ";" + ag.getName().replace(';', ',') + ";"
+							fw.append(scope.getClock().getCycle() + ";" + ag.getName().replace(';', ',') + ";"
 									+ ag.getLocation().getX() + ";" + ag.getLocation().getY() + ";"
 									+ ag.getLocation().getZ());
 							for (final String v : attributeNames) {
@@ -773,35 +809,35 @@ public class SaveStatement extends AbstractStatementSequence implements IStateme
 										|| val.startsWith("\"") && val.endsWith("\"")) {
 									val = val.substring(1, val.length() - 1);
 								}
-								fw.write(";" + val);
+								fw.append(";" + val);
 							}
-							fw.write(Strings.LN);
+							fw.append(Strings.LN);
 						}
 
 					}
 				} else {
 					if (header) {
-						fw.write(item.serialize(true).replace("]", "").replace("[", ""));
-						fw.write(Strings.LN);
+						fw.append(item.serialize(true).replace("]", "").replace("[", ""));
+						fw.append(Strings.LN);
 					}
 					if (itemType.id() == IType.MATRIX) {
 						final String[] tmpValue = value.toString().replace("[", "").replace("]", "").split(",");
 						for (int i = 0; i < tmpValue.length; i++) {
 							if (i > 0) {
-								fw.write(',');
+								fw.append(',');
 							}
-							fw.write(toCleanString(tmpValue[i]));
+							fw.append(toCleanString(tmpValue[i]));
 						}
-						fw.write(Strings.LN);
+						fw.append(Strings.LN);
 					} else {
 						final int size = values.size();
 						for (int i = 0; i < size; i++) {
 							if (i > 0) {
-								fw.write(',');
+								fw.append(',');
 							}
-							fw.write(toCleanString(values.get(i)));
+							fw.append(toCleanString(values.get(i)));
 						}
-						fw.write(Strings.LN);
+						fw.append(Strings.LN);
 					}
 				}
 
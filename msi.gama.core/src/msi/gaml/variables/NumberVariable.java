@@ -12,6 +12,7 @@ package msi.gaml.variables;
 
 import msi.gama.common.interfaces.IKeyword;
 import msi.gama.metamodel.agent.IAgent;
+import msi.gama.metamodel.population.PopulationIndex;
 import msi.gama.precompiler.GamlAnnotations.doc;
 import msi.gama.precompiler.GamlAnnotations.facet;
 import msi.gama.precompiler.GamlAnnotations.facets;
@@ -102,7 +103,13 @@ import msi.gaml.types.IType;
 						name = IKeyword.AMONG,
 						type = IType.LIST,
 						optional = true,
-						doc = @doc ("A list of constant values among which the attribute can take its value")) },
+						doc = @doc ("A list of constant values among which the attribute can take its value")),
+				@facet (
+						name = IKeyword.INDEXED,
+						type = IType.ID,
+						optional = true,
+						values = { PopulationIndex.HASH, PopulationIndex.SORTED },
+						doc = @doc ("Maintains an index of the agents of the species by the value of this attribute, used by 'where', 'count' and 'first_with' when their filter compares it to a value that does not depend on 'each'. A 'hash' index accelerates equality tests, a 'sorted' one accelerates comparisons (<, <=, >, >=) as well")) },
 		omissible = IKeyword.NAME)
 @symbol (
 		kind = ISymbolKind.Variable.NUMBER,
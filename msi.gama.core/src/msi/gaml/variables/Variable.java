@@ -19,6 +19,8 @@ import msi.gama.common.interfaces.IGamlIssue;
 import msi.gama.common.interfaces.IKeyword;
 import msi.gama.common.interfaces.ISkill;
 import msi.gama.metamodel.agent.IAgent;
+import msi.gama.metamodel.population.GamaPopulation;
+import msi.gama.metamodel.population.PopulationIndex;
 import msi.gama.precompiler.GamlAnnotations.doc;
 import msi.gama.precompiler.GamlAnnotations.facet;
 import msi.gama.precompiler.GamlAnnotations.facets;
@@ -129,7 +131,13 @@ import msi.gaml.types.Types;
 						name = IKeyword.AMONG,
 						type = IType.LIST,
 						optional = true,
-						doc = @doc ("A list of constant values among which the attribute can take its value")) },
+						doc = @doc ("A list of constant values among which the attribute can take its value")),
+				@facet (
+						name = IKeyword.INDEXED,
+						type = IType.ID,
+						optional = true,
+						values = { PopulationIndex.HASH, PopulationIndex.SORTED },
+						doc = @doc ("Maintains an index of the agents of the species by the value of this attribute, used by 'where', 'count' and 'first_with' when their filter compares it to a value that does not depend on 'each' (e.g. 'people where (each.age = 20)'). A 'hash' index accelerates equality tests, a 'sorted' one accelerates comparisons (<, <=, >, >=) as well. The index is updated each time the attribute is assigned")) },
 		omissible = IKeyword.NAME)
 @symbol (
 		kind = ISymbolKind.Variable.REGULAR,
@@ -233,6 +241,27 @@ public class Variable extends Symbol implements IVariable {
 			}
 			assertAssignmentFacetsTypes(cd);
 			assertAmongValues(cd);
+			assertCanBeIndexed(cd);
+		}
+
+		public void assertCanBeIndexed(final VariableDescription vd) {
+			if (!vd.hasFacet(INDEXED)) { return; }
+			if (vd.hasFacet(FUNCTION) || vd.getGetter() != null || vd.getSetter() != null) {
+				vd.error("Only the attributes whose values are stored in the agents can be indexed",
+						IGamlIssue.CONFLICTING_FACETS, INDEXED);
+				return;
+			}
+			final IType<?> t = vd.getGamlType();
+			final boolean sortable = t.id() == IType.INT || t.id() == IType.FLOAT || t.id() == IType.STRING;
+			if (PopulationIndex.SORTED.equals(vd.getLitteral(INDEXED))) {
+				if (!sortable) {
+					vd.error("Only int, float and string attributes can have a sorted index", IGamlIssue.WRONG_TYPE,
+							INDEXED);
+				}
+			} else if (!sortable && t.id() != IType.BOOL && !t.isAgentType()) {
+				vd.error("Only int, float, string, bool and agent attributes can be indexed", IGamlIssue.WRONG_TYPE,
+						INDEXED);
+			}
 		}
 
 		public void assertAmongValues(final VariableDescription vd) {
@@ -357,7 +386,7 @@ public class Variable extends Symbol implements IVariable {
 	protected IExpression initExpression;
 	protected final IExpression updateExpression, amongExpression, functionExpression, onChangeExpression;
 	protected IType type;
-	protected final boolean isNotModifiable;
+	protected final boolean isNotModifiable, isIndexed;
 	// protected boolean isSpeciesConst;
 	public IGamaHelper getter, initer, setter;
 	private IExecutable on_changer;
@@ -377,6 +406,7 @@ public class Variable extends Symbol implements IVariable {
 		amongExpression = getFacet(IKeyword.AMONG);
 		onChangeExpression = getFacet(IKeyword.ON_CHANGE);
 		isNotModifiable = desc.isNotModifiable();
+		isIndexed = desc.hasFacet(IKeyword.INDEXED);
 		type = desc.getGamlType();
 		// computeSpeciesConst();
 	}
@@ -523,6 +553,12 @@ public class Variable extends Symbol implements IVariable {
 		} else {
 			agent.setAttribute(name, val);
 		}
+		if (isIndexed && agent.getPopulation() instanceof GamaPopulation) {
+			final PopulationIndex index = ((GamaPopulation<?>) agent.getPopulation()).getIndex(name);
+			if (index != null) {
+				index.update(agent, val);
+			}
+		}
 		// if (isSpeciesConst) {
 		// speciesWideValue = val;
 		// }
@@ -113,7 +113,9 @@ public class HeadlessSimulationLoader {
 		if (!myFile.exists()) { throw new IOException("Model file does not exist: " + fileName); }
 		DEBUG.LOG(fileName + " model is being compiled...");
 
-		final IModel model = GamlModelBuilder.getDefaultInstance().compile(URI.createFileURI(fileName), errors);
+		final GamlModelBuilder builder = GamlModelBuilder.getDefaultInstance();
+		final IModel model = builder.compile(URI.createFileURI(fileName), errors);
+		DEBUG.LOG("Compilation times: " + GamlModelBuilder.describeTimings(builder.getLastTimings()));
 		if (model == null) {
 			DEBUG.LOG("Model compiled with following indications: \n"
 					+ (errors == null ? "" : StreamEx.of(errors).joining("\n")));
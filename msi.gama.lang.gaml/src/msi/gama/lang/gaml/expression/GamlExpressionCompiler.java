@@ -40,6 +40,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -135,7 +136,8 @@ public class GamlExpressionCompiler extends GamlSwitch<IExpression> implements I
 	// To disable reentrant parsing (Issue 782)
 	private IExpressionDescription currentExpressionDescription;
 	private ITypesManager currentTypesManager;
-	private final static Map<String, IExpression> constantSyntheticExpressions = GamaMapFactory.createUnordered();
+	// Shared by the parsers of the threads compiling models in parallel (see ModelDescription.compileChildren())
+	private final static Map<String, IExpression> constantSyntheticExpressions = new ConcurrentHashMap<>();
 	private static final ExpressionDescriptionBuilder builder = new ExpressionDescriptionBuilder();
 
 	/*
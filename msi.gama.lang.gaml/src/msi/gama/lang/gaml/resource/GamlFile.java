@@ -90,7 +90,8 @@ public class GamlFile extends GamaFile<IList<IModel>, IModel> {
 		super(scope, pathName);
 		experimentName = expName;
 		aliasName = cName;
-		mymodel = GamlModelBuilder.getDefaultInstance().compile(URI.createURI(getPath(scope), false), null);
+		// The description is modified by the alias, so it cannot be shared with the other compilations of the model
+		mymodel = GamlModelBuilder.getDefaultInstance().compile(URI.createURI(getPath(scope), false), null, false);
 		((ModelDescription) mymodel.getDescription()).setAlias(aliasName);
 	}
 
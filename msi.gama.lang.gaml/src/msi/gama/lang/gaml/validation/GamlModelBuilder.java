@@ -13,7 +13,10 @@ package msi.gama.lang.gaml.validation;
 
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.ResourceSet;
@@ -23,8 +26,10 @@ import com.google.common.collect.Iterables;
 import com.google.inject.Injector;
 
 import msi.gama.common.interfaces.IGamlIssue;
+import msi.gama.common.preferences.GamaPreferences;
 import msi.gama.kernel.model.IModel;
 import msi.gama.lang.gaml.resource.GamlResource;
+import msi.gama.runtime.GAMA;
 import msi.gaml.compilation.GamlCompilationError;
 import msi.gaml.descriptions.ModelDescription;
 
@@ -37,6 +42,14 @@ import msi.gaml.descriptions.ModelDescription;
  */
 public class GamlModelBuilder {
 
+	/**
+	 * The phases of a compilation, whose durations are returned by getLastTimings()
+	 */
+	public static final String PARSE = "parse";
+	public static final String LINK = "link";
+	public static final String VALIDATE = "validate";
+	public static final String COMPILE = "compile";
+
 	private static GamlModelBuilder defaultInstance = new GamlModelBuilder();
 
 	public static GamlModelBuilder getDefaultInstance() {
@@ -44,6 +57,9 @@ public class GamlModelBuilder {
 	}
 
 	private final ResourceSet buildResourceSet;
+	private final ModelDescriptionCache cache = new ModelDescriptionCache();
+	// The duration (in ms) of each phase of the last compilation
+	private volatile Map<String, Long> lastTimings = Collections.emptyMap();
 
 	/**
 	 * A constructor that builds the resource set based on an existing injecto
@@ -70,15 +86,79 @@ public class GamlModelBuilder {
 	}
 
 	public IModel compile(final URI uri, final List<GamlCompilationError> errors) {
-		// We build the description and fill the errors list
-		final ModelDescription model = buildModelDescription(uri, errors);
-		// And compile it before returning it, unless it is null.
-		return model == null ? null : (IModel) model.compile();
+		return compile(uri, errors, true);
+	}
+
+	/**
+	 * Compiles the model whose main file is uri. If reuse is true (and the preference pref_optimize_model_cache is set),
+	 * the description validated by a previous compilation is reused when the files of the model have not changed: this
+	 * description is then shared by the models compiled from it, and must not be modified. Callers that modify the
+	 * description of the model they get must pass false, so that it is validated again and not stored.
+	 */
+	public IModel compile(final URI uri, final List<GamlCompilationError> errors, final boolean reuse) {
+		final Map<String, Long> timings = new LinkedHashMap<>();
+		try {
+			// We build the description and fill the errors list
+			final ModelDescription model = buildModelDescription(uri, errors, timings, reuse);
+			// And compile it before returning it, unless it is null.
+			if (model == null) { return null; }
+			final long start = System.currentTimeMillis();
+			final IModel result;
+			// A description reused from the cache can be compiled concurrently by several threads (e.g. the jobs of a
+			// headless experiment plan): they compile it one after the other
+			synchronized (model) {
+				result = (IModel) model.compile();
+			}
+			timings.put(COMPILE, System.currentTimeMillis() - start);
+			return result;
+		} finally {
+			lastTimings = Collections.unmodifiableMap(timings);
+			// The headless launches always log the durations (see HeadlessSimulationLoader)
+			if (GamaPreferences.External.OPTIMIZATION_STATISTICS.getValue() && !GAMA.isInHeadLessMode()) {
+				GAMA.getGui().getConsole().informConsole(
+						"Compilation of " + uri.lastSegment() + ": " + describeTimings(timings), null);
+			}
+		}
+	}
+
+	/**
+	 * Returns a description of the durations of the phases of a compilation (see getLastTimings())
+	 */
+	public static String describeTimings(final Map<String, Long> timings) {
+		final StringBuilder sb = new StringBuilder();
+		timings.forEach((phase, duration) -> {
+			if (sb.length() > 0) {
+				sb.append(", ");
+			}
+			sb.append(phase).append(' ').append(duration).append("ms");
+		});
+		if (!timings.containsKey(PARSE)) {
+			sb.append(sb.length() > 0 ? " " : "").append("(validated description reused)");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the duration (in ms) of the phases (PARSE, LINK, VALIDATE, COMPILE) of the last compilation made by this
+	 * builder, in the order in which they have been executed. The phases that have not been executed (because of errors,
+	 * or because the description of the model has been reused) are absent.
+	 */
+	public Map<String, Long> getLastTimings() {
+		return lastTimings;
 	}
 
-	private ModelDescription buildModelDescription(final URI uri, final List<GamlCompilationError> errors) {
+	private ModelDescription buildModelDescription(final URI uri, final List<GamlCompilationError> errors,
+			final Map<String, Long> timings, final boolean reuse) {
+		// If the model and its imports have not changed since their last validation, we reuse its description
+		final boolean useCache = reuse && ModelDescriptionCache.isEnabled();
+		if (useCache) {
+			final ModelDescription model = cache.get(uri, buildResourceSet.getURIConverter(), errors);
+			if (model != null) { return model; }
+		}
 		try {
+			long start = System.currentTimeMillis();
 			final GamlResource r = (GamlResource) buildResourceSet.getResource(uri, true);
+			timings.put(PARSE, System.currentTimeMillis() - start);
 			// Syntactic errors detected, we cannot build the resource
 			if (r.hasErrors()) {
 				if (errors != null) {
@@ -89,15 +169,23 @@ public class GamlModelBuilder {
 				}
 				return null;
 			} else {
-				// We build the description
+				// We build the description (which loads the imports and resolves the references)
+				start = System.currentTimeMillis();
 				final ModelDescription model = r.buildCompleteDescription();
+				timings.put(LINK, System.currentTimeMillis() - start);
 				if (model != null) {
+					start = System.currentTimeMillis();
 					model.validate();
+					timings.put(VALIDATE, System.currentTimeMillis() - start);
 				}
 				if (errors != null) {
 					Iterables.addAll(errors, r.getValidationContext());
 				}
 				if (r.getValidationContext().hasErrors()) { return null; }
+				if (useCache && model != null) {
+					cache.put(uri, model, buildResourceSet.getResources(), buildResourceSet.getURIConverter(),
+							r.getValidationContext());
+				}
 				return model;
 			}
 		} finally {
@@ -111,6 +199,14 @@ public class GamlModelBuilder {
 		}
 	}
 
+	/**
+	 * Forgets the descriptions of the models already validated, so that they are parsed and validated again at their
+	 * next compilation
+	 */
+	public void clearCache() {
+		cache.clear();
+	}
+
 	public void loadURLs(final List<URL> URLs) {
 		for (final URL url : URLs) {
 			java.net.URI uri;
@@ -0,0 +1,131 @@
+/*********************************************************************************************
+ *
+ * 'ModelDescriptionCache.java, in plugin msi.gama.lang.gaml, is part of the source code of the GAMA modeling and
+ * simulation platform. (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/UPMC & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and developers contact.
+ *
+ *
+ **********************************************************************************************/
+package msi.gama.lang.gaml.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import msi.gama.common.preferences.GamaPreferences;
+import msi.gaml.compilation.GamlCompilationError;
+import msi.gaml.descriptions.ModelDescription;
+
+/**
+ * The descriptions of the models validated by a GamlModelBuilder, indexed by the URI of their main file, and reused as
+ * long as the contents of this file and of the files it imports do not change. A model that is compiled again (for
+ * instance by each job of a headless experiment plan) is then not parsed, linked and validated again: only the
+ * compilation of its description into a new IModel remains.
+ *
+ * The contents of the files are compared through their SHA-256 digests, which are computed again at each lookup (which
+ * costs much less than parsing them).
+ *
+ * The descriptions are not copied (they hold EMF objects, resolved types and compiled expressions that cannot be
+ * duplicated): the one returned by get() is the one stored, shared by all the models compiled from it. It must then be
+ * compiled by one thread at a time (GamlModelBuilder holds its monitor while compiling it) and must not be modified by
+ * the models; the compilations that need to modify it (e.g. to give it an alias) must not use this cache.
+ */
+class ModelDescriptionCache {
+
+	private static final int MAX_SIZE = 20;
+
+	private static class Entry {
+		// The digests of the main file and of the files it imports
+		final Map<URI, byte[]> digests;
+		final ModelDescription model;
+		// The warnings and infos reported by the validation
+		final List<GamlCompilationError> errors;
+
+		Entry(final Map<URI, byte[]> digests, final ModelDescription model, final List<GamlCompilationError> errors) {
+			this.digests = digests;
+			this.model = model;
+			this.errors = errors;
+		}
+	}
+
+	private final Cache<URI, Entry> entries = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+
+	static boolean isEnabled() {
+		return GamaPreferences.External.MODEL_DESCRIPTION_CACHE.getValue();
+	}
+
+	/**
+	 * Returns the description of the model whose main file is uri, if it has been stored and if none of its files has
+	 * changed since. The warnings of its validation are then added to errors (if not null). The description returned is
+	 * shared (see above).
+	 */
+	ModelDescription get(final URI uri, final URIConverter converter, final List<GamlCompilationError> errors) {
+		final Entry entry = entries.getIfPresent(uri);
+		if (entry == null) { return null; }
+		for (final Map.Entry<URI, byte[]> file : entry.digests.entrySet()) {
+			if (!Arrays.equals(file.getValue(), digest(file.getKey(), converter))) {
+				entries.invalidate(uri);
+				return null;
+			}
+		}
+		if (errors != null) {
+			errors.addAll(entry.errors);
+		}
+		return entry.model;
+	}
+
+	/**
+	 * Stores the description of the model whose main file is uri, the resources being the ones loaded to build it (i.e.
+	 * the main file and the files it imports)
+	 */
+	void put(final URI uri, final ModelDescription model, final Iterable<Resource> resources,
+			final URIConverter converter, final Iterable<GamlCompilationError> errors) {
+		final Map<URI, byte[]> digests = new LinkedHashMap<>();
+		for (final Resource r : resources) {
+			final byte[] digest = digest(r.getURI(), converter);
+			// If a file cannot be read, the description will never be reused
+			if (digest == null) { return; }
+			digests.put(r.getURI(), digest);
+		}
+		final List<GamlCompilationError> warnings = new ArrayList<>();
+		for (final GamlCompilationError e : errors) {
+			warnings.add(e);
+		}
+		entries.put(uri, new Entry(digests, model, warnings));
+	}
+
+	void clear() {
+		entries.invalidateAll();
+	}
+
+	private static byte[] digest(final URI uri, final URIConverter converter) {
+		try (InputStream in = converter.createInputStream(uri)) {
+			final MessageDigest md = MessageDigest.getInstance("SHA-256");
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				md.update(buffer, 0, read);
+			}
+			return md.digest();
+		} catch (final IOException | NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+}
@@ -46,6 +46,8 @@ public class Emotion implements IValue {
 	private boolean noAgentCause = true;
 	private boolean noIntensity = true;
 	private boolean noAbout = true;
+	// The bases in which mental states about this emotion are indexed, which are signaled the changes of its name
+	final MentalStateBase.Owners owners = new MentalStateBase.Owners();
 
 	@getter ("name")
 	public String getName() {
@@ -83,6 +85,7 @@ public class Emotion implements IValue {
 
 	public void setName(final String name) {
 		this.name = name;
+		owners.keysChanged();
 	}
 
 	public void setIntensity(final Double intens) {
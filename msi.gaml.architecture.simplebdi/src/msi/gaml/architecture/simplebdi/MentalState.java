@@ -54,6 +54,8 @@ public class MentalState implements IValue {
 	List<MentalState> onHoldUntil;
 	List<MentalState> subintentions;
 	MentalState superIntention;
+	// The bases in which the mental state is indexed, which are signaled the changes of its key and contents
+	final MentalStateBase.Owners owners = new MentalStateBase.Owners();
 
 	@getter ("modality")
 	public String getModality() {
@@ -110,14 +112,17 @@ public class MentalState implements IValue {
 
 	public void setPredicate(final Predicate pred) {
 		this.predicate = pred;
+		owners.keysChanged();
 	}
 
 	public void setMentalState(final MentalState ment) {
 		this.mental = ment;
+		owners.keysChanged();
 	}
 
 	public void setEmotion(final Emotion em) {
 		this.emo = em;
+		owners.keysChanged();
 	}
 
 	public void setStrength(final Double stre) {
@@ -130,6 +135,7 @@ public class MentalState implements IValue {
 
 	public void setOwner(final IAgent ag) {
 		this.owner = ag;
+		owners.contentsChanged();
 	}
 
 	public void setSubintentions(final List<MentalState> subintentions) {
@@ -0,0 +1,357 @@
+/*********************************************************************************************
+ *
+ *
+ * 'MentalStateBase.java', in plugin 'msi.gaml.architecture.simplebdi', is part of the source code of the GAMA
+ * modeling and simulation platform. (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/UPMC & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and developers contact.
+ *
+ *
+ **********************************************************************************************/
+package msi.gaml.architecture.simplebdi;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import msi.gama.metamodel.agent.IAgent;
+import msi.gama.util.GamaList;
+import msi.gama.util.IList;
+import msi.gaml.types.IType;
+
+/**
+ * The list used for the mental state bases (beliefs, desires, intentions, uncertainties, ideals, obligations) of BDI
+ * agents. It behaves exactly like a GAML list (order, duplicates, indices), but maintains an index of its elements by
+ * the name of their predicate (or, for mental states about mental states or emotions, by the key of what they are
+ * about), so that membership tests and lookups by name only compare the few mental states that can possibly be equal
+ * instead of scanning the whole base.
+ *
+ * Only names are indexed: the equality of predicates is partial (values, truth and causes act as wildcards when they
+ * are not specified), so values can not be hashed consistently with equals().
+ *
+ * The index is built lazily and maintained incrementally when mental states are appended or removed. Any other
+ * structural modification (insertion at an index, sort, bulk removal...) simply invalidates it. As the key of a mental
+ * state can be changed in place (e.g. set_predicate), the mental states, predicates and emotions remember the base in
+ * which they have been indexed (see {@link Owners}) and signal it any change of their key, which invalidates the index
+ * of this base only. The elements indexed in several bases (typically the predicates of the model, shared by all the
+ * agents) do not track these bases: their changes are counted globally, and only invalidate the bases that contain
+ * shared elements.
+ *
+ * Each change of the base is stamped with the value of a clock, which allows {@link RuleMatcher} to know whether the
+ * mental states about a given name have changed since it last evaluated a rule (see {@link #lastChange(String)}).
+ */
+@SuppressWarnings ("unchecked")
+public class MentalStateBase extends GamaList<MentalState> {
+
+	/**
+	 * The base in which a mental state, a predicate or an emotion has been indexed, which is signaled its changes. As
+	 * long as the element is only indexed in one base, it signals this base only. As soon as it is indexed in a second
+	 * one, it becomes shared: its owner is forgotten and its changes are counted by the global counters of the shared
+	 * elements, which the bases containing shared elements compare in addition to their own. Registering a base and
+	 * signaling a change are thus constant-time and lock-free, whatever the number of agents sharing the element. The
+	 * signals can come from other agents, possibly executed in parallel.
+	 */
+	static final class Owners {
+
+		private static final Handle SHARED = new Handle(null);
+		private static final AtomicInteger SHARED_KEYS = new AtomicInteger();
+		private static final AtomicInteger SHARED_CONTENTS = new AtomicInteger();
+		private static final AtomicReferenceFieldUpdater<Owners, Handle> OWNER =
+				AtomicReferenceFieldUpdater.newUpdater(Owners.class, Handle.class, "owner");
+
+		private volatile Handle owner;
+
+		void add(final MentalStateBase base) {
+			final Handle handle = base.handle();
+			Handle current = owner;
+			while (current != handle && current != SHARED) {
+				final MentalStateBase previous = current == null ? null : current.get();
+				if (previous == null) {
+					// No owner yet, or its base is no longer referenced
+					if (OWNER.compareAndSet(this, current, handle)) { return; }
+				} else {
+					// The previous owner must compare the shared counters before it stops being signaled
+					previous.hasShared = true;
+					base.hasShared = true;
+					OWNER.set(this, SHARED);
+					return;
+				}
+				current = owner;
+			}
+			if (current == SHARED) {
+				base.hasShared = true;
+			}
+		}
+
+		void keysChanged() {
+			final Handle current = owner;
+			if (current == SHARED) {
+				SHARED_KEYS.incrementAndGet();
+			} else if (current != null) {
+				final MentalStateBase base = current.get();
+				if (base != null) {
+					base.keysEpoch++;
+				}
+			}
+		}
+
+		void contentsChanged() {
+			final Handle current = owner;
+			if (current == SHARED) {
+				SHARED_CONTENTS.incrementAndGet();
+			} else if (current != null) {
+				final MentalStateBase base = current.get();
+				if (base != null) {
+					base.contentsEpoch++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The object (compared by identity) under which a base is registered in the owners of its elements. The base is
+	 * only weakly referenced, so that the predicates of the model do not retain the bases of the dead agents.
+	 */
+	private static final class Handle extends WeakReference<MentalStateBase> {
+
+		Handle(final MentalStateBase base) {
+			super(base);
+		}
+	}
+
+	/**
+	 * Incremented each time the key of an indexed element of the base changes. Written by other threads: a lost
+	 * increment does not matter, as the value only needs to differ from the one read when the index was built
+	 */
+	private volatile int keysEpoch;
+
+	/**
+	 * Incremented each time an indexed element of the base is changed in place without its key changing (values,
+	 * truth, cause, owner), which can change the result of membership tests
+	 */
+	private volatile int contentsEpoch;
+
+	/**
+	 * Whether the base contains (or has contained) elements shared with other bases, in which case the changes of the
+	 * shared elements are taken into account in addition to the epochs of the base
+	 */
+	private volatile boolean hasShared;
+
+	private static class Bucket extends ArrayList<MentalState> {
+		// The value of the clock of the base when this bucket was last changed
+		long stamp;
+
+		Bucket(final long stamp) {
+			super(2);
+			this.stamp = stamp;
+		}
+	}
+
+	private Handle handle;
+	private Map<String, Bucket> index;
+	// The list the index has been built for (clones share the fields of their original)
+	private Object indexedList;
+	private int indexModCount;
+	private int indexEpoch;
+	private long clock;
+	// The value of the clock when the index was last rebuilt, i.e. the last change of the keys absent from the index
+	private long indexClock;
+
+	public MentalStateBase(final IType<?> contentType, final Collection<? extends MentalState> states) {
+		super(states.size(), contentType);
+		super.addAll(states);
+	}
+
+	/**
+	 * Returns the base stored in the attribute of the agent, transforming it once into an indexed base if it is an
+	 * ordinary list (e.g. after an assignment in GAML).
+	 */
+	public static IList<MentalState> of(final IAgent agent, final String basename) {
+		final Object base = agent.getAttribute(basename);
+		if (base instanceof MentalStateBase || !(base instanceof IList)) { return (IList<MentalState>) base; }
+		final IList<MentalState> list = (IList<MentalState>) base;
+		final MentalStateBase result = new MentalStateBase(list.getGamlType().getContentType(), list);
+		agent.setAttribute(basename, result);
+		return result;
+	}
+
+	/**
+	 * Returns the mental states of the base that may be equal to the mental state passed: all the elements equal to
+	 * it are in the returned list, in the order of the base, but the list can contain others. The returned list must
+	 * not be modified, nor iterated while the base is modified.
+	 */
+	public static List<MentalState> candidates(final List<MentalState> base, final MentalState state) {
+		if (state == null || !(base instanceof MentalStateBase)) { return base; }
+		return ((MentalStateBase) base).bucket(keyOf(state, null));
+	}
+
+	/**
+	 * Returns the mental states of the base that may be about a predicate with this name (same contract as
+	 * {@link #candidates(List, MentalState)}).
+	 */
+	public static List<MentalState> candidates(final List<MentalState> base, final String predicateName) {
+		if (predicateName == null || !(base instanceof MentalStateBase)) { return base; }
+		return ((MentalStateBase) base).bucket(predicateName);
+	}
+
+	/**
+	 * Returns the mental states of the base that may be about a predicate equal to the one passed (same contract as
+	 * {@link #candidates(List, MentalState)}).
+	 */
+	public static List<MentalState> candidates(final List<MentalState> base, final Predicate predicate) {
+		if (predicate == null) { return base; }
+		return candidates(base, predicate.name == null ? "" : predicate.name);
+	}
+
+	private Handle handle() {
+		// Clones share the fields of their original
+		if (handle == null || handle.get() != this) {
+			handle = new Handle(this);
+		}
+		return handle;
+	}
+
+	/**
+	 * The number of changes in place of the elements of the base (modulo lost increments), used by
+	 * {@link RuleMatcher} to know whether membership tests can give different results
+	 */
+	int getContentsEpoch() {
+		return hasShared ? contentsEpoch + Owners.SHARED_CONTENTS.get() : contentsEpoch;
+	}
+
+	private int getKeysEpoch() {
+		return hasShared ? keysEpoch + Owners.SHARED_KEYS.get() : keysEpoch;
+	}
+
+	/**
+	 * Returns the value of the clock of this base when the mental states with this key (or any mental state, if the key
+	 * is null) were last added or removed
+	 */
+	long lastChange(final String key) {
+		final Map<String, Bucket> buckets = index();
+		if (key == null) { return clock; }
+		final Bucket bucket = buckets.get(key);
+		return bucket == null ? indexClock : bucket.stamp;
+	}
+
+	/**
+	 * The key of a mental state is built from the name of what it is about. Equal mental states have the same key;
+	 * different ones can share a key, since candidates are always checked with equals(). If the owner is not null, it
+	 * is registered in the owners of the mental state and of what it is about, to be signaled their changes.
+	 */
+	static String keyOf(final MentalState state, final MentalStateBase owner) {
+		if (owner != null) {
+			state.owners.add(owner);
+		}
+		if (state.predicate != null) {
+			if (owner != null) {
+				state.predicate.owners.add(owner);
+			}
+			return state.predicate.name == null ? "" : state.predicate.name;
+		}
+		if (state.mental != null) { return "\0" + keyOf(state.mental, owner); }
+		if (state.emo != null) {
+			if (owner != null) {
+				state.emo.owners.add(owner);
+			}
+			return "\0\0" + state.emo.name;
+		}
+		return "\0\0\0";
+	}
+
+	private boolean isIndexValid() {
+		return indexedList == this && indexModCount == modCount && indexEpoch == getKeysEpoch();
+	}
+
+	private Map<String, Bucket> index() {
+		if (!isIndexValid()) {
+			final int epoch = getKeysEpoch();
+			final long stamp = ++clock;
+			final Map<String, Bucket> result = new HashMap<>();
+			for (final MentalState state : this) {
+				if (state != null) {
+					result.computeIfAbsent(keyOf(state, this), k -> new Bucket(stamp)).add(state);
+				}
+			}
+			index = result;
+			indexedList = this;
+			indexModCount = modCount;
+			indexEpoch = epoch;
+			indexClock = stamp;
+		}
+		return index;
+	}
+
+	private List<MentalState> bucket(final String key) {
+		final List<MentalState> result = index().get(key);
+		return result == null ? Collections.EMPTY_LIST : result;
+	}
+
+	private boolean containsInIndex(final MentalState o) {
+		for (final MentalState state : bucket(keyOf(o, null))) {
+			if (o.equals(state)) { return true; }
+		}
+		return false;
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		if (!(o instanceof MentalState)) { return super.contains(o); }
+		return containsInIndex((MentalState) o);
+	}
+
+	@Override
+	public int indexOf(final Object o) {
+		if (o instanceof MentalState && !containsInIndex((MentalState) o)) { return -1; }
+		return super.indexOf(o);
+	}
+
+	@Override
+	public boolean add(final MentalState e) {
+		final boolean valid = e != null && isIndexValid();
+		super.add(e);
+		if (valid) {
+			final Bucket bucket = index.computeIfAbsent(keyOf(e, this), k -> new Bucket(0));
+			bucket.add(e);
+			bucket.stamp = ++clock;
+			indexModCount = modCount;
+		}
+		return true;
+	}
+
+	@Override
+	public MentalState set(final int i, final MentalState e) {
+		// Keeping the buckets in the order of the list would require to search the position of the element
+		indexedList = null;
+		return super.set(i, e);
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		if (!(o instanceof MentalState)) { return super.remove(o); }
+		final MentalState state = (MentalState) o;
+		if (!containsInIndex(state)) { return false; }
+		final MentalState removed = remove(super.indexOf(o));
+		final String key = keyOf(removed, null);
+		final Bucket bucket = index.get(key);
+		for (int i = 0; i < bucket.size(); i++) {
+			if (bucket.get(i) == removed) {
+				bucket.remove(i);
+				break;
+			}
+		}
+		// Empty buckets are kept in order to remember when their key has changed
+		bucket.stamp = ++clock;
+		indexModCount = modCount;
+		return true;
+	}
+
+}
@@ -1557,8 +1557,8 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("belief_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "belief_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -1584,8 +1584,8 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("belief_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "belief_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -1611,7 +1611,7 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("belief_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "belief_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) { return mental; }
 			}
@@ -1637,7 +1637,7 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("belief_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "belief_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					predicates.add(mental);
@@ -1665,8 +1665,8 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("desire_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "desire_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -1692,8 +1692,8 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("desire_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "desire_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -1719,7 +1719,7 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("desire_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "desire_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) { return mental; }
 			}
@@ -1745,7 +1745,7 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("desire_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "desire_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					predicates.add(mental);
@@ -1773,8 +1773,8 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("uncertainty_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "uncertainty_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -1800,8 +1800,8 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("uncertainty_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "uncertainty_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -1827,7 +1827,7 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("uncertainty_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "uncertainty_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) { return mental; }
 			}
@@ -1853,7 +1853,7 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("uncertainty_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "uncertainty_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					predicates.add(mental);
@@ -1881,8 +1881,8 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("ideal_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "ideal_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -1908,8 +1908,8 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("ideal_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "ideal_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -1935,7 +1935,7 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("ideal_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "ideal_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) { return mental; }
 			}
@@ -1961,7 +1961,7 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("ideal_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "ideal_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					predicates.add(mental);
@@ -1989,8 +1989,8 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("obligation_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "obligation_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -2016,8 +2016,8 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("obligation_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "obligation_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -2043,7 +2043,7 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("obligation_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "obligation_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) { return mental; }
 			}
@@ -2069,7 +2069,7 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("obligation_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "obligation_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					predicates.add(mental);
@@ -2097,8 +2097,8 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("intention_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "intention_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -2125,8 +2125,8 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (predicateName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("intention_base");
-			for (final MentalState mental : beliefs) {
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "intention_base");
+			for (final MentalState mental : MentalStateBase.candidates(beliefs, predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -2153,7 +2153,7 @@ public class Operators {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("intention_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "intention_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) { return mental; }
 			}
@@ -2179,7 +2179,7 @@ public class Operators {
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return predicates; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("intention_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "intention_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					predicates.add(mental);
@@ -2204,7 +2204,7 @@ public class Operators {
 	public static MentalState getCurrentIntention(final IScope scope, final IAgent ag) throws GamaRuntimeException {
 		// final MentalState predicate = new MentalState("Belief");
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return null; }
-		final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("intention_base");
+		final IList<MentalState> beliefs = MentalStateBase.of(ag, "intention_base");
 		// if (beliefs == null) { return null; }
 		if (!beliefs.isEmpty()) { return beliefs.lastValue(scope); }
 		return null;
@@ -2227,7 +2227,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("belief_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "belief_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					result = true;
@@ -2254,7 +2254,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (predName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("belief_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "belief_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && predName.equals(mental.getPredicate().getName())) {
 					result = true;
@@ -2281,7 +2281,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("desire_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "desire_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					result = true;
@@ -2308,7 +2308,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (predName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("desire_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "desire_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && predName.equals(mental.getPredicate().getName())) {
 					result = true;
@@ -2335,7 +2335,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("uncertainty_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "uncertainty_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					result = true;
@@ -2362,7 +2362,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (predName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("uncertainty_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "uncertainty_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && predName.equals(mental.getPredicate().getName())) {
 					result = true;
@@ -2389,7 +2389,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("ideal_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "ideal_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					result = true;
@@ -2416,7 +2416,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (predName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("ideal_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "ideal_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && predName.equals(mental.getPredicate().getName())) {
 					result = true;
@@ -2443,7 +2443,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("intention_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "intention_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					result = true;
@@ -2470,7 +2470,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (predName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("intention_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "intention_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && predName.equals(mental.getPredicate().getName())) {
 					result = true;
@@ -2497,7 +2497,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (pred != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("obligation_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "obligation_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && pred.equals(mental.getPredicate())) {
 					result = true;
@@ -2524,7 +2524,7 @@ public class Operators {
 		Boolean result = false;
 		if (!(ag.getSpecies().getArchitecture() instanceof SimpleBdiArchitecture)) { return result; }
 		if (predName != null) {
-			final IList<MentalState> beliefs = (IList<MentalState>) ag.getAttribute("obligation_base");
+			final IList<MentalState> beliefs = MentalStateBase.of(ag, "obligation_base");
 			for (final MentalState mental : beliefs) {
 				if (mental.getPredicate() != null && predName.equals(mental.getPredicate().getName())) {
 					result = true;
@@ -74,6 +74,11 @@ public class Predicate implements IValue {
 //	int lifetime = -1;
 	boolean isUpdated = false;
 	private boolean noAgentCause = true;
+	// The bases in which mental states about the predicate are indexed, which are signaled its changes
+	final MentalStateBase.Owners owners = new MentalStateBase.Owners();
+	// Incremented at each change of the predicate in place, so that RuleMatcher can detect the changes of the
+	// predicates used as conditions
+	volatile int version;
 
 	@getter ("name")
 	public String getName() {
@@ -129,10 +134,14 @@ public class Predicate implements IValue {
 	public void setValues(final Map<String, Object> values) {
 		this.values = values;
 		everyPossibleValues = values == null;
+		version++;
+		owners.contentsChanged();
 	}
 
 	public void setIs_True(final Boolean ist) {
 		this.is_true = ist;
+		version++;
+		owners.contentsChanged();
 	}
 
 	public void setDate(final Double date) {
@@ -150,6 +159,8 @@ public class Predicate implements IValue {
 	public void setAgentCause(final IAgent ag) {
 		this.agentCause = ag;
 		this.noAgentCause = false;
+		version++;
+		owners.contentsChanged();
 	}
 
 	public Predicate() {
@@ -270,7 +281,8 @@ public class Predicate implements IValue {
 
 	public void setName(final String name) {
 		this.name = name;
-
+		version++;
+		owners.keysChanged();
 	}
 
 	@Override
@@ -0,0 +1,236 @@
+/*********************************************************************************************
+ *
+ *
+ * 'RuleMatcher.java', in plugin 'msi.gaml.architecture.simplebdi', is part of the source code of the GAMA
+ * modeling and simulation platform. (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/UPMC & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and developers contact.
+ *
+ *
+ **********************************************************************************************/
+package msi.gaml.architecture.simplebdi;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import msi.gama.metamodel.agent.IAgent;
+import msi.gama.runtime.IScope;
+import msi.gaml.expressions.IExpression;
+import msi.gaml.expressions.IVarExpression;
+
+/**
+ * Incremental matching of the conditions of a rule. A rule whose conditions only test the presence of predicates in
+ * the mental state bases (belief:, desire:, uncertainty:, ideal:, obligation: and their list counterparts, given by
+ * constants or variables) depends only on the mental states indexed under the names of these predicates. When the
+ * conditions of such a rule are not satisfied for an agent, the stamps of these names in the bases of the agent are
+ * remembered; as long as no mental state with one of these names is added to or removed from the corresponding bases,
+ * no element of these bases is changed in place, and the predicates given to the rule are the same (and have not been
+ * changed in place either), the conditions can not become satisfied and the evaluation of the rule is skipped. All
+ * these changes are tracked per base and per predicate, so that the changes of the bases of an agent do not affect
+ * the matches of the others.
+ *
+ * Rules whose conditions are satisfied are always re-evaluated (and fire again), as rules are not fired once but at
+ * each step. Rules with when:, emotion:, emotions: or threshold: conditions are not matched incrementally. The
+ * matching can be disabled with the preference pref_optimize_bdi_rules, in which case all the rules are evaluated.
+ *
+ * The matches are stored per agent (in an attribute of the agent), so that rules can be evaluated in parallel for
+ * different agents (see {@link SimpleBdiArchitectureParallel}).
+ */
+@SuppressWarnings ("unchecked")
+class RuleMatcher {
+
+	static final String MATCHES = "rule_matches";
+
+	/**
+	 * The state of the bases of an agent when the conditions of the rule were last found unsatisfied
+	 */
+	private static class Match {
+		final Object[] values;
+		final long[] versions;
+		final MentalStateBase[] conditionBases;
+		final int[] epochs;
+		final MentalStateBase[] bases;
+		final String[] keys;
+		final long[] stamps;
+
+		Match(final Object[] values, final MentalStateBase[] conditionBases, final List<MentalStateBase> bases,
+				final List<String> keys) {
+			this.values = values;
+			this.conditionBases = conditionBases;
+			versions = new long[values.length];
+			epochs = new int[values.length];
+			for (int i = 0; i < values.length; i++) {
+				versions[i] = versionOf(values[i]);
+				epochs[i] = conditionBases[i].getContentsEpoch();
+			}
+			this.bases = bases.toArray(new MentalStateBase[bases.size()]);
+			this.keys = keys.toArray(new String[keys.size()]);
+			stamps = new long[this.bases.length];
+			for (int i = 0; i < stamps.length; i++) {
+				stamps[i] = this.bases[i].lastChange(this.keys[i]);
+			}
+		}
+
+		boolean isValid(final IScope scope, final RuleMatcher matcher) {
+			for (int i = 0; i < values.length; i++) {
+				if (SimpleBdiArchitecture.getBase(scope, matcher.baseNames[i]) != conditionBases[i]) { return false; }
+				if (conditionBases[i].getContentsEpoch() != epochs[i]) { return false; }
+				if (matcher.conditions[i] != null && !sameValue(values[i], matcher.conditions[i].value(scope))) {
+					return false;
+				}
+				if (versionOf(values[i]) != versions[i]) { return false; }
+			}
+			for (int i = 0; i < bases.length; i++) {
+				if (bases[i].lastChange(keys[i]) > stamps[i]) { return false; }
+			}
+			return true;
+		}
+
+	}
+
+	final IExpression[] conditions;
+	final String[] baseNames;
+
+	private RuleMatcher(final List<IExpression> conditions, final List<String> baseNames) {
+		this.conditions = conditions.toArray(new IExpression[conditions.size()]);
+		this.baseNames = baseNames.toArray(new String[baseNames.size()]);
+	}
+
+	/**
+	 * Returns a matcher for this rule, or null if its conditions can not be matched incrementally
+	 */
+	static RuleMatcher create(final RuleStatement rule) {
+		if (rule.when != null || rule.emotion != null || rule.emotions != null || rule.threshold != null) {
+			return null;
+		}
+		final List<IExpression> conditions = new ArrayList<>();
+		final List<String> baseNames = new ArrayList<>();
+		// The bases are those actually tested by RuleStatement
+		final IExpression[] expressions = { rule.belief, rule.desire, rule.uncertainty, rule.ideal, rule.beliefs,
+				rule.desires, rule.uncertainties, rule.ideals, rule.obligations };
+		final String[] bases = { SimpleBdiArchitecture.BELIEF_BASE, SimpleBdiArchitecture.DESIRE_BASE,
+				SimpleBdiArchitecture.UNCERTAINTY_BASE, SimpleBdiArchitecture.IDEAL_BASE,
+				SimpleBdiArchitecture.BELIEF_BASE, SimpleBdiArchitecture.DESIRE_BASE,
+				SimpleBdiArchitecture.UNCERTAINTY_BASE, SimpleBdiArchitecture.IDEAL_BASE,
+				SimpleBdiArchitecture.UNCERTAINTY_BASE };
+		for (int i = 0; i < expressions.length; i++) {
+			final IExpression expression = expressions[i];
+			if (expression == null) {
+				continue;
+			}
+			if (!expression.isConst() && !(expression instanceof IVarExpression)) { return null; }
+			conditions.add(expression);
+			baseNames.add(bases[i]);
+		}
+		// The obligation base is tested with the uncertainty: any change of the base is considered
+		if (rule.obligation != null) {
+			conditions.add(null);
+			baseNames.add(SimpleBdiArchitecture.OBLIGATION_BASE);
+		}
+		if (conditions.isEmpty()) { return null; }
+		return new RuleMatcher(conditions, baseNames);
+	}
+
+	/**
+	 * Whether the conditions of the rule, found unsatisfied for the agent of the scope, can not have changed since
+	 */
+	boolean isUnchanged(final IScope scope) {
+		final Map<RuleMatcher, Match> matches = (Map<RuleMatcher, Match>) scope.getAgent().getAttribute(MATCHES);
+		if (matches == null) { return false; }
+		final Match match = matches.get(this);
+		return match != null && match.isValid(scope, this);
+	}
+
+	/**
+	 * Records the result of the evaluation of the rule for the agent of the scope
+	 */
+	void matched(final IScope scope, final boolean fired) {
+		final IAgent agent = scope.getAgent();
+		Map<RuleMatcher, Match> matches = (Map<RuleMatcher, Match>) agent.getAttribute(MATCHES);
+		final Match match = fired ? null : match(scope);
+		if (match == null) {
+			if (matches != null) {
+				matches.remove(this);
+			}
+			return;
+		}
+		if (matches == null) {
+			matches = new IdentityHashMap<>();
+			agent.setAttribute(MATCHES, matches);
+		}
+		matches.put(this, match);
+	}
+
+	private Match match(final IScope scope) {
+		final Object[] values = new Object[conditions.length];
+		final MentalStateBase[] conditionBases = new MentalStateBase[conditions.length];
+		final List<MentalStateBase> bases = new ArrayList<>();
+		final List<String> keys = new ArrayList<>();
+		for (int i = 0; i < conditions.length; i++) {
+			final List<MentalState> base = SimpleBdiArchitecture.getBase(scope, baseNames[i]);
+			if (!(base instanceof MentalStateBase)) { return null; }
+			conditionBases[i] = (MentalStateBase) base;
+			if (conditions[i] == null) {
+				bases.add((MentalStateBase) base);
+				keys.add(null);
+				continue;
+			}
+			final Object value = conditions[i].value(scope);
+			if (value instanceof List) {
+				final List<?> list = (List<?>) value;
+				for (final Object p : list) {
+					if (p != null && !(p instanceof Predicate)) { return null; }
+					bases.add((MentalStateBase) base);
+					keys.add(keyOf((Predicate) p));
+				}
+				// The list itself can be modified in place: its elements are remembered
+				values[i] = list.toArray();
+			} else if (value == null || value instanceof Predicate) {
+				bases.add((MentalStateBase) base);
+				keys.add(keyOf((Predicate) value));
+				values[i] = value;
+			} else {
+				return null;
+			}
+		}
+		return new Match(values, conditionBases, bases, keys);
+	}
+
+	private static String keyOf(final Predicate p) {
+		if (p == null) { return MentalStateBase.keyOf(new MentalState(), null); }
+		return p.name == null ? "" : p.name;
+	}
+
+	/**
+	 * The sum of the versions of the predicates of a remembered value. As versions only grow, it changes whenever one
+	 * of these predicates is changed in place
+	 */
+	static long versionOf(final Object remembered) {
+		if (remembered instanceof Predicate) { return ((Predicate) remembered).version; }
+		if (!(remembered instanceof Object[])) { return 0; }
+		long result = 0;
+		for (final Object p : (Object[]) remembered) {
+			if (p instanceof Predicate) {
+				result += ((Predicate) p).version;
+			}
+		}
+		return result;
+	}
+
+	static boolean sameValue(final Object remembered, final Object value) {
+		if (!(remembered instanceof Object[])) { return remembered == value; }
+		if (!(value instanceof List)) { return false; }
+		final Object[] elements = (Object[]) remembered;
+		final List<?> list = (List<?>) value;
+		if (elements.length != list.size()) { return false; }
+		for (int i = 0; i < elements.length; i++) {
+			if (elements[i] != list.get(i)) { return false; }
+		}
+		return true;
+	}
+
+}
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 import msi.gama.common.interfaces.IKeyword;
+import msi.gama.common.preferences.GamaPreferences;
 import msi.gama.precompiler.GamlAnnotations.doc;
 import msi.gama.precompiler.GamlAnnotations.example;
 import msi.gama.precompiler.GamlAnnotations.facet;
@@ -360,6 +361,7 @@ public class RuleStatement extends AbstractStatement {
 	final IExpression threshold;
 	final IExpression all;
 	final IExpression lifetime;
+	final RuleMatcher matcher;
 
 	public RuleStatement(final IDescription desc) {
 		super(desc);
@@ -404,6 +406,7 @@ public class RuleStatement extends AbstractStatement {
 		lifetime = getFacet("lifetime");
 		parallel = getFacet(IKeyword.PARALLEL);
 		all = getFacet(RuleStatement.ALL);
+		matcher = RuleMatcher.create(this);
 	}
 
 	@SuppressWarnings ("unchecked")
@@ -415,6 +418,9 @@ public class RuleStatement extends AbstractStatement {
 				&& newUncertainties == null && removeBeliefs == null && removeDesires == null && removeEmotions == null
 				&& removeUncertainties == null)
 			return null;
+		if (matcher != null && GamaPreferences.External.BDI_RULE_MATCHING.getValue() && matcher.isUnchanged(scope))
+			return null;
+		boolean fired = false;
 		boolean allVal = (all != null) && Cast.asBool(scope, all.value(scope));
 		List<Predicate> predBeliefList = null;
 		List<Predicate> predUncertaintyList = null;
@@ -427,8 +433,9 @@ public class RuleStatement extends AbstractStatement {
 				has_belief = SimpleBdiArchitecture.hasBelief(scope, tempBelief);
 				if (has_belief) {
 					predBeliefList = new ArrayList<Predicate>();
-					for (final MentalState mental : SimpleBdiArchitecture.getBase(scope,
-							SimpleBdiArchitecture.BELIEF_BASE)) {
+					for (final MentalState mental : MentalStateBase.candidates(
+							SimpleBdiArchitecture.getBase(scope, SimpleBdiArchitecture.BELIEF_BASE),
+							tempBelief.getPredicate())) {
 						if (mental.getPredicate() != null) {
 							if (tempBelief.getPredicate().equals(mental.getPredicate())) {
 								predBeliefList.add(mental.getPredicate());
@@ -450,8 +457,9 @@ public class RuleStatement extends AbstractStatement {
 						has_uncertainty = SimpleBdiArchitecture.hasUncertainty(scope, tempUncertainty);
 						if (has_uncertainty) {
 							predUncertaintyList = new ArrayList<Predicate>();
-							for (final MentalState mental : SimpleBdiArchitecture.getBase(scope,
-									SimpleBdiArchitecture.UNCERTAINTY_BASE)) {
+							for (final MentalState mental : MentalStateBase.candidates(
+									SimpleBdiArchitecture.getBase(scope, SimpleBdiArchitecture.UNCERTAINTY_BASE),
+									tempBelief.getPredicate())) {
 								if (mental.getPredicate() != null) {
 									if (tempBelief.getPredicate().equals(mental.getPredicate())) {
 										predUncertaintyList.add(mental.getPredicate());
@@ -468,8 +476,9 @@ public class RuleStatement extends AbstractStatement {
 							has_ideal = SimpleBdiArchitecture.hasIdeal(scope, tempIdeal);
 							if (has_ideal) {
 								predIdealList = new ArrayList<Predicate>();
-								for (final MentalState mental : SimpleBdiArchitecture.getBase(scope,
-										SimpleBdiArchitecture.IDEAL_BASE)) {
+								for (final MentalState mental : MentalStateBase.candidates(
+										SimpleBdiArchitecture.getBase(scope, SimpleBdiArchitecture.IDEAL_BASE),
+										tempBelief.getPredicate())) {
 									if (mental.getPredicate() != null) {
 										if (tempBelief.getPredicate().equals(mental.getPredicate())) {
 											predIdealList.add(mental.getPredicate());
@@ -504,6 +513,7 @@ public class RuleStatement extends AbstractStatement {
 																			(Emotion) emotion.value(
 																					scope)).intensity >= (Double) threshold
 																							.value(scope)) {
+																fired = true;
 																if (newDesire != null) {
 																	if (allVal) {
 																		if (predBeliefList != null)
@@ -1230,6 +1240,9 @@ public class RuleStatement extends AbstractStatement {
 				}
 			}
 		}
+		if (matcher != null) {
+			matcher.matched(scope, fired);
+		}
 		return null;
 	}
 
@@ -1444,7 +1444,7 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 
 	public static IList<MentalState> getBase(final IScope scope, final String basename) {
 		final IAgent agent = scope.getAgent();
-		return scope.hasArg(basename) ? scope.getListArg(basename) : (IList<MentalState>) agent.getAttribute(basename);
+		return scope.hasArg(basename) ? scope.getListArg(basename) : MentalStateBase.of(agent, basename);
 	}
 
 	public static IList<Emotion> getEmotionBase(final IScope scope, final String basename) {
@@ -1538,7 +1538,8 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 				createHappyForFromMentalState(scope, predicateDirect); // (seulement si le prédicat est sur une
 																		// émotion).
 			}
-			for (final MentalState predTest : getBase(scope, SimpleBdiArchitecture.BELIEF_BASE)) {
+			for (final MentalState predTest : MentalStateBase
+					.candidates(getBase(scope, SimpleBdiArchitecture.BELIEF_BASE), predicateDirect.getPredicate())) {
 				if (predTest.getPredicate() != null && predicateDirect.getPredicate() != null
 						&& predTest.getPredicate().equalsButNotTruth(predicateDirect.getPredicate())) {
 					predTemp = predTest;
@@ -1559,7 +1560,8 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 			if (getBase(scope, SimpleBdiArchitecture.OBLIGATION_BASE).contains(predicateDirect)) {
 				removeFromBase(scope, predicateDirect, OBLIGATION_BASE);
 			}
-			for (final MentalState predTest : getBase(scope, SimpleBdiArchitecture.UNCERTAINTY_BASE)) {
+			for (final MentalState predTest : MentalStateBase
+					.candidates(getBase(scope, SimpleBdiArchitecture.UNCERTAINTY_BASE), predicateDirect.getPredicate())) {
 				if (predTest.getPredicate() != null && predicateDirect.getPredicate() != null
 						&& predTest.getPredicate().equalsButNotTruth(predicateDirect.getPredicate())) {
 					predTemp = predTest;
@@ -1919,7 +1921,7 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 	public MentalState getBeliefName(final IScope scope) throws GamaRuntimeException {
 		final String predicateName = (String) (scope.hasArg("name") ? scope.getArg("name", IType.STRING) : null);
 		if (predicateName != null) {
-			for (final MentalState mental : getBase(scope, BELIEF_BASE)) {
+			for (final MentalState mental : MentalStateBase.candidates(getBase(scope, BELIEF_BASE), predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -1943,7 +1945,7 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 		final String predicateName = (String) (scope.hasArg("name") ? scope.getArg("name", IType.STRING) : null);
 		final IList<MentalState> predicates = GamaListFactory.create();
 		if (predicateName != null) {
-			for (final MentalState mental : getBase(scope, BELIEF_BASE)) {
+			for (final MentalState mental : MentalStateBase.candidates(getBase(scope, BELIEF_BASE), predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -2519,7 +2521,7 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 	public MentalState getDesireName(final IScope scope) throws GamaRuntimeException {
 		final String predicateName = (String) (scope.hasArg("name") ? scope.getArg("name", IType.STRING) : null);
 		if (predicateName != null) {
-			for (final MentalState mental : getBase(scope, DESIRE_BASE)) {
+			for (final MentalState mental : MentalStateBase.candidates(getBase(scope, DESIRE_BASE), predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -2543,7 +2545,7 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 		final String predicateName = (String) (scope.hasArg("name") ? scope.getArg("name", IType.STRING) : null);
 		final List<MentalState> predicates = GamaListFactory.create();
 		if (predicateName != null) {
-			for (final MentalState mental : getBase(scope, DESIRE_BASE)) {
+			for (final MentalState mental : MentalStateBase.candidates(getBase(scope, DESIRE_BASE), predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
@@ -2964,7 +2966,7 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 	public MentalState getIntentionName(final IScope scope) throws GamaRuntimeException {
 		final String predicateName = (String) (scope.hasArg("name") ? scope.getArg("name", IType.STRING) : null);
 		if (predicateName != null) {
-			for (final MentalState mental : getBase(scope, INTENTION_BASE)) {
+			for (final MentalState mental : MentalStateBase.candidates(getBase(scope, INTENTION_BASE), predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					return mental;
 				}
@@ -2988,7 +2990,7 @@ public class SimpleBdiArchitecture extends ReflexArchitecture {
 		final String predicateName = (String) (scope.hasArg("name") ? scope.getArg("name", IType.STRING) : null);
 		final List<MentalState> predicates = GamaListFactory.create();
 		if (predicateName != null) {
-			for (final MentalState mental : getBase(scope, INTENTION_BASE)) {
+			for (final MentalState mental : MentalStateBase.candidates(getBase(scope, INTENTION_BASE), predicateName)) {
 				if (mental.getPredicate() != null && predicateName.equals(mental.getPredicate().getName())) {
 					predicates.add(mental);
 				}
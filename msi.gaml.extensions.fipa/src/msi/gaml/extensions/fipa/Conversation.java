@@ -12,7 +12,9 @@ package msi.gaml.extensions.fipa;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import msi.gama.metamodel.agent.IAgent;
 import msi.gama.precompiler.GamlAnnotations.doc;
@@ -76,6 +78,9 @@ public class Conversation extends GamaList<FIPAMessage> {
 	/** Other Agent in the conversations. */
 	private final IList<IAgent> participants = GamaListFactory.create(Types.AGENT);
 
+	/** The participants, for constant-time membership tests. */
+	private final Set<IAgent> participantSet = new HashSet<>();
+
 	/** The protocol node participant map. */
 	private final Map<IAgent, ProtocolNode> protocolNodeParticipantMap = new HashMap<>();
 
@@ -124,6 +129,7 @@ public class Conversation extends GamaList<FIPAMessage> {
 		initiator = message.getSender();
 
 		participants.addAll(message.getReceivers());
+		participantSet.addAll(participants);
 		if (participants.isEmpty() || participants.contains(null)) {
 			throw GamaRuntimeException.warning("The message : " + message.toString() + " has no receivers.", scope);
 		}
@@ -142,7 +148,8 @@ public class Conversation extends GamaList<FIPAMessage> {
 	}
 
 	/**
-	 * Adds a message to the conversation.
+	 * Adds a message to the conversation. The receivers of a message can add it in parallel (when they are executed in
+	 * parallel), hence the synchronization.
 	 *
 	 * @param message
 	 *            The Message to be added
@@ -150,7 +157,7 @@ public class Conversation extends GamaList<FIPAMessage> {
 	 *            The agent who receive the message
 	 *
 	 */
-	protected void addMessage(final IScope scope, final FIPAMessage message, final IAgent receiver)
+	protected synchronized void addMessage(final IScope scope, final FIPAMessage message, final IAgent receiver)
 			throws GamaRuntimeException {
 
 		// OutputManager.debug(name + " adds message " + message);
@@ -169,7 +176,7 @@ public class Conversation extends GamaList<FIPAMessage> {
 			ProtocolNode currentNode;
 
 			if (senderIsInitiator) {
-				if (message.getReceivers().contains(receiver)) {
+				if (message.getData().isReceiver(receiver)) {
 					if (protocolNodeParticipantMap.containsKey(receiver)) {
 						currentNode = protocolNodeParticipantMap.remove(receiver);
 						protocolNodeParticipantMap.put(receiver, protocol.getNode(scope, message, currentNode,
@@ -187,7 +194,7 @@ public class Conversation extends GamaList<FIPAMessage> {
 							"Receiver " + receiver.getName() + " is not in the available message's receivers.", scope);
 				}
 
-			} else if (participants.contains(message.getSender())) {
+			} else if (participantSet.contains(message.getSender())) {
 				if (protocolNodeParticipantMap.containsKey(message.getSender())) {
 					currentNode = protocolNodeParticipantMap.remove(message.getSender());
 					protocolNodeParticipantMap.put(message.getSender(), protocol.getNode(scope, message, currentNode,
@@ -217,7 +224,7 @@ public class Conversation extends GamaList<FIPAMessage> {
 				}
 				noProtocolNodeParticipantMap.put(receiver, message);
 
-			} else if (participants.contains(message.getSender())) {
+			} else if (participantSet.contains(message.getSender())) {
 				currentMessage = noProtocolNodeParticipantMap.get(message.getSender());
 
 				if (currentMessage != null && currentMessage.getPerformative() == Performative.end_conversation) {
@@ -283,11 +290,11 @@ public class Conversation extends GamaList<FIPAMessage> {
 	 * @return true, if is ended
 	 */
 	@getter (ENDED)
-	public boolean isEnded() {
+	public synchronized boolean isEnded() {
 		return ended || areAllNodeEnded();
 	}
 
-	public boolean areMessagesRead() {
+	public synchronized boolean areMessagesRead() {
 		for (final FIPAMessage m : messages) {
 			if (m.isUnread()) { return false; }
 		}
@@ -329,6 +336,7 @@ public class Conversation extends GamaList<FIPAMessage> {
 		protocolNodeParticipantMap.clear();
 		noProtocolNodeParticipantMap.clear();
 		participants.clear();
+		participantSet.clear();
 		initiator = null;
 	}
 
@@ -33,6 +33,12 @@ public class FIPAMessage extends GamaMessage {
 	/** The message. */
 	private MessageData data;
 
+	/**
+	 * Whether the data is shared with other messages (the copies of a message received by its receivers), in which
+	 * case it is copied before being modified
+	 */
+	private volatile boolean shared;
+
 	/**
 	 * @throws GamaRuntimeException
 	 *             Instantiates a new message proxy.
@@ -100,13 +106,51 @@ public class FIPAMessage extends GamaMessage {
 		getData().setConversation(conversation);
 	}
 
+	/**
+	 * Instantiates a copy of a message that shares its data. The setters called by the constructor of GamaMessage do
+	 * not touch the data, so that no MessageData is allocated for the copy.
+	 */
+	private FIPAMessage(final IScope scope, final MessageData data) {
+		super(scope, null, null, null);
+		this.data = data;
+		this.shared = true;
+	}
+
+	/**
+	 * Returns the copy of this message received by one of its receivers. It has its own state (unread, time stamp) but
+	 * shares the data of this message until one of them is modified.
+	 */
+	public FIPAMessage forReceiver(final IScope scope) {
+		shared = true;
+		return new FIPAMessage(scope, getData());
+	}
+
+	/**
+	 * Returns the data of the message, copied first if it is shared
+	 */
+	private MessageData getWritableData() {
+		if (shared) {
+			synchronized (this) {
+				if (shared) {
+					data = getData().copy();
+					shared = false;
+				}
+			}
+		}
+		return getData();
+	}
+
 	public Conversation getConversation() {
 		return getData().getConversation();
 	}
 
+	/**
+	 * Returns the receivers of the message. As they can be modified in place, the copy of a message received by one of
+	 * its receivers gets its own list first.
+	 */
 	@Override
 	public IList<IAgent> getReceivers() {
-		return getData().getReceivers();
+		return getWritableData().getReceivers();
 	}
 
 	// @Override
@@ -126,7 +170,8 @@ public class FIPAMessage extends GamaMessage {
 	@getter (GamaMessage.CONTENTS)
 	public Object getContents(final IScope scope) {
 		setUnread(false);
-		return getData().getContent();
+		// Same as the receivers: the contents of a received message are copied before they can be modified in place
+		return getWritableData().getContent();
 	}
 
 	/**
@@ -138,7 +183,9 @@ public class FIPAMessage extends GamaMessage {
 	@Override
 	@setter (GamaMessage.CONTENTS)
 	public void setContents(final Object content) {
-		getData().setContent((IList) content);
+		// The data of a new message is only created when needed
+		if (content == null && data == null) { return; }
+		getWritableData().setContent((IList) content);
 	}
 
 	/*
@@ -147,8 +194,9 @@ public class FIPAMessage extends GamaMessage {
 	 * @see msi.gama.extensions.fipa.IMessage#getMessage()
 	 */
 	public MessageData getData() {
-		if (data == null)
+		if (data == null) {
 			data = new MessageData();
+		}
 		return data;
 	}
 
@@ -171,8 +219,7 @@ public class FIPAMessage extends GamaMessage {
 	 */
 	@setter (FIPAMessage.SENDER)
 	public void setSender(final IAgent sender) {
-		if (getData() != null)
-			getData().setSender(sender);
+		getWritableData().setSender(sender);
 	}
 
 	/*
@@ -190,7 +237,7 @@ public class FIPAMessage extends GamaMessage {
 	 * @see msi.gama.extensions.fipa.IMessage#setPerformative(int)
 	 */
 	public void setPerformative(final Performative performative) {
-		getData().setPerformative(performative);
+		getWritableData().setPerformative(performative);
 	}
 
 	@Override
@@ -225,7 +272,7 @@ public class FIPAMessage extends GamaMessage {
 	}
 
 	public void setReceivers(final IList receivers) {
-		getData().setReceivers(receivers);
+		getWritableData().setReceivers(receivers);
 	}
 
 	public String getPerformativeName() {
@@ -233,7 +280,7 @@ public class FIPAMessage extends GamaMessage {
 	}
 
 	public void setConversation(final Conversation conversation2) {
-		getData().setConversation(conversation2);
+		getWritableData().setConversation(conversation2);
 
 	}
 
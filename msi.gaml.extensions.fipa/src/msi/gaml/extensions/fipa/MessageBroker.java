@@ -10,10 +10,12 @@
  ********************************************************************************************************/
 package msi.gaml.extensions.fipa;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import msi.gama.kernel.simulation.SimulationAgent;
 import msi.gama.metamodel.agent.IAgent;
@@ -27,6 +29,13 @@ import msi.gaml.types.Types;
 /**
  * The Class MessageBroker.
  *
+ * Each agent involved in conversations has a mailbox. Messages and conversations sent to an agent are appended to
+ * lock-free queues of its mailbox, so that agents can send messages while being executed in parallel. The messages are
+ * only delivered (added to their conversation and to the messages seen in GAML) when the agent reads its messages, as
+ * before; the new conversations are moved to the conversations of the agent when it reads them, or at the end of the
+ * step, when the ended conversations are removed. The copy of a message received by each receiver only holds its own
+ * state (e.g. whether it has been read) and shares the data of the message until one of them is modified.
+ *
  * TODO Provide this class with a copy of the scope with which it is created to simplify the API by removing the scope
  * in the parameters
  *
@@ -34,16 +43,13 @@ import msi.gaml.types.Types;
  */
 public class MessageBroker {
 
-	/** The messages to deliver. */
-	private final Map<IAgent, List<FIPAMessage>> messagesToDeliver = new HashMap<>();
-
 	/**
 	 * Centralized storage of Conversations and Messages to facilitate Garbage Collection
 	 */
-	private final Map<IAgent, ConversationsMessages> conversationsMessages = new HashMap<>();
+	private final Map<IAgent, ConversationsMessages> conversationsMessages = new ConcurrentHashMap<>();
 
 	/** The instance. */
-	private static Map<SimulationAgent, MessageBroker> instances = new HashMap<>();
+	private static Map<SimulationAgent, MessageBroker> instances = new ConcurrentHashMap<>();
 
 	/**
 	 * @throws GamaRuntimeException
@@ -56,29 +62,23 @@ public class MessageBroker {
 	 *             the gaml exception
 	 */
 	public IList<FIPAMessage> deliverMessagesFor(final IScope scope, final IAgent a) throws GamaRuntimeException {
-		final List<FIPAMessage> messagesForA = messagesToDeliver.get(a);
-		if (messagesForA == null) { return GamaListFactory.EMPTY_LIST; }
+		final ConversationsMessages cm = conversationsMessages.get(a);
+		if (cm == null || cm.toDeliver.isEmpty()) { return GamaListFactory.EMPTY_LIST; }
 
 		final IList<FIPAMessage> successfulDeliveries = GamaListFactory.create(Types.get(IType.MESSAGE));
-		final IList<FIPAMessage> failedDeliveries = GamaListFactory.create(Types.get(IType.MESSAGE));
-
-		for (final FIPAMessage m : messagesForA) {
+		FIPAMessage m;
+		while ((m = cm.toDeliver.poll()) != null) {
 			final Conversation conv = m.getConversation();
 			try {
 				conv.addMessage(scope, m, a);
 			} catch (final GamaRuntimeException e) {
-				failedDeliveries.add(m);
+				// The messages not yet delivered remain in the mailbox
 				failureMessageInReplyTo(scope, m);
 				conv.end();
 				throw e;
-			} finally {
-				if (!failedDeliveries.contains(m)) {
-					successfulDeliveries.add(m);
-				}
 			}
+			successfulDeliveries.add(m);
 		}
-
-		messagesToDeliver.remove(a);
 		return successfulDeliveries;
 	}
 
@@ -114,19 +114,10 @@ public class MessageBroker {
 	 */
 	public void scheduleForDelivery(final IScope scope, final FIPAMessage m) {
 		for (final IAgent a : m.getReceivers().iterable(scope)) {
-			scheduleForDelivery(m.copy(scope), a);
+			mailboxOf(a).toDeliver.add(m.forReceiver(scope));
 		}
 	}
 
-	private void scheduleForDelivery(final FIPAMessage m, final IAgent agent) {
-		List<FIPAMessage> messages = messagesToDeliver.get(agent);
-		if (messages == null) {
-			messages = new ArrayList<>();
-			messagesToDeliver.put(agent, messages);
-		}
-		messages.add(m);
-	}
-
 	/**
 	 * @throws GamaRuntimeException
 	 *             Schedule for delivery.
@@ -155,58 +146,58 @@ public class MessageBroker {
 	 * @return single instance of MessageBroker
 	 */
 	public static MessageBroker getInstance(final IScope scope) {
-		MessageBroker instance = instances.get(scope.getSimulation());
-		if (instance == null) {
-			instance = new MessageBroker();
-			instances.put(scope.getSimulation(), instance);
-
-			scope.getSimulation().postEndAction(scope1 -> {
+		final SimulationAgent simulation = scope.getSimulation();
+		final MessageBroker instance = instances.get(simulation);
+		if (instance != null) { return instance; }
+		return instances.computeIfAbsent(simulation, sim -> {
+			sim.postEndAction(scope1 -> {
 				instances.get(scope1.getSimulation()).manageConversationsAndMessages();
 				return null;
 			});
-			scope.getSimulation().postDisposeAction(scope1 -> {
+			sim.postDisposeAction(scope1 -> {
 				if (instances.get(scope1.getSimulation()) != null) {
 					instances.get(scope1.getSimulation()).schedulerDisposed();
 				}
 				instances.remove(scope1.getSimulation());
 				return null;
 			});
-		}
-		return instance;
+			return new MessageBroker();
+		});
 	}
 
+	private ConversationsMessages mailboxOf(final IAgent agent) {
+		final ConversationsMessages cm = conversationsMessages.get(agent);
+		if (cm != null) { return cm; }
+		return conversationsMessages.computeIfAbsent(agent, a -> new ConversationsMessages());
+	}
+
+	/**
+	 * Returns the unread messages of the agent. Must only be called by the agent itself (or when agents are not
+	 * executed in parallel)
+	 */
 	public IList<FIPAMessage> getMessagesFor(final IAgent agent) {
-		if (!conversationsMessages.containsKey(agent)) { return GamaListFactory.EMPTY_LIST; }
+		final ConversationsMessages cm = conversationsMessages.get(agent);
+		if (cm == null) { return GamaListFactory.EMPTY_LIST; }
 
-		return conversationsMessages.get(agent).messages;
+		return cm.messages;
 	}
 
+	/**
+	 * Returns the conversations of the agent. Must only be called by the agent itself (or when agents are not executed
+	 * in parallel)
+	 */
 	public List<Conversation> getConversationsFor(final IAgent agent) {
-		if (!conversationsMessages.containsKey(agent)) { return GamaListFactory.EMPTY_LIST; }
+		final ConversationsMessages cm = conversationsMessages.get(agent);
+		if (cm == null) { return GamaListFactory.EMPTY_LIST; }
 
-		return conversationsMessages.get(agent).conversations;
+		return cm.getConversations();
 	}
 
 	public void addConversation(final Conversation c) {
-		final IList<IAgent> members = GamaListFactory.create(Types.AGENT);
-		members.add(c.getIntitiator());
+		mailboxOf(c.getIntitiator()).newConversations.add(c);
 		for (final IAgent m : c.getParticipants()) {
-			members.add(m);
-		}
-
-		for (final IAgent m : members) {
-			addConversation(m, c);
-		}
-	}
-
-	private void addConversation(final IAgent a, final Conversation c) {
-		ConversationsMessages cm = conversationsMessages.get(a);
-		if (cm == null) {
-			cm = new ConversationsMessages();
-			conversationsMessages.put(a, cm);
+			mailboxOf(m).newConversations.add(c);
 		}
-
-		cm.conversations.add(c);
 	}
 
 	/**
@@ -216,40 +207,25 @@ public class MessageBroker {
 	public void manageConversationsAndMessages() throws GamaRuntimeException {
 
 		// remove ended conversations
-		List<Conversation> conversations;
-		final List<Conversation> endedConversations = GamaListFactory.create(Types.get(ConversationType.CONV_ID));
-		for (final IAgent a : conversationsMessages.keySet()) {
-			if (a.dead()) {
-				final ConversationsMessages cm = conversationsMessages.get(a);
-				cm.conversations.clear();
-				cm.messages.clear();
-				cm.conversations = null;
-				cm.messages = null;
-				conversationsMessages.remove(a);
-				return;
+		for (final Iterator<Map.Entry<IAgent, ConversationsMessages>> it =
+				conversationsMessages.entrySet().iterator(); it.hasNext();) {
+			final Map.Entry<IAgent, ConversationsMessages> entry = it.next();
+			final ConversationsMessages cm = entry.getValue();
+			if (entry.getKey().dead()) {
+				cm.clear();
+				it.remove();
+				continue;
 			}
-			conversations = conversationsMessages.get(a).conversations;
-			endedConversations.clear();
 
-			for (final Conversation c : conversations) {
+			final IList<Conversation> conversations = cm.getConversations();
+			conversations.removeIf(c -> {
 				if (c.isEnded() && c.areMessagesRead()) {
-					endedConversations.add(c);
-				}
-			}
-
-			for (final Conversation endedConv : endedConversations) {
-				endedConv.dispose();
-			}
-
-			final List<FIPAMessage> alreadyReadMessages = GamaListFactory.create(Types.get(IType.MESSAGE));
-			for (final FIPAMessage m : conversationsMessages.get(a).messages) {
-				if (!m.isUnread()) {
-					alreadyReadMessages.add(m);
+					c.dispose();
+					return true;
 				}
-			}
-			conversationsMessages.get(a).messages.removeAll(alreadyReadMessages);
-
-			conversations.removeAll(endedConversations);
+				return false;
+			});
+			cm.messages.removeIf(m -> !m.isUnread());
 		}
 	}
 
@@ -260,22 +236,38 @@ public class MessageBroker {
 		// agent mailbox : all un-read messages of an agent
 		IList<FIPAMessage> messages;
 
+		// messages sent to the agent and not delivered yet
+		final Queue<FIPAMessage> toDeliver = new ConcurrentLinkedQueue<>();
+
+		// conversations started with the agent since it last read its conversations
+		final Queue<Conversation> newConversations = new ConcurrentLinkedQueue<>();
+
 		ConversationsMessages() {
 			this.conversations = GamaListFactory.create(Types.get(ConversationType.CONV_ID));
 			this.messages = GamaListFactory.create(Types.get(IType.MESSAGE));
 		}
+
+		IList<Conversation> getConversations() {
+			Conversation c;
+			while ((c = newConversations.poll()) != null) {
+				conversations.add(c);
+			}
+			return conversations;
+		}
+
+		void clear() {
+			toDeliver.clear();
+			newConversations.clear();
+			conversations.clear();
+			conversations = null;
+			messages.clear();
+			messages = null;
+		}
 	}
 
 	public void schedulerDisposed() {
-		messagesToDeliver.clear();
-
-		ConversationsMessages cm;
-		for (final IAgent a : conversationsMessages.keySet()) {
-			cm = conversationsMessages.get(a);
-			cm.conversations.clear();
-			cm.conversations = null;
-			cm.messages.clear();
-			cm.messages = null;
+		for (final ConversationsMessages cm : conversationsMessages.values()) {
+			cm.clear();
 		}
 		conversationsMessages.clear();
 	}
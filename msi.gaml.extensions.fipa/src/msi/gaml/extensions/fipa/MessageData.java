@@ -12,7 +12,11 @@
  **********************************************************************************************/
 package msi.gaml.extensions.fipa;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import msi.gama.metamodel.agent.IAgent;
+import msi.gama.util.GamaListFactory;
 import msi.gama.util.IList;
 
 /**
@@ -36,6 +40,46 @@ public class MessageData {
 	/** The associated conversation. */
 	private Conversation conversation;
 
+	/** The receivers, indexed when they are numerous (see {@link #isReceiver(IAgent)}) */
+	private volatile Set<IAgent> receiverSet;
+
+	public MessageData() {}
+
+	private MessageData(final MessageData data) {
+		sender = data.sender;
+		receivers = copyOf(data.receivers);
+		content = copyOf(data.content);
+		performative = data.performative;
+		conversation = data.conversation;
+	}
+
+	private static IList copyOf(final IList list) {
+		return list == null ? null : GamaListFactory.createWithoutCasting(list.getGamlType().getContentType(), list);
+	}
+
+	/**
+	 * Returns a copy of this message data, with its own lists of receivers and contents (the receivers and the contents
+	 * themselves are not copied)
+	 */
+	public MessageData copy() {
+		return new MessageData(this);
+	}
+
+	/**
+	 * Whether the agent is one of the receivers. As the data of a broadcast message is shared by all its receivers,
+	 * the receivers are indexed the first time this is asked for a message with many receivers.
+	 */
+	public boolean isReceiver(final IAgent agent) {
+		if (receivers == null) { return false; }
+		if (receivers.size() < 16) { return receivers.contains(agent); }
+		Set<IAgent> set = receiverSet;
+		if (set == null) {
+			set = new HashSet<>(receivers);
+			receiverSet = set;
+		}
+		return set.contains(agent);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -70,6 +114,7 @@ public class MessageData {
 	 */
 	public void setReceivers(final IList receivers) {
 		this.receivers = receivers;
+		receiverSet = null;
 	}
 
 	/*
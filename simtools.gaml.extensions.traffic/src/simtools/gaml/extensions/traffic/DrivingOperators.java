@@ -57,6 +57,7 @@ public class DrivingOperators {
 						}
 					}
 					ag.setAttribute(RoadSkill.AGENTS, GamaListFactory.create(Types.NO_TYPE));
+					LaneOccupancy.install(ag);
 				}
 
 			}
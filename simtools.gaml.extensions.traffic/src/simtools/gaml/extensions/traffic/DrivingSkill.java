@@ -10,6 +10,7 @@
  ********************************************************************************************************/
 package simtools.gaml.extensions.traffic;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -969,6 +970,7 @@ public class DrivingSkill extends MovingSkill {
 		double y = loc.getY();
 
 		double remainingTime = scope.getSimulation().getClock().getStepInSeconds();
+		PlannedMove move = plannedMove(scope, agent);
 		// t1 += java.lang.System.currentTimeMillis() - t;
 		while (remainingTime > 0.0) {
 			// t = java.lang.System.currentTimeMillis();
@@ -977,13 +979,18 @@ public class DrivingSkill extends MovingSkill {
 			final GamaPoint target = getCurrentTarget(agent);
 			final double xt = target.getX();
 			final double yt = target.getY();
-			argsSC.put("new_road", ConstantExpressionDescription.create(road));
-			actionSC.setRuntimeArgs(scope, argsSC);
-			final double speed = (Double) actionSC.executeOn(scope);
-			setSpeed(agent, speed);
-			// t2 += java.lang.System.currentTimeMillis() - t;
-			// t = java.lang.System.currentTimeMillis();
-			remainingTime = primAdvancedFollow(scope, agent, speed, remainingTime, path, target);
+			if (move != null) {
+				remainingTime = commitMove(scope, agent, move, path);
+				move = null;
+			} else {
+				argsSC.put("new_road", ConstantExpressionDescription.create(road));
+				actionSC.setRuntimeArgs(scope, argsSC);
+				final double speed = (Double) actionSC.executeOn(scope);
+				setSpeed(agent, speed);
+				// t2 += java.lang.System.currentTimeMillis() - t;
+				// t = java.lang.System.currentTimeMillis();
+				remainingTime = primAdvancedFollow(scope, agent, speed, remainingTime, path, target);
+			}
 			loc = agent.getLocation();
 			x = loc.getX();
 			y = loc.getY();
@@ -1042,6 +1049,227 @@ public class DrivingSkill extends MovingSkill {
 
 	}
 
+	/**
+	 * A move of a driver on its current road, computed by plan_drive against the occupancy of the road at the
+	 * beginning of the step and committed by drive. As plan_drive can be executed in parallel, it does not draw the
+	 * random numbers that decide the changes of lane: the move records, in the order in which the live computation
+	 * would draw them, the probabilities under which each draw leads to a change of lane (or -1 if it does not), and
+	 * the draws are made by drive, sequentially, when it commits the move.
+	 */
+	static final class PlannedMove {
+		static final double[] NO_DRAWS = new double[0];
+
+		final int lane, segment, finalSegment, entered;
+		final GamaPoint start, location;
+		final double speed, remainingTime, realSpeed, distanceToGoal;
+		final double[] draws;
+
+		PlannedMove(final int lane, final int segment, final int finalSegment, final int entered,
+				final GamaPoint start, final GamaPoint location, final double speed, final double remainingTime,
+				final double realSpeed, final double distanceToGoal, final double[] draws) {
+			this.lane = lane;
+			this.segment = segment;
+			this.finalSegment = finalSegment;
+			this.entered = entered;
+			this.start = start;
+			this.location = location;
+			this.speed = speed;
+			this.remainingTime = remainingTime;
+			this.realSpeed = realSpeed;
+			this.distanceToGoal = distanceToGoal;
+			this.draws = draws;
+		}
+	}
+
+	@action (
+			name = "plan_drive",
+			doc = @doc (
+					value = "action to compute the move of the driver on its current road for this step, against the positions of the drivers at the beginning of the step. "
+							+ "The move is committed by the next call to drive during the same step. As this action does not modify the roads nor the other drivers, it can be executed in parallel by all the drivers before they drive. "
+							+ "It does not use the random generator of the simulation: the random draws that decide the changes of lane are made by drive, in the order of the drivers, so that the simulation remains reproducible. "
+							+ "Moves that require a change of lane, drivers on a linked road (or that can use one) and moves relying on a lane that another driver has entered in the meantime are not planned: drive computes them as usual",
+					examples = { @example ("ask people parallel: true { do plan_drive; }") }))
+	public void primPlanDrive(final IScope scope) throws GamaRuntimeException {
+		final IAgent agent = getCurrentAgent(scope);
+		if (agent == null || agent.dead() || getFinalTarget(agent) == null || getCurrentTarget(agent) == null) {
+			return;
+		}
+		final IAgent road = getCurrentRoad(agent);
+		if (road == null || getOnLinkedRoad(agent)
+				|| RoadSkill.getLinkedRoad(road) != null && getProbaUseLinkedRoad(agent) > 0) {
+			return;
+		}
+		final LaneOccupancy occupancy = LaneOccupancy.of(scope, road);
+		if (occupancy == null) { return; }
+		final IStatement.WithArgs actionSC = agent.getSpecies().getAction("speed_choice");
+		final Arguments argsSC = new Arguments();
+		argsSC.put("new_road", ConstantExpressionDescription.create(road));
+		actionSC.setRuntimeArgs(scope, argsSC);
+		final double speed = (Double) actionSC.executeOn(scope);
+		setSpeed(agent, speed);
+		final PlannedMove move =
+				planMove(scope, agent, occupancy, speed, scope.getSimulation().getClock().getStepInSeconds());
+		if (move != null) {
+			occupancy.plan(agent, move);
+		}
+	}
+
+	/**
+	 * Mirrors primAdvancedFollow and moveToNextLocAlongPathOSM (without lane changes) against the occupancy of the
+	 * road. Returns null if the driver would change lane whatever the random draws. Does not use the random generator
+	 * of the simulation, as it can be called in parallel (see PlannedMove).
+	 */
+	private PlannedMove planMove(final IScope scope, final IAgent agent, final LaneOccupancy occupancy,
+			final double speed, final double time) {
+		final int lane = getCurrentLane(agent);
+		final int segment = getSegmentIndex(agent);
+		final GamaPoint start = (GamaPoint) agent.getLocation().copy(scope);
+		final double maxDist = computeDistance(scope, agent, speed, time);
+		if (maxDist == 0) {
+			return new PlannedMove(lane, segment, segment, 0, start, null, speed, 0.0, 0.0, 0.0, PlannedMove.NO_DRAWS);
+		}
+		final double security_distance = agent.hasAttribute(SAFETY_DISTANCE_COEFF) ? getSafetyDistanceCoeff(agent)
+				: getSecurityDistanceCoeff(agent);
+		final double min_safety_distance =
+				agent.hasAttribute(MIN_SAFETY_DISTANCE) ? getMinSafetyDistance(agent) : getMinSecurityDistance(agent);
+		final double vL = getVehiculeLength(agent);
+		final double realSpeed = getRealSpeed(agent);
+		final double probaChangeLaneUp = getProbaLaneChangeUp(agent);
+		final double probaChangeLaneDown = getProbaLaneChangeDown(agent);
+		final int nbLanes = (Integer) occupancy.getRoad().getAttribute(RoadSkill.LANES);
+		final Coordinate coords[] = occupancy.getRoad().getInnerGeometry().getCoordinates();
+		final int endIndexSegment = coords.length - 1;
+		GamaPoint currentLocation = start.copy(scope);
+		double distance = maxDist;
+		double realDistance = 0;
+		int indexSegment = segment;
+		int finalSegment = segment;
+		GamaPoint pt = null;
+		final double[] draws = new double[2 * (endIndexSegment - indexSegment)];
+		int nbDraws = 0;
+		for (int j = indexSegment; j < endIndexSegment; j++) {
+			pt = new GamaPoint(coords[j + 1]);
+			final double dist = pt.euclidianDistanceTo(currentLocation);
+			// Same choice as avoidCollision(), except that a change of lane makes the move be computed live
+			final double valLane = avoidCollision(agent, occupancy, coords, distance, dist, security_distance,
+					min_safety_distance, vL, realSpeed, lane, indexSegment, false);
+			if (lane > 0) {
+				boolean changes = false;
+				if (probaChangeLaneDown > 0) {
+					final double val = avoidCollision(agent, occupancy, coords, distance, dist, security_distance,
+							min_safety_distance, vL, realSpeed, lane - 1, indexSegment, true);
+					changes = val == distance || valLane != distance && val > vL / 2.0 && val > valLane;
+				}
+				draws[nbDraws++] = changes ? probaChangeLaneDown : -1;
+			}
+			if (valLane != distance && lane < nbLanes - 1) {
+				boolean changes = false;
+				if (probaChangeLaneUp > 0) {
+					final double val = avoidCollision(agent, occupancy, coords, distance, dist, security_distance,
+							min_safety_distance, vL, realSpeed, lane + 1, indexSegment, true);
+					changes = val > valLane && val > vL / 2.0;
+				}
+				draws[nbDraws++] = changes ? probaChangeLaneUp : -1;
+			}
+			distance = valLane;
+			finalSegment = indexSegment;
+			if (distance < dist) {
+				final double ratio = distance / dist;
+				final double newX = currentLocation.getX() + ratio * (pt.getX() - currentLocation.getX());
+				final double newY = currentLocation.getY() + ratio * (pt.getY() - currentLocation.getY());
+				final GamaPoint npt = new GamaPoint(newX, newY);
+				realDistance += currentLocation.euclidianDistanceTo(npt);
+				currentLocation.setLocation(npt);
+				distance = 0;
+				break;
+			}
+			currentLocation = pt;
+			distance = distance - dist;
+			realDistance += dist;
+			indexSegment++;
+		}
+		final double distanceToGoal = pt == null ? getDistanceToGoal(agent) : pt.distance(currentLocation);
+		final double remainingTime = time * (distance / maxDist);
+		return new PlannedMove(lane, segment, finalSegment, occupancy.entered(lane, segment, finalSegment + 1), start,
+				currentLocation, speed, remainingTime,
+				remainingTime < time ? realDistance / (time - remainingTime) : 0.0, distanceToGoal,
+				Arrays.copyOf(draws, nbDraws));
+	}
+
+	/**
+	 * Same as the avoidCollision() method used when the driver is not on a linked road, but using the occupancy of the
+	 * road: the leader of the driver is found by a binary search among the drivers of the lane segment.
+	 */
+	private double avoidCollision(final IAgent agent, final LaneOccupancy occupancy, final Coordinate[] coords,
+			final double distance, final double distanceToGoal, final double security_distance,
+			final double min_safety_distance, final double vL, final double realSpeed, final int lane,
+			final int segment, final boolean changeLane) {
+		final LaneOccupancy.Segment drivers = occupancy.segment(lane, segment);
+		if (drivers == null) { return 0; }
+		final boolean nextSegment = distanceToGoal < distance;
+		final boolean moreSegment = segment <= occupancy.getNbSegments(lane) - 2;
+		if (changeLane && drivers.hasNeighbour(distanceToGoal, vL, agent)) { return 0; }
+		final int leader = drivers.leader(distanceToGoal, agent);
+		if (leader >= 0) {
+			return followingDistance(distance, distanceToGoal - drivers.keys[leader], security_distance,
+					min_safety_distance, vL, realSpeed, drivers.speeds[leader], drivers.lengths[leader],
+					!drivers.onLinkedRoad[leader], changeLane);
+		}
+		if (changeLane && drivers.isEmptyFor(agent) && distance < vL) { return 0; }
+		if (!nextSegment || !moreSegment) { return distance; }
+		// The drivers that have just entered the next segment, starting with the last one
+		final LaneOccupancy.Segment next = occupancy.segment(lane, segment + 1);
+		final double length = coords[segment + 1].distance(coords[segment + 2]);
+		for (int i = next.size() - 1; i >= 0 && length - next.keys[i] < 0.5 * vL + 0.5 * next.maxLength; i--) {
+			final double vLa = 0.5 * vL + 0.5 * next.lengths[i];
+			if (length - next.keys[i] < vLa) { return distanceToGoal - (vLa - (length - next.keys[i])); }
+		}
+		return distance;
+	}
+
+	/**
+	 * Returns the move planned for the driver during this step, if it can still be committed
+	 */
+	private PlannedMove plannedMove(final IScope scope, final IAgent agent) {
+		final LaneOccupancy occupancy = LaneOccupancy.current(scope, getCurrentRoad(agent));
+		if (occupancy == null) { return null; }
+		final PlannedMove move = occupancy.takeMove(agent);
+		if (move == null || getOnLinkedRoad(agent) || getCurrentLane(agent) != move.lane
+				|| getSegmentIndex(agent) != move.segment || !agent.getLocation().equals(move.start)) {
+			return null;
+		}
+		// Drivers that have changed lane since the plan can be in the way
+		if (occupancy.entered(move.lane, move.segment, move.finalSegment + 1) != move.entered) { return null; }
+		// The draws that decide the changes of lane, made in the same order as the live computation would
+		boolean changesLane = false;
+		for (final double p : move.draws) {
+			if (scope.getRandom().next() < p) {
+				changesLane = true;
+				break;
+			}
+		}
+		return changesLane ? null : move;
+	}
+
+	/**
+	 * Applies a planned move, as primAdvancedFollow would have done, and returns the remaining time
+	 */
+	private double commitMove(final IScope scope, final IAgent agent, final PlannedMove move, final IPath path) {
+		setSpeed(agent, move.speed);
+		if (move.location == null) { return move.remainingTime; }
+		if (move.finalSegment != move.segment) {
+			final List agentsOn = (List) getCurrentRoad(agent).getAttribute(RoadSkill.AGENTS_ON);
+			changeLane(scope, agent, move.lane, move.lane, move.finalSegment, agentsOn, agentsOn);
+		}
+		setDistanceToGoal(agent, move.distanceToGoal);
+		setLocation(agent, move.location);
+		if (path != null) {
+			path.setSource(move.location.copy(scope));
+		}
+		agent.setAttribute(IKeyword.REAL_SPEED, move.realSpeed);
+		return move.remainingTime;
+	}
+
 	@action (
 			name = "external_factor_impact",
 			args = { @arg (
@@ -1385,23 +1613,23 @@ public class DrivingSkill extends MovingSkill {
 			}
 			return distance;
 		}
-		double secDistance = 0.0;
-		if (getOnLinkedRoad(nextAgent) == getOnLinkedRoad(agent)) {
-			secDistance = Math.max(min_safety_distance,
-					security_distance * Math.min(getRealSpeed(agent), getRealSpeed(nextAgent)));
-		} else {
-			secDistance = Math.max(min_safety_distance,
-					security_distance * Math.max(getRealSpeed(agent), getRealSpeed(nextAgent)));
-		}
-		double realDist = Math.min(distance, minDiff - secDistance - 0.5 * vL - 0.5 * getVehiculeLength(nextAgent));
 		// t345+= java.lang.System.currentTimeMillis() - t;
+		return followingDistance(distance, minDiff, security_distance, min_safety_distance, vL, getRealSpeed(agent),
+				getRealSpeed(nextAgent), getVehiculeLength(nextAgent),
+				getOnLinkedRoad(nextAgent) == getOnLinkedRoad(agent), changeLane);
+	}
 
+	/**
+	 * The distance a driver can travel behind its leader, gap being the distance between them
+	 */
+	private double followingDistance(final double distance, final double gap, final double security_distance,
+			final double min_safety_distance, final double vL, final double speed, final double leaderSpeed,
+			final double leaderLength, final boolean sameSide, final boolean changeLane) {
+		final double secDistance = Math.max(min_safety_distance,
+				security_distance * (sameSide ? Math.min(speed, leaderSpeed) : Math.max(speed, leaderSpeed)));
+		final double realDist = Math.min(distance, gap - secDistance - 0.5 * vL - 0.5 * leaderLength);
 		if (changeLane && realDist < vL) { return 0; }
-		realDist = Math.max(0.0, (int) (min_safety_distance + realDist * 1000) / 1000.0);
-		// DEBUG.OUT("realDist" + realDist + " secDistance: "
-		// + secDistance);
-
-		return realDist;
+		return Math.max(0.0, (int) (min_safety_distance + realDist * 1000) / 1000.0);
 	}
 
 	private void changeLanetoReverse(final IScope scope, final IAgent agent, final int previousLane, final int newLane,
@@ -1414,6 +1642,7 @@ public class DrivingSkill extends MovingSkill {
 		final List ags = (List) newAgentOn.get(newLane);
 		((List) ags.get(newIndexInv)).add(agent);
 		agent.setAttribute(SEGMENT_INDEX, segment);
+		LaneOccupancy.entered(scope, RoadSkill.getLinkedRoad(getCurrentRoad(agent)), newLane, newIndexInv);
 	}
 
 	private void changeLanefromReverse(final IScope scope, final IAgent agent, final int previousLane,
@@ -1426,6 +1655,7 @@ public class DrivingSkill extends MovingSkill {
 		final List ags = (List) newAgentOn.get(newLane);
 		((List) ags.get(segment)).add(agent);
 		agent.setAttribute(SEGMENT_INDEX, segment);
+		LaneOccupancy.entered(scope, getCurrentRoad(agent), newLane, segment);
 	}
 
 	private void changeLaneReverse(final IScope scope, final IAgent agent, final int previousLane, final int newLane,
@@ -1439,6 +1669,9 @@ public class DrivingSkill extends MovingSkill {
 		final List ags = (List) newAgentOn.get(newLane);
 		((List) ags.get(newIndexInv)).add(agent);
 		agent.setAttribute(SEGMENT_INDEX, segment);
+		if (previousLane != newLane) {
+			LaneOccupancy.entered(scope, RoadSkill.getLinkedRoad(getCurrentRoad(agent)), newLane, newIndexInv);
+		}
 	}
 
 	private void changeLane(final IScope scope, final IAgent agent, final int previousLane, final int newLane,
@@ -1448,6 +1681,9 @@ public class DrivingSkill extends MovingSkill {
 		final List ags = (List) newAgentOn.get(newLane);
 		((List) ags.get(segment)).add(agent);
 		agent.setAttribute(SEGMENT_INDEX, segment);
+		if (previousLane != newLane) {
+			LaneOccupancy.entered(scope, getCurrentRoad(agent), newLane, segment);
+		}
 	}
 
 	private double avoidCollisionLinkedRoad(final IScope scope, final IAgent agent, final double distance,
@@ -0,0 +1,253 @@
+/*******************************************************************************************************
+ *
+ * simtools.gaml.extensions.traffic.LaneOccupancy.java, in plugin simtools.gaml.extensions.traffic, is part of the
+ * source code of the GAMA modeling and simulation platform (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/SU & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and contacts.
+ *
+ ********************************************************************************************************/
+package simtools.gaml.extensions.traffic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import msi.gama.common.interfaces.IKeyword;
+import msi.gama.metamodel.agent.IAgent;
+import msi.gama.metamodel.shape.GamaPoint;
+import msi.gama.runtime.IScope;
+
+/**
+ * The occupancy of the lanes of a road, frozen at the beginning of a simulation step. For each lane and each segment
+ * of the road, the drivers registered in the agents_on lists are sorted by their distance to the end of the segment,
+ * together with the values of their attributes used for car following (length, real speed, linked road), so that the
+ * leader of a driver can be found by a binary search instead of a scan of the whole segment.
+ *
+ * The snapshot is built once per cycle, the first time it is requested, and is not modified afterwards: it can be
+ * queried concurrently by drivers planning their moves in parallel (see the plan_drive action of the advanced_driving
+ * skill). The moves planned against it are kept here until they are committed by drive. As committing moves changes
+ * the actual occupancy, the snapshot counts, for each lane segment, the drivers that entered it from another lane
+ * during the step: a planned move relying on a segment that has been entered since is recomputed instead of being
+ * committed.
+ *
+ * An instance is attached to each road (in the lane_occupancy attribute) when the driving graph is built or a driver
+ * is registered on it, i.e. never while drivers plan in parallel.
+ */
+@SuppressWarnings ("unchecked")
+public class LaneOccupancy {
+
+	public static final String OCCUPANCY = "lane_occupancy";
+
+	/**
+	 * The drivers of a lane segment, sorted by increasing distance to the end of the segment
+	 */
+	static class Segment {
+		final IAgent[] drivers;
+		final double[] keys;
+		final double[] lengths;
+		final double[] speeds;
+		final boolean[] onLinkedRoad;
+		final double maxLength;
+		// Incremented by drivers that change lane, which may do it concurrently
+		final AtomicInteger entered = new AtomicInteger();
+
+		Segment(final List<IAgent> list, final Coordinate end) {
+			final int n = list.size();
+			final IAgent[] unsorted = new IAgent[n];
+			final double[] distances = new double[n];
+			final Integer[] order = new Integer[n];
+			int count = 0;
+			for (final IAgent driver : list) {
+				if (driver == null) {
+					continue;
+				}
+				unsorted[count] = driver;
+				distances[count] = ((GamaPoint) driver.getLocation()).distance(end);
+				order[count] = count;
+				count++;
+			}
+			Arrays.sort(order, 0, count, (a, b) -> Double.compare(distances[a], distances[b]));
+			drivers = new IAgent[count];
+			keys = new double[count];
+			lengths = new double[count];
+			speeds = new double[count];
+			onLinkedRoad = new boolean[count];
+			double max = 0;
+			for (int i = 0; i < count; i++) {
+				final IAgent driver = unsorted[order[i]];
+				drivers[i] = driver;
+				keys[i] = distances[order[i]];
+				lengths[i] = (Double) driver.getAttribute(DrivingSkill.VEHICLE_LENGTH);
+				speeds[i] = (Double) driver.getAttribute(IKeyword.REAL_SPEED);
+				onLinkedRoad[i] = (Boolean) driver.getAttribute(DrivingSkill.ON_LINKED_ROAD);
+				max = Math.max(max, lengths[i]);
+			}
+			maxLength = max;
+		}
+
+		int size() {
+			return drivers.length;
+		}
+
+		/**
+		 * Whether the segment contains no other driver than this one
+		 */
+		boolean isEmptyFor(final IAgent driver) {
+			return drivers.length == 0 || drivers.length == 1 && drivers[0] == driver;
+		}
+
+		/**
+		 * The index of the first driver whose distance to the end of the segment is greater than or equal to distance
+		 */
+		int indexOf(final double distance) {
+			int lo = 0, hi = keys.length;
+			while (lo < hi) {
+				final int mid = lo + hi >>> 1;
+				if (keys[mid] < distance) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+		/**
+		 * The index of the driver immediately ahead of a driver located at this distance to the end of the segment (the
+		 * closest one strictly nearer to the end), or -1 if there is none
+		 */
+		int leader(final double distance, final IAgent driver) {
+			for (int i = indexOf(distance) - 1; i >= 0; i--) {
+				if (drivers[i] != driver) { return i; }
+			}
+			return -1;
+		}
+
+		/**
+		 * Whether another driver is strictly closer than radius to a driver located at this distance to the end of the
+		 * segment
+		 */
+		boolean hasNeighbour(final double distance, final double radius, final IAgent driver) {
+			for (int i = indexOf(distance - radius); i < keys.length && keys[i] < distance + radius; i++) {
+				if (drivers[i] != driver && keys[i] > distance - radius) { return true; }
+			}
+			return false;
+		}
+	}
+
+	private final IAgent road;
+	private int cycle = -1;
+	private Segment[][] segments;
+	private final Map<IAgent, DrivingSkill.PlannedMove> moves = new ConcurrentHashMap<>();
+
+	private LaneOccupancy(final IAgent road) {
+		this.road = road;
+	}
+
+	/**
+	 * Attaches an occupancy to the road if it does not have one yet. Must not be called while drivers plan their moves.
+	 */
+	static void install(final IAgent road) {
+		if (road != null && !(road.getAttribute(OCCUPANCY) instanceof LaneOccupancy)) {
+			road.setAttribute(OCCUPANCY, new LaneOccupancy(road));
+		}
+	}
+
+	/**
+	 * Returns the occupancy of the road for the current cycle, building it if necessary, or null if the road has no
+	 * occupancy attached
+	 */
+	static LaneOccupancy of(final IScope scope, final IAgent road) {
+		final Object occupancy = road == null ? null : road.getAttribute(OCCUPANCY);
+		if (!(occupancy instanceof LaneOccupancy)) { return null; }
+		return ((LaneOccupancy) occupancy).snapshot(scope.getClock().getCycle());
+	}
+
+	/**
+	 * Returns the occupancy of the road if it has already been built for the current cycle, null otherwise
+	 */
+	static LaneOccupancy current(final IScope scope, final IAgent road) {
+		final Object occupancy = road == null ? null : road.getAttribute(OCCUPANCY);
+		if (!(occupancy instanceof LaneOccupancy)) { return null; }
+		final LaneOccupancy result = (LaneOccupancy) occupancy;
+		synchronized (result) {
+			return result.cycle == scope.getClock().getCycle() ? result : null;
+		}
+	}
+
+	private synchronized LaneOccupancy snapshot(final int currentCycle) {
+		if (cycle != currentCycle) {
+			final List<List<List<IAgent>>> agentsOn = RoadSkill.getAgentsOn(road);
+			final Coordinate[] coords = road.getInnerGeometry().getCoordinates();
+			final Segment[][] result = new Segment[agentsOn == null ? 0 : agentsOn.size()][];
+			for (int lane = 0; lane < result.length; lane++) {
+				final List<List<IAgent>> lists = agentsOn.get(lane);
+				result[lane] = new Segment[lists.size()];
+				for (int s = 0; s < lists.size(); s++) {
+					result[lane][s] = new Segment(lists.get(s), coords[Math.min(s + 1, coords.length - 1)]);
+				}
+			}
+			segments = result;
+			moves.clear();
+			cycle = currentCycle;
+		}
+		return this;
+	}
+
+	IAgent getRoad() {
+		return road;
+	}
+
+	/**
+	 * Returns the drivers of this lane segment, or null if the road has no such lane or segment
+	 */
+	Segment segment(final int lane, final int segment) {
+		if (lane < 0 || lane >= segments.length || segment < 0 || segment >= segments[lane].length) { return null; }
+		return segments[lane][segment];
+	}
+
+	int getNbSegments(final int lane) {
+		return lane < 0 || lane >= segments.length ? 0 : segments[lane].length;
+	}
+
+	/**
+	 * Records that a driver has entered this lane segment from another lane (or road) during the current cycle
+	 */
+	static void entered(final IScope scope, final IAgent road, final int lane, final int segment) {
+		final LaneOccupancy occupancy = current(scope, road);
+		if (occupancy == null) { return; }
+		final Segment s = occupancy.segment(lane, segment);
+		if (s != null) {
+			s.entered.incrementAndGet();
+		}
+	}
+
+	/**
+	 * The number of drivers that have entered the segments from and to (inclusive) of this lane since the snapshot
+	 */
+	int entered(final int lane, final int from, final int to) {
+		int result = 0;
+		for (int s = Math.max(0, from); s <= to; s++) {
+			final Segment segment = segment(lane, s);
+			if (segment != null) {
+				result += segment.entered.get();
+			}
+		}
+		return result;
+	}
+
+	void plan(final IAgent driver, final DrivingSkill.PlannedMove move) {
+		moves.put(driver, move);
+	}
+
+	DrivingSkill.PlannedMove takeMove(final IAgent driver) {
+		return moves.remove(driver);
+	}
+
+}
@@ -206,6 +206,7 @@ public class RoadSkill extends Skill {
 			driver.setAttribute(DrivingSkill.DISTANCE_TO_GOAL,
 					driver.getLocation().euclidianDistanceTo(GeometryUtils.getPointsOf(road)[indexSegment + 1]));
 			driver.setAttribute(DrivingSkill.CURRENT_ROAD, road);
+			LaneOccupancy.install(road);
 			driver.setAttribute(DrivingSkill.CURRENT_LANE, lane);
 			driver.setAttribute(DrivingSkill.SEGMENT_INDEX,
 					onLinkedRoad ? road.getInnerGeometry().getNumPoints() - indexSegment - 2 : indexSegment);
@@ -293,6 +294,7 @@ public class RoadSkill extends Skill {
 						for (IAgent ag: ags) {
 							((List)((List)newAgentsOn.get(lanes - 1)).get(j)).add(ag);
 							ag.setAttribute(DrivingSkill.CURRENT_LANE, lanes - 1);
+							LaneOccupancy.entered(scope, road, lanes - 1, j);
 						}
 					} 	
 				}
@@ -358,6 +360,7 @@ public class RoadSkill extends Skill {
 				final List ags = (List) agentsOn.get(lane);
 				((List) ags.get(ags.size() - 1)).add(driver);
 				getAgents(road).add(driver);
+				LaneOccupancy.entered(scope, linkedRoad, lane, ags.size() - 1);
 			} else {
 				lane = Math.min(lane, nbLanes - 1);
 				driver.setAttribute(DrivingSkill.ON_LINKED_ROAD, false);
@@ -385,6 +388,7 @@ public class RoadSkill extends Skill {
 			}
 
 			driver.setAttribute(DrivingSkill.CURRENT_ROAD, road);
+			LaneOccupancy.install(road);
 			driver.setAttribute(DrivingSkill.CURRENT_LANE, lane);
 			driver.setAttribute(DrivingSkill.SEGMENT_INDEX, indexSegment);
 			// driver.setAttribute(AdvancedDrivingSkill.SEGMENT_INDEX, 0);
@@ -219,6 +219,7 @@ public interface IKeyword {
 	String IN = "in";
 	String INCLUDE = "include";
 	String INDEX = "index";
+	String INDEXED = "indexed";
 	String INIT = "init";
 	String INPUT = "input";
 	String INSPECT = "inspect";
@@ -388,6 +389,7 @@ public interface IKeyword {
 	String SPEED = "speed";
 	String REAL_SPEED = "real_speed";
 	String SPLINE = "spline";
+	String SPLITMIX = "splitmix";
 	String SPOT_ANGLE = "spot_angle";
 	String STACK = "stack";
 	String START_SOUND = "start_sound";
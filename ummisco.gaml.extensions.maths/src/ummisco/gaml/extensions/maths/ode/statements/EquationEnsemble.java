@@ -0,0 +1,280 @@
+/*********************************************************************************************
+ *
+ * 'EquationEnsemble.java, in plugin ummisco.gaml.extensions.maths, is part of the source code of the GAMA modeling and
+ * simulation platform. (v. 1.8.1)
+ *
+ * (c) 2007-2020 UMI 209 UMMISCO IRD/UPMC & Partners
+ *
+ * Visit https://github.com/gama-platform/gama for license information and developers contact.
+ *
+ *
+ **********************************************************************************************/
+package ummisco.gaml.extensions.maths.ode.statements;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.commons.math3.exception.DimensionMismatchException;
+import org.apache.commons.math3.exception.MaxCountExceededException;
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math3.ode.sampling.StepHandler;
+import org.apache.commons.math3.ode.sampling.StepInterpolator;
+
+import msi.gama.metamodel.agent.IAgent;
+import msi.gama.runtime.GAMA;
+import msi.gama.runtime.IScope;
+import msi.gama.runtime.concurrent.GamaExecutorService;
+import msi.gama.runtime.exceptions.GamaRuntimeException;
+import msi.gama.util.GamaListFactory;
+import msi.gama.util.IList;
+import msi.gama.util.IMap;
+import msi.gaml.expressions.IExpression;
+import msi.gaml.expressions.IVarExpression;
+import msi.gaml.operators.Cast;
+import msi.gaml.species.ISpecies;
+import ummisco.gaml.extensions.maths.ode.utils.solver.Solver;
+
+/**
+ * The agents solving the same system of equations in an ensemble solve (see the ensemble: facet of solve), each of
+ * them independently from the others. Instead of integrating the system agent after agent (going each time through the
+ * synchronized entry of the system and the maps of equations stored in the attributes of the agent), the state
+ * variables of all the agents are stacked in one array, where the variables of the k-th agent occupy the indices
+ * k*dimension to (k+1)*dimension - 1. This array is cut in chunks of consecutive agents, which are integrated in
+ * parallel, each by its own integrator and on its own copy of the scope: the right-hand sides of a chunk are evaluated
+ * for all its agents in one call of the integrator, and the values integrated are written back to the agents once the
+ * whole chunk has been integrated.
+ *
+ * With the fixed step methods, the results are the ones of individual solves. With the adaptive stepsize methods, the
+ * steps are chosen for the chunk as a whole, so that they can be smaller than the ones of an individual solve.
+ */
+@SuppressWarnings ({ "rawtypes", "unchecked" })
+class EquationEnsemble {
+
+	/**
+	 * The number of chunks given to each thread, to balance the load when the integration of some chunks is longer
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final SingleEquationStatement[] equations;
+	private final IExpression[] variables;
+	private final IExpression time;
+	private final int dimension;
+	private final IAgent[] agents;
+	private final double[] states;
+
+	private EquationEnsemble(final SystemOfEquationsStatement system, final List<IAgent> agents) {
+		this.equations = system.getOwnEquations();
+		this.variables = system.getOwnVariables();
+		this.time = system.variable_time;
+		this.dimension = equations.length;
+		this.agents = agents.toArray(new IAgent[agents.size()]);
+		this.states = new double[this.agents.length * dimension];
+	}
+
+	/**
+	 * Solves, for each of the agents, its system of equations called name between initialTime and finalTime. The
+	 * agents are grouped by system of equations (i.e. by species); solvers provides a new solver for each chunk.
+	 */
+	static void solve(final IScope scope, final String name, final IList<?> agents, final Supplier<Solver> solvers,
+			final double initialTime, final double finalTime) {
+		final Map<ISpecies, SystemOfEquationsStatement> systemsOfSpecies = new HashMap<>();
+		final Map<SystemOfEquationsStatement, List<IAgent>> agentsOfSystems = new LinkedHashMap<>();
+		for (final Object o : agents.iterable(scope)) {
+			if (!(o instanceof IAgent) || ((IAgent) o).dead()) {
+				continue;
+			}
+			final IAgent agent = (IAgent) o;
+			final SystemOfEquationsStatement system = systemsOfSpecies.computeIfAbsent(agent.getSpecies(),
+					s -> s.getStatement(SystemOfEquationsStatement.class, name));
+			if (system == null) {
+				throw GamaRuntimeException.error(
+						"The species " + agent.getSpecies().getName() + " does not define the equation " + name, scope);
+			}
+			if (system.isSolvedSimultaneously()) {
+				throw GamaRuntimeException.error("The equation " + name + " of " + agent.getSpecies().getName()
+						+ " is solved simultaneously with other agents and cannot be solved by an ensemble", scope);
+			}
+			agentsOfSystems.computeIfAbsent(system, s -> new ArrayList<>()).add(agent);
+		}
+		for (final Map.Entry<SystemOfEquationsStatement, List<IAgent>> entry : agentsOfSystems.entrySet()) {
+			new EquationEnsemble(entry.getKey(), entry.getValue()).solve(scope, solvers, initialTime, finalTime);
+		}
+	}
+
+	private void solve(final IScope scope, final Supplier<Solver> solvers, final double initialTime,
+			final double finalTime) {
+		if (dimension == 0) { return; }
+		final int n = agents.length;
+		final int nbChunks = n < GamaExecutorService.CONCURRENCY_THRESHOLD.getValue() ? 1
+				: Math.min(n, GamaExecutorService.CONCURRENCY_THREADS_NUMBER.getValue() * CHUNKS_PER_THREAD);
+		final int chunkSize = (n + nbChunks - 1) / nbChunks;
+		final boolean storeInitialValues = scope.getClock().getCycle() == 0;
+		final List<Chunk> chunks = new ArrayList<>();
+		for (int from = 0; from < n; from += chunkSize) {
+			chunks.add(new Chunk(chunks.isEmpty() ? scope : scope.copy("in ensemble solve"), solvers.get(), from,
+					Math.min(n, from + chunkSize)));
+		}
+		try {
+			if (chunks.size() == 1) {
+				chunks.get(0).integrate(initialTime, finalTime, storeInitialValues);
+			} else {
+				GamaExecutorService.executeThreaded(() -> chunks.parallelStream()
+						.forEach(c -> c.integrate(initialTime, finalTime, storeInitialValues)));
+			}
+		} finally {
+			for (int i = 1; i < chunks.size(); i++) {
+				chunks.get(i).scope.close();
+			}
+		}
+	}
+
+	/**
+	 * The agents from (inclusive) to (exclusive) of the ensemble, seen as one system of equations by their integrator
+	 */
+	private class Chunk implements FirstOrderDifferentialEquations, StepHandler {
+
+		final IScope scope;
+		final Solver solver;
+		final int from, to;
+		// For each agent, the lists in which the values of its variables (and the time) are stored after each step
+		final IList<Double>[][] integratedValues;
+
+		Chunk(final IScope scope, final Solver solver, final int from, final int to) {
+			this.scope = scope;
+			this.solver = solver;
+			this.from = from;
+			this.to = to;
+			this.integratedValues = new IList[to - from][];
+			solver.addStepHandler(this);
+		}
+
+		@Override
+		public int getDimension() {
+			return (to - from) * dimension;
+		}
+
+		void integrate(final double initialTime, final double finalTime, final boolean storeInitialValues) {
+			final double[] y = new double[getDimension()];
+			for (int k = from; k < to; k++) {
+				final IAgent agent = agents[k];
+				integratedValues[k - from] = integratedValuesOf(agent);
+				final boolean pushed = scope.push(agent);
+				try {
+					for (int j = 0, offset = (k - from) * dimension; j < dimension; j++) {
+						y[offset + j] = Cast.asFloat(scope, variables[j].value(scope));
+					}
+				} finally {
+					if (pushed) {
+						scope.pop(agent);
+					}
+				}
+			}
+			if (storeInitialValues) {
+				storeValues(initialTime, y);
+			}
+			try {
+				solver.integrate(this, initialTime, y, finalTime);
+			} catch (final GamaRuntimeException e) {
+				throw e;
+			} catch (final Exception e) {
+				// e.g. a step size below the minimum, or too many evaluations, of an adaptive integrator
+				throw GamaRuntimeException.create(e, scope);
+			}
+			System.arraycopy(y, 0, states, from * dimension, y.length);
+			for (int k = from; k < to; k++) {
+				final IAgent agent = agents[k];
+				if (agent.dead()) {
+					continue;
+				}
+				final boolean pushed = scope.push(agent);
+				try {
+					assignValues(finalTime, states, k * dimension);
+				} catch (final Throwable e) {
+					GAMA.reportAndThrowIfNeeded(scope, GamaRuntimeException.create(e, scope), true);
+				} finally {
+					if (pushed) {
+						scope.pop(agent);
+					}
+				}
+			}
+			storeValues(finalTime, y);
+		}
+
+		@Override
+		public void computeDerivatives(final double t, final double[] y, final double[] yDot)
+				throws MaxCountExceededException, DimensionMismatchException {
+			for (int k = from, offset = 0; k < to; k++, offset += dimension) {
+				final IAgent agent = agents[k];
+				if (agent.dead()) {
+					Arrays.fill(yDot, offset, offset + dimension, 0d);
+					continue;
+				}
+				final boolean pushed = scope.push(agent);
+				try {
+					assignValues(t, y, offset);
+					for (int j = 0; j < dimension; j++) {
+						yDot[offset + j] = Cast.asFloat(scope, equations[j].executeOn(scope));
+					}
+				} catch (final Throwable e) {
+					GAMA.reportAndThrowIfNeeded(scope, GamaRuntimeException.create(e, scope), true);
+				} finally {
+					if (pushed) {
+						scope.pop(agent);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Assigns the time and the values of its variables, read in y from offset, to the agent of the scope
+		 */
+		private void assignValues(final double t, final double[] y, final int offset) {
+			if (time instanceof IVarExpression) {
+				((IVarExpression) time).setVal(scope, t, false);
+			}
+			for (int j = 0; j < dimension; j++) {
+				if (variables[j] instanceof IVarExpression) {
+					((IVarExpression) variables[j]).setVal(scope, y[offset + j], false);
+				}
+			}
+		}
+
+		private IList<Double>[] integratedValuesOf(final IAgent agent) {
+			final IMap<String, IList<Double>> values = SolveStatement.getIntegratedValues(agent);
+			final IList<Double>[] result = new IList[dimension + 1];
+			for (int j = 0; j <= dimension; j++) {
+				final String key = agent + (j < dimension ? variables[j].toString() : time.getName());
+				result[j] = values.get(key);
+				if (result[j] == null) {
+					result[j] = GamaListFactory.create(Double.class);
+					values.put(key, result[j]);
+				}
+			}
+			return result;
+		}
+
+		private void storeValues(final double t, final double[] y) {
+			for (int k = 0, offset = 0; k < integratedValues.length; k++, offset += dimension) {
+				final IList<Double>[] values = integratedValues[k];
+				for (int j = 0; j < dimension; j++) {
+					values[j].add(y[offset + j]);
+				}
+				values[dimension].add(t);
+			}
+		}
+
+		@Override
+		public void init(final double t0, final double[] y0, final double t) {}
+
+		@Override
+		public void handleStep(final StepInterpolator interpolator, final boolean isLast) {
+			storeValues(interpolator.getCurrentTime(), interpolator.getInterpolatedState());
+		}
+	}
+
+}
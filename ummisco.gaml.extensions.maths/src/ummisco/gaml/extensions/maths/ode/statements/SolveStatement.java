@@ -140,7 +140,14 @@ import ummisco.gaml.extensions.maths.ode.utils.solver.ThreeEighthesSolver;
 						type = IType.FLOAT,
 						optional = true,
 						doc = @doc (
-								value = "Adams-Bashforth and Adams-Moulton methods only. The number of past steps used for computation excluding the one being computed (default value: 2")) },
+								value = "Adams-Bashforth and Adams-Moulton methods only. The number of past steps used for computation excluding the one being computed (default value: 2")),
+				@facet (
+						name = "ensemble",
+						type = IType.CONTAINER,
+						of = IType.AGENT,
+						optional = true,
+						doc = @doc (
+								value = "a list (or a species) of agents that each solve the equation independently of the others (the agent executing solve does not need to define it). The agents are solved at once: their variables are integrated together, by chunks of agents integrated in parallel, which is much faster than letting each agent solve its own system when they are numerous. Cannot be used with systems of equations defined with the simultaneously: facet")) },
 		omissible = IKeyword.EQUATION)
 @symbol (
 		name = { IKeyword.SOLVE },
@@ -156,7 +163,12 @@ import ummisco.gaml.extensions.maths.ode.utils.solver.ThreeEighthesSolver;
 				value = "",
 				examples = { @example (
 						value = "solve SIR method: #rk4 step:0.001;",
-						isExecutable = false) }) })
+						isExecutable = false) }),
+				@usage (
+						value = "To solve the equation of all the agents of a species in one statement (for instance in a reflex of the world):",
+						examples = { @example (
+								value = "solve SIR method: #rk4 step_size: 0.01 ensemble: people;",
+								isExecutable = false) }) })
 @SuppressWarnings ({ "rawtypes", "unchecked" })
 public class SolveStatement extends AbstractStatement implements ISolvers {
 
@@ -211,7 +223,7 @@ public class SolveStatement extends AbstractStatement implements ISolvers {
 	String solverName;
 	SystemOfEquationsStatement systemOfEquations;
 	final IExpression solverExp, stepExp, nStepsExp, minStepExp, maxStepExp, absTolerExp, relTolerExp, timeInitExp,
-			timeFinalExp;// ,discretExp,integrationTimesExp,cycleExp,
+			timeFinalExp, ensembleExp;// ,discretExp,integrationTimesExp,cycleExp,
 	// integratedValuesExp;
 
 	public SolveStatement(final IDescription desc) {
@@ -229,9 +241,10 @@ public class SolveStatement extends AbstractStatement implements ISolvers {
 		relTolerExp = getFacet("scalRelativeTolerance");
 		timeInitExp = getFacet("t0");
 		timeFinalExp = getFacet("tf");
+		ensembleExp = getFacet("ensemble");
 	}
 
-	private boolean initSystemOfEquations(final IScope scope) {
+	private void initSolverName(final IScope scope) {
 		if (solverName == null) {
 			if (solverExp == null) {
 				solverName = "rk4";
@@ -251,7 +264,9 @@ public class SolveStatement extends AbstractStatement implements ISolvers {
 
 			}
 		}
+	}
 
+	private boolean initSystemOfEquations(final IScope scope) {
 		if (systemOfEquations == null)
 
 		{
@@ -280,7 +295,9 @@ public class SolveStatement extends AbstractStatement implements ISolvers {
 
 	@Override
 	public Object privateExecuteIn(final IScope scope) throws GamaRuntimeException {
-		if (!initSystemOfEquations(scope)) { return null; }
+		initSolverName(scope);
+		final IList<?> ensemble = ensembleExp == null ? null : Cast.asList(scope, ensembleExp.value(scope));
+		if (ensemble == null && !initSystemOfEquations(scope)) { return null; }
 
 		final double simStepDurationFromUnit = scope.getSimulation().getTimeStep(scope);
 		double stepSize = Cast.asFloat(scope, stepExp.value(scope));
@@ -289,21 +306,27 @@ public class SolveStatement extends AbstractStatement implements ISolvers {
 			stepSize = stepSize * simStepDurationFromUnit;
 		}
 
-		final Solver solver = createSolver(scope, stepSize);
-//		if (solver == null) { return null; }
 		final double timeInit =
 				timeInitExp == null ? scope.getSimulation().getClock().getCycle() * simStepDurationFromUnit
 						: Cast.asFloat(scope, timeInitExp.value(scope));
 		final double timeFinal =
 				timeFinalExp == null ? (scope.getSimulation().getClock().getCycle() + 1) * simStepDurationFromUnit// scope.getSimulationScope().getClock().getStep()
 						: Cast.asFloat(scope, timeFinalExp.value(scope));
-		solver.solve(scope, systemOfEquations, timeInit, timeFinal, getIntegratedValues(scope));
+		if (ensemble != null) {
+			final double ensembleStepSize = stepSize;
+			EquationEnsemble.solve(scope, equationName, ensemble, () -> createSolver(scope, ensembleStepSize, null),
+					timeInit, timeFinal);
+			return null;
+		}
+		final IMap<String, IList<Double>> integratedValues = getIntegratedValues(scope.getAgent());
+		final Solver solver = createSolver(scope, stepSize, integratedValues);
+		solver.solve(scope, systemOfEquations, timeInit, timeFinal, integratedValues);
 
 		return null;
 	}
 
-	private Solver createSolver(final IScope scope, final double step) {
-		final IMap<String, IList<Double>> integratedValues = getIntegratedValues(scope);
+	private Solver createSolver(final IScope scope, final double step,
+			final IMap<String, IList<Double>> integratedValues) {
 		int nSteps = 2;
 		double minStep = 0.1, maxStep = 0.1, scalAbsoluteTolerance = 0.1, scalRelativeTolerance = 0.1;
 
@@ -365,12 +388,11 @@ public class SolveStatement extends AbstractStatement implements ISolvers {
 		}
 	}
 
-	private IMap<String, IList<Double>> getIntegratedValues(final IScope scope) {
-		IMap<String, IList<Double>> result =
-				(IMap<String, IList<Double>>) scope.getAgent().getAttribute("__integrated_values");
+	static IMap<String, IList<Double>> getIntegratedValues(final IAgent agent) {
+		IMap<String, IList<Double>> result = (IMap<String, IList<Double>>) agent.getAttribute("__integrated_values");
 		if (result == null) {
 			result = GamaMapFactory.create(Types.STRING, Types.LIST, 0);
-			scope.getAgent().setAttribute("__integrated_values", result);
+			agent.setAttribute("__integrated_values", result);
 		}
 		return result;
 	}
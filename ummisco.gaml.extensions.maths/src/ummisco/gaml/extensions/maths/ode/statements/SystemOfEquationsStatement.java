@@ -375,6 +375,30 @@ public class SystemOfEquationsStatement extends AbstractStatementSequence implem
 		return count;
 	}
 
+	/**
+	 * The differential equations of the system itself (without those of the agents solved simultaneously), in the
+	 * order of their variables (see {@link #getOwnVariables()})
+	 */
+	SingleEquationStatement[] getOwnEquations() {
+		final SingleEquationStatement[] result = new SingleEquationStatement[equations.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = equations.get(i).getValue();
+		}
+		return result;
+	}
+
+	IExpression[] getOwnVariables() {
+		final IExpression[] result = new IExpression[variables_diff.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = variables_diff.get(i).getValue();
+		}
+		return result;
+	}
+
+	boolean isSolvedSimultaneously() {
+		return simultan != null;
+	}
+
 	private void setCurrentScope(final IScope currentScope) {
 		this.currentScope = currentScope;
 	}
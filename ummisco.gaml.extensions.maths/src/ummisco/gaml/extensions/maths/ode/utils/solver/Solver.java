@@ -14,6 +14,7 @@ package ummisco.gaml.extensions.maths.ode.utils.solver;
 import java.util.Map;
 
 import org.apache.commons.math3.exception.NotANumberException;
+import org.apache.commons.math3.ode.FirstOrderDifferentialEquations;
 import org.apache.commons.math3.ode.FirstOrderIntegrator;
 import org.apache.commons.math3.ode.sampling.StepHandler;
 import org.apache.commons.math3.ode.sampling.StepInterpolator;
@@ -125,6 +126,22 @@ public abstract class Solver {
 
 	}
 
+	/**
+	 * Integrates a set of equations from initialTime to finalTime without any of the bookkeeping of
+	 * {@link #solve(IScope, SystemOfEquationsStatement, double, double, IMap)}: y contains the initial state and
+	 * receives the final one. Used to integrate the chunks of an ensemble of agents.
+	 */
+	public void integrate(final FirstOrderDifferentialEquations equations, final double initialTime, final double[] y,
+			final double finalTime) {
+		if (y.length > 0) {
+			integrator.integrate(equations, initialTime, y, finalTime, y);
+		}
+	}
+
+	public void addStepHandler(final StepHandler handler) {
+		integrator.addStepHandler(handler);
+	}
+
 	void storeValues(final double time, final double[] y, final IMap<String, IList<Double>> integrationValues) {
 		if (integrationValues != null) {
 			for (int i = 0; i < y.length; i++) {